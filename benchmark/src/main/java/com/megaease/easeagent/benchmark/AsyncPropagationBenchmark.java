@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmark;
+
+import com.megaease.easeagent.plugin.api.InitializeContext;
+import com.megaease.easeagent.plugin.api.trace.Span;
+import com.megaease.easeagent.plugin.interceptor.CallableInterceptor;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import com.megaease.easeagent.plugin.interceptor.RunnableInterceptor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tasks submitted to a ForkJoinPool as they are and as the async plugin hands them over,
+ * with nothing to propagate and with a span in scope.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncPropagationBenchmark {
+    @Param({"empty", "span"})
+    String context;
+
+    private final Runnable runnable = () -> {
+    };
+    private final Callable<Object> callable = () -> runnable;
+    private final RunnableInterceptor runnableInterceptor = new RunnableInterceptor();
+    private final CallableInterceptor callableInterceptor = new CallableInterceptor();
+    private final MethodInfo methodInfo = MethodInfo.builder().invoker(this).args(new Object[1]).build();
+    private ForkJoinPool pool;
+    private InitializeContext current;
+    private Span span;
+    private com.megaease.easeagent.plugin.api.trace.Scope scope;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        BenchmarkAgent.init();
+        pool = new ForkJoinPool(1);
+        current = BenchmarkAgent.context();
+        if ("span".equals(context)) {
+            span = current.nextSpan().start();
+            scope = span.maybeScope();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (scope != null) {
+            scope.close();
+            span.abandon();
+            scope = null;
+        }
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object executeUnwrapped() {
+        return pool.submit(runnable).join();
+    }
+
+    @Benchmark
+    public Object executeIntercepted() {
+        methodInfo.changeArg(0, runnable);
+        runnableInterceptor.before(methodInfo, current);
+        return pool.submit((Runnable) methodInfo.getArgs()[0]).join();
+    }
+
+    @Benchmark
+    public Object submitUnwrapped() {
+        return pool.submit(callable).join();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object submitIntercepted() {
+        methodInfo.changeArg(0, callable);
+        callableInterceptor.before(methodInfo, current);
+        return pool.submit((Callable<Object>) methodInfo.getArgs()[0]).join();
+    }
+}
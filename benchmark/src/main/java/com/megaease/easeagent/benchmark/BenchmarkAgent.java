@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmark;
+
+import com.megaease.easeagent.mock.context.MockContextManager;
+import com.megaease.easeagent.plugin.AgentPlugin;
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.InitializeContext;
+import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import com.megaease.easeagent.plugin.interceptor.Interceptor;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
+import com.megaease.easeagent.report.trace.ReportSpanBuilder;
+import zipkin2.Span;
+
+/**
+ * Shared fixtures for the benchmarks.
+ * <p>
+ * Every benchmark runs against the mock modules: the context manager is built from
+ * {@code MockConfig}, tracing and metric providers come from {@code MockProvider},
+ * and everything reported ends up in {@code MockReport}, so no network or backend is needed.
+ */
+public final class BenchmarkAgent {
+    public static final String DOMAIN = "observability";
+    public static final String NAMESPACE = "benchmark";
+    public static final AgentPlugin PLUGIN = new BenchmarkPlugin();
+
+    static {
+        MockContextManager.getContextManagerMock();
+    }
+
+    private BenchmarkAgent() {
+    }
+
+    /**
+     * make sure the mock agent is initialized before a benchmark state touches {@link EaseAgent}
+     */
+    public static void init() {
+        // trigger the static initializer
+    }
+
+    public static InitializeContext context() {
+        return EaseAgent.initializeContextSupplier.getContext();
+    }
+
+    public static ReportSpan span(int tagCount) {
+        ReportSpanBuilder builder = ReportSpanBuilder.newBuilder()
+            .traceId("463ac35c9f6413ad48485a3953bb6124")
+            .parentId("48485a3953bb6124")
+            .id("a2fb4a1d1a96d312")
+            .kind(Span.Kind.SERVER)
+            .name("get /api/orders/{id}")
+            .timestamp(1472470996199000L)
+            .duration(207000L)
+            .localEndpoint(ReportSpanBuilder.endpoint(zipkin2.Endpoint.newBuilder()
+                .serviceName("demo-service").ip("192.168.99.101").port(8080).build()))
+            .remoteEndpoint(ReportSpanBuilder.endpoint(zipkin2.Endpoint.newBuilder()
+                .serviceName("demo-client").ip("192.168.99.102").port(43120).build()))
+            .addAnnotation(1472470996238000L, "ws");
+        for (int i = 0; i < tagCount; i++) {
+            builder.putTag("http.tag" + i, "value \"" + i + "\" of /api/orders");
+        }
+        return builder.build();
+    }
+
+    static class BenchmarkPlugin implements AgentPlugin {
+        @Override
+        public String getNamespace() {
+            return NAMESPACE;
+        }
+
+        @Override
+        public String getDomain() {
+            return DOMAIN;
+        }
+    }
+
+    /**
+     * an interceptor doing the minimum work a real one does: read the arguments and keep a local value
+     */
+    public static class CountingInterceptor implements Interceptor {
+        private final int order;
+        private long count;
+
+        public CountingInterceptor(int order) {
+            this.order = order;
+        }
+
+        @Override
+        public void before(MethodInfo methodInfo, Context context) {
+            count += methodInfo.argSize();
+        }
+
+        @Override
+        public void after(MethodInfo methodInfo, Context context) {
+            if (methodInfo.isSuccess()) {
+                count++;
+            }
+        }
+
+        @Override
+        public int order() {
+            return order;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmark;
+
+import com.megaease.easeagent.report.async.MpscByteBoundedQueue;
+import com.megaease.easeagent.report.async.zipkin.AgentByteBoundedQueue;
+import com.megaease.easeagent.report.async.zipkin.WithSizeConsumer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The queues of the async reporters: application threads offer finished spans while a flusher
+ * thread drains them. {@code locked} is the lock based {@link AgentByteBoundedQueue},
+ * {@code mpsc} the lock-free {@link MpscByteBoundedQueue} the reporters use.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteBoundedQueueBenchmark {
+    private static final int SPAN_SIZE = 512;
+    private static final int MAX_SIZE = 10000;
+    private static final long DRAIN_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final WithSizeConsumer<Object> CONSUMER = (next, nextSizeInBytes) -> true;
+
+    @Param({"locked", "mpsc"})
+    String queueType;
+
+    private final Object element = new Object();
+    private Queue queue;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        if ("locked".equals(queueType)) {
+            AgentByteBoundedQueue<Object> locked = new AgentByteBoundedQueue<>(MAX_SIZE, MAX_SIZE * SPAN_SIZE);
+            queue = new Queue() {
+                @Override
+                public boolean offer(Object next, int nextSizeInBytes) {
+                    return locked.offer(next, nextSizeInBytes);
+                }
+
+                @Override
+                public int drainTo(WithSizeConsumer<Object> consumer, long nanosTimeout) {
+                    return locked.drainTo(consumer, nanosTimeout);
+                }
+            };
+        } else {
+            MpscByteBoundedQueue<Object> mpsc = new MpscByteBoundedQueue<>(MAX_SIZE, MAX_SIZE * SPAN_SIZE);
+            queue = new Queue() {
+                @Override
+                public boolean offer(Object next, int nextSizeInBytes) {
+                    return mpsc.offer(next, nextSizeInBytes);
+                }
+
+                @Override
+                public int drainTo(WithSizeConsumer<Object> consumer, long nanosTimeout) {
+                    return mpsc.drainTo(consumer, nanosTimeout);
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(8)
+    public boolean offer() {
+        return queue.offer(element, SPAN_SIZE);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public int drainTo() {
+        return queue.drainTo(CONSUMER, DRAIN_TIMEOUT);
+    }
+
+    @Benchmark
+    @Group("uncontended")
+    @GroupThreads(1)
+    public int offerThenDrain() {
+        queue.offer(element, SPAN_SIZE);
+        return queue.drainTo(CONSUMER, DRAIN_TIMEOUT);
+    }
+
+    interface Queue extends WithSizeConsumer<Object> {
+        int drainTo(WithSizeConsumer<Object> consumer, long nanosTimeout);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmark;
+
+import com.megaease.easeagent.core.plugin.matcher.ClassMatcherConvert;
+import com.megaease.easeagent.core.plugin.matcher.ClassMatcherKeys;
+import com.megaease.easeagent.core.plugin.matcher.ClassTransformation;
+import com.megaease.easeagent.core.plugin.matcher.ClassTransformationIndex;
+import com.megaease.easeagent.plugin.matcher.ClassMatcher;
+import com.megaease.easeagent.plugin.matcher.IClassMatcher;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.pool.TypePool;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of matching a large set of loaded types against the class transformations of the plugins:
+ * every class matcher in turn, as separate registrations to the agent builder did,
+ * against {@link ClassTransformationIndex}.
+ *
+ * <p>The types are synthetic, generated once and resolved through a caching {@link TypePool},
+ * so only the matching is measured. One operation matches all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassMatcherBenchmark {
+    private static final String PACKAGE = "com.megaease.easeagent.benchmark.synthetic.";
+    private static final int HIERARCHY = 20;
+
+    @Param({"2000"})
+    int typeCount;
+
+    @Param({"60"})
+    int transformationCount;
+
+    private List<TypeDescription> types;
+    private List<ClassTransformation> transformations;
+    private ClassTransformationIndex index;
+    private final ClassLoader classLoader = ClassMatcherBenchmark.class.getClassLoader();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, byte[]> classes = new HashMap<>();
+        ClassFileLocator locator = new ClassFileLocator.Compound(new ClassFileLocator.Simple(classes),
+            ClassFileLocator.ForClassLoader.of(classLoader));
+        TypePool generated = TypePool.Default.of(locator);
+        ByteBuddy byteBuddy = new ByteBuddy();
+        for (int i = 0; i < HIERARCHY; i++) {
+            classes.put(PACKAGE + "Api" + i, byteBuddy.makeInterface()
+                .name(PACKAGE + "Api" + i).make().getBytes());
+        }
+        for (int i = 0; i < HIERARCHY; i++) {
+            classes.put(PACKAGE + "Base" + i, byteBuddy.subclass(Object.class)
+                .implement(generated.describe(PACKAGE + "Api" + i).resolve())
+                .name(PACKAGE + "Base" + i).make().getBytes());
+        }
+        List<String> names = new ArrayList<>(typeCount);
+        for (int i = 0; i < typeCount; i++) {
+            String name = PACKAGE + "Type" + i;
+            DynamicType.Builder<?> builder = byteBuddy
+                .subclass(generated.describe(PACKAGE + "Base" + (i % HIERARCHY)).resolve())
+                .implement(generated.describe(PACKAGE + "Api" + (i * 7 % HIERARCHY)).resolve())
+                .name(name)
+                .modifiers(Visibility.PUBLIC);
+            if (i % 10 == 0) {
+                builder = builder.annotateType(AnnotationDescription.Builder.ofType(Deprecated.class).build());
+            }
+            classes.put(name, builder.make().getBytes());
+            names.add(name);
+        }
+        TypePool pool = new TypePool.Default.WithLazyResolution(new TypePool.CacheProvider.Simple(),
+            locator, TypePool.Default.ReaderMode.FAST);
+        types = new ArrayList<>(names.size());
+        for (String name : names) {
+            types.add(pool.describe(name).resolve());
+        }
+
+        transformations = new ArrayList<>(transformationCount);
+        for (int i = 0; i < transformationCount; i++) {
+            transformations.add(transformation(i, classMatcher(i)));
+        }
+        index = new ClassTransformationIndex(transformations, t -> (builder, type, loader, module) -> builder);
+    }
+
+    /**
+     * Mostly super type matchers of library types the application does not use, as in a real agent,
+     * with a few which match the synthetic hierarchy, by name and by annotation.
+     */
+    private static IClassMatcher classMatcher(int i) {
+        switch (i % 10) {
+            case 0:
+                return ClassMatcher.builder().hasInterface(PACKAGE + "Api" + (i % HIERARCHY)).build();
+            case 1:
+                return ClassMatcher.builder().hasClassName(PACKAGE + "Type" + i).build();
+            case 2:
+                return ClassMatcher.builder().hasAnnotation("org.vendor.lib" + i + ".Component")
+                    .or().hasAnnotation(Deprecated.class.getName()).build();
+            case 3:
+                return ClassMatcher.builder().hasSuperClass(PACKAGE + "Base" + (i % HIERARCHY))
+                    .notInterface().build();
+            default:
+                return ClassMatcher.builder().hasInterface("org.vendor.lib" + i + ".Api").build();
+        }
+    }
+
+    private static ClassTransformation transformation(int order, IClassMatcher matcher) {
+        return ClassTransformation.builder()
+            .order(order)
+            .classMatcher(ClassMatcherConvert.INSTANCE.convert(matcher))
+            .classMatcherKeys(ClassMatcherKeys.of(matcher))
+            .methodTransformations(Collections.emptySet())
+            .build();
+    }
+
+    @Benchmark
+    public int eachClassMatcher() {
+        int matched = 0;
+        for (TypeDescription type : types) {
+            for (ClassTransformation transformation : transformations) {
+                if (transformation.getClassloaderMatcher().matches(classLoader)
+                    && transformation.getClassMatcher().matches(type)) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int index() {
+        int matched = 0;
+        for (TypeDescription type : types) {
+            matched += index.match(type, classLoader).size();
+        }
+        return matched;
+    }
+}
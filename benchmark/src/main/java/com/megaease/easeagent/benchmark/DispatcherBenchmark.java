@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmark;
+
+import com.megaease.easeagent.core.plugin.Dispatcher;
+import com.megaease.easeagent.core.plugin.interceptor.InterceptorPluginDecorator;
+import com.megaease.easeagent.mock.plugin.api.utils.ConfigTestUtils;
+import com.megaease.easeagent.plugin.api.InitializeContext;
+import com.megaease.easeagent.plugin.api.config.IPluginConfig;
+import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import com.megaease.easeagent.plugin.interceptor.AgentInterceptorChain;
+import com.megaease.easeagent.plugin.interceptor.Interceptor;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one intercepted call: what {@code CommonInlineAdvice} does on enter and exit,
+ * with a chain of plugin-decorated interceptors registered in {@link Dispatcher}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatcherBenchmark {
+    private static final int INDEX = 1;
+    private static final String TYPE = "com.megaease.easeagent.benchmark.DemoService";
+    private static final String METHOD = "handle";
+
+    @Param({"1", "3"})
+    int interceptorCount;
+
+    @Param({"true", "false"})
+    boolean enabled;
+
+    private final Object[] args = new Object[]{"/api/orders/1", 200};
+    private ConfigTestUtils.Reset reset;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkAgent.init();
+        List<Interceptor> interceptors = new ArrayList<>(interceptorCount);
+        for (int i = 0; i < interceptorCount; i++) {
+            interceptors.add(new InterceptorPluginDecorator(new BenchmarkAgent.CountingInterceptor(i), BenchmarkAgent.PLUGIN));
+        }
+        if (!enabled) {
+            IPluginConfig config = EaseAgent.getConfig(BenchmarkAgent.DOMAIN, BenchmarkAgent.NAMESPACE, interceptors.get(0).getType());
+            reset = ConfigTestUtils.changeBoolean(config, "enabled", false);
+        }
+        Dispatcher.register(INDEX, new AgentInterceptorChain(interceptors));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (reset != null) {
+            reset.close();
+        }
+    }
+
+    @Benchmark
+    public Object enterExit() {
+        InitializeContext context = EaseAgent.initializeContextSupplier.getContext();
+        if (!Dispatcher.isEnabled(INDEX)) {
+            return null;
+        }
+        MethodInfo methodInfo = Dispatcher.enter(INDEX, this, TYPE, METHOD,
+            Dispatcher.isArgsRequired(INDEX) ? args : null, context);
+        methodInfo.retValue(args[0]);
+        Object ret = Dispatcher.exit(INDEX, methodInfo, context);
+        context.popMethodInfo(methodInfo);
+        return ret;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmark;
+
+import com.megaease.easeagent.plugin.api.InitializeContext;
+import com.megaease.easeagent.plugin.interceptor.AgentInterceptorChain;
+import com.megaease.easeagent.plugin.interceptor.Interceptor;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AgentInterceptorChain#doBefore}/{@link AgentInterceptorChain#doAfter} over undecorated
+ * interceptors, so the numbers show the chain walk itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterceptorChainBenchmark {
+    @Param({"1", "2", "4", "8"})
+    int interceptorCount;
+
+    private AgentInterceptorChain chain;
+    private MethodInfo methodInfo;
+    private InitializeContext context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkAgent.init();
+        List<Interceptor> interceptors = new ArrayList<>(interceptorCount);
+        for (int i = 0; i < interceptorCount; i++) {
+            interceptors.add(new BenchmarkAgent.CountingInterceptor(i));
+        }
+        chain = new AgentInterceptorChain(interceptors);
+        methodInfo = MethodInfo.builder().invoker(this).args(new Object[]{"arg"}).build();
+        context = BenchmarkAgent.context();
+    }
+
+    @Benchmark
+    public Object doBeforeDoAfter() {
+        chain.doBefore(methodInfo, context);
+        return chain.doAfter(methodInfo, context);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmark;
+
+import com.megaease.easeagent.plugin.api.config.IPluginConfig;
+import com.megaease.easeagent.plugin.api.metric.ServiceMetricRegistry;
+import com.megaease.easeagent.plugin.api.metric.name.Tags;
+import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import com.megaease.easeagent.plugin.tools.metrics.ServerMetric;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ServerMetric#collectMetric}, called once per request by the http servlet and gateway
+ * metric interceptors. The keys rotate so that the registry lookups are not all the same entry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerMetricBenchmark {
+    @Param({"1", "100"})
+    int keyCount;
+
+    private ServerMetric serverMetric;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkAgent.init();
+        IPluginConfig config = EaseAgent.getConfig(BenchmarkAgent.DOMAIN, BenchmarkAgent.NAMESPACE, "metric");
+        serverMetric = ServiceMetricRegistry.getOrCreate(config,
+            new Tags("application", "http-request", "url"), ServerMetric.SERVICE_METRIC_SUPPLIER);
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "GET /api/orders/" + i;
+        }
+    }
+
+    @Benchmark
+    public void collectMetric() {
+        String key = keys[next];
+        if (++next == keys.length) {
+            next = 0;
+        }
+        serverMetric.collectMetric(key, 200, null, 1000L, 1042L);
+    }
+
+    @Benchmark
+    public void collectErrorMetric() {
+        String key = keys[next];
+        if (++next == keys.length) {
+            next = 0;
+        }
+        serverMetric.collectMetric(key, 500, null, 1000L, 1042L);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmark;
+
+import com.megaease.easeagent.plugin.api.Cleaner;
+import com.megaease.easeagent.plugin.api.InitializeContext;
+import com.megaease.easeagent.plugin.api.context.AsyncContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code SessionContext} operations every interceptor pays for: the return-value stack,
+ * the reentrancy counters of the non-reentrant interceptors and the cross-thread export/import of the context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionContextBenchmark {
+    @Param({"0", "8"})
+    int contextEntries;
+
+    private final Object value = new Object();
+    private InitializeContext context;
+    private AsyncContext snapshot;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        BenchmarkAgent.init();
+        context = BenchmarkAgent.context();
+        context.clear();
+        for (int i = 0; i < contextEntries; i++) {
+            context.put("benchmark-key-" + i, "benchmark-value-" + i);
+        }
+        snapshot = context.exportAsync();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.clear();
+    }
+
+    @Benchmark
+    public Object pushPop() {
+        context.pushRetBound();
+        context.push(value);
+        Object o = context.pop();
+        context.popToBound();
+        context.popRetBound();
+        return o;
+    }
+
+    /**
+     * a nested call through a non-reentrant interceptor counted by key
+     */
+    @Benchmark
+    public boolean enterExitKey() {
+        boolean outer = context.enter(SessionContextBenchmark.class, 1);
+        boolean inner = context.enter(SessionContextBenchmark.class, 1);
+        context.exit(SessionContextBenchmark.class, 1);
+        return context.exit(SessionContextBenchmark.class, 1) & outer & !inner;
+    }
+
+    /**
+     * the same nested call counted by the slot given to the interceptor when its chain is built
+     */
+    @Benchmark
+    public boolean enterExitSlot() {
+        boolean outer = context.enterSlot(3) == 1;
+        boolean inner = context.enterSlot(3) == 1;
+        context.exitSlot(3);
+        return context.exitSlot(3) == 1 & outer & !inner;
+    }
+
+    @Benchmark
+    public AsyncContext exportAsync() {
+        return context.exportAsync();
+    }
+
+    /**
+     * what a worker thread does around a wrapped task: import the snapshot, run, clean up
+     */
+    @Benchmark
+    public Cleaner importAsync() {
+        Cleaner cleaner = context.importAsync(snapshot);
+        cleaner.close();
+        return cleaner;
+    }
+}
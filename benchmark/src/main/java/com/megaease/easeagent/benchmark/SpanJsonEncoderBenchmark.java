@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmark;
+
+import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import com.megaease.easeagent.plugin.report.EncodedData;
+import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
+import com.megaease.easeagent.report.GlobalExtractor;
+import com.megaease.easeagent.report.encoder.span.AgentV2SpanWriter;
+import com.megaease.easeagent.report.encoder.span.SpanJsonEncoder;
+import org.openjdk.jmh.annotations.*;
+import zipkin2.internal.JsonCodec;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SpanJsonEncoder}: {@code encode} runs on the flusher thread, it writes a span once into a buffer
+ * kept by the thread. {@code sizeInBytesAndEncode} is what a span used to cost when it was sized on queueing,
+ * then sized again and written by {@link JsonCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpanJsonEncoderBenchmark {
+    @Param({"2", "10"})
+    int tagCount;
+
+    private SpanJsonEncoder encoder;
+    private AgentV2SpanWriter writer;
+    private ReportSpan span;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkAgent.init();
+        encoder = new SpanJsonEncoder();
+        encoder.init(EaseAgent.getConfig());
+        writer = new AgentV2SpanWriter(GlobalExtractor.getInstance(EaseAgent.getConfig()));
+        span = BenchmarkAgent.span(tagCount);
+    }
+
+    @Benchmark
+    public int sizeInBytes() {
+        return encoder.sizeInBytes(span);
+    }
+
+    @Benchmark
+    public EncodedData encode() {
+        return encoder.encode(span);
+    }
+
+    @Benchmark
+    public byte[] sizeInBytesAndEncode() {
+        encoder.sizeInBytes(span);
+        return JsonCodec.write(writer, span);
+    }
+}
@@ -49,9 +49,13 @@ public class ReportConfigConst {
     public static final String ASYNC_THREAD_KEY = "reportThread";
     public static final String ASYNC_MSG_MAX_BYTES_KEY = "messageMaxBytes";
     public static final String ASYNC_MSG_TIMEOUT_KEY = "messageTimeout";
+    public static final String ASYNC_MSG_MAX_IN_FLIGHT_KEY = "messageMaxInFlight";
     public static final String ASYNC_QUEUE_MAX_SIZE_KEY = "queuedMaxSize";
     public static final String ASYNC_QUEUE_MAX_LOGS_KEY = "queuedMaxLogs";
     public static final String ASYNC_QUEUE_MAX_ITEMS_KEY = "queuedMaxItems";
+    public static final String ASYNC_SPILL_DIR_KEY = "spillDir";
+    public static final String ASYNC_SPILL_MAX_SIZE_KEY = "spillMaxSize";
+    public static final String ASYNC_SPILL_REPLAY_RATE_KEY = "spillReplayBytesPerSecond";
 
     /**
      * Reporter v2 configuration
@@ -110,8 +114,12 @@ public class ReportConfigConst {
     public static final String TRACE_ASYNC_MESSAGE_MAX_BYTES_V2 = join(TRACE_ASYNC, ASYNC_MSG_MAX_BYTES_KEY);
     public static final String TRACE_ASYNC_REPORT_THREAD_V2 = join(TRACE_ASYNC, ASYNC_THREAD_KEY);
     public static final String TRACE_ASYNC_MESSAGE_TIMEOUT_V2 = join(TRACE_ASYNC, ASYNC_MSG_TIMEOUT_KEY);
+    public static final String TRACE_ASYNC_MESSAGE_MAX_IN_FLIGHT_V2 = join(TRACE_ASYNC, ASYNC_MSG_MAX_IN_FLIGHT_KEY);
     public static final String TRACE_ASYNC_QUEUED_MAX_SPANS_V2 = join(TRACE_ASYNC, "queuedMaxSpans");
     public static final String TRACE_ASYNC_QUEUED_MAX_SIZE_V2 = join(TRACE_ASYNC, ASYNC_QUEUE_MAX_SIZE_KEY);
+    public static final String TRACE_ASYNC_SPILL_DIR_V2 = join(TRACE_ASYNC, ASYNC_SPILL_DIR_KEY);
+    public static final String TRACE_ASYNC_SPILL_MAX_SIZE_V2 = join(TRACE_ASYNC, ASYNC_SPILL_MAX_SIZE_KEY);
+    public static final String TRACE_ASYNC_SPILL_REPLAY_RATE_V2 = join(TRACE_ASYNC, ASYNC_SPILL_REPLAY_RATE_KEY);
 
     public static final String METRIC_SENDER_NAME = join(METRIC_SENDER, APPEND_TYPE_KEY);
     public static final String METRIC_SENDER_ENABLED = join(METRIC_SENDER, ENABLED_KEY);
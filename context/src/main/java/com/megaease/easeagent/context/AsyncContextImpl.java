@@ -22,17 +22,16 @@ import com.megaease.easeagent.plugin.api.InitializeContext;
 import com.megaease.easeagent.plugin.api.context.AsyncContext;
 import com.megaease.easeagent.plugin.api.trace.SpanContext;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Supplier;
 
 public class AsyncContextImpl implements AsyncContext {
     private final SpanContext spanContext;
-    private final Map<Object, Object> context;
+    private final SharedContextMap context;
     private final Supplier<InitializeContext> supplier;
 
-    private AsyncContextImpl(SpanContext spanContext, Map<Object, Object> context, Supplier<InitializeContext> supplier) {
+    private AsyncContextImpl(SpanContext spanContext, SharedContextMap context, Supplier<InitializeContext> supplier) {
         this.spanContext = Objects.requireNonNull(spanContext, "spanContext must not be null");
         this.context = Objects.requireNonNull(context, "context must not be null");
         this.supplier = Objects.requireNonNull(supplier, "supplier must not be null");
@@ -41,8 +40,20 @@ public class AsyncContextImpl implements AsyncContext {
     public static AsyncContextImpl build(SpanContext spanContext,
                                          Supplier<InitializeContext> supplier,
                                          Map<Object, Object> context) {
-        Map<Object, Object> contextMap = context == null ? new HashMap<>() : new HashMap<>(context);
-        return new AsyncContextImpl(spanContext, contextMap, supplier);
+        return new AsyncContextImpl(spanContext, SharedContextMap.copyOf(context), supplier);
+    }
+
+    /**
+     * Build a snapshot sharing the given context instead of copying it, see {@link SharedContextMap}
+     */
+    static AsyncContextImpl share(SpanContext spanContext,
+                                  Supplier<InitializeContext> supplier,
+                                  SharedContextMap context) {
+        return new AsyncContextImpl(spanContext, context.share(), supplier);
+    }
+
+    SharedContextMap contextMap() {
+        return context;
     }
 
     @Override
@@ -62,7 +73,7 @@ public class AsyncContextImpl implements AsyncContext {
 
     @Override
     public Map<Object, Object> getAll() {
-        return context;
+        return context.writable();
     }
 
     @Override
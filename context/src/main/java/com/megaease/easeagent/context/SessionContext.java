@@ -30,9 +30,12 @@ import com.megaease.easeagent.plugin.bridge.NoOpCleaner;
 import com.megaease.easeagent.plugin.bridge.NoOpIPluginConfig;
 import com.megaease.easeagent.plugin.bridge.NoOpTracer;
 import com.megaease.easeagent.plugin.field.NullObject;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import com.megaease.easeagent.plugin.tools.metrics.ResourceUsage;
 import com.megaease.easeagent.plugin.utils.NoNull;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.function.Supplier;
 
 @SuppressWarnings("unused, unchecked")
@@ -40,6 +43,9 @@ public class SessionContext implements InitializeContext {
     private static final Logger LOGGER = LoggerFactory.getLogger(SessionContext.class);
     private static final Setter NOOP_SETTER = (name, value) -> {
     };
+    private static final int INIT_METHOD_INFO_DEPTH = 8;
+    private static final int MAX_METHOD_INFO_DEPTH = 64;
+    private static final int INIT_ENTERED_SLOTS = 16;
     private ITracing tracing = NoOpTracer.NO_OP_TRACING;
 
     private Supplier<InitializeContext> supplier;
@@ -47,8 +53,12 @@ public class SessionContext implements InitializeContext {
     private final Deque<Object> retStack = new ArrayDeque<>();
     private final Deque<RetBound> retBound = new ArrayDeque<>();
 
-    private final Map<Object, Object> context = new HashMap<>();
+    private final SharedContextMap context = new SharedContextMap();
     private final Map<Object, Integer> entered = new HashMap<>();
+    private int[] enteredSlots = new int[INIT_ENTERED_SLOTS];
+    private int enteredSlotsInUse = 0;
+    private MethodInfo[] methodInfos = new MethodInfo[INIT_METHOD_INFO_DEPTH];
+    private int methodInfoDepth = 0;
     private boolean hasCleaner = false;
 
     @Override
@@ -148,15 +158,42 @@ public class SessionContext implements InitializeContext {
         return count;
     }
 
+    @Override
+    public int enterSlot(int slot) {
+        if (slot >= enteredSlots.length) {
+            enteredSlots = Arrays.copyOf(enteredSlots, Math.max(slot + 1, enteredSlots.length * 2));
+        }
+        if (slot >= enteredSlotsInUse) {
+            enteredSlotsInUse = slot + 1;
+        }
+        return ++enteredSlots[slot];
+    }
+
+    @Override
+    public int exitSlot(int slot) {
+        if (slot >= enteredSlotsInUse) {
+            return 0;
+        }
+        int count = enteredSlots[slot];
+        if (count > 0) {
+            enteredSlots[slot] = count - 1;
+        }
+        return count;
+    }
+
     @Override
     public AsyncContext exportAsync() {
-        return AsyncContextImpl.build(tracing.exportAsync(), supplier, context);
+        return AsyncContextImpl.share(tracing.exportAsync(), supplier, context);
     }
 
     @Override
     public Cleaner importAsync(AsyncContext snapshot) {
         Scope scope = tracing.importAsync(snapshot.getSpanContext());
-        context.putAll(snapshot.getAll());
+        if (snapshot instanceof AsyncContextImpl) {
+            context.putAll(((AsyncContextImpl) snapshot).contextMap());
+        } else {
+            context.putAll(snapshot.getAll());
+        }
         if (hasCleaner) {
             return new AsyncCleaner(scope, false);
         } else {
@@ -215,6 +252,46 @@ public class SessionContext implements InitializeContext {
         this.retBound.pop();
     }
 
+    /**
+     * called by framework, MethodInfo are reused by depth, so nested calls never share one.
+     * Beyond {@link #MAX_METHOD_INFO_DEPTH} a new MethodInfo is created for each call.
+     */
+    @Override
+    public MethodInfo pushMethodInfo() {
+        int depth = this.methodInfoDepth;
+        if (depth >= MAX_METHOD_INFO_DEPTH) {
+            return MethodInfo.builder().build();
+        }
+        if (depth == this.methodInfos.length) {
+            this.methodInfos = Arrays.copyOf(this.methodInfos, depth << 1);
+        }
+        MethodInfo methodInfo = this.methodInfos[depth];
+        if (methodInfo == null) {
+            methodInfo = MethodInfo.builder().build();
+            this.methodInfos[depth] = methodInfo;
+        }
+        this.methodInfoDepth = depth + 1;
+        return methodInfo;
+    }
+
+    /**
+     * called by framework, the frames above the popped one belong to calls which never exit,
+     * eg. a constructor throwing an exception, so they are released together.
+     */
+    @Override
+    public void popMethodInfo(MethodInfo methodInfo) {
+        for (int i = this.methodInfoDepth - 1; i >= 0; i--) {
+            if (this.methodInfos[i] != methodInfo) {
+                continue;
+            }
+            for (int j = i; j < this.methodInfoDepth; j++) {
+                this.methodInfos[j].reset(null, null, null, null);
+            }
+            this.methodInfoDepth = i;
+            return;
+        }
+    }
+
     @Override
     public <T> void push(T obj) {
         if (obj == null) {
@@ -259,6 +336,21 @@ public class SessionContext implements InitializeContext {
         return task instanceof CurrentContextRunnable;
     }
 
+    @Override
+    public <V> Callable<V> wrap(Callable<V> task) {
+        return new CurrentContextCallable<>(exportAsync(), task);
+    }
+
+    @Override
+    public boolean isWrapped(Callable<?> task) {
+        return task instanceof CurrentContextCallable;
+    }
+
+    @Override
+    public boolean hasContextToPropagate() {
+        return !context.isEmpty() || tracing.hasCurrentSpan();
+    }
+
     @Override
     public boolean isNecessaryKeys(String key) {
         return tracing.propagationKeys().contains(key);
@@ -337,12 +429,15 @@ public class SessionContext implements InitializeContext {
         if (!this.retBound.isEmpty()) {
             this.retBound.clear();
         }
-        if (!this.context.isEmpty()) {
-            this.context.clear();
-        }
+        this.context.clear();
         if (!this.entered.isEmpty()) {
             this.entered.clear();
         }
+        if (this.enteredSlotsInUse > 0) {
+            Arrays.fill(this.enteredSlots, 0, this.enteredSlotsInUse, 0);
+            this.enteredSlotsInUse = 0;
+        }
+        // method info frames are kept, they belong to the calls still on the stack
         this.hasCleaner = false;
     }
 
@@ -357,12 +452,31 @@ public class SessionContext implements InitializeContext {
 
         @Override
         public void run() {
-            try (Cleaner cleaner = asyncContext.importToCurrent()) {
+            try (Cleaner cleaner = asyncContext.importToCurrent();
+                 Cleaner usage = ResourceUsage.enter(asyncContext.get(ResourceUsage.class))) {
                 task.run();
             }
         }
     }
 
+    public static class CurrentContextCallable<V> implements Callable<V> {
+        private final AsyncContext asyncContext;
+        private final Callable<V> task;
+
+        public CurrentContextCallable(AsyncContext asyncContext, Callable<V> task) {
+            this.asyncContext = asyncContext;
+            this.task = task;
+        }
+
+        @Override
+        public V call() throws Exception {
+            try (Cleaner cleaner = asyncContext.importToCurrent();
+                 Cleaner usage = ResourceUsage.enter(asyncContext.get(ResourceUsage.class))) {
+                return task.call();
+            }
+        }
+    }
+
     private class FieldCleaner implements Cleaner {
         private final List<String> fields;
 
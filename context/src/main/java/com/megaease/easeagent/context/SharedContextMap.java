@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.context;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The key:value context of a session or of an async snapshot, copied on write.
+ * A snapshot shares the map of the session it is exported from, and a session importing a snapshot into an
+ * empty context shares the map of the snapshot, so handing a context to another thread costs no copy.
+ * A shared map is never modified again, whoever holds it copies it before the first change.
+ */
+final class SharedContextMap {
+    private Map<Object, Object> map;
+    private boolean shared;
+
+    SharedContextMap() {
+        this(Collections.emptyMap(), true);
+    }
+
+    private SharedContextMap(Map<Object, Object> map, boolean shared) {
+        this.map = map;
+        this.shared = shared;
+    }
+
+    /**
+     * @return a copy of the given map, shared as nobody else holds it
+     */
+    static SharedContextMap copyOf(Map<Object, Object> map) {
+        if (map == null || map.isEmpty()) {
+            return new SharedContextMap();
+        }
+        return new SharedContextMap(new HashMap<>(map), true);
+    }
+
+    /**
+     * @return a snapshot holding the same map, both copy it before their next change
+     */
+    SharedContextMap share() {
+        this.shared = true;
+        return new SharedContextMap(this.map, true);
+    }
+
+    boolean isShared() {
+        return shared;
+    }
+
+    Object get(Object key) {
+        return map.get(key);
+    }
+
+    boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    Object put(Object key, Object value) {
+        return writable().put(key, value);
+    }
+
+    Object remove(Object key) {
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        return writable().remove(key);
+    }
+
+    void putAll(SharedContextMap other) {
+        if (other.map.isEmpty()) {
+            return;
+        }
+        if (this.map.isEmpty() && other.shared) {
+            this.map = other.map;
+            this.shared = true;
+            return;
+        }
+        writable().putAll(other.map);
+    }
+
+    void putAll(Map<Object, Object> other) {
+        if (other.isEmpty()) {
+            return;
+        }
+        writable().putAll(other);
+    }
+
+    void clear() {
+        if (map.isEmpty()) {
+            return;
+        }
+        if (shared) {
+            this.map = Collections.emptyMap();
+        } else {
+            this.map.clear();
+        }
+    }
+
+    /**
+     * @return the map itself, copied first when shared, as the caller may change it
+     */
+    Map<Object, Object> writable() {
+        if (shared) {
+            this.map = new HashMap<>(this.map);
+            this.shared = false;
+        }
+        return this.map;
+    }
+}
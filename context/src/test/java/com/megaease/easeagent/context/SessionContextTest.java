@@ -28,8 +28,10 @@ import com.megaease.easeagent.plugin.api.context.AsyncContext;
 import com.megaease.easeagent.plugin.api.context.RequestContext;
 import com.megaease.easeagent.plugin.api.trace.*;
 import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import com.megaease.easeagent.plugin.bridge.NoOpContext;
 import com.megaease.easeagent.plugin.bridge.NoOpIPluginConfig;
 import com.megaease.easeagent.plugin.bridge.NoOpTracer;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -37,6 +39,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -189,6 +194,24 @@ public class SessionContextTest {
         enter();
     }
 
+    @Test
+    public void enterSlot() {
+        SessionContext sessionContext = new SessionContext();
+        assertEquals(0, sessionContext.exitSlot(3));
+        assertEquals(1, sessionContext.enterSlot(0));
+        assertEquals(1, sessionContext.enterSlot(100));
+        assertEquals(2, sessionContext.enterSlot(0));
+        assertEquals(2, sessionContext.exitSlot(0));
+        assertEquals(1, sessionContext.exitSlot(0));
+        assertEquals(0, sessionContext.exitSlot(0));
+        assertEquals(1, sessionContext.enterSlot(0));
+        assertEquals(1, sessionContext.enter(0));
+
+        sessionContext.clear();
+        assertEquals(1, sessionContext.enterSlot(100));
+        assertEquals(1, sessionContext.enterSlot(0));
+    }
+
     @Test
     public void exportAsync() {
         SessionContext sessionContext = new SessionContext();
@@ -225,6 +248,35 @@ public class SessionContextTest {
         exportAsync();
     }
 
+    @Test
+    public void exportAsyncCopyOnWrite() {
+        SessionContext sessionContext = new SessionContext();
+        sessionContext.setSupplier(() -> EaseAgent.initializeContextSupplier.getContext());
+        sessionContext.setCurrentTracing(new MockITracing());
+        sessionContext.put("a", "1");
+        AsyncContext asyncContext = sessionContext.exportAsync();
+
+        sessionContext.put("b", "2");
+        sessionContext.remove("a");
+        assertEquals("1", asyncContext.get("a"));
+        assertNull(asyncContext.get("b"));
+
+        asyncContext.put("c", "3");
+        assertNull(sessionContext.get("c"));
+
+        SessionContext sessionContext2 = new SessionContext();
+        sessionContext2.setCurrentTracing(new MockITracing());
+        try (Cleaner ignored = sessionContext2.importAsync(asyncContext)) {
+            assertEquals("1", sessionContext2.get("a"));
+            assertEquals("3", sessionContext2.get("c"));
+            sessionContext2.put("d", "4");
+            assertNull(asyncContext.get("d"));
+        }
+        assertNull(sessionContext2.get("a"));
+        assertEquals("1", asyncContext.get("a"));
+        assertEquals("3", asyncContext.get("c"));
+    }
+
     @Test
     public void clientRequest() {
         SessionContext sessionContext = new SessionContext();
@@ -340,6 +392,56 @@ public class SessionContextTest {
         wrap();
     }
 
+    @Test
+    public void wrapCallable() throws Exception {
+        SessionContext sessionContext = new SessionContext();
+        MockITracing iTracing = new MockITracing();
+        sessionContext.setCurrentTracing(iTracing);
+        String name = "test_name";
+        String value = "test_value";
+        sessionContext.put(name, value);
+
+        AtomicReference<SessionContext> lastSessionContext = new AtomicReference<>();
+        sessionContext.setSupplier(() -> {
+            SessionContext sessionContext1 = new SessionContext();
+            sessionContext1.setCurrentTracing(iTracing);
+            lastSessionContext.set(sessionContext1);
+            return sessionContext1;
+        });
+        Callable<Object> callable = () -> lastSessionContext.get().get(name);
+        callable = sessionContext.wrap(callable);
+        assertTrue(sessionContext.isWrapped(callable));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(value, executor.submit(callable).get());
+        } finally {
+            executor.shutdown();
+        }
+        assertNull(lastSessionContext.get().get(name));
+        assertEquals(1, iTracing.exportAsyncCount.get());
+        assertEquals(1, iTracing.importAsyncCount.get());
+    }
+
+    @Test
+    public void hasContextToPropagate() {
+        SessionContext sessionContext = new SessionContext();
+        assertFalse(sessionContext.hasContextToPropagate());
+
+        MockITracing iTracing = new MockITracing();
+        sessionContext.setCurrentTracing(iTracing);
+        assertFalse(sessionContext.hasContextToPropagate());
+        iTracing.setHasCurrentSpan(true);
+        assertTrue(sessionContext.hasContextToPropagate());
+        iTracing.setHasCurrentSpan(false);
+
+        sessionContext.put("test_name", "test_value");
+        assertTrue(sessionContext.hasContextToPropagate());
+        sessionContext.remove("test_name");
+        assertFalse(sessionContext.hasContextToPropagate());
+
+        assertFalse(NoOpContext.NO_OP_CONTEXT.hasContextToPropagate());
+    }
+
     @Test
     public void isNecessaryKeys() {
         SessionContext sessionContext = new SessionContext();
@@ -423,6 +525,41 @@ public class SessionContextTest {
         sessionContext.clear();
     }
 
+    @Test
+    public void pushMethodInfo() {
+        SessionContext sessionContext = new SessionContext();
+        MethodInfo outer = sessionContext.pushMethodInfo();
+        MethodInfo inner = sessionContext.pushMethodInfo();
+        assertNotSame(outer, inner);
+        inner.reset(this, "type", "method", null);
+        sessionContext.popMethodInfo(inner);
+        MethodInfo reused = sessionContext.pushMethodInfo();
+        assertSame(inner, reused);
+        assertNull(reused.getInvoker());
+        assertNull(reused.getMethod());
+        sessionContext.popMethodInfo(reused);
+        sessionContext.popMethodInfo(outer);
+
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(sessionContext.pushMethodInfo());
+        }
+    }
+
+    @Test
+    public void popMethodInfo() {
+        SessionContext sessionContext = new SessionContext();
+        MethodInfo outer = sessionContext.pushMethodInfo();
+        MethodInfo leaked = sessionContext.pushMethodInfo();
+        leaked.retValue("leaked");
+        sessionContext.popMethodInfo(outer);
+        assertNull(leaked.getRetValue());
+        assertSame(outer, sessionContext.pushMethodInfo());
+        assertSame(leaked, sessionContext.pushMethodInfo());
+
+        sessionContext.popMethodInfo(MethodInfo.builder().build());
+        assertNotSame(outer, sessionContext.pushMethodInfo());
+    }
+
 
     public static class EmptyRequest implements MessagingRequest {
 
@@ -483,6 +620,17 @@ public class SessionContextTest {
         public AtomicInteger nextSpanCount = new AtomicInteger();
         public MockMessagingTracing mockMessagingTracing = new MockMessagingTracing();
         private List<String> propagationKeys = Collections.emptyList();
+        private boolean hasCurrentSpan = false;
+
+        public MockITracing setHasCurrentSpan(boolean hasCurrentSpan) {
+            this.hasCurrentSpan = hasCurrentSpan;
+            return this;
+        }
+
+        @Override
+        public boolean hasCurrentSpan() {
+            return hasCurrentSpan;
+        }
 
         public MockITracing setPropagationKeys(List<String> propagationKeys) {
             this.propagationKeys = propagationKeys;
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.context;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SharedContextMapTest {
+
+    @Test
+    public void share() {
+        SharedContextMap context = new SharedContextMap();
+        context.put("a", "1");
+        assertFalse(context.isShared());
+
+        SharedContextMap snapshot = context.share();
+        assertTrue(context.isShared());
+        assertTrue(snapshot.isShared());
+        assertSame(context.writable().getClass(), HashMap.class);
+        assertFalse(context.isShared());
+
+        context.put("b", "2");
+        assertNull(snapshot.get("b"));
+        snapshot.put("c", "3");
+        assertNull(context.get("c"));
+        assertEquals("1", snapshot.get("a"));
+    }
+
+    @Test
+    public void putAll() {
+        SharedContextMap context = new SharedContextMap();
+        context.put("a", "1");
+        SharedContextMap snapshot = context.share();
+
+        SharedContextMap receiver = new SharedContextMap();
+        receiver.putAll(snapshot);
+        assertTrue(receiver.isShared());
+        assertEquals("1", receiver.get("a"));
+
+        receiver.put("b", "2");
+        assertFalse(receiver.isShared());
+        assertNull(snapshot.get("b"));
+        assertNull(context.get("b"));
+
+        receiver.putAll(snapshot);
+        assertFalse(receiver.isShared());
+        assertEquals("2", receiver.get("b"));
+    }
+
+    @Test
+    public void clear() {
+        SharedContextMap context = new SharedContextMap();
+        context.put("a", "1");
+        SharedContextMap snapshot = context.share();
+        context.clear();
+        assertTrue(context.isEmpty());
+        assertEquals("1", snapshot.get("a"));
+
+        context.put("b", "2");
+        assertEquals("2", context.get("b"));
+        assertNull(snapshot.get("b"));
+    }
+
+    @Test
+    public void copyOf() {
+        Map<Object, Object> map = new HashMap<>();
+        map.put("a", "1");
+        SharedContextMap context = SharedContextMap.copyOf(map);
+        context.put("b", "2");
+        assertNull(map.get("b"));
+        assertTrue(SharedContextMap.copyOf(null).isEmpty());
+        assertTrue(SharedContextMap.copyOf(Collections.emptyMap()).isEmpty());
+    }
+}
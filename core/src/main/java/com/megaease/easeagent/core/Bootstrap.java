@@ -64,6 +64,8 @@ public class Bootstrap {
     private static final String AGENT_SERVER_PORT_KEY = "easeagent.server.port";
     private static final String AGENT_CONFIG_PATH = "easeagent.config.path";
     private static final String AGENT_SERVER_ENABLED_KEY = "easeagent.server.enabled";
+    private static final String AGENT_SERVER_THREADS_KEY = "easeagent.server.threads";
+    private static final String AGENT_SERVER_MAX_CONNECTIONS_KEY = "easeagent.server.max-connections";
 
     private static final String AGENT_MIDDLEWARE_UPDATE = "easeagent.middleware.update";
 
@@ -137,7 +139,9 @@ public class Bootstrap {
         String portStr = System.getProperty(AGENT_SERVER_PORT_KEY, String.valueOf(port));
         port = Integer.parseInt(portStr);
 
-        AgentHttpServer agentHttpServer = new AgentHttpServer(port);
+        int threads = positiveOrDefault(conf, AGENT_SERVER_THREADS_KEY, AgentHttpServer.DEFAULT_THREADS);
+        int maxConnections = positiveOrDefault(conf, AGENT_SERVER_MAX_CONNECTIONS_KEY, AgentHttpServer.DEFAULT_MAX_CONNECTIONS);
+        AgentHttpServer agentHttpServer = new AgentHttpServer(port, threads, maxConnections);
 
         boolean httpServerEnabled = conf.getBoolean(AGENT_SERVER_ENABLED_KEY);
         if (httpServerEnabled) {
@@ -154,6 +158,18 @@ public class Bootstrap {
         agentHttpServer.addHttpRoute(new PluginPropertiesHttpHandler());
     }
 
+    static int positiveOrDefault(Configs conf, String key, int defaultValue) {
+        Integer value = conf.getInt(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value <= 0) {
+            LOGGER.warn("{}={} is invalid, use the default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
     private static void loadProvider(final Configs conf, final AgentReport agentReport) {
         List<BeanProvider> providers = BaseLoader.loadOrdered(BeanProvider.class);
         providers.forEach(input -> provider(input, conf, agentReport));
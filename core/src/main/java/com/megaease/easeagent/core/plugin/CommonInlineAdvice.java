@@ -43,19 +43,20 @@ public class CommonInlineAdvice {
                                    @Advice.AllArguments(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object[] args,
                                    @Advice.Local(CONTEXT) InitializeContext context) {
         context = EaseAgent.initializeContextSupplier.getContext();
-        if (context.isNoop()) {
+        // a null MethodInfo tells the exit advice that nothing was dispatched
+        if (context.isNoop() || !Dispatcher.isEnabled(index)) {
             return null;
         }
 
-        MethodInfo methodInfo = MethodInfo.builder()
-            .invoker(invoker)
-            .type(type)
-            .method(method)
-            .args(args)
-            .build();
-        Dispatcher.enter(index, methodInfo, context);
-        if (methodInfo.isChanged()) {
-            args = methodInfo.getArgs();
+        MethodInfo methodInfo;
+        // args is only boxed into an array where it is read, so skip it when no interceptor needs it
+        if (Dispatcher.isArgsRequired(index)) {
+            methodInfo = Dispatcher.enter(index, invoker, type, method, args, context);
+            if (methodInfo.isChanged()) {
+                args = methodInfo.getArgs();
+            }
+        } else {
+            methodInfo = Dispatcher.enter(index, invoker, type, method, null, context);
         }
 
         return methodInfo;
@@ -68,7 +69,7 @@ public class CommonInlineAdvice {
                             @Advice.Return(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object result,
                             @Advice.Thrown(readOnly = false, typing = Assigner.Typing.DYNAMIC) Throwable throwable,
                             @Advice.Local(CONTEXT) InitializeContext context) {
-        if (context.isNoop()) {
+        if (methodInfo == null) {
             return;
         }
         methodInfo.throwable(throwable);
@@ -77,6 +78,7 @@ public class CommonInlineAdvice {
         if (methodInfo.isChanged()) {
             result = methodInfo.getRetValue();
         }
+        context.popMethodInfo(methodInfo);
     }
 
     @Advice.OnMethodExit(suppress = NoExceptionHandler.class)
@@ -85,7 +87,7 @@ public class CommonInlineAdvice {
                             @Advice.Enter MethodInfo methodInfo,
                             @Advice.Return(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object result,
                             @Advice.Local(CONTEXT) InitializeContext context) {
-        if (context.isNoop()) {
+        if (methodInfo == null) {
             return;
         }
         methodInfo.setInvoker(invoker);
@@ -94,5 +96,6 @@ public class CommonInlineAdvice {
         if (methodInfo.isChanged()) {
             result = methodInfo.getRetValue();
         }
+        context.popMethodInfo(methodInfo);
     }
 }
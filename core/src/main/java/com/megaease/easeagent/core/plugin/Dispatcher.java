@@ -40,16 +40,36 @@ public final class Dispatcher {
      */
     public static void enter(int index, MethodInfo info, InitializeContext ctx) {
         AgentInterceptorChain chain = chains.getUncheck(index);
-        int pos = 0;
         ContextUtils.setBeginTime(ctx);
-        chain.doBefore(info, pos, ctx);
+        chain.doBefore(info, ctx);
+    }
+
+    /**
+     * enter with a MethodInfo reused from the context, it must be given back by {@link InitializeContext#popMethodInfo}
+     */
+    public static MethodInfo enter(int index, Object invoker, String type, String method,
+                                   Object[] args, InitializeContext ctx) {
+        MethodInfo info = ctx.pushMethodInfo();
+        info.reset(invoker, type, method, args);
+        enter(index, info, ctx);
+        return info;
+    }
+
+    /**
+     * @return false when every interceptor of the chain is disabled, so the call needn't be dispatched at all
+     */
+    public static boolean isEnabled(int index) {
+        return chains.getUncheck(index).isEnabled();
+    }
+
+    public static boolean isArgsRequired(int index) {
+        return chains.getUncheck(index).isArgsRequired();
     }
 
     public static Object exit(int index, MethodInfo info, InitializeContext ctx) {
         AgentInterceptorChain chain = chains.getUncheck(index);
-        int pos = chain.size() - 1;
         ContextUtils.setEndTime(ctx);
-        return chain.doAfter(info, pos, ctx);
+        return chain.doAfter(info, ctx);
     }
 
     public static AgentInterceptorChain register(int index, AgentInterceptorChain chain) {
@@ -19,6 +19,7 @@ package com.megaease.easeagent.core.plugin;
 
 import com.megaease.easeagent.config.Configs;
 import com.megaease.easeagent.core.plugin.matcher.ClassTransformation;
+import com.megaease.easeagent.core.plugin.matcher.ClassTransformationIndex;
 import com.megaease.easeagent.core.plugin.matcher.MethodTransformation;
 import com.megaease.easeagent.core.plugin.registry.PluginRegistry;
 import com.megaease.easeagent.core.plugin.transformer.CompoundPluginTransformer;
@@ -49,11 +50,10 @@ public class PluginLoader {
         providerLoad();
         Set<ClassTransformation> sortedTransformations = pointsLoad();
 
-        for (ClassTransformation transformation : sortedTransformations) {
-            ab = ab.type(transformation.getClassMatcher(), transformation.getClassloaderMatcher())
-                .transform(compound(transformation.isHasDynamicField(), transformation.getMethodTransformations()));
-        }
-        return ab;
+        // one matcher for all, instead of running every class matcher for every type loaded
+        ClassTransformationIndex index = new ClassTransformationIndex(sortedTransformations,
+            transformation -> compound(transformation.isHasDynamicField(), transformation.getMethodTransformations()));
+        return ab.type(index).transform(index);
     }
 
     public static void providerLoad() {
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.core.plugin.interceptor;
+
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.interceptor.Interceptor;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gives the {@link NonReentrantInterceptor}s keeping the default enter key, their class, a small integer slot
+ * so that their reentrancy is counted in an array of the session context instead of a map of boxed counts.
+ * Interceptors of the same class share a slot, as they share the key.
+ * Interceptors choosing their own key, or their own before/after, keep the key-based counting.
+ */
+final class EnterSlots {
+    static final int NONE = -1;
+    private static final ConcurrentHashMap<Class<?>, Integer> SLOTS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+
+    private EnterSlots() {
+    }
+
+    static int slotOf(Interceptor interceptor) {
+        if (!(interceptor instanceof NonReentrantInterceptor)) {
+            return NONE;
+        }
+        Class<?> type = interceptor.getClass();
+        if (!inherited(type, "before") || !inherited(type, "after") || !inherited(type, "getEnterKey")) {
+            return NONE;
+        }
+        return SLOTS.computeIfAbsent(type, t -> NEXT_SLOT.getAndIncrement());
+    }
+
+    private static boolean inherited(Class<?> type, String method) {
+        try {
+            return type.getMethod(method, MethodInfo.class, Context.class).getDeclaringClass()
+                == NonReentrantInterceptor.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
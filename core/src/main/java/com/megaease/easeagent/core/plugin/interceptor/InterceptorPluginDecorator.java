@@ -24,23 +24,36 @@ import com.megaease.easeagent.plugin.interceptor.Interceptor;
 import com.megaease.easeagent.plugin.interceptor.MethodInfo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.InitializeContext;
+import com.megaease.easeagent.plugin.api.config.AutoRefreshConfigSupplier;
 import com.megaease.easeagent.plugin.api.config.AutoRefreshPluginConfigImpl;
 import com.megaease.easeagent.plugin.api.config.AutoRefreshPluginConfigRegistry;
 import com.megaease.easeagent.plugin.api.config.IPluginConfig;
 import com.megaease.easeagent.plugin.bridge.NoOpIPluginConfig;
+import com.megaease.easeagent.plugin.interceptor.AgentInterceptorChain;
+import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
 
 import java.util.function.Supplier;
 
 public class InterceptorPluginDecorator implements Interceptor {
     private static final Logger LOGGER = LoggerFactory.getLogger(InterceptorPluginDecorator.class);
+    private static final AutoRefreshConfigSupplier<ChainPluginConfig> CHAIN_PLUGIN_CONFIG_SUPPLIER
+        = new AutoRefreshConfigSupplier<ChainPluginConfig>() {
+        @Override
+        public ChainPluginConfig newInstance() {
+            return new ChainPluginConfig();
+        }
+    };
     private final Interceptor interceptor;
     private final AgentPlugin plugin;
     private final AutoRefreshPluginConfigImpl config;
+    private final int enterSlot;
 
     public InterceptorPluginDecorator(Interceptor interceptor, AgentPlugin plugin) {
         this.interceptor = interceptor;
         this.plugin = plugin;
-        this.config = AutoRefreshPluginConfigRegistry.getOrCreate(plugin.getDomain(), plugin.getNamespace(), interceptor.getType());
+        this.enterSlot = EnterSlots.slotOf(interceptor);
+        this.config = AutoRefreshPluginConfigRegistry.getOrCreate(plugin.getDomain(), plugin.getNamespace(),
+            interceptor.getType(), CHAIN_PLUGIN_CONFIG_SUPPLIER);
     }
 
     public IPluginConfig getConfig() {
@@ -52,9 +65,13 @@ public class InterceptorPluginDecorator implements Interceptor {
         IPluginConfig cfg = this.config.getConfig();
         InitializeContext innerContext = (InitializeContext) context;
         innerContext.pushConfig(cfg);
-        if (cfg == null || cfg.enabled() || cfg instanceof NoOpIPluginConfig) {
+        if (enabled(cfg)) {
             innerContext.pushRetBound();
-            this.interceptor.before(methodInfo, context);
+            if (this.enterSlot == EnterSlots.NONE) {
+                this.interceptor.before(methodInfo, context);
+            } else if (innerContext.enterSlot(this.enterSlot) == 1) {
+                ((NonReentrantInterceptor) this.interceptor).doBefore(methodInfo, context);
+            }
         } else if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("plugin.{}.{}.{} is not enabled", config.domain(), config.namespace(), config.id());
         }
@@ -65,9 +82,13 @@ public class InterceptorPluginDecorator implements Interceptor {
         IPluginConfig cfg = context.getConfig();
         InitializeContext innerContext = (InitializeContext) context;
 
-        if (cfg == null || cfg.enabled() || cfg instanceof NoOpIPluginConfig) {
+        if (enabled(cfg)) {
             try {
-                this.interceptor.after(methodInfo, context);
+                if (this.enterSlot == EnterSlots.NONE) {
+                    this.interceptor.after(methodInfo, context);
+                } else if (innerContext.exitSlot(this.enterSlot) == 1) {
+                    ((NonReentrantInterceptor) this.interceptor).doAfter(methodInfo, context);
+                }
             } finally {
                 innerContext.popToBound();
                 innerContext.popRetBound();
@@ -76,11 +97,29 @@ public class InterceptorPluginDecorator implements Interceptor {
         innerContext.popConfig();
     }
 
+    int getEnterSlot() {
+        return this.enterSlot;
+    }
+
     @Override
     public String getType() {
         return this.interceptor.getType();
     }
 
+    @Override
+    public boolean isArgsRequired() {
+        return this.interceptor.isArgsRequired();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled(this.config.getConfig());
+    }
+
+    private static boolean enabled(IPluginConfig cfg) {
+        return cfg == null || cfg.enabled() || cfg instanceof NoOpIPluginConfig;
+    }
+
     @Override
     public void init(IPluginConfig config, String type, String method, String methodDescriptor) {
         this.interceptor.init(config, type, method, methodDescriptor);
@@ -101,4 +140,15 @@ public class InterceptorPluginDecorator implements Interceptor {
     public static Supplier<Interceptor> getInterceptorSupplier(final AgentPlugin plugin, final Supplier<Interceptor> supplier) {
         return () -> new InterceptorPluginDecorator(supplier.get(), plugin);
     }
+
+    /**
+     * the config of a decorated interceptor, the chains it belongs to check whether it is enabled again after a change
+     */
+    static class ChainPluginConfig extends AutoRefreshPluginConfigImpl {
+        @Override
+        public void onChange(IPluginConfig oldConfig, IPluginConfig newConfig) {
+            super.onChange(oldConfig, newConfig);
+            AgentInterceptorChain.invalidateEnabled();
+        }
+    }
 }
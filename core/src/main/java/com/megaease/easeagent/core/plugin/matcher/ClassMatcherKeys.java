@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.core.plugin.matcher;
+
+import com.megaease.easeagent.plugin.matcher.ClassMatcher;
+import com.megaease.easeagent.plugin.matcher.IClassMatcher;
+import com.megaease.easeagent.plugin.matcher.operator.AndClassMatcher;
+import com.megaease.easeagent.plugin.matcher.operator.OrClassMatcher;
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The names a type must have, one of them at least, to be matched by a class matcher:
+ * its own name, the name of a super class or interface, or the name of a declared annotation.
+ * A type without any of them can't be matched, so the matcher needn't run for it.
+ */
+@Getter
+public class ClassMatcherKeys {
+    private final Set<String> names = new HashSet<>();
+    private final Set<String> superTypes = new HashSet<>();
+    private final Set<String> annotations = new HashSet<>();
+
+    private ClassMatcherKeys() {
+    }
+
+    /**
+     * @param source class matcher of points
+     * @return keys of the matcher, or null when there are none, such as for a negated matcher
+     */
+    public static ClassMatcherKeys of(IClassMatcher source) {
+        if (source instanceof AndClassMatcher) {
+            AndClassMatcher and = (AndClassMatcher) source;
+            ClassMatcherKeys left = of(and.getLeft());
+            ClassMatcherKeys right = of(and.getRight());
+            if (left == null) {
+                return right;
+            } else if (right == null) {
+                return left;
+            }
+            // both are required, the fewer candidates the better, an exact name is the fewest
+            return right.names.isEmpty() || !left.names.isEmpty() ? left : right;
+        } else if (source instanceof OrClassMatcher) {
+            OrClassMatcher or = (OrClassMatcher) source;
+            ClassMatcherKeys left = of(or.getLeft());
+            ClassMatcherKeys right = of(or.getRight());
+            if (left == null || right == null) {
+                return null;
+            }
+            left.names.addAll(right.names);
+            left.superTypes.addAll(right.superTypes);
+            left.annotations.addAll(right.annotations);
+            return left;
+        } else if (!(source instanceof ClassMatcher)) {
+            return null;
+        }
+
+        ClassMatcher matcher = (ClassMatcher) source;
+        if (matcher.getMatchType() == null || matcher.getName() == null) {
+            return null;
+        }
+        ClassMatcherKeys keys = new ClassMatcherKeys();
+        switch (matcher.getMatchType()) {
+            case NAMED:
+                keys.names.add(matcher.getName());
+                break;
+            case SUPER_CLASS:
+            case INTERFACE:
+                keys.superTypes.add(matcher.getName());
+                break;
+            case ANNOTATION:
+                keys.annotations.add(matcher.getName());
+                break;
+            default:
+                return null;
+        }
+        return keys;
+    }
+}
@@ -34,12 +34,22 @@ public class ClassTransformation implements Ordered {
     private ElementMatcher<ClassLoader> classloaderMatcher;
     private Set<MethodTransformation>  methodTransformations;
     private boolean hasDynamicField;
+    private ClassMatcherKeys classMatcherKeys;
 
     public ClassTransformation(int order,
                                ElementMatcher<ClassLoader> classloaderMatcher,
                                Junction<TypeDescription> classMatcher,
                                Set<MethodTransformation> methodTransformations,
                                boolean hasDynamicField) {
+        this(order, classloaderMatcher, classMatcher, methodTransformations, hasDynamicField, null);
+    }
+
+    public ClassTransformation(int order,
+                               ElementMatcher<ClassLoader> classloaderMatcher,
+                               Junction<TypeDescription> classMatcher,
+                               Set<MethodTransformation> methodTransformations,
+                               boolean hasDynamicField,
+                               ClassMatcherKeys classMatcherKeys) {
         this.order = order;
         if (classloaderMatcher == null) {
             this.classloaderMatcher = any();
@@ -49,6 +59,7 @@ public class ClassTransformation implements Ordered {
         this.classMatcher = classMatcher;
         this.methodTransformations = methodTransformations;
         this.hasDynamicField = hasDynamicField;
+        this.classMatcherKeys = classMatcherKeys;
     }
 
     public static Builder builder() {
@@ -66,6 +77,7 @@ public class ClassTransformation implements Ordered {
         private ElementMatcher<ClassLoader> classloaderMatcher = null;
         private Set<MethodTransformation> methodTransformations;
         private boolean hasDynamicField;
+        private ClassMatcherKeys classMatcherKeys;
 
         Builder() {
         }
@@ -95,9 +107,14 @@ public class ClassTransformation implements Ordered {
             return this;
         }
 
+        public Builder classMatcherKeys(ClassMatcherKeys classMatcherKeys) {
+            this.classMatcherKeys = classMatcherKeys;
+            return this;
+        }
+
         public ClassTransformation build() {
             return new ClassTransformation(order, classloaderMatcher, classMatcher,
-                methodTransformations, hasDynamicField);
+                methodTransformations, hasDynamicField, classMatcherKeys);
         }
 
         public String toString() {
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.core.plugin.matcher;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.type.TypeDefinition;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.utility.JavaModule;
+
+import java.security.ProtectionDomain;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Matches a type against all class transformations at once, in place of registering each one to the
+ * agent builder, which runs every class matcher for every type loaded.
+ *
+ * <p>The transformations are indexed by the {@link ClassMatcherKeys} of their class matcher. For a type,
+ * the candidates are looked up by its name, the names of its declared annotations, and the names of its
+ * super types, walking the hierarchy once for all of them. Only the class matchers of candidates run.
+ * The transformers of the matched transformations are applied in order, as separate registrations were.
+ */
+public class ClassTransformationIndex implements AgentBuilder.RawMatcher, AgentBuilder.Transformer {
+    private static final int[] NONE = new int[0];
+
+    private final Entry[] entries;
+    private final int[] unindexed;
+    private final Map<String, int[]> byName;
+    private final Map<String, int[]> bySuperType;
+    private final Map<String, int[]> byAnnotation;
+    private final ThreadLocal<Matched> lastMatched = new ThreadLocal<>();
+
+    /**
+     * @param transformations    sorted class transformations
+     * @param transformerFactory the transformer of a class transformation
+     */
+    public ClassTransformationIndex(Collection<ClassTransformation> transformations,
+                                    Function<ClassTransformation, AgentBuilder.Transformer> transformerFactory) {
+        this.entries = new Entry[transformations.size()];
+        List<Integer> unindexedList = new ArrayList<>();
+        Map<String, List<Integer>> names = new HashMap<>();
+        Map<String, List<Integer>> superTypes = new HashMap<>();
+        Map<String, List<Integer>> annotations = new HashMap<>();
+        int i = 0;
+        for (ClassTransformation transformation : transformations) {
+            entries[i] = new Entry(transformation, transformerFactory.apply(transformation));
+            ClassMatcherKeys keys = transformation.getClassMatcherKeys();
+            if (keys == null) {
+                unindexedList.add(i);
+            } else {
+                index(names, keys.getNames(), i);
+                index(superTypes, keys.getSuperTypes(), i);
+                index(annotations, keys.getAnnotations(), i);
+            }
+            i++;
+        }
+        this.unindexed = toArray(unindexedList);
+        this.byName = toArrays(names);
+        this.bySuperType = toArrays(superTypes);
+        this.byAnnotation = toArrays(annotations);
+    }
+
+    private static void index(Map<String, List<Integer>> index, Set<String> keys, int i) {
+        for (String key : keys) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> index) {
+        Map<String, int[]> arrays = new HashMap<>(index.size() * 2);
+        index.forEach((key, list) -> arrays.put(key, toArray(list)));
+        return arrays;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.isEmpty() ? NONE : list.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public boolean matches(TypeDescription typeDescription,
+                           ClassLoader classLoader,
+                           JavaModule module,
+                           Class<?> classBeingRedefined,
+                           ProtectionDomain protectionDomain) {
+        List<Entry> matched = matchEntries(typeDescription, classLoader);
+        if (matched.isEmpty()) {
+            lastMatched.remove();
+            return false;
+        }
+        lastMatched.set(new Matched(typeDescription, matched));
+        return true;
+    }
+
+    @Override
+    public DynamicType.Builder<?> transform(DynamicType.Builder<?> builder,
+                                            TypeDescription typeDescription,
+                                            ClassLoader classLoader,
+                                            JavaModule module) {
+        Matched last = lastMatched.get();
+        lastMatched.remove();
+        // the agent builder transforms a type right after matching it, in the same thread
+        List<Entry> matched = last != null && last.typeDescription == typeDescription
+            ? last.entries : matchEntries(typeDescription, classLoader);
+        for (Entry entry : matched) {
+            builder = entry.transformer.transform(builder, typeDescription, classLoader, module);
+        }
+        return builder;
+    }
+
+    /**
+     * @return the class transformations which match the type, in order
+     */
+    public List<ClassTransformation> match(TypeDescription typeDescription, ClassLoader classLoader) {
+        List<Entry> matched = matchEntries(typeDescription, classLoader);
+        List<ClassTransformation> transformations = new ArrayList<>(matched.size());
+        for (Entry entry : matched) {
+            transformations.add(entry.transformation);
+        }
+        return transformations;
+    }
+
+    private List<Entry> matchEntries(TypeDescription typeDescription, ClassLoader classLoader) {
+        BitSet candidates = candidates(typeDescription);
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Entry> matched = new ArrayList<>(2);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            ClassTransformation transformation = entries[i].transformation;
+            if (transformation.getClassloaderMatcher().matches(classLoader)
+                && transformation.getClassMatcher().matches(typeDescription)) {
+                matched.add(entries[i]);
+            }
+        }
+        return matched;
+    }
+
+    BitSet candidates(TypeDescription typeDescription) {
+        BitSet candidates = new BitSet(entries.length);
+        mark(candidates, unindexed);
+        if (!byName.isEmpty()) {
+            mark(candidates, byName.get(typeDescription.getName()));
+        }
+        if (!byAnnotation.isEmpty()) {
+            for (AnnotationDescription annotation : typeDescription.getDeclaredAnnotations()) {
+                mark(candidates, byAnnotation.get(annotation.getAnnotationType().getName()));
+            }
+        }
+        if (!bySuperType.isEmpty()) {
+            markSuperTypes(candidates, typeDescription);
+        }
+        return candidates;
+    }
+
+    /**
+     * Walks the hierarchy the way {@code ElementMatchers.hasSuperType} does, the type itself included.
+     */
+    private void markSuperTypes(BitSet candidates, TypeDescription typeDescription) {
+        Set<String> visited = new HashSet<>();
+        for (TypeDefinition type : typeDescription) {
+            String name = type.asErasure().getName();
+            if (!visited.add(name)) {
+                break;
+            }
+            mark(candidates, bySuperType.get(name));
+            markInterfaces(candidates, type, visited);
+        }
+    }
+
+    private void markInterfaces(BitSet candidates, TypeDefinition type, Set<String> visited) {
+        for (TypeDescription anInterface : type.getInterfaces().asErasures()) {
+            if (visited.add(anInterface.getName())) {
+                mark(candidates, bySuperType.get(anInterface.getName()));
+                markInterfaces(candidates, anInterface, visited);
+            }
+        }
+    }
+
+    private static void mark(BitSet candidates, int[] indexes) {
+        if (indexes == null) {
+            return;
+        }
+        for (int index : indexes) {
+            candidates.set(index);
+        }
+    }
+
+    static class Entry {
+        final ClassTransformation transformation;
+        final AgentBuilder.Transformer transformer;
+
+        Entry(ClassTransformation transformation, AgentBuilder.Transformer transformer) {
+            this.transformation = transformation;
+            this.transformer = transformer;
+        }
+    }
+
+    static class Matched {
+        final TypeDescription typeDescription;
+        final List<Entry> entries;
+
+        Matched(TypeDescription typeDescription, List<Entry> entries) {
+            this.typeDescription = typeDescription;
+            this.entries = entries;
+        }
+    }
+}
@@ -104,8 +104,8 @@ public class AdviceRegistry {
             if (previousChain == null) {
                 com.megaease.easeagent.core.plugin.Dispatcher.register(uniqueId, chain);
             } else {
-                chain.merge(previousChain);
-                com.megaease.easeagent.core.plugin.Dispatcher.updateChain(uniqueId, chain);
+                // chains are immutable, the merged one replaces the previous one as a whole
+                com.megaease.easeagent.core.plugin.Dispatcher.updateChain(uniqueId, chain.merge(previousChain));
             }
         } finally {
             pointcutsUniqueId.unlock();
@@ -92,6 +92,7 @@ public class PluginRegistry {
         int order = plugin.order();
 
         return ClassTransformation.builder().classMatcher(innerClassMatcher)
+            .classMatcherKeys(ClassMatcherKeys.of(classMatcher))
             .hasDynamicField(hasDynamicField)
             .methodTransformations(mInfo)
             .classloaderMatcher(loaderMatcher)
@@ -27,6 +27,7 @@ import lombok.SneakyThrows;
 import org.hamcrest.CoreMatchers;
 import org.hamcrest.MatcherAssert;
 import org.junit.AfterClass;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -130,4 +131,17 @@ public class BootstrapTest {
 
         return map;
     }
+
+    @Test
+    public void positiveOrDefault() {
+        HashMap<String, String> source = new HashMap<>();
+        source.put("threads", "8");
+        source.put("zero", "0");
+        source.put("negative", "-2");
+        Configs configs = new Configs(source);
+        Assert.assertEquals(8, Bootstrap.positiveOrDefault(configs, "threads", 4));
+        Assert.assertEquals(4, Bootstrap.positiveOrDefault(configs, "zero", 4));
+        Assert.assertEquals(64, Bootstrap.positiveOrDefault(configs, "negative", 64));
+        Assert.assertEquals(4, Bootstrap.positiveOrDefault(configs, "unset", 4));
+    }
 }
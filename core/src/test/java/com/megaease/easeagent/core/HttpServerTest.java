@@ -25,6 +25,11 @@ import com.megaease.easeagent.core.config.PluginPropertyHttpHandler;
 import com.megaease.easeagent.core.config.ServiceUpdateAgentHttpHandler;
 import com.megaease.easeagent.httpserver.nano.AgentHttpHandler;
 import com.megaease.easeagent.httpserver.nano.AgentHttpServer;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.IHTTPSession;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Response;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Status;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.threading.BoundedAsyncRunner;
+import com.megaease.easeagent.httpserver.nanohttpd.router.RouterNanoHTTPD;
 import com.megaease.easeagent.plugin.api.config.AutoRefreshPluginConfigRegistry;
 import com.megaease.easeagent.plugin.api.config.IConfigFactory;
 import com.megaease.easeagent.plugin.api.config.IPluginConfig;
@@ -35,16 +40,10 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.*;
 import java.net.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Random;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpServerTest {
@@ -194,6 +193,81 @@ public class HttpServerTest {
         Thread.sleep(TimeUnit.SECONDS.toMillis(1));
     }
 
+    @Test
+    public void loadTest() throws Exception {
+        int port = getPort();
+        int threads = 2;
+        int maxConnections = 8;
+        int clients = 16;
+        int requests = 100;
+        AgentHttpServer agentHttpServer = new AgentHttpServer(port, threads, maxConnections);
+        BoundedAsyncRunner asyncRunner = new BoundedAsyncRunner(threads, maxConnections);
+        agentHttpServer.setAsyncRunner(asyncRunner);
+        agentHttpServer.addHttpRoute(new PingHttpHandler());
+        agentHttpServer.startServer();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < requests; j++) {
+                        int code = status("http://127.0.0.1:" + port + "/ping");
+                        if (code == 200) {
+                            ok.incrementAndGet();
+                        } else {
+                            Assert.assertEquals(503, code);
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+            agentHttpServer.stop();
+        }
+        Assert.assertEquals(clients * requests, ok.get() + rejected.get());
+        Assert.assertTrue(ok.get() > 0);
+        Assert.assertTrue(asyncRunner.getLargestPoolSize() <= threads);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (asyncRunner.getConnections() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, asyncRunner.getConnections());
+    }
+
+    static int status(String urlStr) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(urlStr).openConnection();
+        int code = conn.getResponseCode();
+        InputStream inputStream = code < 400 ? conn.getInputStream() : conn.getErrorStream();
+        if (inputStream != null) {
+            try (InputStream in = inputStream) {
+                byte[] buffer = new byte[256];
+                while (in.read(buffer) != -1) {
+                    // drain the body so the connection can be kept alive
+                }
+            }
+        }
+        return code;
+    }
+
+    public static class PingHttpHandler extends AgentHttpHandler {
+        @Override
+        public String getPath() {
+            return "/ping";
+        }
+
+        @Override
+        public Response process(RouterNanoHTTPD.UriResource uriResource, Map<String, String> urlParams, IHTTPSession session) {
+            return Response.newFixedLengthResponse(Status.OK, AgentHttpServer.JSON_TYPE, "{}");
+        }
+    }
+
     static String get(String urlStr) throws IOException {
         StringBuilder result = new StringBuilder();
         URL url = new URL(urlStr);
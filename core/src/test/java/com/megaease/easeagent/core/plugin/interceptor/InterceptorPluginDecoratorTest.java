@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.core.plugin.interceptor;
+
+import com.megaease.easeagent.context.SessionContext;
+import com.megaease.easeagent.core.instrument.TestPlugin;
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.interceptor.Interceptor;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InterceptorPluginDecoratorTest {
+    static class CountingInterceptor implements NonReentrantInterceptor {
+        int before;
+        int after;
+
+        @Override
+        public void doBefore(MethodInfo methodInfo, Context context) {
+            before++;
+        }
+
+        @Override
+        public void doAfter(MethodInfo methodInfo, Context context) {
+            after++;
+        }
+
+        @Override
+        public int order() {
+            return 0;
+        }
+    }
+
+    static class OtherCountingInterceptor extends CountingInterceptor {
+    }
+
+    static class KeyedInterceptor extends CountingInterceptor {
+        @Override
+        public Object getEnterKey(MethodInfo methodInfo, Context context) {
+            return CountingInterceptor.class;
+        }
+    }
+
+    static class PlainInterceptor implements Interceptor {
+        @Override
+        public void before(MethodInfo methodInfo, Context context) {
+        }
+
+        @Override
+        public void after(MethodInfo methodInfo, Context context) {
+        }
+
+        @Override
+        public int order() {
+            return 0;
+        }
+    }
+
+    @Test
+    public void enterSlot() {
+        int slot = EnterSlots.slotOf(new CountingInterceptor());
+        assertTrue(slot >= 0);
+        assertEquals(slot, EnterSlots.slotOf(new CountingInterceptor()));
+        assertNotEquals(slot, EnterSlots.slotOf(new OtherCountingInterceptor()));
+        assertEquals(EnterSlots.NONE, EnterSlots.slotOf(new KeyedInterceptor()));
+        assertEquals(EnterSlots.NONE, EnterSlots.slotOf(new PlainInterceptor()));
+    }
+
+    @Test
+    public void nonReentrant() {
+        SessionContext context = new SessionContext();
+        MethodInfo methodInfo = MethodInfo.builder().build();
+        CountingInterceptor outer = new CountingInterceptor();
+        CountingInterceptor inner = new CountingInterceptor();
+        InterceptorPluginDecorator outerDecorator = new InterceptorPluginDecorator(outer, new TestPlugin());
+        InterceptorPluginDecorator innerDecorator = new InterceptorPluginDecorator(inner, new TestPlugin());
+        assertEquals(outerDecorator.getEnterSlot(), innerDecorator.getEnterSlot());
+
+        outerDecorator.before(methodInfo, context);
+        innerDecorator.before(methodInfo, context);
+        innerDecorator.after(methodInfo, context);
+        outerDecorator.after(methodInfo, context);
+        assertEquals(1, outer.before);
+        assertEquals(1, outer.after);
+        assertEquals(0, inner.before);
+        assertEquals(0, inner.after);
+
+        KeyedInterceptor keyed = new KeyedInterceptor();
+        InterceptorPluginDecorator keyedDecorator = new InterceptorPluginDecorator(keyed, new TestPlugin());
+        keyedDecorator.before(methodInfo, context);
+        keyedDecorator.before(methodInfo, context);
+        keyedDecorator.after(methodInfo, context);
+        keyedDecorator.after(methodInfo, context);
+        assertEquals(1, keyed.before);
+        assertEquals(1, keyed.after);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.core.plugin.matcher;
+
+import com.megaease.easeagent.plugin.matcher.ClassMatcher;
+import com.megaease.easeagent.plugin.matcher.IClassMatcher;
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.Test;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ClassTransformationIndexTest {
+    public interface Service {
+    }
+
+    public static class BaseService implements Service {
+    }
+
+    public static class OrderService extends BaseService {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Marker {
+    }
+
+    @Marker
+    public static class Marked {
+    }
+
+    public static class Other {
+    }
+
+    private static ClassTransformation transformation(int order, IClassMatcher matcher) {
+        return ClassTransformation.builder()
+            .order(order)
+            .classMatcher(ClassMatcherConvert.INSTANCE.convert(matcher))
+            .classMatcherKeys(ClassMatcherKeys.of(matcher))
+            .methodTransformations(Collections.emptySet())
+            .build();
+    }
+
+    private static List<ClassTransformation> transformations() {
+        List<ClassTransformation> transformations = new ArrayList<>();
+        transformations.add(transformation(0, ClassMatcher.builder().hasInterface(Service.class.getName()).build()));
+        transformations.add(transformation(1, ClassMatcher.builder().hasClassName(Other.class.getName()).build()));
+        transformations.add(transformation(2, ClassMatcher.builder().hasAnnotation(Marker.class.getName()).build()));
+        transformations.add(transformation(3, ClassMatcher.builder().hasClassName(Other.class.getName())
+            .negate().build()));
+        transformations.add(transformation(4, ClassMatcher.builder().hasClassName(OrderService.class.getName())
+            .or().hasClassName(Other.class.getName()).build()));
+        transformations.add(transformation(5, ClassMatcher.builder().hasSuperClass(BaseService.class.getName())
+            .notInterface().build()));
+        return transformations;
+    }
+
+    private static ClassTransformationIndex index(List<ClassTransformation> transformations) {
+        return new ClassTransformationIndex(transformations, t -> (builder, type, loader, module) -> builder);
+    }
+
+    @Test
+    public void match() {
+        List<ClassTransformation> transformations = transformations();
+        ClassTransformationIndex index = index(transformations);
+        ClassLoader loader = getClass().getClassLoader();
+        for (Class<?> type : new Class<?>[]{Service.class, BaseService.class, OrderService.class,
+            Marker.class, Marked.class, Other.class, String.class}) {
+            TypeDescription typeDescription = TypeDescription.ForLoadedType.of(type);
+            List<ClassTransformation> expected = new ArrayList<>();
+            for (ClassTransformation transformation : transformations) {
+                if (transformation.getClassMatcher().matches(typeDescription)) {
+                    expected.add(transformation);
+                }
+            }
+            assertEquals(type.getName(), expected, index.match(typeDescription, loader));
+        }
+    }
+
+    @Test
+    public void candidates() {
+        ClassTransformationIndex index = index(transformations());
+        assertEquals("{0, 3, 4, 5}", index.candidates(TypeDescription.ForLoadedType.of(OrderService.class)).toString());
+        assertEquals("{1, 3, 4}", index.candidates(TypeDescription.ForLoadedType.of(Other.class)).toString());
+        assertEquals("{2, 3}", index.candidates(TypeDescription.ForLoadedType.of(Marked.class)).toString());
+        assertEquals("{3}", index.candidates(TypeDescription.ForLoadedType.of(String.class)).toString());
+    }
+
+    @Test
+    public void matches() {
+        ClassTransformationIndex index = index(transformations());
+        ClassLoader loader = getClass().getClassLoader();
+        assertTrue(index.matches(TypeDescription.ForLoadedType.of(Other.class), loader, null, null, null));
+        List<ClassTransformation> transformations = transformations();
+        transformations.remove(3);
+        index = index(transformations);
+        assertFalse(index.matches(TypeDescription.ForLoadedType.of(String.class), loader, null, null, null));
+    }
+
+    @Test
+    public void classMatcherKeys() {
+        ClassMatcherKeys keys = ClassMatcherKeys.of(ClassMatcher.builder().hasSuperClass("a.B")
+            .and().hasClassName("a.C").build());
+        assertNotNull(keys);
+        assertTrue("an exact name is preferred", keys.getNames().contains("a.C"));
+        assertTrue(keys.getSuperTypes().isEmpty());
+
+        keys = ClassMatcherKeys.of(ClassMatcher.builder().hasInterface("a.I")
+            .or().hasAnnotation("a.A").build());
+        assertNotNull(keys);
+        assertTrue(keys.getSuperTypes().contains("a.I"));
+        assertTrue(keys.getAnnotations().contains("a.A"));
+
+        assertNull(ClassMatcherKeys.of(ClassMatcher.builder().hasInterface("a.I").negate()
+            .or().hasAnnotation("a.A").build()));
+    }
+}
@@ -17,6 +17,7 @@
 
 package com.megaease.easeagent.httpserver.nano;
 
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.threading.BoundedAsyncRunner;
 import com.megaease.easeagent.httpserver.nanohttpd.router.RouterNanoHTTPD;
 import lombok.SneakyThrows;
 
@@ -25,9 +26,20 @@ import java.util.List;
 public class AgentHttpServer extends RouterNanoHTTPD {
 
     public static String JSON_TYPE = "application/json";
+    public static final int DEFAULT_THREADS = 4;
+    public static final int DEFAULT_MAX_CONNECTIONS = 64;
 
     public AgentHttpServer(int port) {
+        this(port, DEFAULT_THREADS, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * @param threads        the most threads serving connections at once
+     * @param maxConnections the most connections open or waiting for a thread, others are answered with 503
+     */
+    public AgentHttpServer(int port, int threads, int maxConnections) {
         super(port);
+        this.setAsyncRunner(new BoundedAsyncRunner(threads, maxConnections));
         this.addMappings();
         Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
     }
@@ -52,6 +52,10 @@ package com.megaease.easeagent.httpserver.nanohttpd.protocols.http;
 
 import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.tempfiles.ITempFileManager;
 
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Response;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Status;
+
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
@@ -81,6 +85,22 @@ public class ClientHandler implements Runnable {
         NanoHTTPD.safeClose(this.acceptSocket);
     }
 
+    /**
+     * Answers 503 without reading the request and closes the connection.
+     */
+    public void reject() {
+        try {
+            Response response = Response.newFixedLengthResponse(Status.SERVICE_UNAVAILABLE, NanoHTTPD.MIME_PLAINTEXT, "Too many connections");
+            response.setKeepAlive(false);
+            response.setUseGzip(false);
+            response.send(this.acceptSocket.getOutputStream());
+        } catch (IOException e) {
+            NanoHTTPD.LOG.log(Level.FINE, "Could not reject the client", e);
+        } finally {
+            close();
+        }
+    }
+
     @Override
     public void run() {
         OutputStream outputStream = null;
@@ -90,6 +110,9 @@ public class ClientHandler implements Runnable {
             HTTPSession session = new HTTPSession(httpd, tempFileManager, this.inputStream, outputStream, this.acceptSocket.getInetAddress());
             while (!this.acceptSocket.isClosed()) {
                 session.execute();
+                if (!httpd.asyncRunner.keepAlive(this)) {
+                    break;
+                }
             }
         } catch (Exception e) {
             // When the socket is closed by the client,
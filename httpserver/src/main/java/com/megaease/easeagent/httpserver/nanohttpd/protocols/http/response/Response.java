@@ -119,6 +119,21 @@ public class Response implements Closeable {
 
     private GzipUsage gzipUsage = GzipUsage.DEFAULT;
 
+    /**
+     * Writes the body straight to the connection instead of copying {@link #data}, may be null.
+     */
+    private BodyWriter bodyWriter;
+
+    /**
+     * Produces a response body of unknown length on demand.
+     */
+    public interface BodyWriter {
+        /**
+         * @param outputStream the connection stream, already chunked and gzipped when required
+         */
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
     private static enum GzipUsage {
         DEFAULT,
         ALWAYS,
@@ -345,6 +360,12 @@ public class Response implements Closeable {
      *             if something goes wrong while sending the data.
      */
     private void sendBody(OutputStream outputStream, long pending) throws IOException {
+        if (this.bodyWriter != null) {
+            if (this.requestMethod != Method.HEAD) {
+                this.bodyWriter.writeTo(outputStream);
+            }
+            return;
+        }
         long BUFFER_SIZE = 16 * 1024;
         byte[] buff = new byte[(int) BUFFER_SIZE];
         boolean sendEverything = pending == -1;
@@ -394,6 +415,17 @@ public class Response implements Closeable {
         return new Response(status, mimeType, data, -1);
     }
 
+    /**
+     * Create a response with unknown length (using HTTP 1.1 chunking) whose
+     * body is written by the given writer while the response is sent.
+     */
+    public static Response newChunkedResponse(IStatus status, String mimeType, BodyWriter bodyWriter) {
+        Response response = new Response(status, mimeType, null, 0);
+        response.bodyWriter = bodyWriter;
+        response.setChunkedTransfer(true);
+        return response;
+    }
+
     public static Response newFixedLengthResponse(IStatus status, String mimeType, byte[] data) {
         return newFixedLengthResponse(status, mimeType, new ByteArrayInputStream(data), data.length);
     }
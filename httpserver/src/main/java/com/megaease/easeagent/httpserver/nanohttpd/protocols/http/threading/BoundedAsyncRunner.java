@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.httpserver.nanohttpd.protocols.http.threading;
+
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.ClientHandler;
+import com.megaease.easeagent.plugin.async.AgentThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threading strategy running connections on a bounded pool of daemon threads instead of a thread per connection.
+ * <p>
+ * At most {@code maxConnections} connections are open at once, the rest are answered with 503 and closed.
+ * Connections waiting for a thread are queued, and while they wait a kept alive connection is closed
+ * after its current request so it gives its thread back. Idle threads exit after a minute.
+ */
+public class BoundedAsyncRunner implements IAsyncRunner {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPoolExecutor executor;
+    private final int maxConnections;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Set<ClientHandler> running = ConcurrentHashMap.newKeySet();
+
+    public BoundedAsyncRunner(int threads, int maxConnections) {
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new AgentThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * @return the number of connections open or waiting for a thread
+     */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public int getLargestPoolSize() {
+        return executor.getLargestPoolSize();
+    }
+
+    @Override
+    public void closeAll() {
+        // copy of the set for concurrency
+        for (ClientHandler clientHandler : new ArrayList<>(this.running)) {
+            clientHandler.close();
+        }
+    }
+
+    @Override
+    public void closed(ClientHandler clientHandler) {
+        if (this.running.remove(clientHandler)) {
+            this.connections.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void exec(ClientHandler clientHandler) {
+        if (this.connections.incrementAndGet() > this.maxConnections) {
+            this.connections.decrementAndGet();
+            clientHandler.reject();
+            return;
+        }
+        this.running.add(clientHandler);
+        try {
+            this.executor.execute(clientHandler);
+        } catch (RejectedExecutionException e) {
+            closed(clientHandler);
+            clientHandler.reject();
+        }
+    }
+
+    @Override
+    public boolean keepAlive(ClientHandler clientHandler) {
+        return this.executor.getQueue().isEmpty();
+    }
+}
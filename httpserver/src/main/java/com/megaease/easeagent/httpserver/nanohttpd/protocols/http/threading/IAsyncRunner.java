@@ -62,4 +62,13 @@ public interface IAsyncRunner {
     void closed(ClientHandler clientHandler);
 
     void exec(ClientHandler code);
+
+    /**
+     * Asked after each request of a kept alive connection.
+     *
+     * @return false to close the connection and free its thread
+     */
+    default boolean keepAlive(ClientHandler clientHandler) {
+        return true;
+    }
 }
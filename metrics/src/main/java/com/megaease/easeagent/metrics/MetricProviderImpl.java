@@ -41,8 +41,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.METRICS_BUCKET_RESERVOIR_ENABLED;
+
 public class MetricProviderImpl implements AgentReportAware, ConfigAware, MetricProvider {
-    @SuppressWarnings("unused")
     private Config config;
     private final List<com.megaease.easeagent.plugin.api.metric.MetricRegistry> registries = new ArrayList<>();
     private final List<AutoRefreshReporter> reporters = new ArrayList<>();
@@ -123,7 +124,9 @@ public class MetricProviderImpl implements AgentReportAware, ConfigAware, Metric
             autoRefreshReporter.run();
             registerReporter(autoRefreshReporter);
 
-            com.megaease.easeagent.plugin.api.metric.MetricRegistry result = MetricRegistryImpl.build(metricRegistry);
+            com.megaease.easeagent.plugin.api.metric.MetricRegistry result = bucketReservoir()
+                ? MetricRegistryImpl.buildWithBucketReservoir(metricRegistry, metricsConfig)
+                : MetricRegistryImpl.build(metricRegistry);
             registerMetricRegistry(result);
             return result;
         }
@@ -134,6 +137,10 @@ public class MetricProviderImpl implements AgentReportAware, ConfigAware, Metric
         }
     }
 
+    private boolean bucketReservoir() {
+        return config != null && config.getBoolean(METRICS_BUCKET_RESERVOIR_ENABLED, false);
+    }
+
     public List<com.megaease.easeagent.plugin.api.metric.MetricRegistry> getRegistryList() {
         return registries;
     }
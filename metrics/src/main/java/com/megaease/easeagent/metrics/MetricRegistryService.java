@@ -27,9 +27,10 @@ import com.megaease.easeagent.plugin.api.metric.name.Tags;
 import io.prometheus.client.Collector;
 import io.prometheus.client.dropwizard.samplebuilder.DefaultSampleBuilder;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 public class MetricRegistryService {
@@ -49,9 +50,17 @@ public class MetricRegistryService {
         return registry;
     }
 
+    /**
+     * Label lists are built once per metric and reused by later scrapes until the additional attributes change,
+     * labels of metrics not scraped for {@link #IDLE_LABELS_NANOS} are dropped.
+     */
     static class EaseAgentSampleBuilder extends DefaultSampleBuilder {
+        private static final long IDLE_LABELS_NANOS = TimeUnit.MINUTES.toNanos(10);
         private final Supplier<Map<String, Object>> additionalAttributes;
         private final Tags tags;
+        private final ConcurrentMap<String, Labels> labels = new ConcurrentHashMap<>();
+        private volatile Map<String, Object> labeledAttributes;
+        private volatile long lastPurge = System.nanoTime();
 
         EaseAgentSampleBuilder(Supplier<Map<String, Object>> additionalAttributes, Tags tags) {
             this.additionalAttributes = additionalAttributes;
@@ -88,11 +97,40 @@ public class MetricRegistryService {
 
         @Override
         public Collector.MetricFamilySamples.Sample createSample(String dropwizardName, String nameSuffix, List<String> additionalLabelNames, List<String> additionalLabelValues, double value) {
-            List<String> newAdditionalLabelNames = new ArrayList<>(additionalLabelNames);
-            List<String> newAdditionalLabelValues = new ArrayList<>(additionalLabelValues);
-            additionalAttributes(newAdditionalLabelNames, newAdditionalLabelValues);
-            tags(newAdditionalLabelNames, newAdditionalLabelValues);
-            return super.createSample(rebuildName(dropwizardName, newAdditionalLabelNames, newAdditionalLabelValues), nameSuffix, newAdditionalLabelNames, newAdditionalLabelValues, value);
+            if (!additionalLabelNames.isEmpty() || !additionalLabelValues.isEmpty()) {
+                List<String> newAdditionalLabelNames = new ArrayList<>(additionalLabelNames);
+                List<String> newAdditionalLabelValues = new ArrayList<>(additionalLabelValues);
+                additionalAttributes(newAdditionalLabelNames, newAdditionalLabelValues);
+                tags(newAdditionalLabelNames, newAdditionalLabelValues);
+                return super.createSample(rebuildName(dropwizardName, newAdditionalLabelNames, newAdditionalLabelValues), nameSuffix, newAdditionalLabelNames, newAdditionalLabelValues, value);
+            }
+            Map<String, Object> attributes = additionalAttributes == null ? null : additionalAttributes.get();
+            if (attributes != labeledAttributes && !Objects.equals(attributes, labeledAttributes)) {
+                labels.clear();
+                labeledAttributes = attributes;
+            }
+            long now = System.nanoTime();
+            purge(now);
+            Labels cached = labels.computeIfAbsent(dropwizardName, this::newLabels);
+            cached.lastUsed = now;
+            return new Collector.MetricFamilySamples.Sample(cached.sampleName(nameSuffix), cached.names, cached.values, value);
+        }
+
+        private Labels newLabels(String dropwizardName) {
+            List<String> names = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            additionalAttributes(names, values);
+            tags(names, values);
+            String name = rebuildName(dropwizardName, names, values);
+            return new Labels(name, Collections.unmodifiableList(names), Collections.unmodifiableList(values));
+        }
+
+        private void purge(long now) {
+            if (now - lastPurge < IDLE_LABELS_NANOS) {
+                return;
+            }
+            lastPurge = now;
+            labels.values().removeIf(l -> now - l.lastUsed >= IDLE_LABELS_NANOS);
         }
 
         private String rebuildName(String name, List<String> additionalLabelNames, List<String> additionalLabelValues) {
@@ -115,6 +153,24 @@ public class MetricRegistryService {
             }
         }
 
+        static class Labels {
+            private final String name;
+            private final List<String> names;
+            private final List<String> values;
+            private final ConcurrentMap<String, String> sampleNames = new ConcurrentHashMap<>();
+            private volatile long lastUsed;
+
+            Labels(String name, List<String> names, List<String> values) {
+                this.name = name;
+                this.names = names;
+                this.values = values;
+            }
+
+            String sampleName(String nameSuffix) {
+                String suffix = nameSuffix == null ? "" : nameSuffix;
+                return sampleNames.computeIfAbsent(suffix, k -> Collector.sanitizeMetricName(name + k));
+            }
+        }
     }
 
 }
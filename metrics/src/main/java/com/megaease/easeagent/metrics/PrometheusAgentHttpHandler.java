@@ -18,27 +18,25 @@
 package com.megaease.easeagent.metrics;
 
 import com.megaease.easeagent.httpserver.nano.AgentHttpHandler;
-import com.megaease.easeagent.httpserver.nano.AgentHttpServer;
 import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.IHTTPSession;
 import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Response;
 import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Status;
 import com.megaease.easeagent.httpserver.nanohttpd.router.RouterNanoHTTPD;
-import com.megaease.easeagent.log4j2.Logger;
-import com.megaease.easeagent.log4j2.LoggerFactory;
-import io.prometheus.client.Collector;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.exporter.common.TextFormat;
 
 import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.Map;
 
+/**
+ * Streams the samples to the connection as they are formatted, in the Prometheus or OpenMetrics text format
+ * chosen by the Accept header and gzipped when the client accepts it.
+ */
 public class PrometheusAgentHttpHandler extends AgentHttpHandler {
-    private static final Logger LOGGER = LoggerFactory.getLogger(PrometheusAgentHttpHandler.class);
 
     @Override
     public String getPath() {
@@ -48,19 +46,16 @@ public class PrometheusAgentHttpHandler extends AgentHttpHandler {
     @Override
     public Response process(RouterNanoHTTPD.UriResource uriResource, Map<String, String> urlParams, IHTTPSession session) {
         Map<String, String> headers = session.getHeaders();
-        String contentType = TextFormat.chooseContentType(headers.get("Accept"));
-
-        Enumeration<Collector.MetricFamilySamples> samples = CollectorRegistry.defaultRegistry
-            .filteredMetricFamilySamples(Collections.emptySet());
-
-        StringWriter stringWriter = new StringWriter();
-        try (Writer writer = new BufferedWriter(stringWriter)) {
-            TextFormat.writeFormat(contentType, writer, samples);
+        String contentType = TextFormat.chooseContentType(headers.get("accept"));
+        Response response = Response.newChunkedResponse(Status.OK, contentType, outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            TextFormat.writeFormat(contentType, writer,
+                CollectorRegistry.defaultRegistry.filteredMetricFamilySamples(Collections.emptySet()));
+            // flushed but not closed, the response finishes the chunked and gzip streams
             writer.flush();
-        } catch (IOException e) {
-            LOGGER.warn("write data error. {}", e.getMessage());
-        }
-        String data = stringWriter.toString();
-        return Response.newFixedLengthResponse(Status.OK, AgentHttpServer.JSON_TYPE, data);
+        });
+        String acceptEncoding = headers.get("accept-encoding");
+        response.setUseGzip(acceptEncoding != null && acceptEncoding.contains("gzip"));
+        return response;
     }
 }
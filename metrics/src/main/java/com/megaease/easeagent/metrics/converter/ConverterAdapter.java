@@ -20,6 +20,7 @@ package com.megaease.easeagent.metrics.converter;
 import com.codahale.metrics.*;
 import com.codahale.metrics.Timer;
 import com.megaease.easeagent.metrics.impl.CounterImpl;
+import com.megaease.easeagent.metrics.impl.HistogramImpl;
 import com.megaease.easeagent.metrics.impl.MeterImpl;
 import com.megaease.easeagent.metrics.impl.SnapshotImpl;
 import com.megaease.easeagent.metrics.impl.TimerImpl;
@@ -174,10 +175,20 @@ public class ConverterAdapter extends AbstractConverter {
     }
 
     @Override
-    @SuppressWarnings("all")
     protected void writeHistograms(String key, MetricSubType metricSubType, SortedMap<String, Histogram> histograms, Map<String, Object> output) {
-        //write histograms, Temporarily unsupported
-        //Please use timer to calculate the time of P95, P99, etc
+        Map<MetricSubType, MetricName> map = nameFactory.histogramNames(key);
+        consumerMetric(map, metricSubType, v -> Optional.ofNullable(histograms.get(v.name())).ifPresent(h -> {
+                final com.megaease.easeagent.plugin.api.metric.Snapshot snapshot = SnapshotImpl.build(h.getSnapshot());
+                final com.megaease.easeagent.plugin.api.metric.Histogram histogram = HistogramImpl.build(h);
+                v.getValueFetcher().forEach((fieldName, fetcher) -> {
+                    if (fetcher.getClazz().equals(com.megaease.easeagent.plugin.api.metric.Snapshot.class)) {
+                        appendField(output, fieldName, fetcher, snapshot);
+                    } else {
+                        appendField(output, fieldName, fetcher, histogram);
+                    }
+                });
+            })
+        );
     }
 
     @Override
@@ -209,12 +220,13 @@ public class ConverterAdapter extends AbstractConverter {
     protected void writeTimers(String key, MetricSubType metricSubType, SortedMap<String, Timer> timers, Map<String, Object> output) {
         Map<MetricSubType, MetricName> map = nameFactory.timerNames(key);
         consumerMetric(map, metricSubType, v -> Optional.ofNullable(timers.get(v.name())).ifPresent(t -> {
-                final Snapshot snapshot = t.getSnapshot();
+                final com.megaease.easeagent.plugin.api.metric.Snapshot snapshot = SnapshotImpl.build(t.getSnapshot());
+                final com.megaease.easeagent.plugin.api.metric.Timer timer = TimerImpl.build(t);
                 v.getValueFetcher().forEach((fieldName, fetcher) -> {
                     if (fetcher.getClazz().equals(com.megaease.easeagent.plugin.api.metric.Snapshot.class)) {
-                        appendField(output, fieldName, fetcher, SnapshotImpl.build(snapshot));
+                        appendField(output, fieldName, fetcher, snapshot);
                     } else {
-                        appendField(output, fieldName, fetcher, TimerImpl.build(t));
+                        appendField(output, fieldName, fetcher, timer);
                     }
                 });
             })
@@ -72,34 +72,51 @@ public class EaseAgentPrometheusExports extends Collector implements Collector.D
 
     @Override
     public List<MetricFamilySamples> collect() {
-        Map<String, MetricFamilySamples> mfSamplesMap = new HashMap<>();
-
-        gaugeExports.addToMap(mfSamplesMap);
-        counterExports.addToMap(mfSamplesMap);
-        meterExports.addToMap(mfSamplesMap);
-        timerExports.addToMap(mfSamplesMap);
-        histogramExports.addToMap(mfSamplesMap);
-        return new ArrayList<>(mfSamplesMap.values());
+        Map<String, Family> families = new HashMap<>();
+
+        gaugeExports.addToMap(families);
+        counterExports.addToMap(families);
+        meterExports.addToMap(families);
+        timerExports.addToMap(families);
+        histogramExports.addToMap(families);
+        List<MetricFamilySamples> result = new ArrayList<>(families.size());
+        for (Family family : families.values()) {
+            result.add(family.build());
+        }
+        return result;
     }
 
-    protected void addToMap(Map<String, MetricFamilySamples> mfSamplesMap, MetricFamilySamples newMfSamples) {
-        if (newMfSamples != null) {
-            MetricFamilySamples currentMfSamples = mfSamplesMap.get(newMfSamples.name);
-            if (currentMfSamples == null) {
-                mfSamplesMap.put(newMfSamples.name, newMfSamples);
-            } else {
-                List<MetricFamilySamples.Sample> samples = new ArrayList<>(currentMfSamples.samples);
-                samples.addAll(newMfSamples.samples);
-                mfSamplesMap.put(newMfSamples.name, new MetricFamilySamples(newMfSamples.name, currentMfSamples.type, currentMfSamples.help, samples));
-            }
+    protected void addToMap(Map<String, Family> families, Type type, Class<?> clzss, MetricFamilySamples.Sample sample) {
+        if (sample != null) {
+            families.computeIfAbsent(sample.name, name -> new Family(name, type, getHelpMessage(name, clzss)))
+                .samples.add(sample);
         }
-
     }
 
     public List<MetricFamilySamples> describe() {
         return new ArrayList<>();
     }
 
+    /**
+     * Collects the samples of one family so its list is built once per scrape instead of copied per sample.
+     */
+    static class Family {
+        private final String name;
+        private final Type type;
+        private final String help;
+        private final List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+
+        Family(String name, Type type, String help) {
+            this.name = name;
+            this.type = type;
+            this.help = help;
+        }
+
+        MetricFamilySamples build() {
+            return new MetricFamilySamples(name, type, help, samples);
+        }
+    }
+
     abstract class Exports<T extends Metric> {
         private final Collector.Type type;
         private final Class<?> clzss;
@@ -109,14 +126,14 @@ public class EaseAgentPrometheusExports extends Collector implements Collector.D
             this.clzss = clzss;
         }
 
-        public void addToMap(Map<String, MetricFamilySamples> mfSamplesMap) {
+        public void addToMap(Map<String, Family> families) {
             Map<String, Object> values = new HashMap<>();
             SortedMap<String, T> gaugeSortedMap = getMetric();
             for (String s : gaugeSortedMap.keySet()) {
                 writeValue(MetricName.metricNameFor(s), gaugeSortedMap, values);
                 for (Map.Entry<String, Object> entry : values.entrySet()) {
                     MetricFamilySamples.Sample sample = doubleValue(s, entry.getValue(), entry.getKey(), clzss);
-                    EaseAgentPrometheusExports.this.addToMap(mfSamplesMap, new MetricFamilySamples(sample.name, type, getHelpMessage(sample.name, clzss), Collections.singletonList(sample)));
+                    EaseAgentPrometheusExports.this.addToMap(families, type, clzss, sample);
                 }
                 values.clear();
             }
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.metrics.impl;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded memory {@link Reservoir} for timers, counting nanosecond durations into fixed logarithmic
+ * buckets whose width is {@link #RELATIVE_ACCURACY} of their value, so every percentile is within 1%
+ * of the recorded value no matter how many samples are recorded.
+ * <p>
+ * Samples are kept per interval, usually the reporting interval. A snapshot covers the last completed
+ * interval and the current one, and older intervals are reset instead of decaying.
+ * Because the bucket layout is fixed, snapshots of different timers or instances merge by adding counts.
+ * Buckets are allocated in chunks of {@link #CHUNK_SIZE} on first use, so a timer only holds the few chunks
+ * around the durations it actually records.
+ */
+public class BucketReservoir implements Reservoir {
+    static final double RELATIVE_ACCURACY = 0.01;
+    static final long MIN_VALUE = TimeUnit.MICROSECONDS.toNanos(1);
+    static final long MAX_VALUE = TimeUnit.HOURS.toNanos(1);
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+    private static final int CHUNK_BITS = 5;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNKS = (BUCKETS + CHUNK_SIZE - 1) >> CHUNK_BITS;
+
+    private final LongSupplier intervalNanos;
+    private final Clock clock;
+    private volatile Interval current;
+    private volatile Interval previous;
+
+    public BucketReservoir(LongSupplier intervalNanos) {
+        this(intervalNanos, Clock.defaultClock());
+    }
+
+    BucketReservoir(LongSupplier intervalNanos, Clock clock) {
+        this.intervalNanos = intervalNanos;
+        this.clock = clock;
+        long tick = clock.getTick();
+        this.current = new Interval(tick);
+        this.previous = new Interval(tick);
+    }
+
+    private static int bucketOf(long value) {
+        if (value <= MIN_VALUE) {
+            return 0;
+        }
+        return (int) Math.ceil(Math.log((double) value / MIN_VALUE) / LOG_GAMMA);
+    }
+
+    static int index(long value) {
+        return Math.min(bucketOf(value), BUCKETS - 1);
+    }
+
+    /**
+     * @return the value every sample of the bucket is reported as, within {@link #RELATIVE_ACCURACY} of them
+     */
+    static long valueOf(int index) {
+        if (index == 0) {
+            return MIN_VALUE;
+        }
+        return Math.round(MIN_VALUE * 2 * Math.pow(GAMMA, index) / (GAMMA + 1));
+    }
+
+    @Override
+    public int size() {
+        return getSnapshot().size();
+    }
+
+    @Override
+    public void update(long value) {
+        interval().update(value);
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        Interval cur = interval();
+        return BucketSnapshot.of(previous, cur);
+    }
+
+    int allocatedChunks() {
+        return current.allocatedChunks() + previous.allocatedChunks();
+    }
+
+    private Interval interval() {
+        long tick = clock.getTick();
+        Interval cur = current;
+        long length = intervalNanos.getAsLong();
+        if (tick - cur.start < length) {
+            return cur;
+        }
+        synchronized (this) {
+            cur = current;
+            if (tick - cur.start < length) {
+                return cur;
+            }
+            Interval next = previous;
+            next.reset(tick);
+            if (tick - cur.start >= 2 * length) {
+                cur.reset(tick);
+            }
+            previous = cur;
+            current = next;
+            return next;
+        }
+    }
+
+    private static final class Interval {
+        private final AtomicReferenceArray<AtomicLongArray> chunks = new AtomicReferenceArray<>(CHUNKS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+        private volatile long start;
+
+        Interval(long start) {
+            this.start = start;
+        }
+
+        void update(long value) {
+            int index = index(value);
+            chunk(index >> CHUNK_BITS).incrementAndGet(index & (CHUNK_SIZE - 1));
+            sum.addAndGet(value);
+            min.accumulateAndGet(value, Math::min);
+            max.accumulateAndGet(value, Math::max);
+            count.incrementAndGet();
+        }
+
+        private AtomicLongArray chunk(int i) {
+            AtomicLongArray chunk = chunks.get(i);
+            if (chunk == null) {
+                chunks.compareAndSet(i, null, new AtomicLongArray(CHUNK_SIZE));
+                chunk = chunks.get(i);
+            }
+            return chunk;
+        }
+
+        /**
+         * @return the number of samples added to {@code counts}
+         */
+        long addTo(long[] counts) {
+            long count = 0;
+            for (int i = 0; i < CHUNKS; i++) {
+                AtomicLongArray chunk = chunks.get(i);
+                if (chunk == null) {
+                    continue;
+                }
+                int offset = i << CHUNK_BITS;
+                for (int j = 0; j < CHUNK_SIZE && offset + j < BUCKETS; j++) {
+                    long c = chunk.get(j);
+                    counts[offset + j] += c;
+                    count += c;
+                }
+            }
+            return count;
+        }
+
+        int allocatedChunks() {
+            int allocated = 0;
+            for (int i = 0; i < CHUNKS; i++) {
+                if (chunks.get(i) != null) {
+                    allocated++;
+                }
+            }
+            return allocated;
+        }
+
+        void reset(long start) {
+            for (int i = 0; i < CHUNKS; i++) {
+                AtomicLongArray chunk = chunks.get(i);
+                if (chunk == null) {
+                    continue;
+                }
+                for (int j = 0; j < CHUNK_SIZE; j++) {
+                    chunk.set(j, 0);
+                }
+            }
+            count.set(0);
+            sum.set(0);
+            min.set(Long.MAX_VALUE);
+            max.set(Long.MIN_VALUE);
+            this.start = start;
+        }
+    }
+
+    /**
+     * A snapshot of bucket counts, percentiles are found by walking the cumulative counts
+     * instead of sorting samples.
+     */
+    public static class BucketSnapshot extends Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        BucketSnapshot(long[] counts, long count, long sum, long min, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        static BucketSnapshot of(Interval... intervals) {
+            long[] counts = new long[BUCKETS];
+            long count = 0;
+            long sum = 0;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (Interval interval : intervals) {
+                count += interval.addTo(counts);
+                sum += interval.sum.get();
+                min = Math.min(min, interval.min.get());
+                max = Math.max(max, interval.max.get());
+            }
+            return new BucketSnapshot(counts, count, sum, min, max);
+        }
+
+        /**
+         * @return a snapshot counting the samples of both snapshots
+         */
+        public BucketSnapshot merge(BucketSnapshot other) {
+            long[] merged = Arrays.copyOf(counts, BUCKETS);
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] += other.counts[i];
+            }
+            return new BucketSnapshot(merged, count + other.count, sum + other.sum,
+                Math.min(min, other.min), Math.max(max, other.max));
+        }
+
+        private long clamp(long value) {
+            return Math.max(min, Math.min(max, value));
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            }
+            if (count == 0) {
+                return 0.0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            if (rank == 1) {
+                return min;
+            }
+            if (rank >= count) {
+                return max;
+            }
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return clamp(valueOf(i));
+                }
+            }
+            return max;
+        }
+
+        /**
+         * @return one value per non empty bucket in ascending order, not one per sample
+         */
+        @Override
+        public long[] getValues() {
+            long[] values = new long[BUCKETS];
+            int size = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts[i] > 0) {
+                    values[size++] = clamp(valueOf(i));
+                }
+            }
+            return Arrays.copyOf(values, size);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return count == 0 ? 0 : max;
+        }
+
+        @Override
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        @Override
+        public long getMin() {
+            return count == 0 ? 0 : min;
+        }
+
+        @Override
+        public double getStdDev() {
+            if (count <= 1) {
+                return 0;
+            }
+            double mean = getMean();
+            double variance = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts[i] > 0) {
+                    double diff = clamp(valueOf(i)) - mean;
+                    variance += counts[i] * diff * diff;
+                }
+            }
+            return Math.sqrt(variance / (count - 1));
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    if (counts[i] > 0) {
+                        out.printf("%d\t%d%n", clamp(valueOf(i)), counts[i]);
+                    }
+                }
+            }
+        }
+    }
+}
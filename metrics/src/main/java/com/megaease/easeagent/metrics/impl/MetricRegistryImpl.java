@@ -19,20 +19,30 @@ package com.megaease.easeagent.metrics.impl;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.MetricRegistryListener;
+import com.megaease.easeagent.log4j2.Logger;
+import com.megaease.easeagent.log4j2.LoggerFactory;
+import com.megaease.easeagent.metrics.config.MetricsConfig;
 import com.megaease.easeagent.plugin.api.metric.*;
 import com.megaease.easeagent.plugin.bridge.NoOpMetrics;
 import com.megaease.easeagent.plugin.utils.NoNull;
 
 import javax.annotation.Nonnull;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 public class MetricRegistryImpl implements com.megaease.easeagent.plugin.api.metric.MetricRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricRegistryImpl.class);
     private final ConcurrentMap<String, Metric> metricCache;
     private final MetricRegistry metricRegistry;
+    private final MetricRegistry.MetricSupplier<com.codahale.metrics.Timer> timerSupplier;
+    private final List<Consumer<String>> removalListeners = new CopyOnWriteArrayList<>();
 
     MetricBuilder<Counter> counters = new MetricBuilder<Counter>() {
         @Override
@@ -60,19 +70,32 @@ public class MetricRegistryImpl implements com.megaease.easeagent.plugin.api.met
     MetricBuilder<Timer> timers = new MetricBuilder<Timer>() {
         @Override
         public Timer newMetric(String name) {
-            return NoNull.of(TimerImpl.build(metricRegistry.timer(name)), NoOpMetrics.NO_OP_TIMER);
+            com.codahale.metrics.Timer timer = timerSupplier == null ? metricRegistry.timer(name) : metricRegistry.timer(name, timerSupplier);
+            return NoNull.of(TimerImpl.build(timer), NoOpMetrics.NO_OP_TIMER);
         }
     };
 
-    private MetricRegistryImpl(MetricRegistry metricRegistry) {
+    private MetricRegistryImpl(MetricRegistry metricRegistry, MetricRegistry.MetricSupplier<com.codahale.metrics.Timer> timerSupplier) {
         this.metricRegistry = Objects.requireNonNull(metricRegistry, "metricRegistry must not be null");
         this.metricCache = new ConcurrentHashMap<>();
+        this.timerSupplier = timerSupplier;
         this.metricRegistry.addListener(new MetricRemoveListener());
 
     }
 
     public static com.megaease.easeagent.plugin.api.metric.MetricRegistry build(MetricRegistry metricRegistry) {
-        return metricRegistry == null ? NoOpMetrics.NO_OP_METRIC : new MetricRegistryImpl(metricRegistry);
+        return metricRegistry == null ? NoOpMetrics.NO_OP_METRIC : new MetricRegistryImpl(metricRegistry, null);
+    }
+
+    /**
+     * Timers keep their samples in a {@link BucketReservoir} reset every report interval of {@code metricsConfig}
+     */
+    public static com.megaease.easeagent.plugin.api.metric.MetricRegistry buildWithBucketReservoir(MetricRegistry metricRegistry, MetricsConfig metricsConfig) {
+        if (metricRegistry == null) {
+            return NoOpMetrics.NO_OP_METRIC;
+        }
+        LongSupplier intervalNanos = () -> metricsConfig.getIntervalUnit().toNanos(metricsConfig.getInterval());
+        return new MetricRegistryImpl(metricRegistry, () -> new com.codahale.metrics.Timer(new BucketReservoir(intervalNanos)));
     }
 
 
@@ -148,6 +171,26 @@ public class MetricRegistryImpl implements com.megaease.easeagent.plugin.api.met
         return metricRegistry;
     }
 
+    @Override
+    public void addRemovalListener(Consumer<String> listener) {
+        removalListeners.add(listener);
+    }
+
+    @Override
+    public void removeRemovalListener(Consumer<String> listener) {
+        removalListeners.remove(listener);
+    }
+
+    private void removed(String name) {
+        for (Consumer<String> listener : removalListeners) {
+            try {
+                listener.accept(name);
+            } catch (RuntimeException e) {
+                LOGGER.warn("removal listener of metric {} failed: {}", name, e.getMessage());
+            }
+        }
+    }
+
     public static class GaugeSupplier implements MetricRegistry.MetricSupplier<com.codahale.metrics.Gauge> {
         private final MetricSupplier<Gauge> supplier;
 
@@ -186,6 +229,7 @@ public class MetricRegistryImpl implements com.megaease.easeagent.plugin.api.met
             synchronized (metricCache) {
                 metricCache.remove(name);
             }
+            removed(name);
         }
 
         /**
@@ -203,6 +247,7 @@ public class MetricRegistryImpl implements com.megaease.easeagent.plugin.api.met
             synchronized (metricCache) {
                 metricCache.remove(name);
             }
+            removed(name);
         }
 
         /**
@@ -220,6 +265,7 @@ public class MetricRegistryImpl implements com.megaease.easeagent.plugin.api.met
             synchronized (metricCache) {
                 metricCache.remove(name);
             }
+            removed(name);
 
         }
 
@@ -238,6 +284,7 @@ public class MetricRegistryImpl implements com.megaease.easeagent.plugin.api.met
             synchronized (metricCache) {
                 metricCache.remove(name);
             }
+            removed(name);
 
         }
 
@@ -257,6 +304,7 @@ public class MetricRegistryImpl implements com.megaease.easeagent.plugin.api.met
             synchronized (metricCache) {
                 metricCache.remove(name);
             }
+            removed(name);
         }
     }
 
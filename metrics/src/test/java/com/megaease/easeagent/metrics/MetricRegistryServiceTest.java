@@ -112,6 +112,30 @@ public class MetricRegistryServiceTest {
 
     }
 
+    @Test
+    public void sampleBuilderReusesLabels() {
+        Tags tags = new Tags("testCategory", "testType", "testName").put("testKey", "testValue");
+        MetricRegistryService.EaseAgentSampleBuilder sampleBuilder = new MetricRegistryService.EaseAgentSampleBuilder(
+            () -> Collections.singletonMap("additionalAttributesKey", "additionalAttributesValue"), tags);
+        NameFactory nameFactory = NameFactory.createBuilder().counterType(MetricSubType.DEFAULT, new HashMap<>()).build();
+        String name = nameFactory.counterName("GET tt", MetricSubType.DEFAULT);
+        Collector.MetricFamilySamples.Sample first = sampleBuilder.createSample(name, "_m1", Collections.emptyList(), Collections.emptyList(), 1);
+        Collector.MetricFamilySamples.Sample second = sampleBuilder.createSample(name, "_m1", Collections.emptyList(), Collections.emptyList(), 2);
+        Collector.MetricFamilySamples.Sample other = sampleBuilder.createSample(name, "_m5", Collections.emptyList(), Collections.emptyList(), 3);
+        assertEquals("testCategory_testType_m1", first.name);
+        assertEquals("testCategory_testType_m5", other.name);
+        assertSame(first.labelNames, second.labelNames);
+        assertSame(first.labelValues, other.labelValues);
+        assertTrue(first.labelValues.contains("additionalAttributesValue"));
+        assertTrue(first.labelValues.contains("GET tt"));
+        assertEquals(2, (int) second.value);
+
+        Collector.MetricFamilySamples.Sample extra = sampleBuilder.createSample(name, "_m1",
+            Collections.singletonList("extraKey"), Collections.singletonList("extraValue"), 1);
+        assertTrue(extra.labelNames.contains("extraKey"));
+        assertTrue(extra.labelNames.contains("testKey"));
+    }
+
     @Test
     public void testCounter() {
         NameFactory nameFactory = NameFactory.createBuilder().counterType(MetricSubType.DEFAULT,
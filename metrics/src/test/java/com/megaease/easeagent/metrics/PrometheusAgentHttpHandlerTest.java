@@ -1,12 +1,12 @@
 /*
- * Copyright (c) 2021, MegaEase
+ * Copyright (c) 2022, MegaEase
  * All rights reserved.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
  *
- *   http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -17,14 +17,115 @@
 
 package com.megaease.easeagent.metrics;
 
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.IHTTPSession;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.request.Method;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Response;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.exporter.common.TextFormat;
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class PrometheusAgentHttpHandlerTest {
 
+    private static Response process(Map<String, String> headers) {
+        IHTTPSession session = mock(IHTTPSession.class);
+        when(session.getHeaders()).thenReturn(headers);
+        return new PrometheusAgentHttpHandler().process(null, null, session);
+    }
+
+    private static String send(Response response) {
+        response.setRequestMethod(Method.GET);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.send(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] dechunk(byte[] bytes, int offset) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String text = new String(bytes, StandardCharsets.ISO_8859_1);
+        int index = offset;
+        while (true) {
+            int lineEnd = text.indexOf("\r\n", index);
+            int size = Integer.parseInt(text.substring(index, lineEnd), 16);
+            if (size == 0) {
+                return body.toByteArray();
+            }
+            body.write(bytes, lineEnd + 2, size);
+            index = lineEnd + 2 + size + 2;
+        }
+    }
+
     @Test
     public void getPath() {
         assertEquals("/prometheus/metrics", new PrometheusAgentHttpHandler().getPath());
     }
+
+    @Test
+    public void process() {
+        CollectorRegistry.defaultRegistry.clear();
+        Counter counter = Counter.build("prometheus_handler_test", "test").register();
+        counter.inc();
+        try {
+            Response response = process(new HashMap<>());
+            assertEquals(TextFormat.CONTENT_TYPE_004, response.getMimeType());
+            assertFalse(response.useGzipWhenAccepted());
+            String data = send(response);
+            assertTrue(data.contains("Transfer-Encoding: chunked"));
+            assertTrue(data.contains("prometheus_handler_test_total 1.0"));
+
+            Map<String, String> headers = new HashMap<>();
+            headers.put("accept", TextFormat.CONTENT_TYPE_OPENMETRICS_100);
+            response = process(headers);
+            assertEquals(TextFormat.CONTENT_TYPE_OPENMETRICS_100, response.getMimeType());
+            data = send(response);
+            assertTrue(data.contains("prometheus_handler_test_total 1.0"));
+            assertTrue(data.contains("# EOF"));
+        } finally {
+            CollectorRegistry.defaultRegistry.unregister(counter);
+        }
+    }
+
+    @Test
+    public void processGzip() throws IOException {
+        CollectorRegistry.defaultRegistry.clear();
+        Counter counter = Counter.build("prometheus_handler_gzip_test", "test").register();
+        try {
+            Map<String, String> headers = new HashMap<>();
+            headers.put("accept-encoding", "gzip, deflate");
+            Response response = process(headers);
+            assertTrue(response.useGzipWhenAccepted());
+            response.setRequestMethod(Method.GET);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            response.send(outputStream);
+            byte[] bytes = outputStream.toByteArray();
+            String head = new String(bytes, StandardCharsets.ISO_8859_1);
+            assertTrue(head.contains("Content-Encoding: gzip"));
+            StringBuilder data = new StringBuilder();
+            try (Reader reader = new InputStreamReader(new GZIPInputStream(
+                new ByteArrayInputStream(dechunk(bytes, head.indexOf("\r\n\r\n") + 4))), StandardCharsets.UTF_8)) {
+                char[] buffer = new char[1024];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    data.append(buffer, 0, read);
+                }
+            }
+            assertTrue(data.toString().contains("prometheus_handler_gzip_test_total 0.0"));
+        } finally {
+            CollectorRegistry.defaultRegistry.unregister(counter);
+        }
+    }
 }
@@ -251,14 +251,19 @@ public class ConverterAdapterTest {
         String histogramName = nameFactory.histogramName(key, MetricSubType.DEFAULT);
         Histogram histogram = MetricRegistryMock.getCodahaleMetricRegistry().histogram(histogramName);
         for (int i = 0; i < 100; i++) {
-            histogram.update(i);
+            histogram.update(TimeUnit.MILLISECONDS.toNanos(i));
         }
         SortedMap<String, Histogram> histograms = new TreeMap<>(Collections.singletonMap(histogramName,
             histogram)
         );
         Map<String, Object> result = new HashMap<>();
         converter.writeHistograms(key, null, histograms, result);
-        assertTrue(result.isEmpty());
+
+        assertEquals(0d, (double) result.get(MetricField.MIN_EXECUTION_TIME.getField()), 1);
+        assertEquals(49.5d, (double) result.get(MetricField.MEAN_EXECUTION_TIME.getField()), 1);
+        assertEquals(99d, (double) result.get(MetricField.MAX_EXECUTION_TIME.getField()), 1);
+        assertEquals(49d, (double) result.get(MetricField.P50_EXECUTION_TIME.getField()), 1);
+        assertEquals(98d, (double) result.get(MetricField.P99_EXECUTION_TIME.getField()), 1);
     }
 
     @Test
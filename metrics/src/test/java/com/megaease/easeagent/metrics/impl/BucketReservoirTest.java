@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.metrics.impl;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class BucketReservoirTest {
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(30);
+
+    private static BucketReservoir buildReservoir(AtomicLong tick) {
+        return new BucketReservoir(() -> INTERVAL, new Clock() {
+            @Override
+            public long getTick() {
+                return tick.get();
+            }
+        });
+    }
+
+    private static void assertNear(long expected, double actual) {
+        assertEquals(expected, actual, expected * BucketReservoir.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    public void getSnapshot() {
+        BucketReservoir reservoir = buildReservoir(new AtomicLong());
+        for (int i = 1; i <= 1000; i++) {
+            reservoir.update(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(1000, snapshot.size());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), snapshot.getMin());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), snapshot.getMax());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(500500), snapshot.getMean(), 0.001);
+        assertNear(TimeUnit.MILLISECONDS.toNanos(500), snapshot.getMedian());
+        assertNear(TimeUnit.MILLISECONDS.toNanos(950), snapshot.get95thPercentile());
+        assertNear(TimeUnit.MILLISECONDS.toNanos(990), snapshot.get99thPercentile());
+        assertNear(TimeUnit.MILLISECONDS.toNanos(999), snapshot.get999thPercentile());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), snapshot.getValue(1.0), 0);
+        assertNear((long) (TimeUnit.MILLISECONDS.toNanos(1) * 288.8), snapshot.getStdDev());
+        long[] values = snapshot.getValues();
+        assertTrue(values.length < 1000);
+        for (int i = 1; i < values.length; i++) {
+            assertTrue(values[i] > values[i - 1]);
+        }
+    }
+
+    @Test
+    public void emptySnapshot() {
+        Snapshot snapshot = buildReservoir(new AtomicLong()).getSnapshot();
+        assertEquals(0, snapshot.size());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getMean(), 0);
+        assertEquals(0, snapshot.get99thPercentile(), 0);
+        assertEquals(0, snapshot.getValues().length);
+    }
+
+    @Test
+    public void intervalReset() {
+        AtomicLong tick = new AtomicLong();
+        BucketReservoir reservoir = buildReservoir(tick);
+        reservoir.update(100);
+        tick.set(INTERVAL);
+        reservoir.update(TimeUnit.SECONDS.toNanos(1));
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(2, snapshot.size());
+        assertEquals(100, snapshot.getMin());
+
+        tick.set(INTERVAL * 2);
+        snapshot = reservoir.getSnapshot();
+        assertEquals(1, snapshot.size());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), snapshot.getMin());
+
+        tick.set(INTERVAL * 5);
+        reservoir.update(7);
+        snapshot = reservoir.getSnapshot();
+        assertEquals(1, snapshot.size());
+        assertEquals(7, snapshot.getMax());
+    }
+
+    @Test
+    public void merge() {
+        BucketReservoir a = buildReservoir(new AtomicLong());
+        BucketReservoir b = buildReservoir(new AtomicLong());
+        for (int i = 1; i <= 100; i++) {
+            a.update(TimeUnit.MILLISECONDS.toNanos(i));
+            b.update(TimeUnit.MILLISECONDS.toNanos(100 + i));
+        }
+        BucketReservoir.BucketSnapshot merged = ((BucketReservoir.BucketSnapshot) a.getSnapshot())
+            .merge((BucketReservoir.BucketSnapshot) b.getSnapshot());
+        assertEquals(200, merged.size());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), merged.getMin());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), merged.getMax());
+        assertNear(TimeUnit.MILLISECONDS.toNanos(100), merged.getMedian());
+        assertNear(TimeUnit.MILLISECONDS.toNanos(190), merged.get95thPercentile());
+    }
+
+    @Test
+    public void allocateChunksOnUse() {
+        AtomicLong tick = new AtomicLong();
+        BucketReservoir reservoir = buildReservoir(tick);
+        assertEquals(0, reservoir.allocatedChunks());
+        for (int i = 10; i <= 12; i++) {
+            reservoir.update(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        int allocated = reservoir.allocatedChunks();
+        assertTrue("allocated " + allocated, allocated >= 1 && allocated <= 2);
+        assertTrue(allocated * BucketReservoir.CHUNK_SIZE < BucketReservoir.BUCKETS);
+
+        tick.addAndGet(INTERVAL);
+        reservoir.update(TimeUnit.MILLISECONDS.toNanos(11));
+        assertEquals(3, reservoir.getSnapshot().size() - 1);
+        assertTrue(reservoir.allocatedChunks() <= 2 * allocated);
+    }
+
+    @Test
+    public void outOfRange() {
+        BucketReservoir reservoir = buildReservoir(new AtomicLong());
+        reservoir.update(0);
+        reservoir.update(TimeUnit.HOURS.toNanos(2));
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(0, snapshot.getValue(0.5), 0);
+        assertEquals(TimeUnit.HOURS.toNanos(2), snapshot.getValue(1.0), 0);
+        assertEquals(BucketReservoir.BUCKETS - 1, BucketReservoir.index(Long.MAX_VALUE));
+    }
+}
@@ -18,17 +18,28 @@
 package com.megaease.easeagent.metrics.impl;
 
 import com.megaease.easeagent.metrics.MetricRegistryService;
+import com.megaease.easeagent.metrics.config.MetricsConfig;
 import com.megaease.easeagent.plugin.api.metric.*;
+import com.megaease.easeagent.plugin.api.metric.name.MetricSubType;
+import com.megaease.easeagent.plugin.api.metric.name.NameFactory;
+import com.megaease.easeagent.plugin.tools.metrics.RedisMetric;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class MetricRegistryImplTest {
@@ -73,6 +84,68 @@ public class MetricRegistryImplTest {
         assertEquals(value2, gauge.getValue());
     }
 
+    @Test
+    public void addRemovalListener() {
+        String name = buildMetricName("test_removal_listener");
+        List<String> removed = new ArrayList<>();
+        metricRegistry.addRemovalListener(removed::add);
+        metricRegistry.counter(name).inc();
+        assertTrue(removed.isEmpty());
+        metricRegistry.remove(name);
+        assertEquals(Collections.singletonList(name), removed);
+    }
+
+    @Test
+    public void removalListenerFailure() {
+        String name = buildMetricName("test_removal_listener_failure");
+        List<String> removed = new ArrayList<>();
+        metricRegistry.addRemovalListener(n -> {
+            throw new IllegalStateException("failure");
+        });
+        metricRegistry.addRemovalListener(removed::add);
+        metricRegistry.counter(name).inc();
+        metricRegistry.remove(name);
+        assertEquals(Collections.singletonList(name), removed);
+    }
+
+    @Test
+    public void removeRemovalListener() {
+        String name = buildMetricName("test_remove_removal_listener");
+        List<String> removed = new ArrayList<>();
+        Consumer<String> listener = removed::add;
+        metricRegistry.addRemovalListener(listener);
+        metricRegistry.removeRemovalListener(listener);
+        metricRegistry.counter(name).inc();
+        metricRegistry.remove(name);
+        assertTrue(removed.isEmpty());
+    }
+
+    @Test
+    public void serviceMetricHandle() {
+        NameFactory nameFactory = RedisMetric.nameFactory();
+        RedisMetric redisMetric = new RedisMetric(metricRegistry, nameFactory);
+        RedisMetric.RedisHandle handle = redisMetric.bind("get");
+        assertTrue(handle.isValid());
+
+        // names not built by a NameFactory are ignored
+        String name = buildMetricName("test_service_metric_handle");
+        metricRegistry.counter(name).inc();
+        metricRegistry.remove(name);
+        assertTrue(handle.isValid());
+        assertSame(handle, redisMetric.bind("get"));
+
+        metricRegistry.remove(nameFactory.timerName("get", MetricSubType.DEFAULT));
+        assertFalse(handle.isValid());
+        RedisMetric.RedisHandle rebound = redisMetric.bind("get");
+        assertNotSame(handle, rebound);
+
+        redisMetric.close();
+        assertFalse(rebound.isValid());
+        RedisMetric.RedisHandle closed = redisMetric.bind("get");
+        metricRegistry.remove(nameFactory.timerName("get", MetricSubType.DEFAULT));
+        assertTrue(closed.isValid());
+    }
+
     @Test
     public void getMetrics() {
         com.codahale.metrics.MetricRegistry mr = MetricRegistryService.DEFAULT.createMetricRegistry(null, null, null);
@@ -193,6 +266,39 @@ public class MetricRegistryImplTest {
     }
 
 
+    @Test
+    public void timerWithBucketReservoir() {
+        com.codahale.metrics.Timer defaultTimer = (com.codahale.metrics.Timer) metricRegistry.timer(buildMetricName("timerWithDefaultReservoir")).unwrap();
+        assertFalse(defaultTimer.getSnapshot() instanceof BucketReservoir.BucketSnapshot);
+
+        MetricRegistry bucketRegistry = MetricRegistryImpl.buildWithBucketReservoir(
+            MetricRegistryService.DEFAULT.createMetricRegistry(null, null, null), new MetricsConfig() {
+                @Override
+                public boolean isEnabled() {
+                    return true;
+                }
+
+                @Override
+                public int getInterval() {
+                    return 30;
+                }
+
+                @Override
+                public TimeUnit getIntervalUnit() {
+                    return TimeUnit.SECONDS;
+                }
+
+                @Override
+                public void setIntervalChangeCallback(Runnable runnable) {
+                }
+            });
+        Timer timer = bucketRegistry.timer(buildMetricName("timerWithBucketReservoir"));
+        timer.update(10, TimeUnit.MILLISECONDS);
+        com.codahale.metrics.Timer unwrap = (com.codahale.metrics.Timer) timer.unwrap();
+        assertTrue(unwrap.getSnapshot() instanceof BucketReservoir.BucketSnapshot);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), timer.getSnapshot().getMax());
+    }
+
     class TestGauge implements Gauge<String> {
         private String name;
 
@@ -27,6 +27,7 @@ import java.io.OutputStream;
 import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -123,6 +124,7 @@ public class JdkHttpServer {
         private String path;
         private Consumer<Headers> headersConsumer;
         private Consumer<HttpExchange> exchangeConsumer;
+        private Executor executor;
 
         public Builder setPort(int port) {
             this.port = port;
@@ -139,6 +141,11 @@ public class JdkHttpServer {
             return this;
         }
 
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
         public Builder setPath(String path) {
             this.path = path;
             return this;
@@ -167,6 +174,9 @@ public class JdkHttpServer {
 
         public JdkHttpServer build() throws IOException {
             HttpServer httpServer = buildHttpServer();
+            if (executor != null) {
+                httpServer.setExecutor(executor);
+            }
             int p = httpServer.getAddress().getPort();
             String httpPath = path == null ? "/example" : path;
             JdkHttpServer jdkHttpServer = new JdkHttpServer(p, httpServer, httpPath);
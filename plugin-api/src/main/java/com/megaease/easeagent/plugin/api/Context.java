@@ -23,6 +23,8 @@ import com.megaease.easeagent.plugin.api.context.RequestContext;
 import com.megaease.easeagent.plugin.api.trace.*;
 import com.megaease.easeagent.plugin.bridge.NoOpIPluginConfig;
 
+import java.util.concurrent.Callable;
+
 /**
  * A Context remains in the session it was bound to until business finish.
  */
@@ -290,6 +292,35 @@ public interface Context {
      * @return true if task is warpped.
      */
     boolean isWrapped(Runnable task);
+
+    /**
+     * Wraps the input so that it executes with the same context as now.
+     * A Context which can't wrap a Callable returns it as it is.
+     */
+    default <V> Callable<V> wrap(Callable<V> task) {
+        return task;
+    }
+
+    /**
+     * Check task is wrapped.
+     *
+     * @param task Callable
+     * @return true if task is warpped.
+     */
+    default boolean isWrapped(Callable<?> task) {
+        return false;
+    }
+
+    /**
+     * Check there is anything for {@link #wrap(Runnable)} or {@link #wrap(Callable)} to pass to another thread:
+     * a current span, forwarded headers or key:value set in the current Context.
+     * When there is not, a task can run as it is.
+     *
+     * @return false if a task wrapped now would run with an empty context.
+     */
+    default boolean hasContextToPropagate() {
+        return true;
+    }
     //---------------------------------- 1. async context end ------------------------------------------
 
 
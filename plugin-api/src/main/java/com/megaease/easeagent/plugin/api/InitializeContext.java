@@ -20,6 +20,7 @@ package com.megaease.easeagent.plugin.api;
 import com.megaease.easeagent.plugin.api.config.IPluginConfig;
 import com.megaease.easeagent.plugin.api.trace.TracingContext;
 import com.megaease.easeagent.plugin.bridge.NoOpIPluginConfig;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
 
 /**
  * Subtype of {@link Context} and {@link TracingContext} which can push and pop Config.
@@ -84,6 +85,38 @@ public interface InitializeContext extends TracingContext {
      */
     void popToBound();
 
+    /**
+     * called by framework, get a MethodInfo for the instrumented method being entered.
+     * MethodInfo are reused frame by frame in depth order, so it must be given back by {@link #popMethodInfo(MethodInfo)}
+     *
+     * @return a MethodInfo which is not used by the current calls
+     */
+    MethodInfo pushMethodInfo();
+
+    /**
+     * called by framework when the instrumented method exits, the MethodInfo can be reused by the next call
+     *
+     * @param methodInfo the MethodInfo return by {@link #pushMethodInfo()}
+     */
+    void popMethodInfo(MethodInfo methodInfo);
+
+    /**
+     * called by framework, the primitive form of {@link #enter(Object)} for the interceptors given a reentrancy slot
+     * when their chain is built, the counter of a slot is kept apart from the counters of the keys.
+     *
+     * @param slot a small non-negative integer
+     * @return the count of entries of the slot, including this one
+     */
+    int enterSlot(int slot);
+
+    /**
+     * called by framework, the primitive form of {@link #exit(Object)}
+     *
+     * @param slot the slot given to {@link #enterSlot(int)}
+     * @return the count of entries of the slot before this exit, 0 when it was not entered
+     */
+    int exitSlot(int slot);
+
     /**
      * clear the context
      */
@@ -66,6 +66,8 @@ public interface ConfigConst {
     interface Observability {
         String KEY_COMM_ENABLED = "enabled";
         String KEY_COMM_SAMPLED_BY_QPS = "sampledByQPS";
+        String KEY_COMM_SAMPLED_TYPE = "sampledType";
+        String KEY_COMM_SAMPLED = "sampled";
         String KEY_COMM_OUTPUT = "output";
         String KEY_COMM_TAG = "tag";
         String KEY_COMM_SERVICE_PREFIX = "servicePrefix";
@@ -92,9 +94,18 @@ public interface ConfigConst {
         String TRACE = join(OBSERVABILITY, "tracings");
 
         String METRICS_ENABLED = join(METRICS, "enabled");
+        String METRICS_BUCKET_RESERVOIR_ENABLED = join(METRICS, "bucketReservoir", "enabled");
 
         String TRACE_ENABLED = join(TRACE, "enabled");
         String TRACE_SAMPLED_BY_QPS = join(TRACE, KEY_COMM_SAMPLED_BY_QPS);
+        String TRACE_SAMPLED_TYPE = join(TRACE, KEY_COMM_SAMPLED_TYPE);
+        String TRACE_SAMPLED = join(TRACE, KEY_COMM_SAMPLED);
+
+        String TRACE_TAIL_SAMPLING = join(TRACE, "tailSampling");
+        String TRACE_TAIL_SAMPLING_ENABLED = join(TRACE_TAIL_SAMPLING, "enabled");
+        String TRACE_TAIL_SAMPLING_LATENCY_THRESHOLD = join(TRACE_TAIL_SAMPLING, "latencyThreshold");
+        String TRACE_TAIL_SAMPLING_BASE_RATE = join(TRACE_TAIL_SAMPLING, "baseRate");
+        String TRACE_TAIL_SAMPLING_MAX_SPANS = join(TRACE_TAIL_SAMPLING, "maxSpans");
 
         String TRACE_OUTPUT = join(TRACE, KEY_COMM_OUTPUT);
         String TRACE_OUTPUT_ENABLED = join(TRACE_OUTPUT, "enabled");
@@ -62,8 +62,23 @@ public class AccessLogInfo {
     @JsonProperty("request_time")
     private long requestTime;
 
+    /**
+     * wall time in nanoseconds, kept under its historical name
+     */
     private long cpuElapsedTime;
 
+    /**
+     * thread cpu time of the request in nanoseconds, -1 when not measured
+     */
+    @JsonProperty("cpu_time_ns")
+    private long cpuTime = -1;
+
+    /**
+     * bytes allocated by the request, -1 when not measured
+     */
+    @JsonProperty("allocated_bytes")
+    private long allocatedBytes = -1;
+
     private String url;
 
     private String method;
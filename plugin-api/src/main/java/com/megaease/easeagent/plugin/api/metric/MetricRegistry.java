@@ -18,6 +18,7 @@
 package com.megaease.easeagent.plugin.api.metric;
 
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -86,4 +87,21 @@ public interface MetricRegistry {
      * @return a new or pre-existing {@link Timer}
      */
     Timer timer(String name);
+
+    /**
+     * Register a listener called with the name of every metric removed from the registry.
+     * It lets {@link ServiceMetric} drop the handle of the removed metric's key.
+     *
+     * @param listener the listener of removed metric names
+     */
+    default void addRemovalListener(Consumer<String> listener) {
+    }
+
+    /**
+     * Unregister a listener registered by {@link #addRemovalListener(Consumer)}.
+     *
+     * @param listener the listener of removed metric names
+     */
+    default void removeRemovalListener(Consumer<String> listener) {
+    }
 }
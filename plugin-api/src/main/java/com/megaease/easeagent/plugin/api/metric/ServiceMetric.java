@@ -17,11 +17,14 @@
 
 package com.megaease.easeagent.plugin.api.metric;
 
+import com.megaease.easeagent.plugin.api.metric.name.MetricName;
 import com.megaease.easeagent.plugin.api.metric.name.MetricSubType;
 import com.megaease.easeagent.plugin.api.metric.name.NameFactory;
 
 import javax.annotation.Nonnull;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * a base Service Metric
@@ -29,10 +32,13 @@ import java.util.function.Supplier;
 public abstract class ServiceMetric {
     protected final MetricRegistry metricRegistry;
     protected final NameFactory nameFactory;
+    private final ConcurrentHashMap<String, Handle> handles = new ConcurrentHashMap<>();
+    private final Consumer<String> removalListener = this::removed;
 
     public ServiceMetric(@Nonnull MetricRegistry metricRegistry, @Nonnull NameFactory nameFactory) {
         this.metricRegistry = metricRegistry;
         this.nameFactory = nameFactory;
+        this.metricRegistry.addRemovalListener(removalListener);
     }
 
     public Meter meter(String key, MetricSubType subType) {
@@ -55,6 +61,61 @@ public abstract class ServiceMetric {
         return metricRegistry.timer(nameFactory.timerName(key, subType));
     }
 
+    /**
+     * Get the handle of the key, the metrics of a key are bound once, and bound again only after
+     * one of them is removed from the registry.
+     *
+     * @param key    the key of metrics
+     * @param binder create the handle of a key
+     * @param <H>    the type of handle
+     * @return a valid handle of the key
+     */
+    @SuppressWarnings("unchecked")
+    protected <H extends Handle> H bind(String key, Function<String, H> binder) {
+        Handle handle = handles.get(key);
+        if (handle != null && handle.isValid()) {
+            return (H) handle;
+        }
+        H bound = binder.apply(key);
+        handles.put(key, bound);
+        return bound;
+    }
+
+    /**
+     * Drop the handle of the key, called when a metric of the key is removed from the registry.
+     * Handles kept elsewhere are no longer valid then, the handles of other keys are not affected.
+     *
+     * @param key the key of metrics
+     */
+    protected void unbind(String key) {
+        Handle handle = handles.remove(key);
+        if (handle != null) {
+            handle.valid = false;
+        }
+    }
+
+    /**
+     * Stop listening to removals of the registry and drop all handles, the handles kept elsewhere are no longer valid.
+     * Call it when this ServiceMetric is discarded and its registry lives on.
+     */
+    public void close() {
+        metricRegistry.removeRemovalListener(removalListener);
+        for (String key : handles.keySet()) {
+            unbind(key);
+        }
+    }
+
+    private void removed(String name) {
+        String key;
+        try {
+            key = MetricName.metricNameFor(name).getKey();
+        } catch (RuntimeException e) {
+            // not built by a NameFactory, so no handle is bound to it
+            return;
+        }
+        unbind(key);
+    }
+
     public MetricRegistry getMetricRegistry() {
         return metricRegistry;
     }
@@ -62,4 +123,19 @@ public abstract class ServiceMetric {
     public NameFactory getNameFactory() {
         return nameFactory;
     }
+
+    /**
+     * The metrics of a key, got from the registry once. A handle can be kept, eg. in context or in a dynamic field,
+     * to collect metrics of its key without building names and looking metrics up on every call.
+     */
+    public abstract static class Handle {
+        private volatile boolean valid = true;
+
+        /**
+         * @return false when metrics of its key were removed from the registry since bound, a new handle must be got then
+         */
+        public boolean isValid() {
+            return valid;
+        }
+    }
 }
@@ -105,6 +105,14 @@ public enum MetricField {
     CONSUMER_P98_EXECUTION_TIME("consrp98", ConverterType.DURATION, 2),
     CONSUMER_P99_EXECUTION_TIME("consrp99", ConverterType.DURATION, 2),
     CONSUMER_P999_EXECUTION_TIME("consrp999", ConverterType.DURATION, 2),
+    MEAN_CPU_TIME("cpumean", ConverterType.DURATION, 2),
+    MAX_CPU_TIME("cpumax", ConverterType.DURATION, 2),
+    P95_CPU_TIME("cpup95", ConverterType.DURATION, 2),
+    P99_CPU_TIME("cpup99", ConverterType.DURATION, 2),
+    MEAN_ALLOCATED_BYTES("allocmean"),
+    MAX_ALLOCATED_BYTES("allocmax"),
+    P95_ALLOCATED_BYTES("allocp95"),
+    P99_ALLOCATED_BYTES("allocp99"),
     NONE("", ConverterType.RATE, 0);
 
 
@@ -25,6 +25,8 @@ public enum MetricSubType {
     PRODUCER("04"), //for messaging kafka/rabbitmq producer
     CONSUMER_ERROR("05"), //for messaging kafka/rabbitmq consumer error
     PRODUCER_ERROR("06"), //for messaging kafka/rabbitmq producer error
+    CPU("07"), //for thread cpu time of requests
+    ALLOCATION("08"), //for bytes allocated by requests
     NONE("99");
 
     private final String code;
@@ -23,10 +23,12 @@ import com.megaease.easeagent.plugin.api.config.IPluginConfig;
 import com.megaease.easeagent.plugin.api.context.AsyncContext;
 import com.megaease.easeagent.plugin.api.context.RequestContext;
 import com.megaease.easeagent.plugin.api.trace.*;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
 
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 public class NoOpContext {
     public static final NoopContext NO_OP_CONTEXT = NoopContext.INSTANCE;
@@ -156,6 +158,21 @@ public class NoOpContext {
             return true;
         }
 
+        @Override
+        public <V> Callable<V> wrap(Callable<V> task) {
+            return task;
+        }
+
+        @Override
+        public boolean isWrapped(Callable<?> task) {
+            return true;
+        }
+
+        @Override
+        public boolean hasContextToPropagate() {
+            return false;
+        }
+
         @Override
         public boolean isNecessaryKeys(String key) {
             return false;
@@ -205,6 +222,25 @@ public class NoOpContext {
         public void popToBound() {
         }
 
+        @Override
+        public MethodInfo pushMethodInfo() {
+            return MethodInfo.builder().build();
+        }
+
+        @Override
+        public void popMethodInfo(MethodInfo methodInfo) {
+        }
+
+        @Override
+        public int enterSlot(int slot) {
+            return 0;
+        }
+
+        @Override
+        public int exitSlot(int slot) {
+            return 0;
+        }
+
         @Override
         public void clear() {
 
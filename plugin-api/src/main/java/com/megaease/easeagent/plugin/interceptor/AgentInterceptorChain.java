@@ -14,7 +14,6 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.megaease.easeagent.plugin.interceptor;
 
 import com.megaease.easeagent.plugin.Ordered;
@@ -22,62 +21,170 @@ import com.megaease.easeagent.plugin.api.InitializeContext;
 import com.megaease.easeagent.plugin.api.logging.Logger;
 import com.megaease.easeagent.plugin.bridge.EaseAgent;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Immutable chain of the interceptors of a pointcut, flattened into an array and run in a loop,
+ * chains of one or two interceptors, the most common ones, are run without looping.
+ * A changed chain is built by {@link #merge} and published as a whole by replacing the old one.
+ * Whether any interceptor is enabled is cached per chain, the cache is stale when the epoch moves on.
+ */
 public class AgentInterceptorChain {
     private static Logger log = EaseAgent.loggerFactory.getLogger(AgentInterceptorChain.class);
-    public ArrayList<Interceptor> interceptors;
+    private static final int EPOCH_MASK = 0x3FFFFFFF;
+    private static final AtomicInteger ENABLED_EPOCH = new AtomicInteger();
+    private final Interceptor[] interceptors;
+    private final boolean argsRequired;
+    /**
+     * (epoch << 1) | enabled, packed so that racing threads never see an epoch with a wrong flag
+     */
+    private int enabledState = -1;
 
     public AgentInterceptorChain(List<Interceptor> interceptors) {
-        this.interceptors = new ArrayList<>(interceptors);
+        this(interceptors.toArray(new Interceptor[0]));
     }
 
-    public AgentInterceptorChain(ArrayList<Interceptor> interceptors) {
+    private AgentInterceptorChain(Interceptor[] interceptors) {
         this.interceptors = interceptors;
+        this.argsRequired = argsRequired(interceptors);
+    }
+
+    public void doBefore(MethodInfo methodInfo, InitializeContext context) {
+        Interceptor[] chain = this.interceptors;
+        switch (chain.length) {
+            case 0:
+                return;
+            case 1:
+                before(chain[0], methodInfo, context);
+                return;
+            case 2:
+                before(chain[0], methodInfo, context);
+                before(chain[1], methodInfo, context);
+                return;
+            default:
+                doBefore(methodInfo, 0, context);
+        }
     }
 
     public void doBefore(MethodInfo methodInfo, int pos, InitializeContext context) {
-        if (pos == this.interceptors.size()) {
-            return;
+        Interceptor[] chain = this.interceptors;
+        for (int i = pos; i < chain.length; i++) {
+            before(chain[i], methodInfo, context);
+        }
+    }
+
+    public Object doAfter(MethodInfo methodInfo, InitializeContext context) {
+        Interceptor[] chain = this.interceptors;
+        switch (chain.length) {
+            case 0:
+                break;
+            case 1:
+                after(chain[0], methodInfo, context);
+                break;
+            case 2:
+                after(chain[1], methodInfo, context);
+                after(chain[0], methodInfo, context);
+                break;
+            default:
+                return doAfter(methodInfo, chain.length - 1, context);
         }
-        Interceptor interceptor = interceptors.get(pos);
+        return methodInfo.getRetValue();
+    }
+
+    public Object doAfter(MethodInfo methodInfo, int pos, InitializeContext context) {
+        Interceptor[] chain = this.interceptors;
+        for (int i = pos; i >= 0; i--) {
+            after(chain[i], methodInfo, context);
+        }
+        return methodInfo.getRetValue();
+    }
+
+    private static void before(Interceptor interceptor, MethodInfo methodInfo, InitializeContext context) {
         try {
             interceptor.before(methodInfo, context);
         } catch (Throwable e) {
             // set error message to context;
             log.debug("Interceptor before execute exception:" + e.getMessage());
         }
-        this.doBefore(methodInfo, pos + 1, context);
     }
 
-    public Object doAfter(MethodInfo methodInfo, int pos, InitializeContext context) {
-        if (pos < 0) {
-            return methodInfo.getRetValue();
-        }
-        Interceptor interceptor = interceptors.get(pos);
+    private static void after(Interceptor interceptor, MethodInfo methodInfo, InitializeContext context) {
         try {
             interceptor.after(methodInfo, context);
         } catch (Throwable e) {
             // set error message to context;
             log.debug("Interceptor exit execute exception:" + e.getMessage());
         }
-        return this.doAfter(methodInfo, pos - 1, context);
     }
 
-    public void merge(AgentInterceptorChain other) {
+    /**
+     * @return a new chain holding the interceptors of both chains sorted by order, this chain is left unchanged
+     */
+    public AgentInterceptorChain merge(AgentInterceptorChain other) {
         if (other == null) {
-            return;
+            return this;
         }
-        interceptors.addAll(other.interceptors);
-        this.interceptors = interceptors.stream()
-            .sorted(Comparator.comparing(Ordered::order))
-            .collect(Collectors.toCollection(ArrayList::new));
+        Interceptor[] merged = Arrays.copyOf(this.interceptors, this.interceptors.length + other.interceptors.length);
+        System.arraycopy(other.interceptors, 0, merged, this.interceptors.length, other.interceptors.length);
+        Arrays.sort(merged, Comparator.comparing(Ordered::order));
+        return new AgentInterceptorChain(merged);
     }
 
     public int size() {
-        return this.interceptors.size();
+        return this.interceptors.length;
+    }
+
+    public List<Interceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(this.interceptors));
+    }
+
+    /**
+     * @return true when any interceptor of the chain reads or changes the arguments of the instrumented method
+     */
+    public boolean isArgsRequired() {
+        return this.argsRequired;
+    }
+
+    /**
+     * @return true when any interceptor of the chain is enabled, a read of the epoch while nothing changes
+     */
+    public boolean isEnabled() {
+        int epoch = ENABLED_EPOCH.get();
+        int state = this.enabledState;
+        if (state >>> 1 == epoch) {
+            return (state & 1) != 0;
+        }
+        boolean enabled = anyEnabled(this.interceptors);
+        this.enabledState = (epoch << 1) | (enabled ? 1 : 0);
+        return enabled;
+    }
+
+    /**
+     * called when the config of any interceptor changed, all chains check their interceptors again on next call
+     */
+    public static void invalidateEnabled() {
+        ENABLED_EPOCH.updateAndGet(epoch -> (epoch + 1) & EPOCH_MASK);
+    }
+
+    private static boolean anyEnabled(Interceptor[] interceptors) {
+        for (Interceptor interceptor : interceptors) {
+            if (interceptor.isEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean argsRequired(Interceptor[] interceptors) {
+        for (Interceptor interceptor : interceptors) {
+            if (interceptor.isArgsRequired()) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -49,6 +49,29 @@ public interface Interceptor extends Ordered {
         return Order.TRACING.getName();
     }
 
+    /**
+     * Whether the interceptor reads or changes the arguments of the instrumented method,
+     * through {@link MethodInfo#getArgs()}, {@link MethodInfo#changeArg(int, Object)} etc.
+     * When no interceptor of a chain requires them, the arguments are not boxed into an array
+     * for each call and {@link MethodInfo#getArgs()} returns null.
+     *
+     * @return false only when the interceptor never touches the arguments
+     */
+    default boolean isArgsRequired() {
+        return true;
+    }
+
+    /**
+     * Whether the interceptor is to be run, eg. its plugin is enabled by config.
+     * A chain is skipped as a whole when none of its interceptors is enabled,
+     * the chain caches the result until {@link AgentInterceptorChain#invalidateEnabled()} is called.
+     *
+     * @return false when the interceptor is switched off
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
     /**
      * Initialization method for the interceptor,
      * This method will be called and only be called once for every method which is injected by this interceptor,
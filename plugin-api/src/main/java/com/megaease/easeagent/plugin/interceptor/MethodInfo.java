@@ -40,7 +40,8 @@ public class MethodInfo {
     private String method;
 
     /**
-     * The arguments of instrumented method. If no args exist,args=null
+     * The arguments of instrumented method.
+     * It is null when no interceptor of the chain requires them, see {@link Interceptor#isArgsRequired()}
      */
     private Object[] args;
 
@@ -138,6 +139,29 @@ public class MethodInfo {
         this.retValue = retValue;
     }
 
+    /**
+     * called by framework to reuse this MethodInfo for another invocation
+     */
+    public void reset(Object invoker, String type, String method, Object[] args) {
+        this.invoker = invoker;
+        this.type = type;
+        this.method = method;
+        this.args = args;
+        this.throwable = null;
+        this.retValue = null;
+        this.changed = false;
+    }
+
+    /**
+     * The MethodInfo passed to interceptors is reused by the framework once the instrumented method returns.
+     * An interceptor which keeps it after {@code after}, eg. for an async callback, must keep a copy.
+     *
+     * @return a MethodInfo holding the same values, not shared with the framework
+     */
+    public MethodInfo copy() {
+        return new MethodInfo(invoker, type, method, args, throwable, retValue, changed);
+    }
+
     public boolean equals(final Object o) {
         if (o == this) {
             return true;
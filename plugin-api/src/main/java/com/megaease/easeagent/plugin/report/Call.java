@@ -24,6 +24,18 @@ import java.io.IOException;
 public interface Call<V> {
     V execute() throws IOException;
 
+    /**
+     * Invokes the call asynchronously, completing the callback. A call without an asynchronous transport
+     * executes on the caller thread.
+     */
     default void enqueue(Callback<V> cb) {
+        V value;
+        try {
+            value = execute();
+        } catch (IOException | RuntimeException e) {
+            cb.onError(e);
+            return;
+        }
+        cb.onSuccess(value);
     }
 }
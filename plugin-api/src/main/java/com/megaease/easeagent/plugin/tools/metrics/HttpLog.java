@@ -82,6 +82,10 @@ public class HttpLog {
 
 
     public void finish(AccessLogInfo accessLog, boolean success, Long beginTime, AccessLogServerInfo serverInfo) {
+        finish(accessLog, success, beginTime, serverInfo, null);
+    }
+
+    public void finish(AccessLogInfo accessLog, boolean success, Long beginTime, AccessLogServerInfo serverInfo, ResourceUsage usage) {
         accessLog.setStatusCode(serverInfo.getStatusCode());
         if (!success) {
             accessLog.setStatusCode("500");
@@ -92,5 +96,10 @@ public class HttpLog {
         accessLog.setCpuElapsedTime(System.nanoTime() - accessLog.getBeginCpuTime());
         accessLog.setResponseSize(serverInfo.getResponseBufferSize());
         accessLog.setMatchUrl(serverInfo.getMatchURL());
+        if (usage != null) {
+            usage.suspend();
+            accessLog.setCpuTime(usage.getCpuTime());
+            accessLog.setAllocatedBytes(usage.getAllocatedBytes());
+        }
     }
 }
@@ -43,26 +43,52 @@ public class RedisMetric extends ServiceMetric {
     }
 
     public void collect(String key, long duration, boolean success) {
-        metricRegistry.timer(this.nameFactory.timerName(key, MetricSubType.DEFAULT)).update(duration, TimeUnit.MILLISECONDS);
-        final Meter defaultMeter = metricRegistry.meter(nameFactory.meterName(key, MetricSubType.DEFAULT));
-        final Counter defaultCounter = metricRegistry.counter(nameFactory.counterName(key, MetricSubType.DEFAULT));
-        final Meter errorMeter = metricRegistry.meter(nameFactory.meterName(key, MetricSubType.ERROR));
-        final Counter errorCounter = metricRegistry.counter(nameFactory.counterName(key, MetricSubType.ERROR));
+        bind(key).collect(duration, success);
+    }
+
+    /**
+     * @param key the key of metrics, eg. the command
+     * @return the handle of metrics of the key
+     */
+    public RedisHandle bind(String key) {
+        return bind(key, k -> new RedisHandle(this, k));
+    }
 
-        if (!success) {
-            errorMeter.mark();
-            errorCounter.inc();
+    public static final class RedisHandle extends Handle {
+        private final Timer timer;
+        private final Meter defaultMeter;
+        private final Counter defaultCounter;
+        private final Meter errorMeter;
+        private final Counter errorCounter;
+
+        RedisHandle(RedisMetric redisMetric, String key) {
+            MetricRegistry metricRegistry = redisMetric.metricRegistry;
+            NameFactory nameFactory = redisMetric.nameFactory;
+            this.timer = metricRegistry.timer(nameFactory.timerName(key, MetricSubType.DEFAULT));
+            this.defaultMeter = metricRegistry.meter(nameFactory.meterName(key, MetricSubType.DEFAULT));
+            this.defaultCounter = metricRegistry.counter(nameFactory.counterName(key, MetricSubType.DEFAULT));
+            this.errorMeter = metricRegistry.meter(nameFactory.meterName(key, MetricSubType.ERROR));
+            this.errorCounter = metricRegistry.counter(nameFactory.counterName(key, MetricSubType.ERROR));
+
+            MetricName gaugeName = nameFactory.gaugeNames(key).get(MetricSubType.DEFAULT);
+            Meter meter = this.defaultMeter;
+            metricRegistry.gauge(gaugeName.name(), () -> () ->
+                LastMinutesCounterGauge.builder()
+                    .m1Count((long) (meter.getOneMinuteRate() * 60))
+                    .m5Count((long) (meter.getFiveMinuteRate() * 60 * 5))
+                    .m15Count((long) (meter.getFifteenMinuteRate() * 60 * 15))
+                    .build());
         }
-        defaultMeter.mark();
-        defaultCounter.inc();
 
-        MetricName gaugeName = nameFactory.gaugeNames(key).get(MetricSubType.DEFAULT);
-        metricRegistry.gauge(gaugeName.name(), () -> () ->
-            LastMinutesCounterGauge.builder()
-                .m1Count((long) (defaultMeter.getOneMinuteRate() * 60))
-                .m5Count((long) (defaultMeter.getFiveMinuteRate() * 60 * 5))
-                .m15Count((long) (defaultMeter.getFifteenMinuteRate() * 60 * 15))
-                .build());
+        public void collect(long duration, boolean success) {
+            timer.update(duration, TimeUnit.MILLISECONDS);
+            if (!success) {
+                errorMeter.mark();
+                errorCounter.inc();
+            }
+            defaultMeter.mark();
+            defaultCounter.inc();
+        }
     }
 
     @Nonnull
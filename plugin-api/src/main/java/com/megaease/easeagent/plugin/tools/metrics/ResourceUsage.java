@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.tools.metrics;
+
+import com.megaease.easeagent.plugin.api.Cleaner;
+import com.megaease.easeagent.plugin.bridge.NoOpCleaner;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread CPU time and allocated bytes spent on behalf of one request.
+ * <p>
+ * The thread which calls {@link #begin()} is measured until {@link #suspend()};
+ * work handed off to other threads is added through {@link #enter(ResourceUsage)}
+ * wherever the context is propagated. Whether the JVM can measure either value
+ * is detected once, when this class is loaded.
+ */
+public final class ResourceUsage {
+    private static final ThreadLocal<ResourceUsage> ACTIVE = new ThreadLocal<>();
+    private static final ThreadMXBean THREAD_MX_BEAN;
+    private static final boolean CPU_TIME_SUPPORTED;
+    private static final boolean ALLOCATED_BYTES_SUPPORTED;
+
+    static {
+        ThreadMXBean bean = null;
+        boolean cpuTime = false;
+        boolean allocatedBytes = false;
+        try {
+            bean = ManagementFactory.getThreadMXBean();
+            cpuTime = bean.isCurrentThreadCpuTimeSupported() && bean.isThreadCpuTimeEnabled();
+        } catch (Throwable ignored) {
+            // leave cpu time unsupported
+        }
+        try {
+            allocatedBytes = bean != null && AllocatedBytes.isSupported(bean);
+        } catch (Throwable ignored) {
+            // com.sun.management is not available on this JVM
+        }
+        THREAD_MX_BEAN = bean;
+        CPU_TIME_SUPPORTED = cpuTime;
+        ALLOCATED_BYTES_SUPPORTED = allocatedBytes;
+    }
+
+    private final AtomicLong cpuTime = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private volatile Cleaner owner;
+
+    private ResourceUsage() {
+    }
+
+    public static boolean isSupported() {
+        return CPU_TIME_SUPPORTED || ALLOCATED_BYTES_SUPPORTED;
+    }
+
+    public static boolean isCpuTimeSupported() {
+        return CPU_TIME_SUPPORTED;
+    }
+
+    public static boolean isAllocatedBytesSupported() {
+        return ALLOCATED_BYTES_SUPPORTED;
+    }
+
+    /**
+     * @return cpu time of the current thread in nanoseconds, or -1 when unsupported
+     */
+    public static long currentThreadCpuTime() {
+        return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far, or -1 when unsupported
+     */
+    public static long currentThreadAllocatedBytes() {
+        return ALLOCATED_BYTES_SUPPORTED ? AllocatedBytes.current(THREAD_MX_BEAN) : -1;
+    }
+
+    /**
+     * Start measuring the current thread for a new request.
+     *
+     * @return the usage of the request, or null when the JVM can measure nothing
+     */
+    public static ResourceUsage begin() {
+        if (!isSupported()) {
+            return null;
+        }
+        // a pooled thread may still hold the usage of a request which never suspended it
+        ACTIVE.remove();
+        ResourceUsage usage = new ResourceUsage();
+        usage.owner = usage.measure();
+        return usage;
+    }
+
+    /**
+     * Measure the current thread until the returned cleaner is closed, adding the
+     * result to {@code usage}. Nested calls for the same usage are not counted twice.
+     *
+     * @param usage the usage of the request, may be null
+     * @return the cleaner which stops measuring, never null
+     */
+    public static Cleaner enter(ResourceUsage usage) {
+        if (usage == null || ACTIVE.get() == usage) {
+            return NoOpCleaner.INSTANCE;
+        }
+        return usage.measure();
+    }
+
+    /**
+     * Stop measuring the thread which called {@link #begin()}. It is a no-op when
+     * called again or from another thread.
+     */
+    public void suspend() {
+        Cleaner cleaner = this.owner;
+        if (cleaner != null) {
+            cleaner.close();
+        }
+    }
+
+    /**
+     * @return cpu time in nanoseconds measured so far, or -1 when unsupported
+     */
+    public long getCpuTime() {
+        return CPU_TIME_SUPPORTED ? cpuTime.get() : -1;
+    }
+
+    /**
+     * @return bytes allocated so far, or -1 when unsupported
+     */
+    public long getAllocatedBytes() {
+        return ALLOCATED_BYTES_SUPPORTED ? allocatedBytes.get() : -1;
+    }
+
+    private Cleaner measure() {
+        return new Measurement(ACTIVE.get());
+    }
+
+    private final class Measurement implements Cleaner {
+        private final Thread thread = Thread.currentThread();
+        private final ResourceUsage previous;
+        private final long beginCpuTime;
+        private final long beginAllocatedBytes;
+        private boolean closed = false;
+
+        Measurement(ResourceUsage previous) {
+            this.previous = previous;
+            this.beginCpuTime = currentThreadCpuTime();
+            this.beginAllocatedBytes = currentThreadAllocatedBytes();
+            ACTIVE.set(ResourceUsage.this);
+        }
+
+        @Override
+        public void close() {
+            if (closed || thread != Thread.currentThread()) {
+                return;
+            }
+            closed = true;
+            if (CPU_TIME_SUPPORTED) {
+                cpuTime.addAndGet(currentThreadCpuTime() - beginCpuTime);
+            }
+            if (ALLOCATED_BYTES_SUPPORTED) {
+                allocatedBytes.addAndGet(currentThreadAllocatedBytes() - beginAllocatedBytes);
+            }
+            if (previous == null) {
+                ACTIVE.remove();
+            } else {
+                ACTIVE.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Keeps the com.sun.management reference out of {@link ResourceUsage} so the
+     * class still loads on JVMs without it.
+     */
+    private static final class AllocatedBytes {
+        static boolean isSupported(ThreadMXBean bean) {
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+                return false;
+            }
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            return sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled();
+        }
+
+        static long current(ThreadMXBean bean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
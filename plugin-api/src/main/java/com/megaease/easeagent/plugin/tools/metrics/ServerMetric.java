@@ -28,6 +28,7 @@ import javax.annotation.Nonnull;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 
 public class ServerMetric extends ServiceMetric {
     public static final ServiceMetricSupplier<ServerMetric> SERVICE_METRIC_SUPPLIER = new ServiceMetricSupplier<ServerMetric>() {
@@ -47,42 +48,107 @@ public class ServerMetric extends ServiceMetric {
     }
 
     public void collectMetric(String key, int statusCode, Throwable throwable, long startMillis, long endMillis) {
-        Timer timer = timer(key, MetricSubType.DEFAULT);
-        timer.update(Duration.ofMillis(endMillis - startMillis));
-        final Meter errorMeter = meter(key, MetricSubType.ERROR);
-        final Meter meter = meter(key, MetricSubType.DEFAULT);
-        Counter errorCounter = counter(key, MetricSubType.ERROR);
-        Counter counter = counter(key, MetricSubType.DEFAULT);
-        boolean hasException = throwable != null;
-        if (statusCode >= 400 || hasException) {
-            errorMeter.mark();
-            errorCounter.inc();
+        bind(key).collect(statusCode, throwable, startMillis, endMillis);
+    }
+
+    public void collectMetric(String key, int statusCode, Throwable throwable, long startMillis, long endMillis, ResourceUsage usage) {
+        ServerHandle handle = bind(key);
+        handle.collect(statusCode, throwable, startMillis, endMillis);
+        handle.collect(usage);
+    }
+
+    /**
+     * @param key the key of metrics, eg. the url template
+     * @return the handle of metrics of the key
+     */
+    public ServerHandle bind(String key) {
+        return bind(key, k -> new ServerHandle(this, k));
+    }
+
+    public static final class ServerHandle extends Handle {
+        private final Timer timer;
+        private final Meter errorMeter;
+        private final Meter meter;
+        private final Counter errorCounter;
+        private final Counter counter;
+        private final ServerMetric serverMetric;
+        private final String key;
+        private volatile Timer cpuTimer;
+        private volatile Histogram allocationHistogram;
+
+        ServerHandle(ServerMetric serverMetric, String key) {
+            this.serverMetric = serverMetric;
+            this.key = key;
+            this.timer = serverMetric.timer(key, MetricSubType.DEFAULT);
+            this.errorMeter = serverMetric.meter(key, MetricSubType.ERROR);
+            this.meter = serverMetric.meter(key, MetricSubType.DEFAULT);
+            this.errorCounter = serverMetric.counter(key, MetricSubType.ERROR);
+            this.counter = serverMetric.counter(key, MetricSubType.DEFAULT);
+            serverMetric.gauge(key, MetricSubType.DEFAULT, () -> () -> errorPercent(errorMeter, meter));
         }
-        counter.inc();
-        meter.mark();
-
-        gauge(key, MetricSubType.DEFAULT, () -> () -> {
-            BigDecimal m1ErrorPercent = BigDecimal.ZERO;
-            BigDecimal m5ErrorPercent = BigDecimal.ZERO;
-            BigDecimal m15ErrorPercent = BigDecimal.ZERO;
-            BigDecimal error = BigDecimal.valueOf(errorMeter.getOneMinuteRate()).setScale(5, BigDecimal.ROUND_HALF_DOWN);
-            BigDecimal n = BigDecimal.valueOf(meter.getOneMinuteRate());
-            if (n.compareTo(BigDecimal.ZERO) != 0) {
-                m1ErrorPercent = error.divide(n, 2, BigDecimal.ROUND_HALF_UP);
-            }
-            error = BigDecimal.valueOf(errorMeter.getFiveMinuteRate()).setScale(5, BigDecimal.ROUND_HALF_DOWN);
-            n = BigDecimal.valueOf(meter.getFiveMinuteRate());
-            if (n.compareTo(BigDecimal.ZERO) != 0) {
-                m5ErrorPercent = error.divide(n, 2, BigDecimal.ROUND_HALF_UP);
+
+        public void collect(int statusCode, Throwable throwable, long startMillis, long endMillis) {
+            timer.update(Duration.ofMillis(endMillis - startMillis));
+            boolean hasException = throwable != null;
+            if (statusCode >= 400 || hasException) {
+                errorMeter.mark();
+                errorCounter.inc();
             }
+            counter.inc();
+            meter.mark();
+        }
 
-            error = BigDecimal.valueOf(errorMeter.getFifteenMinuteRate()).setScale(5, BigDecimal.ROUND_HALF_DOWN);
-            n = BigDecimal.valueOf(meter.getFifteenMinuteRate());
-            if (n.compareTo(BigDecimal.ZERO) != 0) {
-                m15ErrorPercent = error.divide(n, 2, BigDecimal.ROUND_HALF_UP);
+        /**
+         * Record the cpu time and allocated bytes of one request. The cpu timer and the
+         * allocation histogram are only registered once a measured request arrives.
+         *
+         * @param usage the usage of the request, may be null
+         */
+        public void collect(ResourceUsage usage) {
+            if (usage == null) {
+                return;
+            }
+            usage.suspend();
+            long cpuTime = usage.getCpuTime();
+            if (cpuTime >= 0) {
+                Timer t = cpuTimer;
+                if (t == null) {
+                    t = cpuTimer = serverMetric.timer(key, MetricSubType.CPU);
+                }
+                t.update(cpuTime, TimeUnit.NANOSECONDS);
+            }
+            long allocatedBytes = usage.getAllocatedBytes();
+            if (allocatedBytes >= 0) {
+                Histogram h = allocationHistogram;
+                if (h == null) {
+                    h = allocationHistogram = serverMetric.histogram(key, MetricSubType.ALLOCATION);
+                }
+                h.update(allocatedBytes);
             }
-            return new ErrorPercentModelGauge(m1ErrorPercent, m5ErrorPercent, m15ErrorPercent);
-        });
+        }
+    }
+
+    private static ErrorPercentModelGauge errorPercent(Meter errorMeter, Meter meter) {
+        BigDecimal m1ErrorPercent = BigDecimal.ZERO;
+        BigDecimal m5ErrorPercent = BigDecimal.ZERO;
+        BigDecimal m15ErrorPercent = BigDecimal.ZERO;
+        BigDecimal error = BigDecimal.valueOf(errorMeter.getOneMinuteRate()).setScale(5, BigDecimal.ROUND_HALF_DOWN);
+        BigDecimal n = BigDecimal.valueOf(meter.getOneMinuteRate());
+        if (n.compareTo(BigDecimal.ZERO) != 0) {
+            m1ErrorPercent = error.divide(n, 2, BigDecimal.ROUND_HALF_UP);
+        }
+        error = BigDecimal.valueOf(errorMeter.getFiveMinuteRate()).setScale(5, BigDecimal.ROUND_HALF_DOWN);
+        n = BigDecimal.valueOf(meter.getFiveMinuteRate());
+        if (n.compareTo(BigDecimal.ZERO) != 0) {
+            m5ErrorPercent = error.divide(n, 2, BigDecimal.ROUND_HALF_UP);
+        }
+
+        error = BigDecimal.valueOf(errorMeter.getFifteenMinuteRate()).setScale(5, BigDecimal.ROUND_HALF_DOWN);
+        n = BigDecimal.valueOf(meter.getFifteenMinuteRate());
+        if (n.compareTo(BigDecimal.ZERO) != 0) {
+            m15ErrorPercent = error.divide(n, 2, BigDecimal.ROUND_HALF_UP);
+        }
+        return new ErrorPercentModelGauge(m1ErrorPercent, m5ErrorPercent, m15ErrorPercent);
     }
 
     @Nonnull
@@ -120,6 +186,20 @@ public class ServerMetric extends ServiceMetric {
                     .put(MetricField.P99_EXECUTION_TIME, MetricValueFetcher.Snapshot99PercentileValue)
                     .put(MetricField.P999_EXECUTION_TIME, MetricValueFetcher.Snapshot999PercentileValue)
                     .build())
+            .timerType(MetricSubType.CPU,
+                ImmutableMap.<MetricField, MetricValueFetcher>builder()
+                    .put(MetricField.MEAN_CPU_TIME, MetricValueFetcher.SnapshotMeanValue)
+                    .put(MetricField.MAX_CPU_TIME, MetricValueFetcher.SnapshotMaxValue)
+                    .put(MetricField.P95_CPU_TIME, MetricValueFetcher.Snapshot95PercentileValue)
+                    .put(MetricField.P99_CPU_TIME, MetricValueFetcher.Snapshot99PercentileValue)
+                    .build())
+            .histogramType(MetricSubType.ALLOCATION,
+                ImmutableMap.<MetricField, MetricValueFetcher>builder()
+                    .put(MetricField.MEAN_ALLOCATED_BYTES, MetricValueFetcher.SnapshotMeanValue)
+                    .put(MetricField.MAX_ALLOCATED_BYTES, MetricValueFetcher.SnapshotMaxValue)
+                    .put(MetricField.P95_ALLOCATED_BYTES, MetricValueFetcher.Snapshot95PercentileValue)
+                    .put(MetricField.P99_ALLOCATED_BYTES, MetricValueFetcher.Snapshot99PercentileValue)
+                    .build())
             .build();
     }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.interceptor;
+
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.InitializeContext;
+import com.megaease.easeagent.plugin.bridge.NoOpContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AgentInterceptorChainTest {
+    private static final InitializeContext CONTEXT = NoOpContext.NO_OP_CONTEXT;
+
+    @Test
+    public void doBefore() {
+        for (int size = 0; size <= 4; size++) {
+            List<String> calls = new ArrayList<>();
+            AgentInterceptorChain chain = new AgentInterceptorChain(interceptors(size, calls));
+            chain.doBefore(MethodInfo.builder().build(), CONTEXT);
+            assertEquals(expected(size, "before", false), calls);
+        }
+    }
+
+    @Test
+    public void doAfter() {
+        for (int size = 0; size <= 4; size++) {
+            List<String> calls = new ArrayList<>();
+            AgentInterceptorChain chain = new AgentInterceptorChain(interceptors(size, calls));
+            MethodInfo methodInfo = MethodInfo.builder().retValue("ret").build();
+            assertEquals("ret", chain.doAfter(methodInfo, CONTEXT));
+            assertEquals(expected(size, "after", true), calls);
+        }
+    }
+
+    @Test
+    public void exceptionDoesNotBreakChain() {
+        List<String> calls = new ArrayList<>();
+        List<Interceptor> interceptors = new ArrayList<>();
+        interceptors.add(new FailingInterceptor(0));
+        interceptors.addAll(interceptors(2, calls));
+        AgentInterceptorChain chain = new AgentInterceptorChain(interceptors);
+        MethodInfo methodInfo = MethodInfo.builder().build();
+        chain.doBefore(methodInfo, CONTEXT);
+        chain.doAfter(methodInfo, CONTEXT);
+        assertEquals(Arrays.asList("before-0", "before-1", "after-1", "after-0"), calls);
+    }
+
+    @Test
+    public void merge() {
+        List<String> calls = new ArrayList<>();
+        AgentInterceptorChain first = new AgentInterceptorChain(Collections.singletonList(new RecordInterceptor(2, calls)));
+        AgentInterceptorChain second = new AgentInterceptorChain(Arrays.asList(new RecordInterceptor(1, calls), new RecordInterceptor(3, calls)));
+        AgentInterceptorChain merged = first.merge(second);
+        assertNotSame(first, merged);
+        assertEquals(1, first.size());
+        assertEquals(3, merged.size());
+        assertSame(first, first.merge(null));
+
+        merged.doBefore(MethodInfo.builder().build(), CONTEXT);
+        assertEquals(Arrays.asList("before-1", "before-2", "before-3"), calls);
+    }
+
+    @Test
+    public void isArgsRequired() {
+        Interceptor noArgs = new RecordInterceptor(0, new ArrayList<>()) {
+            @Override
+            public boolean isArgsRequired() {
+                return false;
+            }
+        };
+        AgentInterceptorChain chain = new AgentInterceptorChain(Collections.singletonList(noArgs));
+        assertFalse(chain.isArgsRequired());
+        assertTrue(chain.merge(new AgentInterceptorChain(interceptors(1, new ArrayList<>()))).isArgsRequired());
+    }
+
+    @Test
+    public void isEnabled() {
+        SwitchInterceptor first = new SwitchInterceptor(0);
+        SwitchInterceptor second = new SwitchInterceptor(1);
+        AgentInterceptorChain chain = new AgentInterceptorChain(Arrays.asList(first, second));
+        assertTrue(chain.isEnabled());
+
+        first.enabled = false;
+        second.enabled = false;
+        assertTrue("cached until invalidated", chain.isEnabled());
+        AgentInterceptorChain.invalidateEnabled();
+        assertFalse(chain.isEnabled());
+
+        second.enabled = true;
+        AgentInterceptorChain.invalidateEnabled();
+        assertTrue(chain.isEnabled());
+        assertTrue(new AgentInterceptorChain(Collections.emptyList()).merge(chain).isEnabled());
+        assertFalse(new AgentInterceptorChain(Collections.emptyList()).isEnabled());
+    }
+
+    private static List<Interceptor> interceptors(int size, List<String> calls) {
+        List<Interceptor> interceptors = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            interceptors.add(new RecordInterceptor(i, calls));
+        }
+        return interceptors;
+    }
+
+    private static List<String> expected(int size, String phase, boolean reverse) {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            expected.add(phase + "-" + i);
+        }
+        if (reverse) {
+            Collections.reverse(expected);
+        }
+        return expected;
+    }
+
+    static class RecordInterceptor implements Interceptor {
+        private final int order;
+        private final List<String> calls;
+
+        RecordInterceptor(int order, List<String> calls) {
+            this.order = order;
+            this.calls = calls;
+        }
+
+        @Override
+        public void before(MethodInfo methodInfo, Context context) {
+            calls.add("before-" + order);
+        }
+
+        @Override
+        public void after(MethodInfo methodInfo, Context context) {
+            calls.add("after-" + order);
+        }
+
+        @Override
+        public int order() {
+            return order;
+        }
+    }
+
+    static class FailingInterceptor extends RecordInterceptor {
+        FailingInterceptor(int order) {
+            super(order, new ArrayList<>());
+        }
+
+        @Override
+        public void before(MethodInfo methodInfo, Context context) {
+            throw new IllegalStateException("before");
+        }
+
+        @Override
+        public void after(MethodInfo methodInfo, Context context) {
+            throw new IllegalStateException("after");
+        }
+    }
+
+    static class SwitchInterceptor extends RecordInterceptor {
+        boolean enabled = true;
+
+        SwitchInterceptor(int order) {
+            super(order, new ArrayList<>());
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.tools.metrics;
+
+import com.megaease.easeagent.plugin.api.Cleaner;
+import com.megaease.easeagent.plugin.bridge.NoOpCleaner;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ResourceUsageTest {
+    private static final int ALLOCATION = 256 * 1024;
+
+    @Test
+    public void beginAndSuspend() {
+        ResourceUsage usage = ResourceUsage.begin();
+        if (!ResourceUsage.isSupported()) {
+            assertNull(usage);
+            return;
+        }
+        assertNotNull(usage);
+        assertNotNull(new byte[ALLOCATION]);
+        usage.suspend();
+        long cpuTime = usage.getCpuTime();
+        long allocatedBytes = usage.getAllocatedBytes();
+        if (ResourceUsage.isCpuTimeSupported()) {
+            assertTrue(cpuTime >= 0);
+        } else {
+            assertEquals(-1, cpuTime);
+        }
+        if (ResourceUsage.isAllocatedBytesSupported()) {
+            assertTrue(allocatedBytes >= ALLOCATION);
+        } else {
+            assertEquals(-1, allocatedBytes);
+        }
+
+        assertNotNull(new byte[ALLOCATION]);
+        usage.suspend();
+        assertEquals(allocatedBytes, usage.getAllocatedBytes());
+    }
+
+    @Test
+    public void enterIsNotCountedTwice() {
+        ResourceUsage usage = ResourceUsage.begin();
+        if (usage == null || !ResourceUsage.isAllocatedBytesSupported()) {
+            return;
+        }
+        try (Cleaner ignored = ResourceUsage.enter(usage)) {
+            assertNotNull(new byte[ALLOCATION]);
+        }
+        usage.suspend();
+        assertTrue(usage.getAllocatedBytes() >= ALLOCATION);
+        assertTrue(usage.getAllocatedBytes() < 2L * ALLOCATION);
+    }
+
+    @Test
+    public void enterFromAnotherThread() throws InterruptedException {
+        ResourceUsage usage = ResourceUsage.begin();
+        if (usage == null || !ResourceUsage.isAllocatedBytesSupported()) {
+            return;
+        }
+        usage.suspend();
+        long before = usage.getAllocatedBytes();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try (Cleaner ignored = ResourceUsage.enter(usage)) {
+                assertNotNull(new byte[ALLOCATION]);
+                usage.suspend();
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertNull(error.get());
+        assertTrue(usage.getAllocatedBytes() - before >= ALLOCATION);
+    }
+
+    @Test
+    public void beginClearsStaleUsage() {
+        ResourceUsage stale = ResourceUsage.begin();
+        if (stale == null) {
+            return;
+        }
+        ResourceUsage usage = ResourceUsage.begin();
+        usage.suspend();
+        try (Cleaner cleaner = ResourceUsage.enter(stale)) {
+            assertNotSame(NoOpCleaner.INSTANCE, cleaner);
+        }
+    }
+
+    @Test
+    public void enterNull() {
+        try (Cleaner cleaner = ResourceUsage.enter(null)) {
+            assertNotNull(cleaner);
+        }
+    }
+}
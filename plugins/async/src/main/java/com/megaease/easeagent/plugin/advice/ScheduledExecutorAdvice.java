@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.advice;
+
+import com.megaease.easeagent.plugin.Points;
+import com.megaease.easeagent.plugin.matcher.ClassMatcher;
+import com.megaease.easeagent.plugin.matcher.IClassMatcher;
+import com.megaease.easeagent.plugin.matcher.IMethodMatcher;
+import com.megaease.easeagent.plugin.matcher.MethodMatcher;
+
+import java.util.Set;
+
+/**
+ * One-shot tasks of a ScheduledThreadPoolExecutor, whose execute and submit also go through schedule.
+ * Periodic tasks outlive the call that scheduled them and are left alone.
+ */
+public class ScheduledExecutorAdvice implements Points {
+    @Override
+    public IClassMatcher getClassMatcher() {
+        return ClassMatcher.builder()
+            .hasClassName("java.util.concurrent.ScheduledThreadPoolExecutor")
+            .build();
+    }
+
+    @Override
+    public Set<IMethodMatcher> getMethodMatcher() {
+        return MethodMatcher.multiBuilder()
+            .match(MethodMatcher.builder()
+                .named("schedule")
+                .argsLength(3)
+                .arg(0, "java.lang.Runnable")
+                .build())
+            .match(MethodMatcher.builder()
+                .named("schedule")
+                .argsLength(3)
+                .arg(0, "java.util.concurrent.Callable")
+                .qualifier("callable")
+                .build())
+            .build();
+    }
+}
@@ -18,7 +18,9 @@
 package com.megaease.easeagent.plugin.interceptor;
 
 import com.megaease.easeagent.plugin.advice.CrossThreadAdvice;
+import com.megaease.easeagent.plugin.advice.ForkJoinPoolAdvice;
 import com.megaease.easeagent.plugin.advice.ReactSchedulersAdvice;
+import com.megaease.easeagent.plugin.advice.ScheduledExecutorAdvice;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.logging.Logger;
@@ -27,6 +29,8 @@ import com.megaease.easeagent.plugin.enums.Order;
 
 @AdviceTo(CrossThreadAdvice.class)
 @AdviceTo(ReactSchedulersAdvice.class)
+@AdviceTo(ForkJoinPoolAdvice.class)
+@AdviceTo(ScheduledExecutorAdvice.class)
 public class RunnableInterceptor implements Interceptor {
     private static final Logger logger = EaseAgent.loggerFactory.getLogger(RunnableInterceptor.class);
 
@@ -35,7 +39,7 @@ public class RunnableInterceptor implements Interceptor {
         try {
             Object[] args = methodInfo.getArgs();
             Runnable task = (Runnable) args[0];
-            if (!context.isWrapped(task)) {
+            if (!context.isWrapped(task) && context.hasContextToPropagate()) {
                 Runnable wrap = context.wrap(task);
                 methodInfo.changeArg(0, wrap);
             }
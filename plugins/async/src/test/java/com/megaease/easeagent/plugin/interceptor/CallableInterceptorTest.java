@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.interceptor;
+
+import com.megaease.easeagent.mock.plugin.api.junit.EaseAgentJunit4ClassRunner;
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.trace.Scope;
+import com.megaease.easeagent.plugin.api.trace.Span;
+import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+@RunWith(EaseAgentJunit4ClassRunner.class)
+public class CallableInterceptorTest {
+
+    @Test
+    public void before() throws Exception {
+        Context context = EaseAgent.getContext();
+        CallableInterceptor callableInterceptor = new CallableInterceptor();
+        Callable<String> callable = () -> {
+            Context runCont = EaseAgent.getContext();
+            assertTrue(runCont.currentTracing().hasCurrentSpan());
+            return runCont.nextSpan().parentIdString();
+        };
+        MethodInfo methodInfo = MethodInfo.builder()
+            .invoker("")
+            .type("")
+            .method("")
+            .args(new Object[]{callable})
+            .build();
+
+        Span span = context.nextSpan().start();
+        try (Scope ignored = span.maybeScope()) {
+            callableInterceptor.before(methodInfo, context);
+        } finally {
+            span.abandon();
+        }
+        @SuppressWarnings("unchecked")
+        Callable<String> wrap = (Callable<String>) methodInfo.getArgs()[0];
+        assertNotSame(callable, wrap);
+        assertTrue(context.isWrapped(wrap));
+
+        callableInterceptor.before(methodInfo, context);
+        assertSame(wrap, methodInfo.getArgs()[0]);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(span.spanIdString(), executor.submit(wrap).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void beforeWithNothingToPropagate() {
+        Context context = EaseAgent.getContext();
+        assertFalse(context.hasContextToPropagate());
+        CallableInterceptor callableInterceptor = new CallableInterceptor();
+        Callable<String> callable = () -> "test_value";
+        MethodInfo methodInfo = MethodInfo.builder()
+            .invoker("")
+            .type("")
+            .method("")
+            .args(new Object[]{callable})
+            .build();
+        callableInterceptor.before(methodInfo, context);
+        assertSame(callable, methodInfo.getArgs()[0]);
+        assertFalse(methodInfo.isChanged());
+    }
+}
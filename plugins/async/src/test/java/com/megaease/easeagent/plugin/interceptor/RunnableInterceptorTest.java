@@ -20,12 +20,16 @@ package com.megaease.easeagent.plugin.interceptor;
 import com.megaease.easeagent.mock.plugin.api.MockEaseAgent;
 import com.megaease.easeagent.mock.plugin.api.junit.EaseAgentJunit4ClassRunner;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.trace.Scope;
 import com.megaease.easeagent.plugin.api.trace.Span;
 import com.megaease.easeagent.plugin.bridge.EaseAgent;
 import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
+import com.sun.management.ThreadMXBean;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
@@ -69,4 +73,75 @@ public class RunnableInterceptorTest {
         assertEquals(span.spanIdString(), span1.id());
         System.out.println("run count: " + run.get());
     }
+
+    @Test
+    public void beforeWithNothingToPropagate() {
+        Context context = EaseAgent.getContext();
+        assertFalse(context.hasContextToPropagate());
+        RunnableInterceptor runnableInterceptor = new RunnableInterceptor();
+        Runnable runnable = () -> {
+        };
+        MethodInfo methodInfo = methodInfo(runnable);
+        runnableInterceptor.before(methodInfo, context);
+        assertSame(runnable, methodInfo.getArgs()[0]);
+
+        context.put("test_name", "test_value");
+        try {
+            runnableInterceptor.before(methodInfo, context);
+            assertTrue(context.isWrapped((Runnable) methodInfo.getArgs()[0]));
+        } finally {
+            context.remove("test_name");
+        }
+    }
+
+    @Test
+    public void beforeAllocation() {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+        Context context = EaseAgent.getContext();
+        RunnableInterceptor runnableInterceptor = new RunnableInterceptor();
+        Runnable runnable = () -> {
+        };
+        MethodInfo methodInfo = methodInfo(runnable);
+        int times = 10000;
+
+        long withoutContext = allocatedPerCall(threadMXBean, runnableInterceptor, methodInfo, context, times);
+        assertSame(runnable, methodInfo.getArgs()[0]);
+
+        Span span = context.nextSpan().start();
+        try (Scope ignored = span.maybeScope()) {
+            long withSpan = allocatedPerCall(threadMXBean, runnableInterceptor, methodInfo, context, times);
+            assertTrue("a wrapped task allocates a wrapper and a snapshot, but was " + withSpan, withSpan >= 32);
+        } finally {
+            span.abandon();
+        }
+        assertTrue("a task with nothing to propagate must not allocate, but was " + withoutContext, withoutContext < 8);
+    }
+
+    private static long allocatedPerCall(ThreadMXBean threadMXBean, RunnableInterceptor interceptor,
+                                         MethodInfo methodInfo, Context context, int times) {
+        Object task = methodInfo.getArgs()[0];
+        for (int i = 0; i < times; i++) {
+            methodInfo.changeArg(0, task);
+            interceptor.before(methodInfo, context);
+        }
+        long threadId = Thread.currentThread().getId();
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < times; i++) {
+            methodInfo.changeArg(0, task);
+            interceptor.before(methodInfo, context);
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        methodInfo.changeArg(0, task);
+        return allocated / times;
+    }
+
+    private static MethodInfo methodInfo(Runnable runnable) {
+        return MethodInfo.builder()
+            .invoker("")
+            .type("")
+            .method("")
+            .args(new Object[]{runnable})
+            .build();
+    }
 }
@@ -37,6 +37,7 @@ public abstract class BaseServletInterceptor implements NonReentrantInterceptor
     @Override
     public void doAfter(MethodInfo methodInfo, Context context) {
         HttpServletRequest httpServletRequest = (HttpServletRequest) methodInfo.getArgs()[0];
+        ServletUtils.suspendResourceUsage(httpServletRequest, context);
         final long start = ServletUtils.startTime(httpServletRequest);
         if (ServletUtils.markProcessed(httpServletRequest, getAfterMark())) {
             return;
@@ -18,12 +18,15 @@
 package com.megaease.easeagent.plugin.httpservlet.interceptor;
 
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
+import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.config.IPluginConfig;
 import com.megaease.easeagent.plugin.api.metric.ServiceMetricRegistry;
 import com.megaease.easeagent.plugin.api.metric.name.Tags;
 import com.megaease.easeagent.plugin.enums.Order;
 import com.megaease.easeagent.plugin.httpservlet.HttpServletPlugin;
 import com.megaease.easeagent.plugin.httpservlet.advice.DoFilterPoints;
+import com.megaease.easeagent.plugin.httpservlet.utils.ServletUtils;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
 import com.megaease.easeagent.plugin.tools.metrics.ServerMetric;
 
 import javax.servlet.http.HttpServletRequest;
@@ -33,10 +36,20 @@ import javax.servlet.http.HttpServletResponse;
 public class DoFilterMetricInterceptor extends BaseServletInterceptor {
     private static final String AFTER_MARK = DoFilterMetricInterceptor.class.getName() + "$AfterMark";
     private static volatile ServerMetric SERVER_METRIC = null;
+    private boolean resourceUsage = false;
 
     @Override
     public void init(IPluginConfig config, String className, String methodName, String methodDescriptor) {
         SERVER_METRIC = ServiceMetricRegistry.getOrCreate(config, new Tags("application", "http-request", "url"), ServerMetric.SERVICE_METRIC_SUPPLIER);
+        resourceUsage = Boolean.parseBoolean(config.getString("resourceUsage"));
+    }
+
+    @Override
+    public void doBefore(MethodInfo methodInfo, Context context) {
+        super.doBefore(methodInfo, context);
+        if (resourceUsage) {
+            ServletUtils.beginResourceUsage((HttpServletRequest) methodInfo.getArgs()[0], context);
+        }
     }
 
     @Override
@@ -47,7 +60,8 @@ public class DoFilterMetricInterceptor extends BaseServletInterceptor {
     @Override
     public void internalAfter(Throwable throwable, String key, HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, long start) {
         long end = System.currentTimeMillis();
-        SERVER_METRIC.collectMetric(key, httpServletResponse.getStatus(), throwable, start, end);
+        SERVER_METRIC.collectMetric(key, httpServletResponse.getStatus(), throwable, start, end,
+            resourceUsage ? ServletUtils.resourceUsage(httpServletRequest) : null);
     }
 
     @Override
@@ -19,6 +19,7 @@ package com.megaease.easeagent.plugin.httpservlet.interceptor;
 
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.config.IPluginConfig;
 import com.megaease.easeagent.plugin.api.context.RequestContext;
 import com.megaease.easeagent.plugin.api.logging.AccessLogInfo;
 import com.megaease.easeagent.plugin.api.trace.Span;
@@ -39,6 +40,12 @@ public class ServletHttpLogInterceptor extends BaseServletInterceptor {
     private static final String BEFORE_MARK = ServletHttpLogInterceptor.class.getName() + "$BeforeMark";
     private static final String AFTER_MARK = ServletHttpLogInterceptor.class.getName() + "$AfterMark";
     private final HttpLog httpLog = new HttpLog();
+    private boolean resourceUsage = false;
+
+    @Override
+    public void init(IPluginConfig config, String className, String methodName, String methodDescriptor) {
+        resourceUsage = Boolean.parseBoolean(config.getString("resourceUsage"));
+    }
 
     public AccessLogServerInfo serverInfo(HttpServletRequest request, HttpServletResponse response) {
         ServletAccessLogServerInfo serverInfo = (ServletAccessLogServerInfo) request.getAttribute(ServletAccessLogServerInfo.class.getName());
@@ -79,6 +86,9 @@ public class ServletHttpLogInterceptor extends BaseServletInterceptor {
         AccessLogServerInfo serverInfo = this.serverInfo(httpServletRequest, httpServletResponse);
         AccessLogInfo accessLog = this.httpLog.prepare(getSystem(), getServiceName(), beginTime, span, serverInfo);
         httpServletRequest.setAttribute(AccessLogInfo.class.getName(), accessLog);
+        if (resourceUsage) {
+            ServletUtils.beginResourceUsage(httpServletRequest, context);
+        }
     }
 
     @Override
@@ -91,7 +101,8 @@ public class ServletHttpLogInterceptor extends BaseServletInterceptor {
         Long beginTime = ServletUtils.startTime(httpServletRequest);
         AccessLogInfo accessLog = (AccessLogInfo) httpServletRequest.getAttribute(AccessLogInfo.class.getName());
         AccessLogServerInfo serverInfo = this.serverInfo(httpServletRequest, httpServletResponse);
-        this.httpLog.finish(accessLog, throwable == null, beginTime, serverInfo);
+        this.httpLog.finish(accessLog, throwable == null, beginTime, serverInfo,
+            resourceUsage ? ServletUtils.resourceUsage(httpServletRequest) : null);
         EaseAgent.agentReport.report(accessLog);
     }
 
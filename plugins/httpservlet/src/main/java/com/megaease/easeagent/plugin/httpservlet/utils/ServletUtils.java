@@ -17,9 +17,11 @@
 
 package com.megaease.easeagent.plugin.httpservlet.utils;
 
+import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.logging.Logger;
 import com.megaease.easeagent.plugin.bridge.EaseAgent;
 import com.megaease.easeagent.plugin.httpservlet.interceptor.DoFilterTraceInterceptor;
+import com.megaease.easeagent.plugin.tools.metrics.ResourceUsage;
 import com.megaease.easeagent.plugin.utils.ClassUtils;
 import lombok.SneakyThrows;
 
@@ -33,6 +35,7 @@ import java.util.Map;
 public class ServletUtils {
     public static final Logger LOGGER = EaseAgent.getLogger(ServletUtils.class);
     public static final String START_TIME = ServletUtils.class.getName() + "$StartTime";
+    public static final String RESOURCE_USAGE = ServletUtils.class.getName() + "$ResourceUsage";
     public static final String PROGRESS_CONTEXT = DoFilterTraceInterceptor.class.getName() + ".RequestContext";
     public static final String HANDLER_MAPPING_CLASS = "org.springframework.web.servlet.HandlerMapping";
     public static final String BEST_MATCHING_PATTERN_ATTRIBUTE;
@@ -68,6 +71,34 @@ public class ServletUtils {
         return false;
     }
 
+    public static ResourceUsage beginResourceUsage(HttpServletRequest request, Context context) {
+        ResourceUsage usage = resourceUsage(request);
+        if (usage == null) {
+            usage = ResourceUsage.begin();
+            if (usage == null) {
+                return null;
+            }
+            request.setAttribute(RESOURCE_USAGE, usage);
+            context.put(ResourceUsage.class, usage);
+        }
+        return usage;
+    }
+
+    public static ResourceUsage resourceUsage(HttpServletRequest request) {
+        return (ResourceUsage) request.getAttribute(RESOURCE_USAGE);
+    }
+
+    public static void suspendResourceUsage(HttpServletRequest request, Context context) {
+        ResourceUsage usage = resourceUsage(request);
+        if (usage == null) {
+            return;
+        }
+        usage.suspend();
+        if (context.get(ResourceUsage.class) == usage) {
+            context.remove(ResourceUsage.class);
+        }
+    }
+
     public static long startTime(HttpServletRequest httpServletRequest) {
         Object startObj = httpServletRequest.getAttribute(START_TIME);
         Long start = null;
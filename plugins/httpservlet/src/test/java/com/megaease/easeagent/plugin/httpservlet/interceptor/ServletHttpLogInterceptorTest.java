@@ -20,6 +20,7 @@ package com.megaease.easeagent.plugin.httpservlet.interceptor;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.megaease.easeagent.mock.plugin.api.MockEaseAgent;
 import com.megaease.easeagent.mock.plugin.api.junit.EaseAgentJunit4ClassRunner;
+import com.megaease.easeagent.mock.plugin.api.utils.ConfigTestUtils;
 import com.megaease.easeagent.mock.report.MockReport;
 import com.megaease.easeagent.mock.report.impl.LastJsonReporter;
 import com.megaease.easeagent.plugin.api.config.IPluginConfig;
@@ -29,6 +30,7 @@ import com.megaease.easeagent.plugin.httpservlet.AccessPlugin;
 import com.megaease.easeagent.plugin.httpservlet.utils.ServletUtils;
 import com.megaease.easeagent.plugin.interceptor.MethodInfo;
 import com.megaease.easeagent.plugin.tools.metrics.AccessLogServerInfo;
+import com.megaease.easeagent.plugin.tools.metrics.ResourceUsage;
 import com.megaease.easeagent.plugin.api.logging.AccessLogInfo;
 import com.megaease.easeagent.plugin.utils.common.HostAddress;
 import com.megaease.easeagent.plugin.utils.common.JsonUtil;
@@ -125,6 +127,35 @@ public class ServletHttpLogInterceptorTest {
         assertEquals("500", info.getStatusCode());
     }
 
+    @Test
+    public void resourceUsage() {
+        EaseAgent.agentReport = MockReport.getAgentReport();
+        ServletHttpLogInterceptor servletHttpLogInterceptor = new ServletHttpLogInterceptor();
+        AccessPlugin accessPlugin = new AccessPlugin();
+        IPluginConfig iPluginConfig = EaseAgent.getConfig(accessPlugin.getDomain(), accessPlugin.getNamespace(), servletHttpLogInterceptor.getType());
+        try (ConfigTestUtils.Reset ignored = ConfigTestUtils.changeBoolean(iPluginConfig, "resourceUsage", true)) {
+            servletHttpLogInterceptor.init(EaseAgent.getConfig(accessPlugin.getDomain(), accessPlugin.getNamespace(), servletHttpLogInterceptor.getType()), "", "", "");
+        }
+
+        MockHttpServletRequest httpServletRequest = TestServletUtils.buildMockRequest();
+        HttpServletResponse response = TestServletUtils.buildMockResponse();
+        MethodInfo methodInfo = MethodInfo.builder().args(new Object[]{httpServletRequest, response}).build();
+        servletHttpLogInterceptor.doBefore(methodInfo, EaseAgent.getContext());
+        ResourceUsage usage = ServletUtils.resourceUsage(httpServletRequest);
+        assertNotNull(usage);
+        assertSame(usage, EaseAgent.getContext().get(ResourceUsage.class));
+        assertNotNull(new byte[64 * 1024]);
+        servletHttpLogInterceptor.doAfter(methodInfo, EaseAgent.getContext());
+        assertNull(EaseAgent.getContext().get(ResourceUsage.class));
+
+        AccessLogInfo info = MockEaseAgent.getLastLog();
+        assertEquals(usage.getCpuTime(), info.getCpuTime());
+        assertEquals(usage.getAllocatedBytes(), info.getAllocatedBytes());
+        if (ResourceUsage.isAllocatedBytesSupported()) {
+            assertTrue(info.getAllocatedBytes() >= 64 * 1024);
+        }
+    }
+
     @Test
     public void getType() {
         ServletHttpLogInterceptor servletHttpLogInterceptor = new ServletHttpLogInterceptor();
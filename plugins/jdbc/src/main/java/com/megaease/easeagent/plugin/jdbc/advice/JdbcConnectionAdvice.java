@@ -35,10 +35,21 @@ public class JdbcConnectionAdvice implements Points {
 
     @Override
     public Set<IMethodMatcher> getMethodMatcher() {
-        return MethodMatcher.builder()
-            .named("createStatement").isPublic()
-            .or().named("prepareCall").isPublic()
-            .or().named("prepareStatement").isPublic()
-            .build().toSet();
+        return MethodMatcher.multiBuilder()
+            .match(MethodMatcher.builder()
+                .named("createStatement").isPublic()
+                .or().named("prepareCall").isPublic()
+                .or().named("prepareStatement").isPublic()
+                .build())
+            .match(MethodMatcher.builder()
+                .named("setCatalog").isPublic()
+                .qualifier("catalog")
+                .build())
+            .build();
+    }
+
+    @Override
+    public boolean isAddDynamicField() {
+        return true;
     }
 }
@@ -17,37 +17,179 @@
 
 package com.megaease.easeagent.plugin.jdbc.common;
 
+import com.megaease.easeagent.plugin.field.AgentDynamicFieldAccessor;
+import com.megaease.easeagent.plugin.field.DynamicFieldAccessor;
 import com.megaease.easeagent.plugin.utils.common.StringUtils;
 import lombok.Builder;
 import lombok.Data;
 
-import java.net.URI;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
+/**
+ * What the spans of a connection tell about its database, parsed from the connection's metadata.
+ * It is cached on the connection when the connection carries the agent's dynamic field,
+ * and dropped when the connection switches to another catalog.
+ */
 @Builder
 @Data
 public class DatabaseInfo {
+    private static final String JDBC_PREFIX = "jdbc:";
+    private static final String UNKNOWN_TYPE = "database";
+    private static final Map<String, Integer> DEFAULT_PORTS = new HashMap<>();
+
+    static {
+        DEFAULT_PORTS.put("mysql", 3306);
+        DEFAULT_PORTS.put("mariadb", 3306);
+        DEFAULT_PORTS.put("postgresql", 5432);
+        DEFAULT_PORTS.put("oracle", 1521);
+        DEFAULT_PORTS.put("sqlserver", 1433);
+        DEFAULT_PORTS.put("jtds", 1433);
+        DEFAULT_PORTS.put("db2", 50000);
+        DEFAULT_PORTS.put("clickhouse", 8123);
+    }
+
     private String database;
     private String host;
     private int port;
+    /**
+     * the sub-protocol of the jdbc url, such as mysql, postgresql or h2
+     */
+    private String type;
+    /**
+     * the jdbc url without its query
+     */
+    private String url;
 
     public static DatabaseInfo getFromConnection(Connection connection) {
+        if (!(connection instanceof DynamicFieldAccessor)) {
+            return parse(connection);
+        }
+        Object cached = AgentDynamicFieldAccessor.getDynamicFieldValue(connection);
+        if (cached instanceof DatabaseInfo) {
+            return (DatabaseInfo) cached;
+        }
+        DatabaseInfo databaseInfo = parse(connection);
+        if (databaseInfo != null) {
+            AgentDynamicFieldAccessor.setDynamicFieldValue(connection, databaseInfo);
+        }
+        return databaseInfo;
+    }
+
+    /**
+     * drop the DatabaseInfo cached on the connection, the next span parses it again
+     */
+    public static void invalidate(Connection connection) {
+        if (connection instanceof DynamicFieldAccessor) {
+            AgentDynamicFieldAccessor.setDynamicFieldValue(connection, null);
+        }
+    }
+
+    static DatabaseInfo parse(Connection connection) {
         try {
             String jdbcURL = connection.getMetaData().getURL();
-            URI url = URI.create(jdbcURL.substring(5)); // strip "jdbc:"
-            String remoteServiceName;
-            String databaseName = connection.getCatalog();
-            if (databaseName != null && !databaseName.isEmpty()) {
-                remoteServiceName = databaseName;
-            } else {
-                remoteServiceName = "";
+            if (jdbcURL == null) {
+                return null;
             }
-            return new DatabaseInfo(remoteServiceName,
-                StringUtils.isNotEmpty(url.getHost()) ? url.getHost() : "",
-                url.getPort() == -1 ? 3306 : url.getPort());
+            return parse(jdbcURL, connection.getCatalog());
         } catch (SQLException ignored) {
         }
         return null;
     }
+
+    static DatabaseInfo parse(String jdbcURL, String databaseName) {
+        String type = typeOf(jdbcURL);
+        DatabaseInfoBuilder builder = DatabaseInfo.builder()
+            .database(databaseName != null ? databaseName : "")
+            .type(type)
+            .url(withoutQuery(jdbcURL))
+            .host("")
+            .port(DEFAULT_PORTS.getOrDefault(type, 0));
+        parseHostAndPort(jdbcURL, builder);
+        return builder.build();
+    }
+
+    public String remoteServiceName() {
+        if (StringUtils.isEmpty(database)) {
+            return type;
+        } else {
+            return type + "-" + database;
+        }
+    }
+
+    private static String typeOf(String jdbcURL) {
+        if (!jdbcURL.regionMatches(true, 0, JDBC_PREFIX, 0, JDBC_PREFIX.length())) {
+            return UNKNOWN_TYPE;
+        }
+        int end = jdbcURL.indexOf(':', JDBC_PREFIX.length());
+        if (end <= JDBC_PREFIX.length()) {
+            return UNKNOWN_TYPE;
+        }
+        String type = jdbcURL.substring(JDBC_PREFIX.length(), end).toLowerCase(Locale.ROOT);
+        if (type.equals("microsoft")) {
+            return "sqlserver";
+        }
+        return type;
+    }
+
+    private static String withoutQuery(String jdbcURL) {
+        int idx = jdbcURL.indexOf('?');
+        if (idx == -1) {
+            return jdbcURL;
+        }
+        return jdbcURL.substring(0, idx);
+    }
+
+    /**
+     * the first host of "//host:port/..." or of oracle's "@host:port:sid" and "@//host:port/service"
+     */
+    private static void parseHostAndPort(String jdbcURL, DatabaseInfoBuilder builder) {
+        int start = jdbcURL.indexOf("//");
+        int at = jdbcURL.indexOf('@');
+        if (at != -1 && (start == -1 || at < start)) {
+            start = jdbcURL.startsWith("//", at + 1) ? at + 3 : at + 1;
+        } else if (start != -1) {
+            start += 2;
+        } else {
+            return;
+        }
+        int end = start;
+        while (end < jdbcURL.length() && "/?;,".indexOf(jdbcURL.charAt(end)) == -1) {
+            end++;
+        }
+        String authority = jdbcURL.substring(start, end);
+        int userInfo = authority.lastIndexOf('@');
+        if (userInfo != -1) {
+            authority = authority.substring(userInfo + 1);
+        }
+        if (authority.startsWith("(")) {
+            // an oracle connect descriptor
+            return;
+        }
+        int portStart;
+        if (authority.startsWith("[")) {
+            int close = authority.indexOf(']');
+            if (close == -1) {
+                return;
+            }
+            builder.host(authority.substring(1, close));
+            portStart = authority.indexOf(':', close);
+        } else {
+            portStart = authority.indexOf(':');
+            builder.host(portStart == -1 ? authority : authority.substring(0, portStart));
+        }
+        if (portStart == -1) {
+            return;
+        }
+        int portEnd = portStart + 1;
+        while (portEnd < authority.length() && Character.isDigit(authority.charAt(portEnd))) {
+            portEnd++;
+        }
+        if (portEnd > portStart + 1) {
+            builder.port(Integer.parseInt(authority.substring(portStart + 1, portEnd)));
+        }
+    }
 }
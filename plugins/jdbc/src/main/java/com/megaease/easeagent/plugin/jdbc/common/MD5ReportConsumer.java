@@ -46,15 +46,20 @@ public class MD5ReportConsumer implements Consumer<Map<String, String>> {
         if (!this.config.enabled()) {
             return;
         }
+        long timestamp = System.currentTimeMillis();
+        String hostName = HostAddress.localhost();
+        String hostIpv4 = HostAddress.getHostIpv4();
+        String system = NameAndSystem.system();
+        String service = NameAndSystem.name();
         for (Map.Entry<String, String> entry : map.entrySet()) {
             MD5DictionaryItem item = MD5DictionaryItem.builder()
-                .timestamp(System.currentTimeMillis())
+                .timestamp(timestamp)
                 .category("application")
-                .hostName(HostAddress.localhost())
-                .hostIpv4(HostAddress.getHostIpv4())
+                .hostName(hostName)
+                .hostIpv4(hostIpv4)
                 .gid("")
-                .system(NameAndSystem.system())
-                .service(NameAndSystem.name())
+                .system(system)
+                .service(service)
                 .tags("")
                 .type("md5-dictionary")
                 .id("")
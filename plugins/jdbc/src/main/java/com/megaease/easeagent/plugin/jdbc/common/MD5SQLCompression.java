@@ -29,15 +29,25 @@ import com.megaease.easeagent.plugin.utils.common.StringUtils;
 import org.apache.commons.codec.digest.DigestUtils;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
+/**
+ * Replaces SQL by its MD5 in spans and reports the MD5 to SQL dictionary on its own.
+ * Every push reports only the entries added since the previous one,
+ * and every {@link #FULL_SYNC_INTERVAL_SECONDS} the whole dictionary is reported again,
+ * so a backend which lost entries gets them back.
+ */
 public class MD5SQLCompression implements SQLCompression, RemovalListener<String, String> {
     private static final Logger logger = EaseAgent.getLogger(MD5SQLCompression.class);
 
     public static final DataSize MAX_SQL_SIZE = DataSize.ofKilobytes(32);//32KB
+    static final int PUSH_INTERVAL_SECONDS = 5;
+    static final int FULL_SYNC_INTERVAL_SECONDS = 600;
 
     private static final AtomicReference<MD5SQLCompression> INSTANCE = new AtomicReference<>();
 
@@ -46,11 +56,18 @@ public class MD5SQLCompression implements SQLCompression, RemovalListener<String
 
     private final Cache<String, String> md5Cache = CacheBuilder.newBuilder().maximumSize(1000).build();
 
+    /**
+     * the dictionary entries not pushed yet
+     */
+    private final ConcurrentMap<String, String> newItems = new ConcurrentHashMap<>();
+
     private final Consumer<Map<String, String>> reportConsumer;
 
+    private int pushesSinceFullSync = 0;
+
     public MD5SQLCompression(Consumer<Map<String, String>> reportConsumer) {
         this.reportConsumer = reportConsumer;
-        ScheduleHelper.DEFAULT.nonStopExecute(10, 5, this::pushItems);
+        ScheduleHelper.DEFAULT.nonStopExecute(10, PUSH_INTERVAL_SECONDS, this::pushItems);
     }
 
     public static MD5SQLCompression getInstance() {
@@ -81,6 +98,7 @@ public class MD5SQLCompression implements SQLCompression, RemovalListener<String
             String value = dictionary.getIfPresent(md5);
             if (value == null) {
                 dictionary.put(md5, cutStr);
+                newItems.put(md5, cutStr);
             }
             return md5;
         } catch (Exception e) {
@@ -89,7 +107,39 @@ public class MD5SQLCompression implements SQLCompression, RemovalListener<String
         }
     }
 
+    /**
+     * Hashes the normalized sql, so statements differing only by their literals share one dictionary entry.
+     */
+    @Override
+    public String compress(SqlInfo sqlInfo) {
+        return compress(sqlInfo.getNormalizedSql());
+    }
+
     private void pushItems() {
+        if (++this.pushesSinceFullSync >= FULL_SYNC_INTERVAL_SECONDS / PUSH_INTERVAL_SECONDS) {
+            this.pushesSinceFullSync = 0;
+            pushAllItems();
+        } else {
+            pushNewItems();
+        }
+    }
+
+    void pushNewItems() {
+        if (this.newItems.isEmpty()) {
+            return;
+        }
+        Map<String, String> map = new HashMap<>();
+        Iterator<Map.Entry<String, String>> iterator = this.newItems.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, String> entry = iterator.next();
+            map.put(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+        this.reportConsumer.accept(map);
+    }
+
+    void pushAllItems() {
+        this.newItems.clear();
         ConcurrentMap<String, String> map = this.dictionary.asMap();
         if (map.isEmpty()) {
             return;
@@ -101,6 +151,9 @@ public class MD5SQLCompression implements SQLCompression, RemovalListener<String
     public void onRemoval(RemovalNotification<String, String> notification) {
         logger.info("remove md5 dictionary item. cause: {}, md5: {}, content: {}",
             notification.getCause().toString(), notification.getKey(), notification.getValue());
+        if (notification.getKey() != null) {
+            newItems.remove(notification.getKey());
+        }
         Map<String, String> map = new HashMap<>();
         map.put(notification.getKey(), notification.getValue());
         reportConsumer.accept(map);
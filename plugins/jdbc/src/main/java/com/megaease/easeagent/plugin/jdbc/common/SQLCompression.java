@@ -22,4 +22,12 @@ public interface SQLCompression {
     SQLCompression DEFAULT = origin -> origin;
 
     String compress(String origin);
+
+    /**
+     * @param sqlInfo the sql of a statement
+     * @return the compressed sql, by default the original sql
+     */
+    default String compress(SqlInfo sqlInfo) {
+        return compress(sqlInfo.getSql());
+    }
 }
@@ -35,4 +35,14 @@ public class SQLCompressionWrapper implements SQLCompression {
         }
         return SQLCompression.DEFAULT.compress(origin);
     }
+
+    @Override
+    public String compress(SqlInfo sqlInfo) {
+        Config config = EaseAgent.getConfig();
+        Boolean enabled = config.getBoolean(SQL_COMPRESS_ENABLED);
+        if (enabled) {
+            return MD5SQLCompression.getInstance().compress(sqlInfo);
+        }
+        return SQLCompression.DEFAULT.compress(sqlInfo);
+    }
 }
@@ -30,6 +30,8 @@ public class SqlInfo {
     }
 
     private final List<String> sqlList = new ArrayList<>();
+    private String sql;
+    private String normalizedSql;
 
     public Connection getConnection() {
         return connection;
@@ -40,21 +42,41 @@ public class SqlInfo {
             this.sqlList.clear();
         }
         this.sqlList.add(sql);
+        resetCache();
     }
 
     public void clearSql() {
         this.sqlList.clear();
+        resetCache();
     }
 
     public String getSql() {
-        if (this.sqlList.isEmpty()) {
-            return null;
+        if (this.sql == null && !this.sqlList.isEmpty()) {
+            this.sql = String.join("\n", this.sqlList);
         }
-        return String.join("\n", this.sqlList);
+        return this.sql;
+    }
+
+    /**
+     * The sql with its literals replaced by {@link SqlNormalizer}, cached until the sql changes,
+     * so a PreparedStatement executed many times is only normalized once.
+     *
+     * @return normalized sql or null if there is no sql
+     */
+    public String getNormalizedSql() {
+        if (this.normalizedSql == null) {
+            this.normalizedSql = SqlNormalizer.normalize(getSql());
+        }
+        return this.normalizedSql;
     }
 
     public List<String> getSqlList() {
         return sqlList;
     }
+
+    private void resetCache() {
+        this.sql = null;
+        this.normalizedSql = null;
+    }
 }
 
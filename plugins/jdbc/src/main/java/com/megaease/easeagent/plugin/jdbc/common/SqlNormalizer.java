@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.jdbc.common;
+
+/**
+ * Single pass SQL normalizer: numeric and string literals, signed ones included, are replaced with {@code ?}
+ * and {@code IN (...)} lists made only of literals or placeholders collapse to {@code IN (?)},
+ * so statements differing only by their parameters share one hash and one metric key.
+ * Comments and quoted identifiers are copied unchanged.
+ */
+public final class SqlNormalizer {
+    static final char PLACEHOLDER = '?';
+
+    private SqlNormalizer() {
+    }
+
+    /**
+     * @param sql the original sql
+     * @return the normalized sql, or {@code sql} itself when it contains nothing to replace
+     */
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        int len = sql.length();
+        StringBuilder out = null;
+        int copied = 0;
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                int end = skipString(sql, i);
+                out = appendUntil(out, sql, copied, i).append(PLACEHOLDER);
+                copied = i = end;
+            } else if (c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if (c == '-' && next(sql, i) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end == -1 ? len : end;
+            } else if (c == '/' && next(sql, i) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end == -1 ? len : end + 2;
+            } else if ((c == '-' || c == '+') && isUnarySign(sql, i)) {
+                int end = skipNumber(sql, skipWhitespace(sql, i + 1));
+                out = appendUntil(out, sql, copied, i).append(PLACEHOLDER);
+                copied = i = end;
+            } else if (isDigit(c) && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))) {
+                int end = skipNumber(sql, i);
+                out = appendUntil(out, sql, copied, i).append(PLACEHOLDER);
+                copied = i = end;
+            } else if ((c == 'i' || c == 'I') && isInKeyword(sql, i)) {
+                int open = skipWhitespace(sql, i + 2);
+                int end = open < len && sql.charAt(open) == '(' ? skipLiteralList(sql, open + 1) : -1;
+                if (end == -1) {
+                    i += 2;
+                } else {
+                    out = appendUntil(out, sql, copied, open + 1).append(PLACEHOLDER).append(')');
+                    copied = i = end;
+                }
+            } else if (isIdentifierPart(c)) {
+                do {
+                    i++;
+                } while (i < len && isIdentifierPart(sql.charAt(i)));
+            } else {
+                i++;
+            }
+        }
+        if (out == null) {
+            return sql;
+        }
+        return out.append(sql, copied, len).toString();
+    }
+
+    private static StringBuilder appendUntil(StringBuilder out, String sql, int from, int to) {
+        if (out == null) {
+            out = new StringBuilder(sql.length());
+        }
+        return out.append(sql, from, to);
+    }
+
+    private static char next(String sql, int i) {
+        return i + 1 < sql.length() ? sql.charAt(i + 1) : 0;
+    }
+
+    /**
+     * @return the index after the closing quote, quotes are escaped by doubling or by a backslash
+     */
+    private static int skipString(String sql, int start) {
+        int len = sql.length();
+        int i = start + 1;
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '\'') {
+                if (next(sql, i) != '\'') {
+                    return i + 1;
+                }
+                i += 2;
+            } else {
+                i++;
+            }
+        }
+        return len;
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int end = sql.indexOf(quote, start + 1);
+        return end == -1 ? sql.length() : end + 1;
+    }
+
+    private static int skipNumber(String sql, int start) {
+        int len = sql.length();
+        int i = start + 1;
+        if (sql.charAt(start) == '0' && i < len && (sql.charAt(i) == 'x' || sql.charAt(i) == 'X')) {
+            i++;
+            while (i < len && Character.digit(sql.charAt(i), 16) != -1) {
+                i++;
+            }
+            return i;
+        }
+        while (i < len && isDigit(sql.charAt(i))) {
+            i++;
+        }
+        if (i < len && sql.charAt(i) == '.') {
+            i++;
+            while (i < len && isDigit(sql.charAt(i))) {
+                i++;
+            }
+        }
+        if (i < len && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+            int exp = i + 1;
+            if (exp < len && (sql.charAt(exp) == '+' || sql.charAt(exp) == '-')) {
+                exp++;
+            }
+            if (exp < len && isDigit(sql.charAt(exp))) {
+                i = exp;
+                while (i < len && isDigit(sql.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    private static int skipWhitespace(String sql, int i) {
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return true when the sign at {@code i} is followed by a number and follows an operator,
+     * an opening parenthesis, a comma or nothing, so {@code a = -7} folds into {@code a = ?}
+     * while {@code a - 7} keeps its subtraction
+     */
+    private static boolean isUnarySign(String sql, int i) {
+        int digit = skipWhitespace(sql, i + 1);
+        if (digit >= sql.length() || !isDigit(sql.charAt(digit))) {
+            return false;
+        }
+        int prev = i - 1;
+        while (prev >= 0 && Character.isWhitespace(sql.charAt(prev))) {
+            prev--;
+        }
+        return prev < 0 || "(,=<>!+-*/%^&|".indexOf(sql.charAt(prev)) != -1;
+    }
+
+    private static boolean isInKeyword(String sql, int i) {
+        int end = i + 2;
+        return end <= sql.length()
+            && (sql.charAt(i + 1) == 'n' || sql.charAt(i + 1) == 'N')
+            && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))
+            && (end == sql.length() || !isIdentifierPart(sql.charAt(end)));
+    }
+
+    /**
+     * @param start the index after the opening parenthesis
+     * @return the index after the closing parenthesis when the list holds only literals,
+     * placeholders or nulls separated by commas, otherwise -1
+     */
+    private static int skipLiteralList(String sql, int start) {
+        int len = sql.length();
+        int i = start;
+        while (true) {
+            i = skipWhitespace(sql, i);
+            if (i >= len) {
+                return -1;
+            }
+            char c = sql.charAt(i);
+            if (c == '+' || c == '-') {
+                i = skipWhitespace(sql, i + 1);
+                if (i >= len || !isDigit(sql.charAt(i))) {
+                    return -1;
+                }
+                c = sql.charAt(i);
+            }
+            if (c == '\'') {
+                i = skipString(sql, i);
+            } else if (c == PLACEHOLDER) {
+                i++;
+            } else if (isDigit(c)) {
+                i = skipNumber(sql, i);
+            } else if (sql.regionMatches(true, i, "null", 0, 4)
+                && (i + 4 == len || !isIdentifierPart(sql.charAt(i + 4)))) {
+                i += 4;
+            } else {
+                return -1;
+            }
+            i = skipWhitespace(sql, i);
+            if (i >= len) {
+                return -1;
+            }
+            c = sql.charAt(i);
+            if (c == ')') {
+                return i + 1;
+            }
+            if (c != ',') {
+                return -1;
+            }
+            i++;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
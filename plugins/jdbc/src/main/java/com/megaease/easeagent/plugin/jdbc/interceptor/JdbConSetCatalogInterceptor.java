@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.jdbc.interceptor;
+
+import com.megaease.easeagent.plugin.annotation.AdviceTo;
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.enums.Order;
+import com.megaease.easeagent.plugin.interceptor.Interceptor;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import com.megaease.easeagent.plugin.jdbc.JdbcTracingPlugin;
+import com.megaease.easeagent.plugin.jdbc.advice.JdbcConnectionAdvice;
+import com.megaease.easeagent.plugin.jdbc.common.DatabaseInfo;
+
+import java.sql.Connection;
+
+/**
+ * Drop the {@link DatabaseInfo} cached on a connection switching to another catalog.
+ * It is reentrant on purpose: a pooled connection passes the call on to the connection it wraps,
+ * and both may hold a cached DatabaseInfo.
+ */
+@AdviceTo(value = JdbcConnectionAdvice.class, qualifier = "catalog", plugin = JdbcTracingPlugin.class)
+public class JdbConSetCatalogInterceptor implements Interceptor {
+
+    @Override
+    public void before(MethodInfo methodInfo, Context context) {
+    }
+
+    @Override
+    public void after(MethodInfo methodInfo, Context context) {
+        DatabaseInfo.invalidate((Connection) methodInfo.getInvoker());
+    }
+
+    @Override
+    public String getType() {
+        return Order.TRACING.getName();
+    }
+
+    @Override
+    public int order() {
+        return Order.HIGHEST.getOrder();
+    }
+}
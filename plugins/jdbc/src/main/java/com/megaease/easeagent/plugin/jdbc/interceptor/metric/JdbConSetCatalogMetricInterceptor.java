@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.jdbc.interceptor.metric;
+
+import com.megaease.easeagent.plugin.annotation.AdviceTo;
+import com.megaease.easeagent.plugin.enums.Order;
+import com.megaease.easeagent.plugin.jdbc.JdbcConnectionMetricPlugin;
+import com.megaease.easeagent.plugin.jdbc.advice.JdbcConnectionAdvice;
+import com.megaease.easeagent.plugin.jdbc.interceptor.JdbConSetCatalogInterceptor;
+
+/**
+ * {@link JdbConSetCatalogInterceptor} for the connection metric, which caches the DatabaseInfo too,
+ * so that it is dropped while tracing is disabled.
+ */
+@AdviceTo(value = JdbcConnectionAdvice.class, qualifier = "catalog", plugin = JdbcConnectionMetricPlugin.class)
+public class JdbConSetCatalogMetricInterceptor extends JdbConSetCatalogInterceptor {
+    @Override
+    public String getType() {
+        return Order.METRIC.getName();
+    }
+}
@@ -27,7 +27,7 @@ import com.megaease.easeagent.plugin.interceptor.MethodInfo;
 import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
 import com.megaease.easeagent.plugin.jdbc.JdbcConnectionMetricPlugin;
 import com.megaease.easeagent.plugin.jdbc.advice.JdbcDataSourceAdvice;
-import com.megaease.easeagent.plugin.jdbc.common.JdbcUtils;
+import com.megaease.easeagent.plugin.jdbc.common.DatabaseInfo;
 
 import java.sql.Connection;
 
@@ -56,7 +56,8 @@ public class JdbcDataSourceMetricInterceptor implements NonReentrantInterceptor
             key = ERR_CON_METRIC_KEY;
             success = false;
         } else {
-            key = JdbcUtils.getUrl(connection);
+            DatabaseInfo databaseInfo = DatabaseInfo.getFromConnection(connection);
+            key = databaseInfo == null ? null : databaseInfo.getUrl();
         }
         metric.collectMetric(key, success, context);
     }
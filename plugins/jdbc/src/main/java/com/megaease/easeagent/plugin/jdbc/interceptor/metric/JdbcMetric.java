@@ -104,24 +104,73 @@ public class JdbcMetric extends ServiceMetric implements RemovalListener<String,
     }
 
     public void collectMetric(String key, boolean success, Context ctx) {
-        Timer timer = this.metricRegistry.timer(this.nameFactory.timerName(key, MetricSubType.DEFAULT));
-        timer.update(Duration.ofMillis(ContextUtils.getDuration(ctx)));
-        Counter counter = this.metricRegistry.counter(this.nameFactory.counterName(key, MetricSubType.DEFAULT));
-        Meter meter = this.metricRegistry.meter(this.nameFactory.meterName(key, MetricSubType.DEFAULT));
-        meter.mark();
-        counter.inc();
-        if (!success) {
-            Counter errCounter = this.metricRegistry.counter(this.nameFactory.counterName(key, MetricSubType.ERROR));
-            Meter errMeter = this.metricRegistry.meter(this.nameFactory.meterName(key, MetricSubType.ERROR));
-            errMeter.mark();
-            errCounter.inc();
+        bind(key).collect(ContextUtils.getDuration(ctx), success);
+    }
+
+    /**
+     * @param key the key of metrics, eg. the url or the sql md5
+     * @return the handle of metrics of the key
+     */
+    public JdbcHandle bind(String key) {
+        return bind(key, k -> new JdbcHandle(this, k));
+    }
+
+    public static final class JdbcHandle extends Handle {
+        private final JdbcMetric jdbcMetric;
+        private final String key;
+        private final Timer timer;
+        private final Counter counter;
+        private final Meter meter;
+        private volatile Counter errCounter;
+        private volatile Meter errMeter;
+
+        JdbcHandle(JdbcMetric jdbcMetric, String key) {
+            this.jdbcMetric = jdbcMetric;
+            this.key = key;
+            MetricRegistry metricRegistry = jdbcMetric.metricRegistry;
+            NameFactory nameFactory = jdbcMetric.nameFactory;
+            this.timer = metricRegistry.timer(nameFactory.timerName(key, MetricSubType.DEFAULT));
+            this.counter = metricRegistry.counter(nameFactory.counterName(key, MetricSubType.DEFAULT));
+            Meter meter = metricRegistry.meter(nameFactory.meterName(key, MetricSubType.DEFAULT));
+            this.meter = meter;
+            MetricName gaugeName = nameFactory.gaugeNames(key).get(MetricSubType.DEFAULT);
+            metricRegistry.gauge(gaugeName.name(), () -> () -> LastMinutesCounterGauge.builder()
+                .m1Count((long) meter.getOneMinuteRate() * 60)
+                .m5Count((long) meter.getFiveMinuteRate() * 60 * 5)
+                .m15Count((long) meter.getFifteenMinuteRate() * 60 * 15)
+                .build());
+        }
+
+        public void collect(long duration, boolean success) {
+            timer.update(Duration.ofMillis(duration));
+            meter.mark();
+            counter.inc();
+            if (!success) {
+                errorMeter().mark();
+                errorCounter().inc();
+            }
+        }
+
+        /**
+         * error metrics are registered on the first failure only, as they were before handles
+         */
+        private Meter errorMeter() {
+            Meter m = errMeter;
+            if (m == null) {
+                m = jdbcMetric.metricRegistry.meter(jdbcMetric.nameFactory.meterName(key, MetricSubType.ERROR));
+                errMeter = m;
+            }
+            return m;
+        }
+
+        private Counter errorCounter() {
+            Counter c = errCounter;
+            if (c == null) {
+                c = jdbcMetric.metricRegistry.counter(jdbcMetric.nameFactory.counterName(key, MetricSubType.ERROR));
+                errCounter = c;
+            }
+            return c;
         }
-        MetricName gaugeName = this.nameFactory.gaugeNames(key).get(MetricSubType.DEFAULT);
-        metricRegistry.gauge(gaugeName.name(), () -> () -> LastMinutesCounterGauge.builder()
-            .m1Count((long) meter.getOneMinuteRate() * 60)
-            .m5Count((long) meter.getFiveMinuteRate() * 60 * 5)
-            .m15Count((long) meter.getFifteenMinuteRate() * 60 * 15)
-            .build());
     }
 
     @SuppressWarnings("NullableProblems")
@@ -66,7 +66,7 @@ public class JdbcStmMetricInterceptor implements NonReentrantInterceptor {
     @Override
     public void doAfter(MethodInfo methodInfo, Context context) {
         SqlInfo sqlInfo = context.get(SqlInfo.class);
-        String sql = sqlInfo.getSql();
+        String sql = sqlInfo.getNormalizedSql();
         String key = sqlCompression.compress(sql);
         metric.collectMetric(key, methodInfo.getThrowable() == null, context);
         String value = cache.getIfPresent(key);
@@ -76,6 +76,11 @@ public class JdbcStmMetricInterceptor implements NonReentrantInterceptor {
     }
 
 
+    @Override
+    public boolean isArgsRequired() {
+        return false;
+    }
+
     @Override
     public String getType() {
         return Order.METRIC.getName();
@@ -34,11 +34,8 @@ import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
 import com.megaease.easeagent.plugin.jdbc.JdbcTracingPlugin;
 import com.megaease.easeagent.plugin.jdbc.advice.JdbcStatementAdvice;
 import com.megaease.easeagent.plugin.jdbc.common.*;
-import com.megaease.easeagent.plugin.utils.common.StringUtils;
 import org.apache.commons.codec.digest.DigestUtils;
 
-import java.sql.Connection;
-
 @AdviceTo(value = JdbcStatementAdvice.class, plugin = JdbcTracingPlugin.class)
 public class JdbcStmTracingInterceptor implements NonReentrantInterceptor {
     private final static Logger LOG = EaseAgent.getLogger(JdbcStmTracingInterceptor.class);
@@ -72,33 +69,23 @@ public class JdbcStmTracingInterceptor implements NonReentrantInterceptor {
         // Statement stm = (Statement) methodInfo.getInvoker();
         span.name(methodInfo.getMethod());
         span.kind(Span.Kind.CLIENT);
-        span.tag(SPAN_SQL_QUERY_TAG_NAME,
-            md5SQLCompression.compress(sqlInfo.getSql()));
+        span.tag(SPAN_SQL_QUERY_TAG_NAME, md5SQLCompression.compress(sqlInfo));
         span.tag(SPAN_LOCAL_COMPONENT_TAG_NAME, "database");
-        Connection conn = sqlInfo.getConnection();
-        String url = JdbcUtils.getUrl(conn);
+        DatabaseInfo databaseInfo = DatabaseInfo.getFromConnection(sqlInfo.getConnection());
+        String url = databaseInfo == null ? null : databaseInfo.getUrl();
         if (url != null) {
             span.tag(SPAN_URL, url);
         }
         span.tag(MiddlewareConstants.TYPE_TAG_NAME, Type.DATABASE.getRemoteType());
         RedirectProcessor.setTagsIfRedirected(Redirect.DATABASE, span, url);
-        DatabaseInfo databaseInfo = DatabaseInfo.getFromConnection(conn);
         if (databaseInfo != null) {
-            span.remoteServiceName(remoteServiceName(databaseInfo.getDatabase()));
+            span.remoteServiceName(databaseInfo.remoteServiceName());
             span.remoteIpAndPort(databaseInfo.getHost(), databaseInfo.getPort());
         }
         span.start();
         context.put(SPAN_KEY, span);
     }
 
-    public String remoteServiceName(String database) {
-        if (StringUtils.isEmpty(database)) {
-            return "mysql";
-        } else {
-            return "mysql-" + database;
-        }
-    }
-
     @Override
     public void doAfter(MethodInfo methodInfo, Context context) {
         Span span = context.get(SPAN_KEY);
@@ -108,6 +95,11 @@ public class JdbcStmTracingInterceptor implements NonReentrantInterceptor {
         span.finish();
     }
 
+    @Override
+    public boolean isArgsRequired() {
+        return false;
+    }
+
     @Override
     public String getType() {
         return Order.TRACING.getName();
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.jdbc;
+
+import com.megaease.easeagent.plugin.field.DynamicFieldAccessor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory H2 connection carrying the dynamic field the agent adds to connections,
+ * counting the calls made on it.
+ */
+public class H2Connection {
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final Connection connection;
+    private Object data;
+
+    public H2Connection(String database) throws SQLException {
+        Connection h2 = DriverManager.getConnection("jdbc:h2:mem:" + database);
+        this.connection = (Connection) Proxy.newProxyInstance(H2Connection.class.getClassLoader(),
+            new Class[]{Connection.class, DynamicFieldAccessor.class},
+            (proxy, method, args) -> {
+                if (method.getDeclaringClass() == DynamicFieldAccessor.class) {
+                    if (args == null) {
+                        return data;
+                    }
+                    data = args[0];
+                    return null;
+                }
+                calls.computeIfAbsent(method.getName(), k -> new AtomicInteger()).incrementAndGet();
+                try {
+                    return method.invoke(h2, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public int calls(String method) {
+        AtomicInteger count = calls.get(method);
+        return count == null ? 0 : count.get();
+    }
+}
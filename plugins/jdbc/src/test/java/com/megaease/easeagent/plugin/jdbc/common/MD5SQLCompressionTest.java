@@ -31,10 +31,9 @@ import org.junit.runner.RunWith;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Map;
+import java.util.*;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertSame;
+import static org.junit.Assert.*;
 
 @RunWith(EaseAgentJunit4ClassRunner.class)
 public class MD5SQLCompressionTest {
@@ -71,6 +70,49 @@ public class MD5SQLCompressionTest {
         md5Cache.cleanUp();
     }
 
+    @Test
+    public void compressSqlInfo() {
+        MD5SQLCompression md5SQLCompression = MD5SQLCompression.getInstance();
+        SqlInfo sqlInfo = new SqlInfo(null);
+        sqlInfo.addSql("select * from data where id = -1", false);
+        assertEquals(DigestUtils.md5Hex("select * from data where id = ?"), md5SQLCompression.compress(sqlInfo));
+        assertEquals("select * from data where id = -1", SQLCompression.DEFAULT.compress(sqlInfo));
+    }
+
+
+    @Test
+    public void pushNewItems() {
+        List<Map<String, String>> pushed = new ArrayList<>();
+        MD5SQLCompression md5SQLCompression = new MD5SQLCompression(map -> pushed.add(new HashMap<>(map)));
+        String sql = "select * from delta";
+        String sql2 = "select * from delta2";
+        String md5 = md5SQLCompression.compress(sql);
+        md5SQLCompression.compress(sql);
+        md5SQLCompression.pushNewItems();
+        assertEquals(Collections.singletonList(Collections.singletonMap(md5, sql)), pushed);
+
+        pushed.clear();
+        md5SQLCompression.compress(sql);
+        md5SQLCompression.pushNewItems();
+        assertTrue(pushed.isEmpty());
+
+        String md52 = md5SQLCompression.compress(sql2);
+        md5SQLCompression.pushNewItems();
+        assertEquals(Collections.singletonList(Collections.singletonMap(md52, sql2)), pushed);
+
+        pushed.clear();
+        md5SQLCompression.pushAllItems();
+        assertEquals(1, pushed.size());
+        assertEquals(sql, pushed.get(0).get(md5));
+        assertEquals(sql2, pushed.get(0).get(md52));
+
+        pushed.clear();
+        md5SQLCompression.compress("select * from delta3");
+        md5SQLCompression.pushAllItems();
+        md5SQLCompression.pushNewItems();
+        assertEquals(1, pushed.size());
+        assertEquals(3, pushed.get(0).size());
+    }
 
     public static void pushItems() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         Method method = MD5SQLCompression.class.getDeclaredMethod("pushItems");
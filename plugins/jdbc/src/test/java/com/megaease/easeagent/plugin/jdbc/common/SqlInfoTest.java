@@ -77,6 +77,20 @@ public class SqlInfoTest {
 
     }
 
+    @Test
+    public void getNormalizedSql() throws SQLException {
+        SqlInfo sqlInfo = buildSqlInfo();
+        assertNull(sqlInfo.getNormalizedSql());
+        sqlInfo.addSql("select * from t where id in (1, 2)", false);
+        String normalized = sqlInfo.getNormalizedSql();
+        assertEquals("select * from t where id in (?)", normalized);
+        assertSame(normalized, sqlInfo.getNormalizedSql());
+        sqlInfo.addSql("insert into t values (3)", true);
+        assertEquals("select * from t where id in (?)\ninsert into t values (?)", sqlInfo.getNormalizedSql());
+        sqlInfo.clearSql();
+        assertNull(sqlInfo.getNormalizedSql());
+    }
+
     @Test
     public void getSqlList() throws SQLException {
         addSql();
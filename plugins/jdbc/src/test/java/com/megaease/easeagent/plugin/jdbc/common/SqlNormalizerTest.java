@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.jdbc.common;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SqlNormalizerTest {
+
+    @Test
+    public void normalizeLiterals() {
+        assertEquals("select * from t where id = ? and name = ?",
+            SqlNormalizer.normalize("select * from t where id = 10 and name = 'bob'"));
+        assertEquals("update t set v = ?, w = ? where k = ?",
+            SqlNormalizer.normalize("update t set v = 1.5e10, w = 0x1F where k = 'it''s \\' x'"));
+        assertEquals("select t1.c2, col_3 from t1 where a = ?",
+            SqlNormalizer.normalize("select t1.c2, col_3 from t1 where a = -7"));
+    }
+
+    @Test
+    public void normalizeSignedLiterals() {
+        assertEquals("select * from t where a = ? and b > ? and c in (?)",
+            SqlNormalizer.normalize("select * from t where a = - 7 and b > +1.5 and c in (-1, 2)"));
+        assertEquals("insert into t values (?,?)",
+            SqlNormalizer.normalize("insert into t values (-1,-2)"));
+        assertEquals("select a - ?, b-?, c * ? from t",
+            SqlNormalizer.normalize("select a - 1, b-2, c * -3 from t"));
+        String sql = "select -x from t where y = -?";
+        assertSame(sql, SqlNormalizer.normalize(sql));
+    }
+
+    @Test
+    public void normalizeInList() {
+        assertEquals("select * from t where id in (?)",
+            SqlNormalizer.normalize("select * from t where id in (1, 2, 3)"));
+        assertEquals("select * from t where id IN (?) and b = ?",
+            SqlNormalizer.normalize("select * from t where id IN ( 'a','b' , null, ?, -4 ) and b = 2"));
+        assertEquals("select * from t where id in (?)",
+            SqlNormalizer.normalize("select * from t where id in (?, ?, ?)"));
+        assertEquals("select * from t where id in (select id from s where x = ?)",
+            SqlNormalizer.normalize("select * from t where id in (select id from s where x = 5)"));
+        assertEquals("select * from t where id in (a, ?)",
+            SqlNormalizer.normalize("select * from t where id in (a, 1)"));
+        assertEquals("select min(x) from t where id in (?, ?",
+            SqlNormalizer.normalize("select min(x) from t where id in (1, 2"));
+    }
+
+    @Test
+    public void keepCommentsAndIdentifiers() {
+        String sql = "select \"col 1\", `2nd` from t -- id = 1\n/* 'x' 5 */ where a = ?";
+        assertSame(sql, SqlNormalizer.normalize(sql));
+        assertEquals("select \"v\" from t /* 5 */ where a = ?",
+            SqlNormalizer.normalize("select \"v\" from t /* 5 */ where a = 5"));
+        assertNull(SqlNormalizer.normalize(null));
+        assertEquals("", SqlNormalizer.normalize(""));
+    }
+}
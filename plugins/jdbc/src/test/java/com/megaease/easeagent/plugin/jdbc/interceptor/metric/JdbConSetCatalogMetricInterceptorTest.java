@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.jdbc.interceptor.metric;
+
+import com.megaease.easeagent.mock.plugin.api.junit.EaseAgentJunit4ClassRunner;
+import com.megaease.easeagent.plugin.api.config.ConfigConst;
+import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import com.megaease.easeagent.plugin.enums.Order;
+import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import com.megaease.easeagent.plugin.jdbc.H2Connection;
+import com.megaease.easeagent.plugin.jdbc.common.DatabaseInfo;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+@RunWith(EaseAgentJunit4ClassRunner.class)
+public class JdbConSetCatalogMetricInterceptorTest {
+
+    @Test
+    public void after() throws SQLException {
+        H2Connection h2 = new H2Connection("set_catalog_metric");
+        Connection connection = h2.getConnection();
+        DatabaseInfo databaseInfo = DatabaseInfo.getFromConnection(connection);
+
+        JdbConSetCatalogMetricInterceptor interceptor = new JdbConSetCatalogMetricInterceptor();
+        MethodInfo methodInfo = MethodInfo.builder().invoker(connection).method("setCatalog").args(new Object[]{"other"}).build();
+        interceptor.before(methodInfo, EaseAgent.getContext());
+        interceptor.after(methodInfo, EaseAgent.getContext());
+        assertNotSame(databaseInfo, DatabaseInfo.getFromConnection(connection));
+        connection.close();
+    }
+
+    @Test
+    public void getType() {
+        JdbConSetCatalogMetricInterceptor interceptor = new JdbConSetCatalogMetricInterceptor();
+        assertEquals(ConfigConst.PluginID.METRIC, interceptor.getType());
+    }
+
+    @Test
+    public void order() {
+        JdbConSetCatalogMetricInterceptor interceptor = new JdbConSetCatalogMetricInterceptor();
+        assertEquals(Order.HIGHEST.getOrder(), interceptor.order());
+    }
+}
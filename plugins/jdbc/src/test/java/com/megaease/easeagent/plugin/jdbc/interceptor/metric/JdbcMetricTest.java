@@ -121,6 +121,30 @@ public class JdbcMetricTest {
 
     }
 
+    @Test
+    public void bind() {
+        JdbcMetric jdbcMetric = get();
+        JdbcMetric.JdbcHandle handle = jdbcMetric.bind(TestUtils.URI);
+        assertTrue(handle.isValid());
+        assertSame(handle, jdbcMetric.bind(TestUtils.URI));
+        JdbcMetric.JdbcHandle otherHandle = jdbcMetric.bind(TestUtils.URI + "/other");
+
+        jdbcMetric.onRemoval(RemovalNotification.create(TestUtils.URI, "", RemovalCause.SIZE));
+        assertFalse(handle.isValid());
+        assertTrue(otherHandle.isValid());
+        assertSame(otherHandle, jdbcMetric.bind(TestUtils.URI + "/other"));
+        JdbcMetric.JdbcHandle newHandle = jdbcMetric.bind(TestUtils.URI);
+        assertNotSame(handle, newHandle);
+        assertTrue(newHandle.isValid());
+
+        newHandle.collect(10, false);
+        TagVerifier tagVerifier = TagVerifier.build(JdbcMetric.newConnectionTags(), TestUtils.URI);
+        LastJsonReporter lastJsonReporter = MockEaseAgent.lastMetricJsonReporter(tagVerifier::verifyAnd);
+        Map<String, Object> metrics = lastJsonReporter.flushAndOnlyOne();
+        assertEquals(1, metrics.get(MetricField.EXECUTION_COUNT.getField()));
+        assertEquals(1, metrics.get(MetricField.EXECUTION_ERROR_COUNT.getField()));
+    }
+
     @Test
     public void onRemoval() {
         JdbcMetric jdbcMetric = get();
@@ -33,8 +33,8 @@ import com.megaease.easeagent.plugin.enums.Order;
 import com.megaease.easeagent.plugin.field.AgentFieldReflectAccessor;
 import com.megaease.easeagent.plugin.interceptor.MethodInfo;
 import com.megaease.easeagent.plugin.jdbc.JdbcTracingPlugin;
+import com.megaease.easeagent.plugin.jdbc.H2Connection;
 import com.megaease.easeagent.plugin.jdbc.TestUtils;
-import com.megaease.easeagent.plugin.jdbc.common.SQLCompressionFactory;
 import com.megaease.easeagent.plugin.jdbc.common.SqlInfo;
 import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
 import org.junit.Test;
@@ -65,7 +65,7 @@ public class JdbcStmTracingInterceptorTest {
         assertNull(context.get(JdbcStmTracingInterceptor.SPAN_KEY));
 
         SqlInfo sqlInfo = new SqlInfo(TestUtils.mockConnection());
-        String sql = "select * from data";
+        String sql = "select * from data where id = 1";
         sqlInfo.addSql(sql, false);
         context.put(SqlInfo.class, sqlInfo);
 
@@ -78,7 +78,7 @@ public class JdbcStmTracingInterceptorTest {
 
         assertEquals(method, reportSpan.name());
         assertEquals(Span.Kind.CLIENT.name(), reportSpan.kind());
-        assertEquals(SQLCompressionFactory.getSqlCompression().compress(sql), reportSpan.tag(JdbcStmTracingInterceptor.SPAN_SQL_QUERY_TAG_NAME));
+        assertEquals(sql, reportSpan.tag(JdbcStmTracingInterceptor.SPAN_SQL_QUERY_TAG_NAME));
         assertEquals("database", reportSpan.tag(JdbcStmTracingInterceptor.SPAN_LOCAL_COMPONENT_TAG_NAME));
         assertEquals(TestUtils.URI, reportSpan.tag(JdbcStmTracingInterceptor.SPAN_URL));
         assertEquals(Type.DATABASE.getRemoteType(), reportSpan.tag(MiddlewareConstants.TYPE_TAG_NAME));
@@ -97,6 +97,32 @@ public class JdbcStmTracingInterceptorTest {
         assertEquals(TestUtils.URI, reportSpan.tag(MiddlewareConstants.REDIRECTED_LABEL_REMOTE_TAG_NAME));
     }
 
+    @Test
+    public void doBeforeWithH2() throws SQLException {
+        JdbcStmTracingInterceptor interceptor = new JdbcStmTracingInterceptor();
+        Context context = EaseAgent.getContext();
+        InterceptorTestUtils.init(interceptor, new JdbcTracingPlugin());
+        H2Connection h2 = new H2Connection("tracing");
+        SqlInfo sqlInfo = new SqlInfo(h2.getConnection());
+        sqlInfo.addSql("select 1", false);
+        context.put(SqlInfo.class, sqlInfo);
+        MethodInfo methodInfo = MethodInfo.builder().method("executeQuery").build();
+
+        for (int i = 0; i < 2; i++) {
+            interceptor.doBefore(methodInfo, context);
+            Span span = context.remove(JdbcStmTracingInterceptor.SPAN_KEY);
+            assertNotNull(span);
+            span.finish();
+            ReportSpan reportSpan = MockEaseAgent.getLastSpan();
+            assertEquals("jdbc:h2:mem:tracing", reportSpan.tag(JdbcStmTracingInterceptor.SPAN_URL));
+            assertEquals("h2-tracing", reportSpan.remoteServiceName());
+        }
+        assertEquals(1, h2.calls("getMetaData"));
+        assertEquals(1, h2.calls("getCatalog"));
+        context.remove(SqlInfo.class);
+        h2.getConnection().close();
+    }
+
     @Test
     public void doAfter() throws SQLException {
         JdbcStmTracingInterceptor interceptor = new JdbcStmTracingInterceptor();
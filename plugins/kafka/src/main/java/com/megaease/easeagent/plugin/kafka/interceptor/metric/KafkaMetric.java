@@ -44,56 +44,118 @@ public class KafkaMetric extends ServiceMetric {
     }
 
 
-    private void countMeter(String topic, MetricSubType... meterTypes) {
-        for (MetricSubType meterType : meterTypes) {
-            Meter meter = this.metricRegistry.meter(nameFactory.meterName(topic, meterType));
-            if (meter != null) {
-                meter.mark();
-            }
-        }
+    /**
+     * @param topic the topic
+     * @return the handle of metrics of the topic
+     */
+    public KafkaHandle bind(String topic) {
+        return bind(topic, t -> new KafkaHandle(this, t));
     }
 
     void producerStop(long beginTime, String topic) {
-        countMeter(topic, MetricSubType.PRODUCER);
-        Timer timer = this.metricRegistry.timer(nameFactory.timerName(topic, MetricSubType.PRODUCER));
-        timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
-        Counter counter = metricRegistry.counter(nameFactory.counterName(topic, MetricSubType.PRODUCER));
-        counter.inc();
+        Metrics producer = bind(topic).producer();
+        producer.meter.mark();
+        producer.timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
+        producer.counter.inc();
     }
 
     public void errorProducer(String topic) {
-        countMeter(topic, MetricSubType.PRODUCER_ERROR);
-        Counter counter = metricRegistry.counter(this.nameFactory.counterName(topic, MetricSubType.PRODUCER_ERROR));
-        counter.inc();
+        Metrics producerError = bind(topic).producerError();
+        producerError.meter.mark();
+        producerError.counter.inc();
     }
 
     public Timer.Context consumeStart(String topic) {
-        countMeter(topic, MetricSubType.CONSUMER);// meter
-        Timer timer = this.metricRegistry.timer(nameFactory.timerName(topic, MetricSubType.CONSUMER)); //timer
-        return timer.time();
+        Metrics consumer = bind(topic).consumer();
+        consumer.meter.mark();
+        return consumer.timer.time();
     }
 
     public void consumeStop(Timer.Context context, String topic) {
         context.stop();
-        Counter counter = metricRegistry.counter(nameFactory.counterName(topic, MetricSubType.CONSUMER));
-        counter.inc();
+        bind(topic).consumer().counter.inc();
     }
 
     public void consumeError(String topic) {
-        countMeter(topic, MetricSubType.CONSUMER_ERROR);
-        Counter errorCounter = metricRegistry.counter(nameFactory.counterName(topic, MetricSubType.CONSUMER_ERROR));
-        errorCounter.inc();
+        Metrics consumerError = bind(topic).consumerError();
+        consumerError.meter.mark();
+        consumerError.counter.inc();
     }
 
     public void consume(String topic, long beginTime, boolean success) {
-        countMeter(topic, MetricSubType.CONSUMER);
-        this.metricRegistry.timer(nameFactory.timerName(topic, MetricSubType.CONSUMER)).update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
-        Counter counter = metricRegistry.counter(nameFactory.counterName(topic, MetricSubType.CONSUMER));
-        counter.inc();
+        KafkaHandle handle = bind(topic);
+        Metrics consumer = handle.consumer();
+        consumer.meter.mark();
+        consumer.timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
+        consumer.counter.inc();
         if (!success) {
-            countMeter(topic, MetricSubType.CONSUMER_ERROR);
-            Counter errorCounter = metricRegistry.counter(nameFactory.counterName(topic, MetricSubType.CONSUMER_ERROR));
-            errorCounter.inc();
+            Metrics consumerError = handle.consumerError();
+            consumerError.meter.mark();
+            consumerError.counter.inc();
+        }
+    }
+
+    /**
+     * The metrics of a topic. A topic is used by producers or by consumers or both, so the metrics
+     * of each side are got from the registry when the side is first used.
+     */
+    public static final class KafkaHandle extends Handle {
+        private final KafkaMetric kafkaMetric;
+        private final String topic;
+        private volatile Metrics producer;
+        private volatile Metrics producerError;
+        private volatile Metrics consumer;
+        private volatile Metrics consumerError;
+
+        KafkaHandle(KafkaMetric kafkaMetric, String topic) {
+            this.kafkaMetric = kafkaMetric;
+            this.topic = topic;
+        }
+
+        Metrics producer() {
+            Metrics m = producer;
+            if (m == null) {
+                m = producer = new Metrics(kafkaMetric, topic, MetricSubType.PRODUCER, true);
+            }
+            return m;
+        }
+
+        Metrics producerError() {
+            Metrics m = producerError;
+            if (m == null) {
+                m = producerError = new Metrics(kafkaMetric, topic, MetricSubType.PRODUCER_ERROR, false);
+            }
+            return m;
+        }
+
+        Metrics consumer() {
+            Metrics m = consumer;
+            if (m == null) {
+                m = consumer = new Metrics(kafkaMetric, topic, MetricSubType.CONSUMER, true);
+            }
+            return m;
+        }
+
+        Metrics consumerError() {
+            Metrics m = consumerError;
+            if (m == null) {
+                m = consumerError = new Metrics(kafkaMetric, topic, MetricSubType.CONSUMER_ERROR, false);
+            }
+            return m;
+        }
+    }
+
+    static final class Metrics {
+        final Meter meter;
+        final Counter counter;
+        final Timer timer;
+
+        Metrics(KafkaMetric kafkaMetric, String topic, MetricSubType subType, boolean timed) {
+            MetricRegistry metricRegistry = kafkaMetric.metricRegistry;
+            NameFactory nameFactory = kafkaMetric.nameFactory;
+            this.meter = metricRegistry.meter(nameFactory.meterName(topic, subType));
+            this.counter = metricRegistry.counter(nameFactory.counterName(topic, subType));
+            this.timer = timed ? metricRegistry.timer(nameFactory.timerName(topic, subType)) : null;
         }
     }
 
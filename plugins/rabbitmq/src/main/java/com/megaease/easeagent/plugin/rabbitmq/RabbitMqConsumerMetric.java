@@ -85,13 +85,34 @@ public class RabbitMqConsumerMetric extends ServiceMetric {
     }
 
     public void metricAfter(String queue, long beginTime, boolean success) {
-        Timer timer = timer(queue, MetricSubType.DEFAULT);
-        timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
-        final Meter defaultMeter = meter(queue, MetricSubType.CONSUMER);
-        final Meter errorMeter = meter(queue, MetricSubType.CONSUMER_ERROR);
-        if (!success) {
-            errorMeter.mark();
+        bind(queue).collect(beginTime, success);
+    }
+
+    /**
+     * @param key the key of metrics, eg. the queue
+     * @return the handle of metrics of the key
+     */
+    public RabbitMqConsumerHandle bind(String key) {
+        return bind(key, k -> new RabbitMqConsumerHandle(this, k));
+    }
+
+    public static final class RabbitMqConsumerHandle extends Handle {
+        private final Timer timer;
+        private final Meter defaultMeter;
+        private final Meter errorMeter;
+
+        RabbitMqConsumerHandle(RabbitMqConsumerMetric metric, String key) {
+            this.timer = metric.timer(key, MetricSubType.DEFAULT);
+            this.defaultMeter = metric.meter(key, MetricSubType.CONSUMER);
+            this.errorMeter = metric.meter(key, MetricSubType.CONSUMER_ERROR);
+        }
+
+        public void collect(long beginTime, boolean success) {
+            timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
+            if (!success) {
+                errorMeter.mark();
+            }
+            defaultMeter.mark();
         }
-        defaultMeter.mark();
     }
 }
@@ -44,15 +44,35 @@ public class RabbitMqProducerMetric extends ServiceMetric {
     }
 
     public void metricAfter(String exchange, String routingKey, long beginTime, boolean success) {
-        String key = String.join("-", exchange, routingKey);
-        Timer timer = timer(key, MetricSubType.DEFAULT);
-        timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
-        final Meter defaultMeter = meter(key, MetricSubType.PRODUCER);
-        final Meter errorMeter = meter(key, MetricSubType.PRODUCER_ERROR);
-        if (!success) {
-            errorMeter.mark();
+        bind(String.join("-", exchange, routingKey)).collect(beginTime, success);
+    }
+
+    /**
+     * @param key the key of metrics, eg. exchange-routingKey
+     * @return the handle of metrics of the key
+     */
+    public RabbitMqProducerHandle bind(String key) {
+        return bind(key, k -> new RabbitMqProducerHandle(this, k));
+    }
+
+    public static final class RabbitMqProducerHandle extends Handle {
+        private final Timer timer;
+        private final Meter defaultMeter;
+        private final Meter errorMeter;
+
+        RabbitMqProducerHandle(RabbitMqProducerMetric metric, String key) {
+            this.timer = metric.timer(key, MetricSubType.DEFAULT);
+            this.defaultMeter = metric.meter(key, MetricSubType.PRODUCER);
+            this.errorMeter = metric.meter(key, MetricSubType.PRODUCER_ERROR);
+        }
+
+        public void collect(long beginTime, boolean success) {
+            timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
+            if (!success) {
+                errorMeter.mark();
+            }
+            defaultMeter.mark();
         }
-        defaultMeter.mark();
     }
 
     public static Tags buildTags() {
@@ -29,4 +29,9 @@ public class JedisMetricInterceptor extends CommonRedisMetricInterceptor {
     public String getKey(MethodInfo methodInfo, Context context) {
         return methodInfo.getMethod();
     }
+
+    @Override
+    public boolean isArgsRequired() {
+        return false;
+    }
 }
@@ -33,4 +33,9 @@ public class JedisTracingInterceptor extends CommonRedisTracingInterceptor {
         String cmd = methodInfo.getMethod();
         this.startTracing(context, name, null, cmd);
     }
+
+    @Override
+    public boolean isArgsRequired() {
+        return false;
+    }
 }
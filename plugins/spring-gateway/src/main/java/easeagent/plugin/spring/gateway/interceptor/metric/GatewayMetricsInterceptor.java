@@ -26,6 +26,7 @@ import com.megaease.easeagent.plugin.api.metric.name.Tags;
 import com.megaease.easeagent.plugin.enums.Order;
 import com.megaease.easeagent.plugin.interceptor.Interceptor;
 import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import com.megaease.easeagent.plugin.tools.metrics.ResourceUsage;
 import com.megaease.easeagent.plugin.tools.metrics.ServerMetric;
 import com.megaease.easeagent.plugin.utils.SystemClock;
 import easeagent.plugin.spring.gateway.SpringGatewayPlugin;
@@ -45,16 +46,21 @@ import static easeagent.plugin.spring.gateway.interceptor.metric.TimeUtils.start
 public class GatewayMetricsInterceptor implements Interceptor {
     private static Object START_TIME = new Object();
     private static volatile ServerMetric SERVER_METRIC = null;
+    private boolean resourceUsage = false;
 
     @Override
     public void init(IPluginConfig config, String className, String methodName, String methodDescriptor) {
         SERVER_METRIC = ServiceMetricRegistry.getOrCreate(config,
             new Tags("application", "http-request", "url"), ServerMetric.SERVICE_METRIC_SUPPLIER);
+        resourceUsage = Boolean.parseBoolean(config.getString("resourceUsage"));
     }
 
     @Override
     public void before(MethodInfo methodInfo, Context context) {
         startTime(context, START_TIME);
+        if (resourceUsage) {
+            ResourceUsageUtils.begin(context, (ServerWebExchange) methodInfo.getArgs()[0]);
+        }
         // context.put(START, SystemClock.now());
     }
 
@@ -68,14 +74,16 @@ public class GatewayMetricsInterceptor implements Interceptor {
                 String key = getKey(exchange);
                 Long start = startTime(context, START_TIME);
                 long end = System.currentTimeMillis();
-                SERVER_METRIC.collectMetric(key, 500, methodInfo.getThrowable(), start, end);
+                ResourceUsageUtils.suspend(context, exchange);
+                SERVER_METRIC.collectMetric(key, 500, methodInfo.getThrowable(), start, end, resourceUsage(exchange));
                 return;
             }
             // async
             Mono<Void> mono = (Mono<Void>) methodInfo.getRetValue();
-            methodInfo.setRetValue(new AgentMono(mono, methodInfo, context.exportAsync(), this::finishCallback));
+            methodInfo.setRetValue(new AgentMono(mono, methodInfo.copy(), context.exportAsync(), this::finishCallback));
         } finally {
             removeStartTime(context, START_TIME);
+            ResourceUsageUtils.suspend(context, (ServerWebExchange) methodInfo.getArgs()[0]);
         }
     }
 
@@ -88,7 +96,11 @@ public class GatewayMetricsInterceptor implements Interceptor {
             code = statusCode.value();
         }
         SERVER_METRIC.collectMetric(key, code, methodInfo.getThrowable(),
-            ctx.get(START_TIME), SystemClock.now());
+            ctx.get(START_TIME), SystemClock.now(), resourceUsage(exchange));
+    }
+
+    private ResourceUsage resourceUsage(ServerWebExchange exchange) {
+        return resourceUsage ? ResourceUsageUtils.get(exchange) : null;
     }
 
     public static String getKey(ServerWebExchange exchange) {
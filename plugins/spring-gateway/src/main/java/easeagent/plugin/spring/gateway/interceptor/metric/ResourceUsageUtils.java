@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package easeagent.plugin.spring.gateway.interceptor.metric;
+
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.tools.metrics.ResourceUsage;
+import org.springframework.web.server.ServerWebExchange;
+
+public class ResourceUsageUtils {
+    private static final String RESOURCE_USAGE = ResourceUsageUtils.class.getName() + "$ResourceUsage";
+
+    public static ResourceUsage begin(Context context, ServerWebExchange exchange) {
+        ResourceUsage usage = get(exchange);
+        if (usage == null) {
+            usage = ResourceUsage.begin();
+            if (usage == null) {
+                return null;
+            }
+            exchange.getAttributes().put(RESOURCE_USAGE, usage);
+            context.put(ResourceUsage.class, usage);
+        }
+        return usage;
+    }
+
+    public static ResourceUsage get(ServerWebExchange exchange) {
+        return exchange.getAttribute(RESOURCE_USAGE);
+    }
+
+    public static void suspend(Context context, ServerWebExchange exchange) {
+        ResourceUsage usage = get(exchange);
+        if (usage == null) {
+            return;
+        }
+        usage.suspend();
+        if (context.get(ResourceUsage.class) == usage) {
+            context.remove(ResourceUsage.class);
+        }
+    }
+}
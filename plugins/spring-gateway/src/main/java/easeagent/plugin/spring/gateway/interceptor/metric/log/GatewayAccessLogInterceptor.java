@@ -19,6 +19,7 @@ package easeagent.plugin.spring.gateway.interceptor.metric.log;
 
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.config.IPluginConfig;
 import com.megaease.easeagent.plugin.api.context.AsyncContext;
 import com.megaease.easeagent.plugin.api.context.RequestContext;
 import com.megaease.easeagent.plugin.api.logging.AccessLogInfo;
@@ -32,6 +33,7 @@ import com.megaease.easeagent.plugin.tools.metrics.HttpLog;
 import easeagent.plugin.spring.gateway.AccessPlugin;
 import easeagent.plugin.spring.gateway.advice.AgentGlobalFilterAdvice;
 import easeagent.plugin.spring.gateway.interceptor.GatewayCons;
+import easeagent.plugin.spring.gateway.interceptor.metric.ResourceUsageUtils;
 import easeagent.plugin.spring.gateway.reactor.AgentMono;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
@@ -43,6 +45,12 @@ import static easeagent.plugin.spring.gateway.interceptor.metric.TimeUtils.start
 public class GatewayAccessLogInterceptor implements Interceptor {
     private static final Object START_TIME = new Object();
     private final HttpLog httpLog = new HttpLog();
+    private boolean resourceUsage = false;
+
+    @Override
+    public void init(IPluginConfig config, String className, String methodName, String methodDescriptor) {
+        resourceUsage = Boolean.parseBoolean(config.getString("resourceUsage"));
+    }
 
     @Override
     public void before(MethodInfo methodInfo, Context context) {
@@ -52,6 +60,9 @@ public class GatewayAccessLogInterceptor implements Interceptor {
         AccessLogInfo accessLog = this.httpLog.prepare(getSystem(),
             getServiceName(), beginTime, getSpan(exchange), serverInfo);
         exchange.getAttributes().put(AccessLogInfo.class.getName(), accessLog);
+        if (resourceUsage) {
+            ResourceUsageUtils.begin(context, exchange);
+        }
     }
 
     @Override
@@ -60,9 +71,10 @@ public class GatewayAccessLogInterceptor implements Interceptor {
         try {
             // async
             Mono<Void> mono = (Mono<Void>) methodInfo.getRetValue();
-            methodInfo.setRetValue(new AgentMono(mono, methodInfo, context.exportAsync(), this::finishCallback));
+            methodInfo.setRetValue(new AgentMono(mono, methodInfo.copy(), context.exportAsync(), this::finishCallback));
         } finally {
             removeStartTime(context, START_TIME);
+            ResourceUsageUtils.suspend(context, (ServerWebExchange) methodInfo.getArgs()[0]);
         }
     }
 
@@ -82,7 +94,8 @@ public class GatewayAccessLogInterceptor implements Interceptor {
         }
         Long beginTime = ctx.get(START_TIME);
         AccessLogServerInfo serverInfo = this.serverInfo(exchange);
-        this.httpLog.finish(accessLog, methodInfo.isSuccess(), beginTime, serverInfo);
+        this.httpLog.finish(accessLog, methodInfo.isSuccess(), beginTime, serverInfo,
+            resourceUsage ? ResourceUsageUtils.get(exchange) : null);
         EaseAgent.getAgentReport().report(accessLog);
     }
 
@@ -75,7 +75,7 @@ public class GatewayServerTracingInterceptor implements Interceptor {
 
             // async
             Mono<Void> mono = (Mono<Void>) methodInfo.getRetValue();
-            methodInfo.setRetValue(new AgentMono(mono, methodInfo, context.exportAsync(), this::finishCallback));
+            methodInfo.setRetValue(new AgentMono(mono, methodInfo.copy(), context.exportAsync(), this::finishCallback));
         } finally {
             cleanContext(context);
             pCtx.scope().close();
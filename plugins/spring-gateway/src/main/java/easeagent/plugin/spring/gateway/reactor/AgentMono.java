@@ -20,6 +20,7 @@ package easeagent.plugin.spring.gateway.reactor;
 import com.megaease.easeagent.plugin.api.Cleaner;
 import com.megaease.easeagent.plugin.api.context.AsyncContext;
 import com.megaease.easeagent.plugin.interceptor.MethodInfo;
+import com.megaease.easeagent.plugin.tools.metrics.ResourceUsage;
 import reactor.core.CoreSubscriber;
 import reactor.core.publisher.Mono;
 
@@ -43,7 +44,8 @@ public class AgentMono extends Mono<Void> {
 
     @Override
     public void subscribe(@Nonnull CoreSubscriber<? super Void> actual) {
-        try (Cleaner ignored = asyncContext.importToCurrent()) {
+        try (Cleaner ignored = asyncContext.importToCurrent();
+             Cleaner usage = ResourceUsage.enter(asyncContext.get(ResourceUsage.class))) {
             this.source.subscribe(new AgentCoreSubscriber(actual, methodInfo,
                 asyncContext, finish));
         }
@@ -64,7 +64,7 @@ public class WebClientFilterTracingInterceptor implements NonReentrantIntercepto
         try (Scope ignored = pCtx.scope()) {
             @SuppressWarnings("unchecked")
             Mono<ClientResponse> mono = (Mono<ClientResponse>) methodInfo.getRetValue();
-            methodInfo.setRetValue(new AgentMono(mono, methodInfo, pCtx));
+            methodInfo.setRetValue(new AgentMono(mono, methodInfo.copy(), pCtx));
 
             if (!methodInfo.isSuccess()) {
                 Span span = pCtx.span();
@@ -18,6 +18,10 @@
 package com.megaease.easeagent.report.async;
 
 public interface AsyncProps {
+    int DEFAULT_MESSAGE_MAX_IN_FLIGHT = 4;
+    long DEFAULT_SPILL_MAX_SIZE = 256L << 20;
+    long DEFAULT_SPILL_REPLAY_BYTES_PER_SECOND = 1L << 20;
+
     int getReportThread();
 
     int getQueuedMaxItems();
@@ -28,6 +32,29 @@ public interface AsyncProps {
 
     int getMessageMaxBytes();
 
+    /** Maximum messages sent without their responses received, the flush threads wait beyond it */
+    default int getMessageMaxInFlight() {
+        return DEFAULT_MESSAGE_MAX_IN_FLIGHT;
+    }
+
+    /**
+     * Directory of the spill files of items the pending queue can't hold or which failed to send,
+     * spill is disabled when it's not set.
+     */
+    default String getSpillDir() {
+        return null;
+    }
+
+    /** Maximum bytes of the spill files */
+    default long getSpillMaxSize() {
+        return DEFAULT_SPILL_MAX_SIZE;
+    }
+
+    /** Maximum bytes per second replayed from the spill files once the sender works again */
+    default long getSpillReplayBytesPerSecond() {
+        return DEFAULT_SPILL_REPLAY_BYTES_PER_SECOND;
+    }
+
     static int onePercentOfMemory() {
         long result = (long) (Runtime.getRuntime().totalMemory() * 0.01);
         // don't overflow in the rare case 1% of memory is larger than 2 GiB!
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async;
+
+/**
+ * Running average of the encoded size of items. Items are encoded by the flush threads only, a reporting
+ * thread charges the queue with the average instead of sizing the item it reports.
+ */
+public final class EncodedSizeAverage {
+    static final int INITIAL_SIZE_IN_BYTES = 512;
+    // the weight of a new size is 1/2^WEIGHT_SHIFT
+    static final int WEIGHT_SHIFT = 4;
+
+    private volatile int average;
+
+    public EncodedSizeAverage() {
+        this(INITIAL_SIZE_IN_BYTES);
+    }
+
+    public EncodedSizeAverage(int initialSizeInBytes) {
+        this.average = initialSizeInBytes;
+    }
+
+    public int get() {
+        return average;
+    }
+
+    /**
+     * Called by flush threads, a racing update is lost, which doesn't matter to an average.
+     */
+    public void record(int sizeInBytes) {
+        int current = average;
+        average = Math.max(1, current + ((sizeInBytes - current) >> WEIGHT_SHIFT));
+    }
+}
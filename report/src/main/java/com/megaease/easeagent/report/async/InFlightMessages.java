@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async;
+
+import com.megaease.easeagent.plugin.report.Call;
+import com.megaease.easeagent.plugin.report.Callback;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds the messages a reporter has in flight, enqueued to the sender without waiting for their responses.
+ *
+ * <p>When the limit is reached, the flush thread waits for a message to complete before sending the next, and
+ * the items stay in the pending queue: a slow collector applies backpressure instead of stalling each send.
+ */
+public class InFlightMessages {
+    private final int limit;
+    private final Semaphore permits;
+
+    public InFlightMessages(int limit) {
+        this.limit = Math.max(1, limit);
+        this.permits = new Semaphore(this.limit);
+    }
+
+    /**
+     * Enqueues the call once the number of messages in flight is under the limit.
+     *
+     * @throws InterruptedException if interrupted while waiting, the call isn't enqueued
+     */
+    public void send(Call<Void> call, Callback<Void> callback) throws InterruptedException {
+        permits.acquire();
+        enqueue(call, callback);
+    }
+
+    /**
+     * Enqueues the call only if the number of messages in flight is under the limit.
+     *
+     * @return false if the call isn't enqueued
+     */
+    public boolean trySend(Call<Void> call, Callback<Void> callback) {
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+        enqueue(call, callback);
+        return true;
+    }
+
+    private void enqueue(Call<Void> call, Callback<Void> callback) {
+        Completion completion = new Completion(callback);
+        try {
+            call.enqueue(completion);
+        } catch (RuntimeException e) {
+            // the callback may not be invoked when enqueue fails
+            completion.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of messages in flight
+     */
+    public int count() {
+        return limit - permits.availablePermits();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * Waits for the messages in flight to complete.
+     *
+     * @return false if some are still in flight after the timeout
+     */
+    public boolean awaitCompletion(long timeoutNanos) throws InterruptedException {
+        if (!permits.tryAcquire(limit, timeoutNanos, TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        permits.release(limit);
+        return true;
+    }
+
+    private class Completion extends AtomicBoolean implements Callback<Void> {
+        private final Callback<Void> callback;
+
+        Completion(Callback<Void> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void onSuccess(Void value) {
+            try {
+                callback.onSuccess(value);
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            try {
+                callback.onError(t);
+            } finally {
+                release();
+            }
+        }
+
+        void release() {
+            if (compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async;
+
+import com.megaease.easeagent.report.async.zipkin.WithSizeConsumer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-producer, single-consumer ring buffer that is bounded by both count and size.
+ *
+ * <p>Producers, the application threads reporting spans and logs, never take a lock: they reserve
+ * bytes and claim a slot with CAS, then publish the element into it. Drainers, the flush threads,
+ * are serialized by a lock only they use, and release the bytes and slots of a whole batch at once.
+ * A producer wakes the drainer only when it is parked waiting for elements.
+ */
+public final class MpscByteBoundedQueue<S> implements WithSizeConsumer<S> {
+    final ReentrantLock drainLock = new ReentrantLock(false);
+
+    final int maxSize;
+    final int maxBytes;
+    final int mask;
+
+    final AtomicReferenceArray<S> elements;
+    final int[] sizesInBytes;
+    final AtomicLong tail = new AtomicLong();
+    final AtomicInteger sizeInBytes = new AtomicInteger();
+    volatile long head;
+    volatile Thread waiter;
+
+    public MpscByteBoundedQueue(int maxSize, int maxBytes) {
+        int capacity = Integer.highestOneBit(Math.max(maxSize, 1));
+        if (capacity < maxSize) {
+            capacity <<= 1;
+        }
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sizesInBytes = new int[capacity];
+        this.mask = capacity - 1;
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns true if the element could be added or false if it could not due to its size.
+     */
+    @Override
+    public boolean offer(S next, int nextSizeInBytes) {
+        if (!reserveBytes(nextSizeInBytes)) {
+            return false;
+        }
+        long pos;
+        do {
+            pos = tail.get();
+            if (pos - head >= maxSize) {
+                sizeInBytes.addAndGet(-nextSizeInBytes);
+                return false;
+            }
+        } while (!tail.compareAndSet(pos, pos + 1));
+
+        int index = (int) pos & mask;
+        sizesInBytes[index] = nextSizeInBytes;
+        // the volatile write publishes the size too, and orders before reading the waiter
+        elements.set(index, next);
+
+        Thread parked = waiter;
+        if (parked != null) {
+            LockSupport.unpark(parked);
+        }
+        return true;
+    }
+
+    private boolean reserveBytes(int nextSizeInBytes) {
+        for (; ; ) {
+            int current = sizeInBytes.get();
+            if (current + nextSizeInBytes > maxBytes) {
+                return false;
+            }
+            if (sizeInBytes.compareAndSet(current, current + nextSizeInBytes)) {
+                return true;
+            }
+        }
+    }
+
+    /** Blocks for up to nanosTimeout for elements to appear. Then, consume as many as possible. */
+    public int drainTo(WithSizeConsumer<S> consumer, long nanosTimeout) {
+        try {
+            // This may be called by multiple threads. If one is holding the lock, another is waiting. We
+            // use lockInterruptibly to ensure the one waiting can be interrupted.
+            drainLock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            return 0;
+        }
+        try {
+            if (isHeadEmpty() && !awaitNotEmpty(nanosTimeout)) {
+                return 0;
+            }
+            return doDrain(consumer);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private boolean awaitNotEmpty(long nanosTimeout) {
+        long deadline = System.nanoTime() + nanosTimeout;
+        while (isHeadEmpty()) {
+            long nanosLeft = deadline - System.nanoTime();
+            if (nanosLeft <= 0) {
+                return false;
+            }
+            waiter = Thread.currentThread();
+            // check again after announcing the waiter, a producer publishing before that won't unpark us
+            if (isHeadEmpty()) {
+                LockSupport.parkNanos(this, nanosLeft);
+            }
+            waiter = null;
+            if (Thread.interrupted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The count includes slots claimed by producers which are about to publish into them.
+     */
+    public int getCount() {
+        long h = head;
+        return (int) (tail.get() - h);
+    }
+
+    public int getSizeInBytes() {
+        return sizeInBytes.get();
+    }
+
+    /** Clears the queue unconditionally and returns count of elements cleared. */
+    public int clear() {
+        drainLock.lock();
+        try {
+            return doDrain((next, nextSizeInBytes) -> true);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private boolean isHeadEmpty() {
+        return elements.get((int) head & mask) == null;
+    }
+
+    int doDrain(WithSizeConsumer<S> consumer) {
+        long pos = head;
+        int drainedCount = 0;
+        int drainedSizeInBytes = 0;
+        for (; ; ) {
+            int index = (int) pos & mask;
+            S next = elements.get(index);
+            // empty, or claimed by a producer which hasn't published yet
+            if (next == null) {
+                break;
+            }
+            int nextSizeInBytes = sizesInBytes[index];
+            if (!consumer.offer(next, nextSizeInBytes)) {
+                break;
+            }
+            elements.lazySet(index, null);
+            pos++;
+            drainedCount++;
+            drainedSizeInBytes += nextSizeInBytes;
+        }
+        if (drainedCount > 0) {
+            // the slots are handed back to producers as a batch
+            head = pos;
+            sizeInBytes.addAndGet(-drainedSizeInBytes);
+        }
+        return drainedCount;
+    }
+}
@@ -30,6 +30,10 @@ public class LogAsyncProps implements AsyncProps {
     private volatile int queuedMaxSize;
     private volatile int messageTimeout;
     private volatile int messageMaxBytes;
+    private volatile int messageMaxInFlight;
+    private volatile String spillDir;
+    private volatile long spillMaxSize;
+    private volatile long spillReplayBytesPerSecond;
 
     public LogAsyncProps(Config config, String prefix) {
         int onePercentageMemory = AsyncProps.onePercentOfMemory();
@@ -49,6 +53,18 @@ public class LogAsyncProps implements AsyncProps {
 
         bindProp(join(keyPrefix, join(ASYNC_KEY, ASYNC_MSG_TIMEOUT_KEY)),
             config, Config::getInt, v -> this.messageTimeout = v, 1000);
+
+        bindProp(join(keyPrefix, join(ASYNC_KEY, ASYNC_MSG_MAX_IN_FLIGHT_KEY)),
+            config, Config::getInt, v -> this.messageMaxInFlight = v, DEFAULT_MESSAGE_MAX_IN_FLIGHT);
+
+        bindProp(join(keyPrefix, join(ASYNC_KEY, ASYNC_SPILL_DIR_KEY)),
+            config, Config::getString, v -> this.spillDir = v);
+
+        bindProp(join(keyPrefix, join(ASYNC_KEY, ASYNC_SPILL_MAX_SIZE_KEY)),
+            config, Config::getLong, v -> this.spillMaxSize = v, DEFAULT_SPILL_MAX_SIZE);
+
+        bindProp(join(keyPrefix, join(ASYNC_KEY, ASYNC_SPILL_REPLAY_RATE_KEY)),
+            config, Config::getLong, v -> this.spillReplayBytesPerSecond = v, DEFAULT_SPILL_REPLAY_BYTES_PER_SECOND);
     }
 
     @Override
@@ -75,4 +91,24 @@ public class LogAsyncProps implements AsyncProps {
     public int getMessageMaxBytes() {
         return this.messageMaxBytes;
     }
+
+    @Override
+    public int getMessageMaxInFlight() {
+        return this.messageMaxInFlight;
+    }
+
+    @Override
+    public String getSpillDir() {
+        return this.spillDir;
+    }
+
+    @Override
+    public long getSpillMaxSize() {
+        return this.spillMaxSize;
+    }
+
+    @Override
+    public long getSpillReplayBytesPerSecond() {
+        return this.spillReplayBytesPerSecond;
+    }
 }
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async.spill;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * A FIFO queue of byte records kept in memory-mapped segment files, so a backlog doesn't grow the heap.
+ *
+ * <p>Each record is an int length followed by its bytes. A record is consumed by negating its length in
+ * place, a zero length ends a segment. Segments are deleted once all their records are consumed, and the
+ * records left behind by a previous process are recovered on {@link #open}. When the segments reach the
+ * maximum size, new records are refused.
+ */
+public class MappedSpillQueue implements Closeable {
+    static final String SUFFIX = ".spill";
+    private static final String LOCK_FILE = ".lock";
+    private static final int HEADER = 4;
+
+    private final File dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final RandomAccessFile lockFile;
+    private final FileLock lock;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private long nextSequence;
+    private int count;
+    private long sizeInBytes;
+    private boolean closed;
+
+    private MappedSpillQueue(File dir, int segmentBytes, long maxBytes, RandomAccessFile lockFile, FileLock lock) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / segmentBytes));
+        this.lockFile = lockFile;
+        this.lock = lock;
+    }
+
+    /**
+     * Opens the queue in a directory owned by it, recovering the records left in it.
+     *
+     * @param dir          the directory of the segment files
+     * @param segmentBytes size of a segment file, the largest record is 4 bytes smaller
+     * @param maxBytes     maximum size of all the segment files
+     * @throws IOException if the directory can't be used, or is used by another queue
+     */
+    public static MappedSpillQueue open(File dir, int segmentBytes, long maxBytes) throws IOException {
+        if (segmentBytes <= HEADER) {
+            throw new IllegalArgumentException("segmentBytes <= " + HEADER + ": " + segmentBytes);
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("can not create spill directory: " + dir);
+        }
+        RandomAccessFile lockFile = new RandomAccessFile(new File(dir, LOCK_FILE), "rw");
+        FileLock lock;
+        try {
+            lock = lockFile.getChannel().tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockFile.close();
+            throw new IOException("spill directory is in use: " + dir);
+        }
+        MappedSpillQueue queue = new MappedSpillQueue(dir, segmentBytes, maxBytes, lockFile, lock);
+        try {
+            queue.recover();
+        } catch (IOException | RuntimeException e) {
+            queue.close();
+            throw e;
+        }
+        return queue;
+    }
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        long[] sequences = new long[files.length];
+        int n = 0;
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                sequences[n] = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                n++;
+            } catch (NumberFormatException e) {
+                // not a segment
+            }
+        }
+        Arrays.sort(sequences, 0, n);
+        for (int i = 0; i < n; i++) {
+            File file = segmentFile(sequences[i]);
+            Segment segment = Segment.map(file, (int) Math.min(file.length(), Integer.MAX_VALUE));
+            segment.scan();
+            if (segment.count == 0) {
+                segment.delete();
+                continue;
+            }
+            segments.addLast(segment);
+            count += segment.count;
+            sizeInBytes += segment.sizeInBytes;
+        }
+        nextSequence = n == 0 ? 0 : sequences[n - 1] + 1;
+    }
+
+    private File segmentFile(long sequence) {
+        return new File(dir, String.format("%019d%s", sequence, SUFFIX));
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @return false if the record is refused, the queue being full, closed or the record too large
+     */
+    public synchronized boolean offer(byte[] data) {
+        int length = data.length;
+        if (closed || length == 0 || length > segmentBytes - HEADER) {
+            return false;
+        }
+        Segment tail = segments.peekLast();
+        if (tail == null || !tail.hasRoom(length)) {
+            if (tail != null && tail.count == 0) {
+                segments.pollLast().delete();
+            }
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            try {
+                tail = Segment.map(segmentFile(nextSequence++), segmentBytes);
+            } catch (IOException e) {
+                return false;
+            }
+            segments.addLast(tail);
+        }
+        tail.append(data);
+        count++;
+        sizeInBytes += length;
+        return true;
+    }
+
+    /**
+     * Offers the records from the head to the consumer, without removing them, until it refuses one.
+     *
+     * @return the number of records accepted, to {@link #remove} once they are handled
+     */
+    public synchronized int peek(Predicate<byte[]> consumer) {
+        int accepted = 0;
+        Iterator<Segment> iterator = segments.iterator();
+        while (!closed && iterator.hasNext()) {
+            Segment segment = iterator.next();
+            int position = segment.readPosition;
+            for (int i = 0; i < segment.count; i++) {
+                int length = segment.buffer.getInt(position);
+                byte[] data = new byte[length];
+                segment.read(position + HEADER, data);
+                if (!consumer.test(data)) {
+                    return accepted;
+                }
+                accepted++;
+                position += HEADER + length;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Removes records from the head.
+     */
+    public synchronized void remove(int records) {
+        int remaining = Math.min(records, count);
+        while (!closed && remaining > 0) {
+            Segment head = segments.peekFirst();
+            while (remaining > 0 && head.count > 0) {
+                sizeInBytes -= head.consume();
+                count--;
+                remaining--;
+            }
+            // the tail is kept to append to
+            if (head.count == 0 && segments.size() > 1) {
+                segments.pollFirst().delete();
+            }
+        }
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    public synchronized long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Unmaps nothing explicitly, the mappings are released when collected; the files stay for the next
+     * process to recover.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+        try {
+            lock.release();
+        } finally {
+            lockFile.close();
+        }
+    }
+
+    static final class Segment {
+        final File file;
+        final MappedByteBuffer buffer;
+        int readPosition;
+        int writePosition;
+        int count;
+        long sizeInBytes;
+
+        private Segment(File file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        static Segment map(File file, int size) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                // the mapping stays valid once the file is closed
+                return new Segment(file, raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        /**
+         * Finds the first record not consumed and the end of the records, ignoring a torn tail.
+         */
+        void scan() {
+            int capacity = buffer.capacity();
+            int position = 0;
+            boolean consumed = true;
+            while (position + HEADER <= capacity) {
+                int length = buffer.getInt(position);
+                int size = Math.abs(length);
+                if (length == 0 || size > capacity - position - HEADER) {
+                    break;
+                }
+                if (length < 0 && consumed) {
+                    readPosition = position + HEADER + size;
+                } else {
+                    consumed = false;
+                    count++;
+                    sizeInBytes += size;
+                }
+                position += HEADER + size;
+            }
+            writePosition = position;
+        }
+
+        boolean hasRoom(int length) {
+            return writePosition + HEADER + length <= buffer.capacity();
+        }
+
+        void append(byte[] data) {
+            int position = writePosition;
+            buffer.position(position + HEADER);
+            buffer.put(data);
+            // the length is written last, a record is never seen partially written
+            buffer.putInt(position, data.length);
+            writePosition = position + HEADER + data.length;
+            if (writePosition + HEADER <= buffer.capacity()) {
+                buffer.putInt(writePosition, 0);
+            }
+            count++;
+            sizeInBytes += data.length;
+        }
+
+        void read(int position, byte[] data) {
+            buffer.position(position);
+            buffer.get(data);
+        }
+
+        int consume() {
+            int length = buffer.getInt(readPosition);
+            buffer.putInt(readPosition, -length);
+            readPosition += HEADER + length;
+            count--;
+            sizeInBytes -= length;
+            return length;
+        }
+
+        void close() {
+            buffer.force();
+        }
+
+        void delete() {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async.spill;
+
+import com.megaease.easeagent.plugin.report.ByteWrapper;
+import com.megaease.easeagent.plugin.report.EncodedData;
+import com.megaease.easeagent.plugin.report.Packer;
+import com.megaease.easeagent.plugin.utils.common.StringUtils;
+import com.megaease.easeagent.report.async.AsyncProps;
+import com.megaease.easeagent.report.encoder.PackedMessage;
+import com.megaease.easeagent.report.encoder.PackedMessage.DefaultPackedMessage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static java.util.logging.Level.WARNING;
+
+/**
+ * The disk tier of an async reporter: encoded items which don't fit in the pending queue, or which failed
+ * to send, are spilled to a {@link MappedSpillQueue} instead of being dropped, and are replayed once the
+ * sender works again.
+ *
+ * <p>Replay is started by the flush threads, one message in flight at a time, and is bounded by a rate in bytes
+ * per second so a recovering backend isn't flooded. A failed replay waits for a backoff, doubling up to 30 seconds, which
+ * a successful send of live items resets.
+ */
+public class SpillTier {
+    static final Logger logger = Logger.getLogger(SpillTier.class.getName());
+    static final int SEGMENT_BYTES = 8 << 20;
+    static final long MIN_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+    /**
+     * Items the pending queue can't hold wait in a hand-off queue of this size, until a flush thread spills them.
+     */
+    public static final int HANDOFF_MAX_ITEMS = 1024;
+
+    private final MappedSpillQueue queue;
+    private final long replayBytesPerSecond;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private volatile long replayNotBeforeNanos;
+    private volatile long retryNotBeforeNanos;
+    private volatile long backoffNanos = MIN_BACKOFF_NANOS;
+
+    public SpillTier(MappedSpillQueue queue, long replayBytesPerSecond) {
+        this.queue = queue;
+        this.replayBytesPerSecond = Math.max(1, replayBytesPerSecond);
+    }
+
+    /**
+     * @return the spill tier configured by the properties, or null when it's disabled or can't be opened
+     */
+    public static SpillTier create(AsyncProps props) {
+        String dir = props.getSpillDir();
+        if (StringUtils.isEmpty(dir) || props.getSpillMaxSize() <= 0) {
+            return null;
+        }
+        long maxSize = props.getSpillMaxSize();
+        try {
+            MappedSpillQueue queue = MappedSpillQueue.open(new File(dir),
+                (int) Math.min(SEGMENT_BYTES, maxSize), maxSize);
+            return new SpillTier(queue, props.getSpillReplayBytesPerSecond());
+        } catch (IOException e) {
+            logger.log(WARNING, "Spill is disabled, can not open " + dir, e);
+            return null;
+        }
+    }
+
+    public boolean spill(EncodedData data) {
+        return queue.offer(data.getData());
+    }
+
+    /**
+     * @return the number of items spilled, the others are dropped
+     */
+    public int spill(List<EncodedData> data) {
+        int spilled = 0;
+        for (EncodedData item : data) {
+            if (queue.offer(item.getData())) {
+                spilled++;
+            }
+        }
+        return spilled;
+    }
+
+    public int count() {
+        return queue.count();
+    }
+
+    public long sizeInBytes() {
+        return queue.sizeInBytes();
+    }
+
+    /**
+     * Called after live items were sent, the sender works again.
+     */
+    public void sendSucceeded() {
+        retryNotBeforeNanos = 0;
+    }
+
+    /**
+     * Replays one message of spilled items, when the rate and the backoff allow it and no replay is in flight.
+     *
+     * @param packer          sizes the message
+     * @param messageMaxBytes maximum size of the message
+     * @param sender          sends the message
+     * @return the number of items sent for replay
+     */
+    public int replay(Packer packer, int messageMaxBytes, Sender sender) {
+        long now = System.nanoTime();
+        if (queue.isEmpty() || now - replayNotBeforeNanos < 0 || now - retryNotBeforeNanos < 0
+            || !replaying.compareAndSet(false, true)) {
+            return 0;
+        }
+        boolean sent = false;
+        try {
+            PackedMessage message = new DefaultPackedMessage(16, packer);
+            int count = queue.peek(data -> {
+                EncodedData next = new ByteWrapper(data);
+                // the first item is taken whatever its size, it was sized for a message when encoded
+                if (message.getMessages().isEmpty()
+                    || message.calculateAppendSize(next.size()) <= messageMaxBytes) {
+                    message.addMessage(next);
+                    return true;
+                }
+                return false;
+            });
+            if (count == 0) {
+                return 0;
+            }
+            // the items are removed once they are sent, they're peeked again if the replay fails
+            sent = sender.send(message.getMessages(), success -> replayed(count, message.packSize(), success));
+            return sent ? count : 0;
+        } finally {
+            if (!sent) {
+                replaying.set(false);
+            }
+        }
+    }
+
+    private void replayed(int count, int bytes, boolean success) {
+        try {
+            if (success) {
+                queue.remove(count);
+                backoffNanos = MIN_BACKOFF_NANOS;
+                replayNotBeforeNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(bytes) / replayBytesPerSecond;
+            } else {
+                retryNotBeforeNanos = System.nanoTime() + backoffNanos;
+                backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF_NANOS);
+            }
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    public void close() {
+        try {
+            queue.close();
+        } catch (IOException e) {
+            logger.log(WARNING, "Can not close spill queue", e);
+        }
+    }
+
+    public interface Sender {
+        /**
+         * Sends a message of replayed items, completing with whether it was sent.
+         *
+         * @return false if the message isn't sent, and won't complete
+         */
+        boolean send(List<EncodedData> message, Consumer<Boolean> completion);
+    }
+}
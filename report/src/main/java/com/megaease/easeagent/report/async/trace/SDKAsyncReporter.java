@@ -17,12 +17,16 @@
 
 package com.megaease.easeagent.report.async.trace;
 
+import com.megaease.easeagent.plugin.report.Callback;
 import com.megaease.easeagent.plugin.report.EncodedData;
 import com.megaease.easeagent.plugin.report.Encoder;
 import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
 import com.megaease.easeagent.report.async.AsyncProps;
+import com.megaease.easeagent.report.async.EncodedSizeAverage;
+import com.megaease.easeagent.report.async.InFlightMessages;
+import com.megaease.easeagent.report.async.MpscByteBoundedQueue;
+import com.megaease.easeagent.report.async.spill.SpillTier;
 import com.megaease.easeagent.report.async.zipkin.AgentBufferNextMessage;
-import com.megaease.easeagent.report.async.zipkin.AgentByteBoundedQueue;
 import com.megaease.easeagent.report.encoder.PackedMessage;
 import com.megaease.easeagent.report.encoder.PackedMessage.DefaultPackedMessage;
 import com.megaease.easeagent.report.encoder.span.GlobalExtrasSupplier;
@@ -35,10 +39,10 @@ import zipkin2.reporter.AsyncReporter;
 import zipkin2.reporter.ReporterMetrics;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -55,7 +59,11 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
     SenderWithEncoder sender;
     Encoder<S> encoder;
 
-    AgentByteBoundedQueue<S> pending;
+    MpscByteBoundedQueue<S> pending;
+    final EncodedSizeAverage sizeAverage = new EncodedSizeAverage();
+    final SpillTier spill;
+    final MpscByteBoundedQueue<S> overflow;
+    final InFlightMessages inFlight;
     final int messageMaxBytes;
     long messageTimeoutNanos;
     final long closeTimeoutNanos;
@@ -68,12 +76,12 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
     /*
      * Tracks if we should log the first instance of an exception in flush().
      */
-    private boolean shouldWarnException = true;
+    private volatile boolean shouldWarnException = true;
 
     List<Thread> flushThreads;
 
     SDKAsyncReporter(Builder builder, Encoder<S> encoder, AsyncProps traceProperties) {
-        this.pending = new AgentByteBoundedQueue<>(builder.queuedMaxItems, builder.queuedMaxBytes);
+        this.pending = new MpscByteBoundedQueue<>(builder.queuedMaxItems, builder.queuedMaxBytes);
         this.sender = builder.sender;
         this.messageMaxBytes = builder.messageMaxBytes;
         this.messageTimeoutNanos = builder.messageTimeoutNanos;
@@ -82,6 +90,10 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
         this.metrics = builder.metrics;
         this.encoder = encoder;
         this.traceProperties = traceProperties;
+        this.spill = traceProperties == null ? null : SpillTier.create(traceProperties);
+        this.overflow = spill == null ? null : new MpscByteBoundedQueue<>(SpillTier.HANDOFF_MAX_ITEMS, builder.queuedMaxBytes);
+        this.inFlight = new InFlightMessages(traceProperties == null
+            ? AsyncProps.DEFAULT_MESSAGE_MAX_IN_FLIGHT : traceProperties.getMessageMaxInFlight());
     }
 
     public static SDKAsyncReporter<ReportSpan> builderSDKAsyncReporter(SenderWithEncoder sender,
@@ -115,16 +127,16 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
     }
 
     public void setPending(int queuedMaxSpans, int queuedMaxBytes) {
-        AgentByteBoundedQueue<S> copyPending = this.pending;
-        this.pending = new AgentByteBoundedQueue<>(queuedMaxSpans, queuedMaxBytes);
+        MpscByteBoundedQueue<S> copyPending = this.pending;
+        this.pending = new MpscByteBoundedQueue<>(queuedMaxSpans, queuedMaxBytes);
         consumerData(copyPending);
     }
 
-    private void consumerData(final AgentByteBoundedQueue<S> copyPending) {
+    private void consumerData(final MpscByteBoundedQueue<S> copyPending) {
         Thread flushThread = this.threadFactory.newThread((() -> {
             final AgentBufferNextMessage<S> bufferNextMessage = AgentBufferNextMessage
-                .create(encoder, messageMaxBytes, 0);
-            while (copyPending.getCount() > 0) {
+                .create(encoder, messageMaxBytes, 0, sizeAverage);
+            while (copyPending.getCount() > 0 || bufferNextMessage.count() > 0) {
                 flush(bufferNextMessage, copyPending);
             }
         }));
@@ -152,33 +164,61 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
         }
 
         metrics.incrementSpans(1);
-        int nextSizeInBytes = encoder.sizeInBytes(next);
-        int messageSizeOfNextSpan = encoder.packageSizeInBytes(Collections.singletonList(nextSizeInBytes));
-        metrics.incrementSpanBytes(nextSizeInBytes);
-        if (closed.get() ||
-            // don't enqueue something larger than we can drain
-            messageSizeOfNextSpan > messageMaxBytes ||
-            !pending.offer(next, nextSizeInBytes)) {
+        // the item is encoded and sized by a flush thread, it's charged with the average size until then
+        if (closed.get() || !pending.offer(next, sizeAverage.get()) && !spill(next)) {
             metrics.incrementSpansDropped(1);
         }
     }
 
+    /**
+     * Hands an item the pending queue can't hold to a flush thread, which encodes and spills it.
+     */
+    private boolean spill(S next) {
+        return overflow != null && overflow.offer(next, sizeAverage.get());
+    }
+
+    /**
+     * Spills the items handed off by {@link #spill(Object)}, called by the flush threads.
+     */
+    void spillOverflow() {
+        if (overflow == null || overflow.getCount() == 0) {
+            return;
+        }
+        overflow.drainTo((next, nextSizeInBytes) -> {
+            if (!spill.spill(encoder.encode(next))) {
+                metrics.incrementSpansDropped(1);
+            }
+            return true;
+        }, 0);
+    }
+
     @Override
     public final void flush() {
         if (!this.sender.isAvailable()) {
             return;
         }
 
-        flush(AgentBufferNextMessage.create(encoder, messageMaxBytes, 0), pending);
+        AgentBufferNextMessage<S> bundler = AgentBufferNextMessage.create(encoder, messageMaxBytes, 0, sizeAverage);
+        do {
+            // an item which didn't fit is kept by the bundler
+            flush(bundler, pending);
+        } while (bundler.count() > 0);
+        try {
+            // the messages are sent once they complete
+            inFlight.awaitCompletion(closeTimeoutNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
 
-    void flush(AgentBufferNextMessage<S> bundler, AgentByteBoundedQueue<S> pending) {
+    void flush(AgentBufferNextMessage<S> bundler, MpscByteBoundedQueue<S> pending) {
         if (closed.get()) {
             throw new IllegalStateException("closed");
         }
 
         pending.drainTo(bundler, bundler.remainingNanos());
+        spillOverflow();
 
         // record after flushing reduces the amount of gauge events vs on doing this on report
         metrics.updateQueuedSpans(pending.getCount());
@@ -186,17 +226,24 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
 
         // loop around if we are running, and the bundle isn't full
         // if we are closed, try to send what's pending
-        if (!bundler.isReady() && !closed.get()) return;
+        if (!bundler.isReady() && !closed.get()) {
+            replaySpilled();
+            return;
+        }
 
         // Signal that we are about to send a message of a known size in bytes
         metrics.incrementMessages();
         metrics.incrementMessageBytes(bundler.sizeInBytes());
+        metrics.incrementSpanBytes(bundler.encodedBytes());
+        if (bundler.droppedCount() > 0) {
+            metrics.incrementSpansDropped(bundler.droppedCount());
+        }
 
-        // Create the next message. Since we are outside the lock shared with writers, we can encode
+        // Items were encoded as they were drained into the bundler
         PackedMessage message = new DefaultPackedMessage(bundler.count(), encoder);
         bundler.drain((next, nextSizeInBytes) -> {
             if (message.calculateAppendSize(nextSizeInBytes) <= messageMaxBytes) {
-                message.addMessage(encoder.encode(next));
+                message.addMessage(next);
                 return true;
             } else {
                 return false;
@@ -205,12 +252,41 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
 
         List<EncodedData> nextMessage = message.getMessages();
         try {
-            sender.send(nextMessage).execute();
-        } catch (IOException | RuntimeException t) {
-            // In failure case, we increment messages and spans dropped.
-            int count = nextMessage.size();
-            Call.propagateIfFatal(t);
-            metrics.incrementMessagesDropped(t);
+            // the response is handled on the sender's thread, the next message is drained meanwhile
+            inFlight.send(sender.send(nextMessage), new Callback<Void>() {
+                @Override
+                public void onSuccess(Void value) {
+                    if (spill != null) {
+                        spill.sendSucceeded();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    spillOrDrop(nextMessage, t);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            spillOrDrop(nextMessage, e);
+            return;
+        } catch (RuntimeException t) {
+            spillOrDrop(nextMessage, t);
+            // Raise in case the sender was closed out-of-band.
+            if (t instanceof IllegalStateException) {
+                throw t;
+            }
+            return;
+        }
+        replaySpilled();
+    }
+
+    private void spillOrDrop(List<EncodedData> message, Throwable t) {
+        // In failure case, we increment messages and spans dropped, unless they are spilled.
+        Call.propagateIfFatal(t);
+        metrics.incrementMessagesDropped(t);
+        int count = message.size() - (spill == null ? 0 : spill.spill(message));
+        if (count > 0) {
             metrics.incrementSpansDropped(count);
 
             Level logLevel = FINE;
@@ -227,9 +303,38 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
                     format("Dropped %s spans due to %s(%s)", count, t.getClass().getSimpleName(),
                         t.getMessage() == null ? "" : t.getMessage()), t);
             }
+        }
+    }
 
-            // Raise in case the sender was closed out-of-band.
-            if (t instanceof IllegalStateException) throw (IllegalStateException) t;
+    void replaySpilled() {
+        if (spill != null) {
+            spill.replay(encoder, messageMaxBytes, this::sendSpilled);
+        }
+    }
+
+    private boolean sendSpilled(List<EncodedData> message, Consumer<Boolean> completion) {
+        try {
+            // replay doesn't wait for a message in flight, it's retried by a later flush
+            boolean sent = inFlight.trySend(sender.send(message), new Callback<Void>() {
+                @Override
+                public void onSuccess(Void value) {
+                    completion.accept(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    Call.propagateIfFatal(t);
+                    metrics.incrementMessagesDropped(t);
+                    completion.accept(false);
+                }
+            });
+            if (sent) {
+                metrics.incrementMessages();
+            }
+            return sent;
+        } catch (RuntimeException t) {
+            metrics.incrementMessagesDropped(t);
+            return false;
         }
     }
 
@@ -247,7 +352,9 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
         if (!closed.compareAndSet(false, true)) return; // already closed
         try {
             // wait for in-flight spans to send
-            if (!close.await(closeTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            long deadline = System.nanoTime() + closeTimeoutNanos;
+            if (!close.await(closeTimeoutNanos, TimeUnit.NANOSECONDS)
+                || !inFlight.awaitCompletion(deadline - System.nanoTime())) {
                 logger.warning("Timed out waiting for in-flight spans to send");
             }
         } catch (InterruptedException e) {
@@ -259,6 +366,11 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
             metrics.incrementSpansDropped(count);
             logger.log(WARNING, "Dropped {0} spans due to AsyncReporter.close()", count);
         }
+        if (spill != null) {
+            spillOverflow();
+            // what is left in the spill files is replayed by the next process
+            spill.close();
+        }
     }
 
     @Override
@@ -275,7 +387,7 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
             List<Thread> threads = new CopyOnWriteArrayList<>();
             for (int i = 0; i < traceProperties.getReportThread(); i++) { // Multiple consumer consumption
                 final AgentBufferNextMessage<S> consumer =
-                    AgentBufferNextMessage.create(encoder, this.messageMaxBytes, this.messageTimeoutNanos);
+                    AgentBufferNextMessage.create(encoder, this.messageMaxBytes, this.messageTimeoutNanos, sizeAverage);
                 Thread flushThread = this.threadFactory.newThread(new Flusher<>(this, consumer, this.sender));
                 flushThread.setName(NAME_PREFIX + "{" + this.sender + "}");
                 flushThread.setDaemon(true);
@@ -408,7 +520,8 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
                 for (int i = 0; i < this.props.getReportThread(); i++) {
                     // Multiple consumer consumption
                     final AgentBufferNextMessage<S> consumer =
-                        AgentBufferNextMessage.create(encoder, this.messageMaxBytes, this.messageTimeoutNanos);
+                        AgentBufferNextMessage.create(encoder, this.messageMaxBytes, this.messageTimeoutNanos,
+                            result.sizeAverage);
 
                     Thread flushThread = this.threadFactory
                         .newThread(new Flusher<>(result, consumer, this.sender));
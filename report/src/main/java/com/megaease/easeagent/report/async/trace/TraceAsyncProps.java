@@ -29,6 +29,10 @@ public class TraceAsyncProps implements AsyncProps {
     private volatile int queuedMaxSize;
     private volatile int messageTimeout;
     private volatile int messageMaxBytes;
+    private volatile int messageMaxInFlight;
+    private volatile String spillDir;
+    private volatile long spillMaxSize;
+    private volatile long spillReplayBytesPerSecond;
 
     public TraceAsyncProps(Config config) {
         int onePercentageMemory = AsyncProps.onePercentOfMemory();
@@ -37,6 +41,12 @@ public class TraceAsyncProps implements AsyncProps {
         bindProp(TRACE_ASYNC_QUEUED_MAX_SPANS_V2, config, Config::getInt, v -> this.queuedMaxSpans = v, 1000);
         bindProp(TRACE_ASYNC_MESSAGE_MAX_BYTES_V2, config, Config::getInt, v -> this.messageMaxBytes = v, 999900);
         bindProp(TRACE_ASYNC_MESSAGE_TIMEOUT_V2, config, Config::getInt, v -> this.messageTimeout = v, 1000);
+        bindProp(TRACE_ASYNC_MESSAGE_MAX_IN_FLIGHT_V2, config, Config::getInt,
+            v -> this.messageMaxInFlight = v, DEFAULT_MESSAGE_MAX_IN_FLIGHT);
+        bindProp(TRACE_ASYNC_SPILL_DIR_V2, config, Config::getString, v -> this.spillDir = v);
+        bindProp(TRACE_ASYNC_SPILL_MAX_SIZE_V2, config, Config::getLong, v -> this.spillMaxSize = v, DEFAULT_SPILL_MAX_SIZE);
+        bindProp(TRACE_ASYNC_SPILL_REPLAY_RATE_V2, config, Config::getLong,
+            v -> this.spillReplayBytesPerSecond = v, DEFAULT_SPILL_REPLAY_BYTES_PER_SECOND);
     }
 
     @Override
@@ -63,4 +73,24 @@ public class TraceAsyncProps implements AsyncProps {
     public int getMessageMaxBytes() {
         return this.messageMaxBytes;
     }
+
+    @Override
+    public int getMessageMaxInFlight() {
+        return this.messageMaxInFlight;
+    }
+
+    @Override
+    public String getSpillDir() {
+        return this.spillDir;
+    }
+
+    @Override
+    public long getSpillMaxSize() {
+        return this.spillMaxSize;
+    }
+
+    @Override
+    public long getSpillReplayBytesPerSecond() {
+        return this.spillReplayBytesPerSecond;
+    }
 }
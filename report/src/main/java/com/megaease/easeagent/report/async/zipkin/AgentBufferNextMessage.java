@@ -14,32 +14,50 @@ package com.megaease.easeagent.report.async.zipkin;
  * the License.
  */
 
+import com.megaease.easeagent.plugin.report.EncodedData;
 import com.megaease.easeagent.plugin.report.Encoder;
+import com.megaease.easeagent.report.async.EncodedSizeAverage;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 
-/** Use of this type happens off the application's main thread. This type is not thread-safe */
+/**
+ * Use of this type happens off the application's main thread. This type is not thread-safe.
+ *
+ * <p>Items are encoded once, when they are offered, and the message is packed by the size of what was
+ * written. The size an item was queued with is an estimate, see {@link EncodedSizeAverage}.
+ */
 @SuppressWarnings("unused")
 public class AgentBufferNextMessage<S> implements WithSizeConsumer<S> {
     public static <S> AgentBufferNextMessage<S> create(Encoder<S> encoder, int maxBytes, long timeoutNanos) {
-        return new AgentBufferNextMessage<>(encoder, maxBytes, timeoutNanos);
+        return create(encoder, maxBytes, timeoutNanos, new EncodedSizeAverage());
+    }
+
+    public static <S> AgentBufferNextMessage<S> create(Encoder<S> encoder, int maxBytes, long timeoutNanos,
+                                                       EncodedSizeAverage sizeAverage) {
+        return new AgentBufferNextMessage<>(encoder, maxBytes, timeoutNanos, sizeAverage);
     }
 
     final Encoder<S> encoder;
     final int maxBytes;
     final long timeoutNanos;
-    final ArrayList<S> spans = new ArrayList<>();
+    final EncodedSizeAverage sizeAverage;
+    final ArrayList<EncodedData> messages = new ArrayList<>();
     final ArrayList<Integer> sizes = new ArrayList<>();
 
     long deadlineNanoTime;
     int packageSizeInBytes;
     boolean bufferFull;
+    // encoded, but didn't fit in the message, it leads the next one
+    EncodedData overflow;
+    int encodedBytes;
+    int droppedCount;
 
-    AgentBufferNextMessage(Encoder<S> coder, int maxBytes, long timeoutNanos) {
+    AgentBufferNextMessage(Encoder<S> coder, int maxBytes, long timeoutNanos, EncodedSizeAverage sizeAverage) {
         this.maxBytes = maxBytes;
         this.timeoutNanos = timeoutNanos;
         this.encoder = coder;
+        this.sizeAverage = sizeAverage;
         resetMessageSizeInBytes();
     }
 
@@ -51,30 +69,52 @@ public class AgentBufferNextMessage<S> implements WithSizeConsumer<S> {
         packageSizeInBytes = encoder.packageSizeInBytes(sizes);
     }
 
-    /** This is done inside a lock that holds up writers, so has to be fast. No encoding! */
-    public boolean offer(S next, int nextSizeInBytes) {
-        int x = messageSizeInBytes(nextSizeInBytes);
-        int includingNextVsMaxBytes = Integer.compare(x, maxBytes); // Integer.compare, but JRE 6
+    /**
+     * This is done inside the lock serializing drainers, which reporting threads never take.
+     *
+     * @param next              the item
+     * @param queuedSizeInBytes the estimated size the item was queued with, not used
+     * @return false when the message is full and the item is left in the queue
+     */
+    public boolean offer(S next, int queuedSizeInBytes) {
+        if (overflow != null) {
+            return false;
+        }
+        EncodedData data = encoder.encode(next);
+        int size = data.size();
+        encodedBytes += size;
+        sizeAverage.record(size);
+        if (!add(data)) {
+            overflow = data;
+        }
+        return true;
+    }
+
+    private boolean add(EncodedData data) {
+        int size = data.size();
+        int x = messageSizeInBytes(size);
+        int includingNextVsMaxBytes = Integer.compare(x, maxBytes);
 
         if (includingNextVsMaxBytes > 0) {
+            if (messages.isEmpty()) {
+                // larger than a message, it can't be sent
+                droppedCount++;
+                return true;
+            }
             bufferFull = true;
             return false; // can't fit the next message into this buffer
         }
 
-        addSpanToBuffer(next, nextSizeInBytes);
+        messages.add(data);
+        sizes.add(size);
         packageSizeInBytes = x;
 
         if (includingNextVsMaxBytes == 0) bufferFull = true;
         return true;
     }
 
-    void addSpanToBuffer(S next, int nextSizeInBytes) {
-        spans.add(next);
-        sizes.add(nextSizeInBytes);
-    }
-
     public long remainingNanos() {
-        if (spans.isEmpty()) {
+        if (messages.isEmpty()) {
             deadlineNanoTime = System.nanoTime() + timeoutNanos;
         }
         return Math.max(deadlineNanoTime - System.nanoTime(), 0);
@@ -85,13 +125,13 @@ public class AgentBufferNextMessage<S> implements WithSizeConsumer<S> {
     }
 
     // this occurs off the application thread
-    public void drain(WithSizeConsumer<S> consumer) {
-        Iterator<S> spanIterator = spans.iterator();
+    public void drain(WithSizeConsumer<EncodedData> consumer) {
+        Iterator<EncodedData> messageIterator = messages.iterator();
         Iterator<Integer> sizeIterator = sizes.iterator();
-        while (spanIterator.hasNext()) {
-            if (consumer.offer(spanIterator.next(), sizeIterator.next())) {
+        while (messageIterator.hasNext()) {
+            if (consumer.offer(messageIterator.next(), sizeIterator.next())) {
                 bufferFull = false;
-                spanIterator.remove();
+                messageIterator.remove();
                 sizeIterator.remove();
             } else {
                 break;
@@ -99,15 +139,37 @@ public class AgentBufferNextMessage<S> implements WithSizeConsumer<S> {
         }
 
         resetMessageSizeInBytes();
+        encodedBytes = 0;
+        droppedCount = 0;
+        // after the reset, so a dropped overflow item is reported with the next message
+        if (overflow != null && messages.isEmpty()) {
+            EncodedData data = overflow;
+            overflow = null;
+            add(data);
+        }
         // regardless, reset the clock
         deadlineNanoTime = 0;
     }
 
     public int count() {
-        return spans.size();
+        return messages.size();
     }
 
     public int sizeInBytes() {
         return packageSizeInBytes;
     }
+
+    /**
+     * @return bytes of items encoded since the last drain
+     */
+    public int encodedBytes() {
+        return encodedBytes;
+    }
+
+    /**
+     * @return count of items dropped since the last drain, as each is larger than a message
+     */
+    public int droppedCount() {
+        return droppedCount;
+    }
 }
@@ -25,7 +25,7 @@ import com.megaease.easeagent.plugin.report.ByteWrapper;
 import com.megaease.easeagent.plugin.report.EncodedData;
 import com.megaease.easeagent.plugin.report.Encoder;
 import com.megaease.easeagent.plugin.report.encoder.JsonEncoder;
-import zipkin2.internal.JsonCodec;
+import zipkin2.internal.SinglePassJsonCodec;
 
 @AutoService(Encoder.class)
 public class AccessLogJsonEncoder extends JsonEncoder<AccessLogInfo> {
@@ -56,7 +56,7 @@ public class AccessLogJsonEncoder extends JsonEncoder<AccessLogInfo> {
         try {
             EncodedData d = input.getEncodedData();
             if (d == null) {
-                d = new ByteWrapper(JsonCodec.write(writer, input));
+                d = new ByteWrapper(SinglePassJsonCodec.write(writer, input));
                 input.setEncodedData(d);
             }
             return d;
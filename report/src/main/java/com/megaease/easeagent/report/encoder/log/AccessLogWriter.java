@@ -35,6 +35,8 @@ public class AccessLogWriter implements WriteBuffer.Writer<AccessLogInfo> {
     static final String RESPONSE_SIZE_FIELD_NAME = ",\"response_size\":";
     static final String REQUEST_TIME_FIELD_NAME = ",\"request_time\":";
     static final String CPU_ELAPSED_TIME_FIELD_NAME = ",\"cpuElapsedTime\":";
+    static final String CPU_TIME_FIELD_NAME = ",\"cpu_time_ns\":";
+    static final String ALLOCATED_BYTES_FIELD_NAME = ",\"allocated_bytes\":";
     static final String URL_FIELD_NAME = ",\"url\":\"";
     static final String METHOD_FIELD_NAME = ",\"method\":\"";
     static final String STATUS_CODE_FIELD_NAME = ",\"status_code\":\"";
@@ -107,6 +109,14 @@ public class AccessLogWriter implements WriteBuffer.Writer<AccessLogInfo> {
         size += WriteBuffer.asciiSizeInBytes(value.getResponseSize());
         size += WriteBuffer.asciiSizeInBytes(value.getRequestTime());
         size += WriteBuffer.asciiSizeInBytes(value.getCpuElapsedTime());
+        if (value.getCpuTime() >= 0) {
+            size += CPU_TIME_FIELD_NAME.length();
+            size += WriteBuffer.asciiSizeInBytes(value.getCpuTime());
+        }
+        if (value.getAllocatedBytes() >= 0) {
+            size += ALLOCATED_BYTES_FIELD_NAME.length();
+            size += WriteBuffer.asciiSizeInBytes(value.getAllocatedBytes());
+        }
         size += JsonEscaper.jsonEscapedSizeInBytes(value.getHostName());
 
         size += value.getHostIpv4().length();
@@ -183,6 +193,16 @@ public class AccessLogWriter implements WriteBuffer.Writer<AccessLogInfo> {
         b.writeAscii(CPU_ELAPSED_TIME_FIELD_NAME);
         b.writeAscii(value.getCpuElapsedTime());
 
+        if (value.getCpuTime() >= 0) {
+            b.writeAscii(CPU_TIME_FIELD_NAME);
+            b.writeAscii(value.getCpuTime());
+        }
+
+        if (value.getAllocatedBytes() >= 0) {
+            b.writeAscii(ALLOCATED_BYTES_FIELD_NAME);
+            b.writeAscii(value.getAllocatedBytes());
+        }
+
         b.writeAscii(HOST_NAME_FIELD_NAME);
         b.writeUtf8(JsonEscaper.jsonEscape(value.getHostName()));
         b.writeByte('\"');
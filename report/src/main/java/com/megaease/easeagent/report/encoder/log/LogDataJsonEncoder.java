@@ -28,7 +28,7 @@ import com.megaease.easeagent.plugin.report.ByteWrapper;
 import com.megaease.easeagent.plugin.report.EncodedData;
 import com.megaease.easeagent.plugin.report.Encoder;
 import com.megaease.easeagent.plugin.report.encoder.JsonEncoder;
-import zipkin2.internal.JsonCodec;
+import zipkin2.internal.SinglePassJsonCodec;
 
 import java.util.HashMap;
 import java.util.List;
@@ -61,7 +61,7 @@ public class LogDataJsonEncoder extends JsonEncoder<AgentLogData> implements Con
         try {
             EncodedData d = input.getEncodedData();
             if (d == null) {
-                d = new ByteWrapper(JsonCodec.write(writer, input));
+                d = new ByteWrapper(SinglePassJsonCodec.write(writer, input));
                 input.setEncodedData(d);
             }
             return d;
@@ -30,8 +30,16 @@ public abstract class AbstractAgentV2SpanEndpointWriter implements WriteBuffer.W
     static final String PORT_FIELD_NAME = "\"port\":";
 
     protected int endpointSizeInBytes(Endpoint value, boolean writeEmptyServiceName) {
+        return endpointSizeInBytes(value.serviceName(), value.ipv4(), value.ipv6(), value.port(), writeEmptyServiceName);
+    }
+
+    protected void writeEndpoint(Endpoint value, WriteBuffer b, boolean writeEmptyServiceName) {
+        writeEndpoint(value.serviceName(), value.ipv4(), value.ipv6(), value.port(), b, writeEmptyServiceName);
+    }
+
+    static int endpointSizeInBytes(String serviceName, String ipv4, String ipv6, int port,
+                                   boolean writeEmptyServiceName) {
         int sizeInBytes = 1;
-        String serviceName = value.serviceName();
         if (serviceName == null && writeEmptyServiceName) {
             serviceName = "";
         }
@@ -41,25 +49,24 @@ public abstract class AbstractAgentV2SpanEndpointWriter implements WriteBuffer.W
             sizeInBytes += JsonEscaper.jsonEscapedSizeInBytes(serviceName);
         }
 
-        if (value.ipv4() != null) {
+        if (ipv4 != null) {
             if (sizeInBytes != 1) {
                 ++sizeInBytes;
             }
 
             sizeInBytes += IPV4_FIELD_NAME.length() + 1;
-            sizeInBytes += value.ipv4().length();
+            sizeInBytes += ipv4.length();
         }
 
-        if (value.ipv6() != null) {
+        if (ipv6 != null) {
             if (sizeInBytes != 1) {
                 ++sizeInBytes;
             }
 
             sizeInBytes += IPV6_FIELD_NAME.length() + 1;
-            sizeInBytes += value.ipv6().length();
+            sizeInBytes += ipv6.length();
         }
 
-        int port = value.port();
         if (port != 0) {
             if (sizeInBytes != 1) {
                 ++sizeInBytes;
@@ -73,11 +80,10 @@ public abstract class AbstractAgentV2SpanEndpointWriter implements WriteBuffer.W
         return sizeInBytes;
     }
 
-    protected void writeEndpoint(Endpoint value, WriteBuffer b, boolean writeEmptyServiceName) {
-
+    static void writeEndpoint(String serviceName, String ipv4, String ipv6, int port, WriteBuffer b,
+                              boolean writeEmptyServiceName) {
         b.writeByte('{');
         boolean wroteField = false;
-        String serviceName = value.serviceName();
         if (serviceName == null && writeEmptyServiceName) {
             serviceName = "";
         }
@@ -89,27 +95,26 @@ public abstract class AbstractAgentV2SpanEndpointWriter implements WriteBuffer.W
             wroteField = true;
         }
 
-        if (value.ipv4() != null) {
+        if (ipv4 != null) {
             if (wroteField) {
                 b.writeByte(',');
             }
             b.writeAscii(IPV4_FIELD_NAME);
-            b.writeAscii(value.ipv4());
+            b.writeAscii(ipv4);
             b.writeByte('\"');
             wroteField = true;
         }
 
-        if (value.ipv6() != null) {
+        if (ipv6 != null) {
             if (wroteField) {
                 b.writeByte(',');
             }
             b.writeAscii(IPV6_FIELD_NAME);
-            b.writeAscii(value.ipv6());
+            b.writeAscii(ipv6);
             b.writeByte('\"');
             wroteField = true;
         }
 
-        int port = value.port();
         if (port != 0) {
             if (wroteField) {
                 b.writeByte(',');
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.encoder.span;
+
+import brave.handler.MutableSpan;
+import zipkin2.internal.JsonEscaper;
+import zipkin2.internal.WriteBuffer;
+import zipkin2.reporter.brave.MutableReportSpan;
+
+import java.util.Locale;
+
+/**
+ * Writes the same bytes as {@link AgentV2SpanWriter}, reading endpoints, annotations and tags
+ * straight from the {@link MutableSpan}. Annotations and tags are visited in the order
+ * {@link com.megaease.easeagent.report.trace.ReportSpanBuilder} would store them: annotations
+ * sorted by timestamp then value without duplicates, tags sorted by key.
+ */
+public class AgentV2MutableSpanWriter implements WriteBuffer.Writer<MutableReportSpan> {
+    static final String TAGS_FIELD_NAME = ",\"tags\":{";
+    static final ThreadLocal<int[]> ORDER = ThreadLocal.withInitial(() -> new int[16]);
+
+    final AgentV2SpanBaseWriter baseWriter = new AgentV2SpanBaseWriter();
+    final AgentV2SpanAnnotationsWriter annotationsWriter = new AgentV2SpanAnnotationsWriter();
+    final AgentV2SpanGlobalWriter globalWriter;
+
+    public AgentV2MutableSpanWriter(GlobalExtrasSupplier extrasSupplier) {
+        this.globalWriter = new AgentV2SpanGlobalWriter("log-tracing", extrasSupplier);
+    }
+
+    @Override
+    public int sizeInBytes(MutableReportSpan value) {
+        MutableSpan span = value.span();
+        int sizeInBytes = 1;
+        sizeInBytes += baseWriter.sizeInBytes(value);
+        if (hasEndpoint(span.localServiceName(), span.localIp())) {
+            sizeInBytes += AgentV2SpanLocalEndpointWriter.LOCAL_ENDPOINT_FIELD_NAME.length();
+            sizeInBytes += AbstractAgentV2SpanEndpointWriter.endpointSizeInBytes(
+                lowerCase(span.localServiceName()), ipv4(span.localIp()), ipv6(span.localIp()),
+                span.localPort(), true);
+        }
+        if (hasEndpoint(span.remoteServiceName(), span.remoteIp())) {
+            sizeInBytes += AgentV2SpanRemoteEndpointWriter.REMOTE_ENDPOINT_FIELD_NAME.length();
+            sizeInBytes += AbstractAgentV2SpanEndpointWriter.endpointSizeInBytes(
+                lowerCase(span.remoteServiceName()), ipv4(span.remoteIp()), ipv6(span.remoteIp()),
+                span.remotePort(), false);
+        }
+        sizeInBytes += annotationsSizeInBytes(span);
+        sizeInBytes += tagsSizeInBytes(span);
+        sizeInBytes += globalWriter.sizeInBytes(value);
+        sizeInBytes += 1;
+        return sizeInBytes;
+    }
+
+    @Override
+    public void write(MutableReportSpan value, WriteBuffer b) {
+        MutableSpan span = value.span();
+        b.writeByte('{');
+        baseWriter.write(value, b);
+        if (hasEndpoint(span.localServiceName(), span.localIp())) {
+            b.writeAscii(AgentV2SpanLocalEndpointWriter.LOCAL_ENDPOINT_FIELD_NAME);
+            AbstractAgentV2SpanEndpointWriter.writeEndpoint(
+                lowerCase(span.localServiceName()), ipv4(span.localIp()), ipv6(span.localIp()),
+                span.localPort(), b, true);
+        }
+        if (hasEndpoint(span.remoteServiceName(), span.remoteIp())) {
+            b.writeAscii(AgentV2SpanRemoteEndpointWriter.REMOTE_ENDPOINT_FIELD_NAME);
+            AbstractAgentV2SpanEndpointWriter.writeEndpoint(
+                lowerCase(span.remoteServiceName()), ipv4(span.remoteIp()), ipv6(span.remoteIp()),
+                span.remotePort(), b, false);
+        }
+        writeAnnotations(span, b);
+        writeTags(span, b);
+        globalWriter.write(value, b);
+        b.writeByte('}');
+    }
+
+    static boolean hasEndpoint(String serviceName, String ip) {
+        return serviceName != null || ip != null;
+    }
+
+    static String lowerCase(String serviceName) {
+        return serviceName == null || serviceName.isEmpty() ? null : serviceName.toLowerCase(Locale.ROOT);
+    }
+
+    // MutableSpan only keeps valid IP literals, already normalized as zipkin2.Endpoint would do it
+    static String ipv4(String ip) {
+        return ip == null || ip.indexOf(':') >= 0 ? null : ip;
+    }
+
+    static String ipv6(String ip) {
+        return ip == null || ip.indexOf(':') < 0 ? null : ip;
+    }
+
+    int annotationsSizeInBytes(MutableSpan span) {
+        int count = span.annotationCount();
+        if (count == 0) {
+            return 0;
+        }
+        int[] order = annotationOrder(span);
+        int sizeInBytes = AgentV2SpanAnnotationsWriter.ANNOTATION_FIELD_NAME.length() + 1;
+        int written = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && sameAnnotation(span, order[i - 1], order[i])) {
+                continue;
+            }
+            if (written++ > 0) {
+                sizeInBytes++; // , for array item
+            }
+            sizeInBytes += annotationsWriter.annotationSizeInBytes(
+                span.annotationTimestampAt(order[i]), span.annotationValueAt(order[i]), 0);
+        }
+        return sizeInBytes;
+    }
+
+    void writeAnnotations(MutableSpan span, WriteBuffer b) {
+        int count = span.annotationCount();
+        if (count == 0) {
+            return;
+        }
+        int[] order = annotationOrder(span);
+        b.writeAscii(AgentV2SpanAnnotationsWriter.ANNOTATION_FIELD_NAME);
+        int written = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && sameAnnotation(span, order[i - 1], order[i])) {
+                continue;
+            }
+            if (written++ > 0) {
+                b.writeByte(',');
+            }
+            annotationsWriter.writeAnnotation(
+                span.annotationTimestampAt(order[i]), span.annotationValueAt(order[i]), null, b);
+        }
+        b.writeByte(']');
+    }
+
+    static int tagsSizeInBytes(MutableSpan span) {
+        int count = span.tagCount();
+        if (count == 0) {
+            return 0;
+        }
+        int[] order = tagOrder(span);
+        int sizeInBytes = TAGS_FIELD_NAME.length() + 1;
+        for (int i = 0; i < count; i++) {
+            sizeInBytes += 5;
+            sizeInBytes += JsonEscaper.jsonEscapedSizeInBytes(span.tagKeyAt(order[i]));
+            sizeInBytes += JsonEscaper.jsonEscapedSizeInBytes(span.tagValueAt(order[i]));
+        }
+        return sizeInBytes + count - 1;
+    }
+
+    static void writeTags(MutableSpan span, WriteBuffer b) {
+        int count = span.tagCount();
+        if (count == 0) {
+            return;
+        }
+        int[] order = tagOrder(span);
+        b.writeAscii(TAGS_FIELD_NAME);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                b.writeByte(',');
+            }
+            b.writeByte('\"');
+            b.writeUtf8(JsonEscaper.jsonEscape(span.tagKeyAt(order[i])));
+            b.writeAscii("\":\"");
+            b.writeUtf8(JsonEscaper.jsonEscape(span.tagValueAt(order[i])));
+            b.writeByte('\"');
+        }
+        b.writeByte('}');
+    }
+
+    static boolean sameAnnotation(MutableSpan span, int i, int j) {
+        return span.annotationTimestampAt(i) == span.annotationTimestampAt(j)
+            && span.annotationValueAt(i).equals(span.annotationValueAt(j));
+    }
+
+    static int compareAnnotations(MutableSpan span, int i, int j) {
+        int byTimestamp = Long.compare(span.annotationTimestampAt(i), span.annotationTimestampAt(j));
+        return byTimestamp != 0 ? byTimestamp : span.annotationValueAt(i).compareTo(span.annotationValueAt(j));
+    }
+
+    /**
+     * Insertion sort of the annotation indexes into a per-thread scratch array, spans carry few
+     * annotations. The result is only valid until the next call on the same thread.
+     */
+    static int[] annotationOrder(MutableSpan span) {
+        int count = span.annotationCount();
+        int[] order = scratch(count);
+        for (int i = 0; i < count; i++) {
+            int j = i;
+            while (j > 0 && compareAnnotations(span, order[j - 1], i) > 0) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Same as {@link #annotationOrder(MutableSpan)} for tag keys, which are unique in a span.
+     */
+    static int[] tagOrder(MutableSpan span) {
+        int count = span.tagCount();
+        int[] order = scratch(count);
+        for (int i = 0; i < count; i++) {
+            String key = span.tagKeyAt(i);
+            int j = i;
+            while (j > 0 && span.tagKeyAt(order[j - 1]).compareTo(key) > 0) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        return order;
+    }
+
+    static int[] scratch(int size) {
+        int[] order = ORDER.get();
+        if (order.length < size) {
+            order = new int[Math.max(size, order.length * 2)];
+            ORDER.set(order);
+        }
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "Span";
+    }
+}
@@ -27,18 +27,21 @@ import com.megaease.easeagent.plugin.report.Encoder;
 import com.megaease.easeagent.plugin.report.encoder.JsonEncoder;
 import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
 import com.megaease.easeagent.report.GlobalExtractor;
-import zipkin2.internal.JsonCodec;
+import zipkin2.internal.SinglePassJsonCodec;
+import zipkin2.reporter.brave.MutableReportSpan;
 
 @AutoService(Encoder.class)
 @SuppressWarnings("unused")
 public class SpanJsonEncoder extends JsonEncoder<ReportSpan> {
     public static final String ENCODER_NAME = ReportConfigConst.SPAN_JSON_ENCODER_NAME;
     AgentV2SpanWriter writer;
+    AgentV2MutableSpanWriter mutableSpanWriter;
 
     @Override
     public void init(Config config) {
         GlobalExtrasSupplier extrasSupplier = GlobalExtractor.getInstance(EaseAgent.getConfig());
         writer = new AgentV2SpanWriter(extrasSupplier);
+        mutableSpanWriter = new AgentV2MutableSpanWriter(extrasSupplier);
     }
 
     @Override
@@ -48,11 +51,17 @@ public class SpanJsonEncoder extends JsonEncoder<ReportSpan> {
 
     @Override
     public int sizeInBytes(ReportSpan input) {
+        if (input instanceof MutableReportSpan) {
+            return mutableSpanWriter.sizeInBytes((MutableReportSpan) input);
+        }
         return writer.sizeInBytes(input);
     }
 
     @Override
     public EncodedData encode(ReportSpan span) {
-        return new ByteWrapper(JsonCodec.write(writer, span));
+        if (span instanceof MutableReportSpan) {
+            return new ByteWrapper(SinglePassJsonCodec.write(mutableSpanWriter, (MutableReportSpan) span));
+        }
+        return new ByteWrapper(SinglePassJsonCodec.write(writer, span));
     }
 }
@@ -23,7 +23,6 @@ import com.megaease.easeagent.log4j2.Logger;
 import com.megaease.easeagent.log4j2.LoggerFactory;
 import com.megaease.easeagent.plugin.api.config.Config;
 import com.megaease.easeagent.plugin.report.Call;
-import com.megaease.easeagent.plugin.report.Callback;
 import com.megaease.easeagent.plugin.report.EncodedData;
 import com.megaease.easeagent.plugin.report.Sender;
 
@@ -83,10 +82,5 @@ public class AgentLoggerSender implements Sender {
             LOGGER.info("{}", new String(msg));
             return null;
         }
-
-        @Override
-        public void enqueue(Callback<Void> cb) {
-            LOGGER.debug("{}", new String(msg));
-        }
     }
 }
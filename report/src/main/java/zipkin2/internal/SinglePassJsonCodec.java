@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.internal;
+
+import java.util.Arrays;
+
+/**
+ * Like {@link JsonCodec#write(WriteBuffer.Writer, Object)}, but writes the value once into a buffer kept
+ * by the thread instead of sizing it first, the size is the count of bytes written. It lives in this package
+ * as the position of a {@link WriteBuffer} isn't public.
+ * <p>
+ * A {@link WriteBuffer} doesn't check its bounds, a value which doesn't fit ends the write with an
+ * {@link ArrayIndexOutOfBoundsException}. The buffer is then doubled and the value written again, and it is
+ * kept twice as large as the largest value written so far, so a retry is rare once the thread warmed up.
+ * Values larger than {@link #MAX_BUFFER_SIZE} are sized and written by {@link JsonCodec}.
+ */
+public final class SinglePassJsonCodec {
+    static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+    static final int MAX_BUFFER_SIZE = 1024 * 1024;
+    static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    private SinglePassJsonCodec() {
+    }
+
+    public static <T> byte[] write(WriteBuffer.Writer<T> writer, T value) {
+        byte[] buf = BUFFER.get();
+        while (true) {
+            int size = tryWrite(writer, value, buf);
+            if (size >= 0) {
+                if (size > buf.length >> 1 && buf.length < MAX_BUFFER_SIZE) {
+                    BUFFER.set(new byte[buf.length << 1]);
+                }
+                return Arrays.copyOf(buf, size);
+            }
+            if (buf.length >= MAX_BUFFER_SIZE) {
+                return JsonCodec.write(writer, value);
+            }
+            buf = new byte[buf.length << 1];
+            BUFFER.set(buf);
+        }
+    }
+
+    /**
+     * @return the count of bytes written, or -1 when the value doesn't fit in {@code buf}
+     */
+    static <T> int tryWrite(WriteBuffer.Writer<T> writer, T value, byte[] buf) {
+        WriteBuffer b = WriteBuffer.wrap(buf);
+        try {
+            writer.write(value, b);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return -1;
+        }
+        return b.pos();
+    }
+}
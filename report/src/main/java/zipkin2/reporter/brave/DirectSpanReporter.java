@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter.brave;
+
+import brave.Tag;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
+import zipkin2.reporter.Reporter;
+
+/**
+ * Reports finished spans as {@link MutableReportSpan} views instead of converting them, leaving the
+ * wire encoding to read the {@link MutableSpan} directly.
+ */
+final class DirectSpanReporter implements Reporter<MutableSpan> {
+    final Reporter<ReportSpan> delegate;
+    final Tag<Throwable> errorTag;
+
+    DirectSpanReporter(Reporter<ReportSpan> delegate, Tag<Throwable> errorTag) {
+        this.delegate = delegate;
+        this.errorTag = errorTag;
+    }
+
+    @Override public void report(MutableSpan span) {
+        maybeAddErrorTag(span);
+        delegate.report(new MutableReportSpan(span));
+    }
+
+    void maybeAddErrorTag(MutableSpan span) {
+        // span.tag(key) iterates: check if we need to first!
+        if (span.error() == null) return;
+        if (span.tag("error") == null) errorTag.tag(span.error(), null, span);
+    }
+
+    @Override public String toString() {
+        return delegate.toString();
+    }
+
+    /**
+     * Overridden to avoid duplicates when added via {@link brave.Tracing.Builder#addSpanHandler(SpanHandler)}
+     */
+    @Override public final boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof DirectSpanReporter)) return false;
+        return delegate.equals(((DirectSpanReporter) o).delegate);
+    }
+
+    /**
+     * Overridden to avoid duplicates when added via {@link brave.Tracing.Builder#addSpanHandler(SpanHandler)}
+     */
+    @Override
+    public final int hashCode() {
+        return delegate.hashCode();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter.brave;
+
+import brave.Span.Kind;
+import brave.handler.MutableSpan;
+import com.megaease.easeagent.plugin.report.tracing.Annotation;
+import com.megaease.easeagent.plugin.report.tracing.Endpoint;
+import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
+import com.megaease.easeagent.report.trace.ReportSpanBuilder;
+import zipkin2.Span;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A {@link ReportSpan} view over a finished {@link MutableSpan}. Scalar fields are normalized the
+ * same way {@link ReportSpanBuilder} does it, so encoders can write endpoints, annotations and tags
+ * straight from {@link #span()}. The collection accessors fall back to a converted copy, built on
+ * first use.
+ *
+ * <p>The wrapped span must not be modified once it is handed to the reporter.
+ */
+public final class MutableReportSpan implements ReportSpan {
+    final MutableSpan span;
+    final String traceId;
+    final String parentId;
+    final String id;
+    final String kind;
+    final String name;
+    final long timestamp;
+    final long duration;
+    final boolean shared;
+    final boolean debug;
+    volatile ReportSpan converted;
+
+    public MutableReportSpan(MutableSpan span) {
+        this.span = span;
+        this.traceId = ReportSpanBuilder.normalizeTraceId(span.traceId());
+        this.id = span.id();
+        this.parentId = id.equals(span.parentId()) ? null : span.parentId();
+        Kind braveKind = span.kind();
+        Span.Kind zipkinKind = braveKind == null ? null : ConvertSpanReporter.BRAVE_TO_ZIPKIN_KIND.get(braveKind);
+        this.kind = zipkinKind == null ? null : zipkinKind.name();
+        this.name = lowerCase(span.name());
+        long start = span.startTimestamp();
+        long finish = span.finishTimestamp();
+        this.timestamp = Math.max(start, 0L);
+        this.duration = start != 0L && finish != 0L ? Math.max(finish - start, 1) : 0L;
+        // shared is for the server side, unset it if accidentally set on the client side
+        this.shared = span.shared() && !Span.Kind.CLIENT.name().equals(kind);
+        this.debug = span.debug();
+    }
+
+    static String lowerCase(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    public MutableSpan span() {
+        return span;
+    }
+
+    ReportSpan converted() {
+        ReportSpan result = converted;
+        if (result == null) {
+            result = ConvertSpanReporter.convert(span);
+            converted = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String traceId() {
+        return traceId;
+    }
+
+    @Override
+    public String parentId() {
+        return parentId;
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public String kind() {
+        return kind;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long timestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public long duration() {
+        return duration;
+    }
+
+    @Override
+    public boolean shared() {
+        return shared;
+    }
+
+    @Override
+    public boolean debug() {
+        return debug;
+    }
+
+    @Override
+    public Endpoint localEndpoint() {
+        return converted().localEndpoint();
+    }
+
+    @Override
+    public Endpoint remoteEndpoint() {
+        return converted().remoteEndpoint();
+    }
+
+    @Override
+    public List<Annotation> annotations() {
+        return converted().annotations();
+    }
+
+    @Override
+    public Map<String, String> tags() {
+        return converted().tags();
+    }
+
+    @Override
+    public String tag(String key) {
+        return span.tag(key);
+    }
+
+    @Override
+    public boolean hasError() {
+        return span.tag("error") != null;
+    }
+
+    @Override
+    public String errorInfo() {
+        return span.tag("error");
+    }
+
+    @Override
+    public String type() {
+        return null;
+    }
+
+    @Override
+    public String service() {
+        return null;
+    }
+
+    @Override
+    public String system() {
+        return null;
+    }
+
+    @Override
+    public String localServiceName() {
+        return lowerCase(span.localServiceName());
+    }
+
+    @Override
+    public String remoteServiceName() {
+        return lowerCase(span.remoteServiceName());
+    }
+}
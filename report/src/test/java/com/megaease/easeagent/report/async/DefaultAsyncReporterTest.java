@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async;
+
+import com.megaease.easeagent.config.Configs;
+import com.megaease.easeagent.config.report.ReportConfigConst;
+import com.megaease.easeagent.mock.utils.JdkHttpServer;
+import com.megaease.easeagent.plugin.api.config.Config;
+import com.megaease.easeagent.plugin.report.ByteWrapper;
+import com.megaease.easeagent.plugin.report.Call;
+import com.megaease.easeagent.plugin.report.EncodedData;
+import com.megaease.easeagent.plugin.report.Encoder;
+import com.megaease.easeagent.plugin.report.encoder.JsonEncoder;
+import com.megaease.easeagent.report.sender.SenderWithEncoder;
+import com.megaease.easeagent.report.sender.okhttp.HttpSender;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class DefaultAsyncReporterTest {
+    private static final String PREFIX = "reporter.log.sender";
+    private static final Pattern ITEM = Pattern.compile("item-(\\d+)");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Set<Integer> received = ConcurrentHashMap.newKeySet();
+
+    static class StringEncoder extends JsonEncoder<String> {
+        @Override
+        public void init(Config config) {
+            // ignored
+        }
+
+        @Override
+        public String name() {
+            return "string";
+        }
+
+        @Override
+        public int sizeInBytes(String input) {
+            return encode(input).size();
+        }
+
+        @Override
+        public EncodedData encode(String input) {
+            return new ByteWrapper(("\"" + input + "\"").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    static class StringHttpSender implements SenderWithEncoder {
+        final HttpSender sender = new HttpSender();
+        final StringEncoder encoder = new StringEncoder();
+
+        @Override
+        public String name() {
+            return sender.name();
+        }
+
+        @Override
+        public void init(Config config, String prefix) {
+            sender.init(config, prefix);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Encoder<T> getEncoder() {
+            return (Encoder<T>) encoder;
+        }
+
+        @Override
+        public Call<Void> send(EncodedData encodedData) {
+            return sender.send(encodedData);
+        }
+
+        @Override
+        public Call<Void> send(List<EncodedData> encodedData) {
+            return sender.send(encoder.encodeList(encodedData));
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return sender.isAvailable();
+        }
+
+        @Override
+        public void updateConfigs(Map<String, String> changes) {
+            sender.updateConfigs(changes);
+        }
+
+        @Override
+        public String getPrefix() {
+            return PREFIX;
+        }
+
+        @Override
+        public void close() throws IOException {
+            sender.close();
+        }
+    }
+
+    static class Props implements AsyncProps {
+        final String spillDir;
+        final int messageMaxBytes;
+        final int messageMaxInFlight;
+
+        Props(String spillDir) {
+            this(spillDir, 1000, 1);
+        }
+
+        Props(String spillDir, int messageMaxBytes, int messageMaxInFlight) {
+            this.spillDir = spillDir;
+            this.messageMaxBytes = messageMaxBytes;
+            this.messageMaxInFlight = messageMaxInFlight;
+        }
+
+        @Override
+        public int getReportThread() {
+            return 1;
+        }
+
+        @Override
+        public int getQueuedMaxItems() {
+            return 10;
+        }
+
+        @Override
+        public long getMessageTimeout() {
+            return 100;
+        }
+
+        @Override
+        public int getQueuedMaxSize() {
+            return 1 << 20;
+        }
+
+        @Override
+        public int getMessageMaxBytes() {
+            return messageMaxBytes;
+        }
+
+        @Override
+        public int getMessageMaxInFlight() {
+            return messageMaxInFlight;
+        }
+
+        @Override
+        public String getSpillDir() {
+            return spillDir;
+        }
+    }
+
+    private JdkHttpServer startServer(int port) throws IOException {
+        return JdkHttpServer.builder().setPort(port).setExchangeConsumer(this::receive).build().start();
+    }
+
+    private static StringHttpSender sender(JdkHttpServer server) {
+        Map<String, String> source = new HashMap<>();
+        source.put(PREFIX + ".url", server.getUrl());
+        source.put(PREFIX + ".compress", "false");
+        source.put(ReportConfigConst.OUTPUT_SERVERS_ENABLE, "true");
+        StringHttpSender sender = new StringHttpSender();
+        sender.init(new Configs(source), PREFIX);
+        return sender;
+    }
+
+    private void receive(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            for (int n = in.read(buf); n > 0; n = in.read(buf)) {
+                out.write(buf, 0, n);
+            }
+            Matcher matcher = ITEM.matcher(new String(out.toByteArray(), StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                received.add(Integer.parseInt(matcher.group(1)));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out", System.nanoTime() < deadline);
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+    }
+
+    private static void report(AsyncReporter<String> reporter, int from, int to) {
+        for (int i = from; i < to; i++) {
+            reporter.report("item-" + i);
+        }
+    }
+
+    @Test
+    public void spill() throws Exception {
+        JdkHttpServer server = startServer(0);
+        int port = server.getPort();
+        StringHttpSender sender = sender(server);
+        DefaultAsyncReporter<String> reporter = (DefaultAsyncReporter<String>) DefaultAsyncReporter
+            .<String>builderAsyncReporter(sender, new Props(folder.newFolder().getAbsolutePath()));
+        try {
+            assertNotNull(reporter.spill);
+            report(reporter, 0, 5);
+            await(() -> received.size() == 5);
+
+            // the backend is down: what the queue can't hold, and what fails to send, is spilled by the flush thread
+            server.stop();
+            report(reporter, 5, 200);
+            await(() -> reporter.pending.getCount() == 0 && reporter.overflow.getCount() == 0
+                && reporter.spill.count() >= 185);
+
+            // the backend is back: the spilled items are replayed, none is lost
+            server = startServer(port);
+            report(reporter, 200, 205);
+            await(() -> received.size() == 205);
+            await(() -> reporter.spill.count() == 0);
+            for (int i = 0; i < 205; i++) {
+                assertTrue("item-" + i, received.contains(i));
+            }
+        } finally {
+            reporter.close();
+            server.stop();
+            sender.close();
+        }
+    }
+
+    @Test
+    public void inFlight() throws Exception {
+        // a slow collector, which serves requests concurrently
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        JdkHttpServer server = JdkHttpServer.builder().setExecutor(executor).setExchangeConsumer(exchange -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            receive(exchange);
+            concurrent.decrementAndGet();
+        }).build().start();
+        StringHttpSender sender = sender(server);
+        // a message holds a few items, so many are sent
+        DefaultAsyncReporter<String> reporter = (DefaultAsyncReporter<String>) DefaultAsyncReporter
+            .<String>builderAsyncReporter(sender, new Props(null, 100, 4));
+        try {
+            for (int i = 0; i < 40; i++) {
+                report(reporter, i, i + 1);
+                // don't outgrow the pending queue
+                await(() -> reporter.pending.getCount() < 10);
+            }
+            await(() -> received.size() == 40);
+            assertTrue("max concurrent " + maxConcurrent.get(), maxConcurrent.get() > 1);
+            assertTrue("max concurrent " + maxConcurrent.get(), maxConcurrent.get() <= 4);
+        } finally {
+            reporter.close();
+            server.stop();
+            sender.close();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async;
+
+import com.megaease.easeagent.plugin.report.Call;
+import com.megaease.easeagent.plugin.report.Callback;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class InFlightMessagesTest {
+    static class PendingCall implements Call<Void> {
+        Callback<Void> callback;
+
+        @Override
+        public Void execute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueue(Callback<Void> cb) {
+            this.callback = cb;
+        }
+    }
+
+    static class CountingCallback implements Callback<Void> {
+        final AtomicInteger success = new AtomicInteger();
+        final AtomicInteger error = new AtomicInteger();
+
+        @Override
+        public void onSuccess(Void value) {
+            success.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void send() throws InterruptedException {
+        InFlightMessages inFlight = new InFlightMessages(2);
+        CountingCallback callback = new CountingCallback();
+        PendingCall first = new PendingCall();
+        PendingCall second = new PendingCall();
+        inFlight.send(first, callback);
+        inFlight.send(second, callback);
+        assertEquals(2, inFlight.count());
+
+        // the third waits for one to complete
+        CountDownLatch sent = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                inFlight.send(new PendingCall(), callback);
+                sent.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        assertFalse(sent.await(100, TimeUnit.MILLISECONDS));
+        first.callback.onSuccess(null);
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        second.callback.onError(new IOException("failed"));
+        assertEquals(1, callback.success.get());
+        assertEquals(1, callback.error.get());
+        assertEquals(1, inFlight.count());
+    }
+
+    @Test
+    public void trySend() {
+        InFlightMessages inFlight = new InFlightMessages(1);
+        CountingCallback callback = new CountingCallback();
+        PendingCall call = new PendingCall();
+        assertTrue(inFlight.trySend(call, callback));
+        assertFalse(inFlight.trySend(new PendingCall(), callback));
+        call.callback.onSuccess(null);
+        // a call without an asynchronous transport completes on enqueue
+        assertTrue(inFlight.trySend(() -> null, callback));
+        assertEquals(0, inFlight.count());
+        assertEquals(2, callback.success.get());
+
+        Call<Void> failed = new Call<Void>() {
+            @Override
+            public Void execute() {
+                return null;
+            }
+
+            @Override
+            public void enqueue(Callback<Void> cb) {
+                throw new IllegalStateException("closed");
+            }
+        };
+        try {
+            inFlight.trySend(failed, callback);
+            fail("enqueue failed");
+        } catch (IllegalStateException e) {
+            assertEquals(0, inFlight.count());
+        }
+    }
+
+    @Test
+    public void awaitCompletion() throws InterruptedException {
+        InFlightMessages inFlight = new InFlightMessages(4);
+        PendingCall call = new PendingCall();
+        inFlight.send(call, new CountingCallback());
+        assertFalse(inFlight.awaitCompletion(TimeUnit.MILLISECONDS.toNanos(10)));
+        new Thread(() -> call.callback.onSuccess(null)).start();
+        assertTrue(inFlight.awaitCompletion(TimeUnit.SECONDS.toNanos(5)));
+        assertEquals(0, inFlight.count());
+    }
+}
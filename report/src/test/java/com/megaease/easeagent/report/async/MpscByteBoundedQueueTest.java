@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class MpscByteBoundedQueueTest {
+
+    @Test
+    public void offer() {
+        MpscByteBoundedQueue<String> queue = new MpscByteBoundedQueue<>(3, 100);
+        assertTrue(queue.offer("a", 10));
+        assertTrue(queue.offer("b", 10));
+        assertTrue(queue.offer("c", 10));
+        assertFalse("bounded by count", queue.offer("d", 10));
+        assertEquals(3, queue.getCount());
+        assertEquals(30, queue.getSizeInBytes());
+
+        queue = new MpscByteBoundedQueue<>(10, 100);
+        assertTrue(queue.offer("a", 60));
+        assertFalse("bounded by bytes", queue.offer("b", 50));
+        assertTrue(queue.offer("c", 40));
+        assertEquals(2, queue.getCount());
+        assertEquals(100, queue.getSizeInBytes());
+    }
+
+    @Test
+    public void drainTo() {
+        MpscByteBoundedQueue<String> queue = new MpscByteBoundedQueue<>(3, 100);
+        List<String> drained = new ArrayList<>();
+        for (int round = 0; round < 5; round++) {
+            assertTrue(queue.offer("a" + round, 10));
+            assertTrue(queue.offer("b" + round, 10));
+            assertEquals(2, queue.drainTo((next, size) -> drained.add(next), 0));
+            assertEquals(0, queue.getCount());
+            assertEquals(0, queue.getSizeInBytes());
+        }
+        assertEquals(10, drained.size());
+        assertEquals("a4", drained.get(8));
+        assertEquals(0, queue.drainTo((next, size) -> true, 0));
+    }
+
+    @Test
+    public void drainToKeepsRejected() {
+        MpscByteBoundedQueue<String> queue = new MpscByteBoundedQueue<>(10, 100);
+        queue.offer("a", 10);
+        queue.offer("b", 20);
+        List<String> drained = new ArrayList<>();
+        assertEquals(1, queue.drainTo((next, size) -> size < 20 && drained.add(next), 0));
+        assertEquals(1, queue.getCount());
+        assertEquals(20, queue.getSizeInBytes());
+        assertEquals(1, queue.drainTo((next, size) -> drained.add(next), 0));
+        assertEquals(2, drained.size());
+        assertEquals("b", drained.get(1));
+    }
+
+    @Test
+    public void drainToWaits() throws InterruptedException {
+        MpscByteBoundedQueue<String> queue = new MpscByteBoundedQueue<>(10, 100);
+        long begin = System.nanoTime();
+        assertEquals(0, queue.drainTo((next, size) -> true, TimeUnit.MILLISECONDS.toNanos(20)));
+        assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(20));
+
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+                return;
+            }
+            queue.offer("a", 10);
+        });
+        producer.start();
+        begin = System.nanoTime();
+        assertEquals(1, queue.drainTo((next, size) -> true, TimeUnit.SECONDS.toNanos(10)));
+        assertTrue("woken up by the producer", System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(5));
+        producer.join();
+    }
+
+    @Test
+    public void clear() {
+        MpscByteBoundedQueue<String> queue = new MpscByteBoundedQueue<>(10, 100);
+        queue.offer("a", 10);
+        queue.offer("b", 10);
+        assertEquals(2, queue.clear());
+        assertEquals(0, queue.getCount());
+        assertEquals(0, queue.getSizeInBytes());
+        assertTrue(queue.offer("c", 10));
+    }
+
+    @Test
+    public void concurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20000;
+        MpscByteBoundedQueue<Integer> queue = new MpscByteBoundedQueue<>(100, 100 * 8);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(i, 8)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        AtomicInteger drained = new AtomicInteger();
+        AtomicLong sum = new AtomicLong();
+        while (drained.get() < producers * perProducer) {
+            queue.drainTo((next, size) -> {
+                drained.incrementAndGet();
+                sum.addAndGet(next);
+                return true;
+            }, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals((long) producers * perProducer * (perProducer - 1) / 2, sum.get());
+        assertEquals(0, queue.getCount());
+        assertEquals(0, queue.getSizeInBytes());
+    }
+}
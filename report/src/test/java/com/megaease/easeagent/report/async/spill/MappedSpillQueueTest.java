@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async.spill;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MappedSpillQueueTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> peek(MappedSpillQueue queue, int max) {
+        List<String> peeked = new ArrayList<>();
+        queue.peek(data -> {
+            if (peeked.size() == max) {
+                return false;
+            }
+            peeked.add(new String(data, StandardCharsets.UTF_8));
+            return true;
+        });
+        return peeked;
+    }
+
+    private static int segments(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(MappedSpillQueue.SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+
+    @Test
+    public void offer() throws IOException {
+        File dir = folder.newFolder();
+        // 3 records of 4 + 8 bytes per segment, at most 2 segments
+        try (MappedSpillQueue queue = MappedSpillQueue.open(dir, 36, 72)) {
+            for (int i = 0; i < 6; i++) {
+                assertTrue(queue.offer(bytes("record-" + i)));
+            }
+            assertFalse(queue.offer(bytes("record-6")));
+            assertFalse(queue.offer(bytes("larger than a segment, which is 36 bytes")));
+            assertFalse(queue.offer(new byte[0]));
+            assertEquals(6, queue.count());
+            assertEquals(48, queue.sizeInBytes());
+            assertEquals(2, segments(dir));
+        }
+    }
+
+    @Test
+    public void peek() throws IOException {
+        try (MappedSpillQueue queue = MappedSpillQueue.open(folder.newFolder(), 36, 72)) {
+            for (int i = 0; i < 5; i++) {
+                queue.offer(bytes("record-" + i));
+            }
+            assertEquals(5, queue.peek(data -> true));
+            List<String> peeked = peek(queue, 4);
+            assertEquals(4, peeked.size());
+            assertEquals("record-0", peeked.get(0));
+            assertEquals("record-3", peeked.get(3));
+            // peek doesn't remove
+            assertEquals(5, queue.count());
+            assertEquals("record-0", peek(queue, 1).get(0));
+        }
+    }
+
+    @Test
+    public void remove() throws IOException {
+        File dir = folder.newFolder();
+        try (MappedSpillQueue queue = MappedSpillQueue.open(dir, 36, 72)) {
+            for (int i = 0; i < 6; i++) {
+                queue.offer(bytes("record-" + i));
+            }
+            queue.remove(4);
+            assertEquals(2, queue.count());
+            assertEquals(16, queue.sizeInBytes());
+            assertEquals("record-4", peek(queue, 1).get(0));
+            // the first segment is consumed and deleted, there is room again
+            assertEquals(1, segments(dir));
+            assertTrue(queue.offer(bytes("record-6")));
+            queue.remove(10);
+            assertTrue(queue.isEmpty());
+            assertEquals(0, queue.peek(data -> true));
+        }
+    }
+
+    @Test
+    public void open() throws IOException {
+        File dir = folder.newFolder();
+        try (MappedSpillQueue queue = MappedSpillQueue.open(dir, 36, 72)) {
+            for (int i = 0; i < 5; i++) {
+                queue.offer(bytes("record-" + i));
+            }
+            queue.remove(2);
+            try {
+                MappedSpillQueue.open(dir, 36, 72);
+                fail("the directory is in use");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+        // the records not consumed are recovered, and appended to
+        try (MappedSpillQueue queue = MappedSpillQueue.open(dir, 36, 72)) {
+            assertEquals(3, queue.count());
+            assertEquals("record-2", peek(queue, 1).get(0));
+            assertTrue(queue.offer(bytes("record-5")));
+            List<String> peeked = peek(queue, 10);
+            assertEquals(4, peeked.size());
+            assertEquals("record-5", peeked.get(3));
+            queue.remove(4);
+        }
+        try (MappedSpillQueue queue = MappedSpillQueue.open(dir, 36, 72)) {
+            assertTrue(queue.isEmpty());
+            assertEquals(0, segments(dir));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.async.zipkin;
+
+import com.megaease.easeagent.plugin.api.config.Config;
+import com.megaease.easeagent.plugin.report.ByteWrapper;
+import com.megaease.easeagent.plugin.report.EncodedData;
+import com.megaease.easeagent.plugin.report.encoder.JsonEncoder;
+import com.megaease.easeagent.report.async.EncodedSizeAverage;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AgentBufferNextMessageTest {
+    static class StringEncoder extends JsonEncoder<String> {
+        int encoded;
+
+        @Override
+        public void init(Config config) {
+            // ignored
+        }
+
+        @Override
+        public String name() {
+            return "string";
+        }
+
+        @Override
+        public int sizeInBytes(String input) {
+            throw new UnsupportedOperationException("sized by the encoded bytes");
+        }
+
+        @Override
+        public EncodedData encode(String input) {
+            encoded++;
+            return new ByteWrapper(input.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static List<String> drain(AgentBufferNextMessage<String> bundler) {
+        List<String> drained = new ArrayList<>();
+        bundler.drain((next, size) -> drained.add(new String(next.getData(), StandardCharsets.UTF_8)));
+        return drained;
+    }
+
+    @Test
+    public void offer() {
+        StringEncoder encoder = new StringEncoder();
+        EncodedSizeAverage sizeAverage = new EncodedSizeAverage(100);
+        // [aaaa,bbbb] is packed as 12 bytes, a comma is counted for each item
+        AgentBufferNextMessage<String> bundler = AgentBufferNextMessage.create(encoder, 12, 0, sizeAverage);
+        assertTrue(bundler.offer("aaaa", 100));
+        assertFalse(bundler.bufferFull);
+        assertTrue(bundler.offer("bbbb", 100));
+        assertTrue(bundler.bufferFull);
+        assertEquals(2, bundler.count());
+        assertEquals(12, bundler.sizeInBytes());
+        assertEquals(8, bundler.encodedBytes());
+        assertEquals(2, encoder.encoded);
+        assertTrue(sizeAverage.get() < 100);
+    }
+
+    @Test
+    public void overflow() {
+        StringEncoder encoder = new StringEncoder();
+        AgentBufferNextMessage<String> bundler = AgentBufferNextMessage.create(encoder, 12, 0);
+        assertTrue(bundler.offer("aaaa", 1));
+        assertTrue("taken, and kept for the next message", bundler.offer("bbbbbb", 1));
+        assertFalse("left in the queue until the next message", bundler.offer("cc", 1));
+        assertEquals(1, bundler.count());
+        assertEquals(2, encoder.encoded);
+
+        List<String> drained = drain(bundler);
+        assertEquals(1, drained.size());
+        assertEquals("aaaa", drained.get(0));
+        assertEquals(1, bundler.count());
+        assertEquals(0, bundler.encodedBytes());
+
+        assertTrue(bundler.offer("cc", 1));
+        drained = drain(bundler);
+        assertEquals(2, drained.size());
+        assertEquals("bbbbbb", drained.get(0));
+        assertEquals("cc", drained.get(1));
+        assertEquals("each item is encoded once", 3, encoder.encoded);
+    }
+
+    @Test
+    public void dropLargerThanMessage() {
+        StringEncoder encoder = new StringEncoder();
+        AgentBufferNextMessage<String> bundler = AgentBufferNextMessage.create(encoder, 12, 0);
+        assertTrue(bundler.offer("aaaaaaaaaaaa", 1));
+        assertEquals(0, bundler.count());
+        assertEquals(1, bundler.droppedCount());
+
+        assertTrue(bundler.offer("aaaa", 1));
+        assertTrue(bundler.offer("aaaaaaaaaaaa", 1));
+        assertEquals(1, drain(bundler).size());
+        assertEquals("dropped when it's alone", 0, bundler.count());
+        assertEquals("reported with the next message", 1, bundler.droppedCount());
+        assertTrue(drain(bundler).isEmpty());
+        assertEquals(0, bundler.droppedCount());
+    }
+}
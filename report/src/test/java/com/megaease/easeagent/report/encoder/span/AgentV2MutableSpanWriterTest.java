@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.report.encoder.span;
+
+import brave.Span;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
+import org.junit.Test;
+import zipkin2.internal.JsonCodec;
+import zipkin2.internal.SinglePassJsonCodec;
+import zipkin2.reporter.Reporter;
+import zipkin2.reporter.brave.ConvertZipkinSpanHandler;
+import zipkin2.reporter.brave.DirectZipkinSpanHandler;
+import zipkin2.reporter.brave.MutableReportSpan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class AgentV2MutableSpanWriterTest {
+    static final GlobalExtrasSupplier EXTRAS = new GlobalExtrasSupplier() {
+        @Override
+        public String service() {
+            return "demo-service";
+        }
+
+        @Override
+        public String system() {
+            return "demo-system";
+        }
+    };
+    static final Function<Reporter<ReportSpan>, SpanHandler> CONVERT =
+        r -> ConvertZipkinSpanHandler.builder(r).alwaysReportSpans(true).build();
+    static final Function<Reporter<ReportSpan>, SpanHandler> DIRECT =
+        r -> DirectZipkinSpanHandler.builder(r).alwaysReportSpans(true).build();
+
+    static MutableSpan clientSpan() {
+        MutableSpan span = new MutableSpan();
+        span.traceId("463ac35c9f6413ad");
+        span.parentId("463ac35c9f6413ad");
+        span.id("a2fb4a1d1a96d312");
+        span.kind(Span.Kind.CLIENT);
+        span.name("GET /Users");
+        span.startTimestamp(1472470996199000L);
+        span.finishTimestamp(1472470996406000L);
+        span.setShared();
+        span.localServiceName("Demo-Service");
+        span.localIp("10.0.0.1");
+        span.localPort(8080);
+        span.remoteServiceName("MySQL");
+        span.remoteIpAndPort("192.168.1.2", 3306);
+        span.tag("sql", "select \"name\"\nfrom users");
+        span.tag("http.path", "/users");
+        span.tag("component", "jdbc");
+        span.annotate(1472470996300000L, "wr");
+        span.annotate(1472470996250000L, "ws");
+        span.annotate(1472470996300000L, "ack");
+        span.annotate(1472470996250000L, "ws");
+        span.error(new IllegalStateException("boom"));
+        return span;
+    }
+
+    static MutableSpan serverSpan() {
+        MutableSpan span = new MutableSpan();
+        span.traceId("48485a3953bb61246b221d5bc9e6496c");
+        span.id("5b4185666d50f68b");
+        span.kind(Span.Kind.SERVER);
+        span.name("post");
+        span.startTimestamp(1472470996199000L);
+        span.finishTimestamp(1472470996199000L);
+        span.setShared();
+        span.setDebug();
+        span.localServiceName("backend");
+        span.localIp("2001:db8::c001");
+        span.remoteIpAndPort("::ffff:172.17.0.2", 52814);
+        span.tag("user", "中文 😀");
+        return span;
+    }
+
+    static MutableSpan localSpan() {
+        MutableSpan span = new MutableSpan();
+        span.traceId("0000000000000001");
+        span.parentId("0000000000000002");
+        span.id("0000000000000002");
+        span.startTimestamp(1472470996199000L);
+        span.localServiceName("demo");
+        return span;
+    }
+
+    @Test
+    public void client() throws IOException {
+        assertGolden("client.json", AgentV2MutableSpanWriterTest::clientSpan);
+    }
+
+    @Test
+    public void server() throws IOException {
+        assertGolden("server.json", AgentV2MutableSpanWriterTest::serverSpan);
+    }
+
+    @Test
+    public void local() throws IOException {
+        assertGolden("local.json", AgentV2MutableSpanWriterTest::localSpan);
+    }
+
+    @Test
+    public void reportSpanView() {
+        ReportSpan converted = report(CONVERT, clientSpan());
+        ReportSpan direct = report(DIRECT, clientSpan());
+        assertEquals(converted.traceId(), direct.traceId());
+        assertEquals(converted.parentId(), direct.parentId());
+        assertEquals(converted.id(), direct.id());
+        assertEquals(converted.kind(), direct.kind());
+        assertEquals(converted.name(), direct.name());
+        assertEquals(converted.timestamp(), direct.timestamp());
+        assertEquals(converted.duration(), direct.duration());
+        assertEquals(converted.shared(), direct.shared());
+        assertEquals(converted.debug(), direct.debug());
+        assertEquals(converted.localEndpoint(), direct.localEndpoint());
+        assertEquals(converted.remoteEndpoint(), direct.remoteEndpoint());
+        assertEquals(converted.localServiceName(), direct.localServiceName());
+        assertEquals(converted.remoteServiceName(), direct.remoteServiceName());
+        assertEquals(converted.annotations(), direct.annotations());
+        assertEquals(converted.tags(), direct.tags());
+        assertEquals(converted.errorInfo(), direct.errorInfo());
+        assertTrue(direct.hasError());
+    }
+
+    static void assertGolden(String name, Supplier<MutableSpan> span) throws IOException {
+        String golden = golden(name);
+
+        ReportSpan converted = report(CONVERT, span.get());
+        AgentV2SpanWriter writer = new AgentV2SpanWriter(EXTRAS);
+        byte[] expected = JsonCodec.write(writer, converted);
+        assertEquals(golden, new String(expected, StandardCharsets.UTF_8));
+        assertEquals(expected.length, writer.sizeInBytes(converted));
+
+        ReportSpan direct = report(DIRECT, span.get());
+        assertTrue(direct instanceof MutableReportSpan);
+        AgentV2MutableSpanWriter mutableSpanWriter = new AgentV2MutableSpanWriter(EXTRAS);
+        byte[] actual = SinglePassJsonCodec.write(mutableSpanWriter, (MutableReportSpan) direct);
+        assertArrayEquals(expected, actual);
+        assertEquals(actual.length, mutableSpanWriter.sizeInBytes((MutableReportSpan) direct));
+    }
+
+    static ReportSpan report(Function<Reporter<ReportSpan>, SpanHandler> handler, MutableSpan span) {
+        List<ReportSpan> reported = new ArrayList<>();
+        handler.apply(reported::add).end(null, span, SpanHandler.Cause.FINISHED);
+        assertEquals(1, reported.size());
+        return reported.get(0);
+    }
+
+    static String golden(String name) throws IOException {
+        try (InputStream in = AgentV2MutableSpanWriterTest.class.getResourceAsStream("/span/" + name)) {
+            assertNotNull(name, in);
+            byte[] buf = new byte[8192];
+            int length = 0;
+            for (int read; (read = in.read(buf, length, buf.length - length)) > 0; ) {
+                length += read;
+            }
+            return new String(buf, 0, length, StandardCharsets.UTF_8).trim();
+        }
+    }
+}
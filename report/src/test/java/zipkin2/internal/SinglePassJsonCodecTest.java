@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.internal;
+
+import com.megaease.easeagent.plugin.report.tracing.ReportSpan;
+import com.megaease.easeagent.report.encoder.span.AgentV2SpanWriter;
+import com.megaease.easeagent.report.encoder.span.GlobalExtrasSupplier;
+import com.megaease.easeagent.report.trace.ReportSpanBuilder;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SinglePassJsonCodecTest {
+    AgentV2SpanWriter writer = new AgentV2SpanWriter(new GlobalExtrasSupplier() {
+        @Override
+        public String service() {
+            return "test-service";
+        }
+
+        @Override
+        public String system() {
+            return "test-system";
+        }
+    });
+
+    private static ReportSpan span(String tagValue) {
+        return ReportSpanBuilder.newBuilder()
+            .traceId("463ac35c9f6413ad")
+            .id("72485a3953bb6124")
+            .name("get /\"quoted\"")
+            .timestamp(1472470996199000L)
+            .duration(207000L)
+            .putTag("http.path", "/api\n")
+            .putTag("value", tagValue)
+            .build();
+    }
+
+    private static String repeat(int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, 'a');
+        return new String(chars);
+    }
+
+    @After
+    public void resetBuffer() {
+        SinglePassJsonCodec.BUFFER.remove();
+    }
+
+    @Test
+    public void write() {
+        ReportSpan span = span("中文");
+        byte[] bytes = SinglePassJsonCodec.write(writer, span);
+        assertArrayEquals(JsonCodec.write(writer, span), bytes);
+        assertEquals(writer.sizeInBytes(span), bytes.length);
+        assertEquals(SinglePassJsonCodec.INITIAL_BUFFER_SIZE, SinglePassJsonCodec.BUFFER.get().length);
+    }
+
+    @Test
+    public void growAndRetry() {
+        ReportSpan span = span(repeat(SinglePassJsonCodec.INITIAL_BUFFER_SIZE * 3));
+        byte[] bytes = SinglePassJsonCodec.write(writer, span);
+        assertArrayEquals(JsonCodec.write(writer, span), bytes);
+        assertTrue(SinglePassJsonCodec.BUFFER.get().length >= bytes.length * 2);
+
+        // the grown buffer is used by the next ones
+        byte[] grown = SinglePassJsonCodec.BUFFER.get();
+        ReportSpan small = span("b");
+        assertArrayEquals(JsonCodec.write(writer, small), SinglePassJsonCodec.write(writer, small));
+        assertSame(grown, SinglePassJsonCodec.BUFFER.get());
+    }
+
+    @Test
+    public void growBeforeOverflow() {
+        ReportSpan span = span(repeat(SinglePassJsonCodec.INITIAL_BUFFER_SIZE * 3 / 4));
+        byte[] bytes = SinglePassJsonCodec.write(writer, span);
+        assertTrue(bytes.length < SinglePassJsonCodec.INITIAL_BUFFER_SIZE);
+        assertEquals(SinglePassJsonCodec.INITIAL_BUFFER_SIZE * 2, SinglePassJsonCodec.BUFFER.get().length);
+    }
+
+    @Test
+    public void largerThanMaxBuffer() {
+        ReportSpan span = span(repeat(SinglePassJsonCodec.MAX_BUFFER_SIZE));
+        byte[] bytes = SinglePassJsonCodec.write(writer, span);
+        assertArrayEquals(JsonCodec.write(writer, span), bytes);
+        assertEquals(SinglePassJsonCodec.MAX_BUFFER_SIZE, SinglePassJsonCodec.BUFFER.get().length);
+    }
+}
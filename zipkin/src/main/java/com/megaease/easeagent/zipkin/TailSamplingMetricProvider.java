@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2021, MegaEase
+ * Copyright (c) 2022, MegaEase
  * All rights reserved.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -15,25 +15,20 @@
  * limitations under the License.
  */
 
-package com.megaease.easeagent.plugin.jdbc.common;
+package com.megaease.easeagent.zipkin;
 
-import java.sql.Connection;
-import java.sql.DatabaseMetaData;
-import java.sql.SQLException;
+import com.megaease.easeagent.plugin.bean.AgentInitializingBean;
+import com.megaease.easeagent.plugin.bean.BeanProvider;
+import com.megaease.easeagent.zipkin.sampler.TailSamplingMetric;
 
-public class JdbcUtils {
+public class TailSamplingMetricProvider implements BeanProvider, AgentInitializingBean {
+    @Override
+    public int order() {
+        return BeanOrder.METRIC_REGISTRY.getOrder();
+    }
 
-    public static String getUrl(Connection con) {
-        try {
-            final DatabaseMetaData meta = con.getMetaData();
-            final String url = meta.getURL();
-            int idx = url.indexOf('?');
-            if (idx == -1) {
-                return url;
-            }
-            return url.substring(0, idx);
-        } catch (SQLException ignored) {
-        }
-        return null;
+    @Override
+    public void afterPropertiesSet() {
+        TailSamplingMetric.getMetric();
     }
 }
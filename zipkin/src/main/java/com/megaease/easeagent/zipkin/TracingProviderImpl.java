@@ -19,7 +19,6 @@ package com.megaease.easeagent.zipkin;
 
 import brave.Tracing;
 import brave.propagation.ThreadLocalCurrentTraceContext;
-import brave.sampler.CountingSampler;
 import com.megaease.easeagent.config.AutoRefreshConfigItem;
 import com.megaease.easeagent.config.ConfigAware;
 import com.megaease.easeagent.plugin.annotation.Injection;
@@ -37,8 +36,11 @@ import com.megaease.easeagent.plugin.report.AgentReport;
 import com.megaease.easeagent.report.AgentReportAware;
 import com.megaease.easeagent.zipkin.impl.TracingImpl;
 import com.megaease.easeagent.zipkin.logging.AgentMDCScopeDecorator;
+import com.megaease.easeagent.zipkin.sampler.AgentSampler;
+import com.megaease.easeagent.zipkin.sampler.TailSamplingMetric;
+import com.megaease.easeagent.zipkin.sampler.TailSamplingSpanHandler;
 import zipkin2.reporter.Reporter;
-import zipkin2.reporter.brave.ConvertZipkinSpanHandler;
+import zipkin2.reporter.brave.DirectZipkinSpanHandler;
 
 public class TracingProviderImpl implements BeanProvider, AgentReportAware, ConfigAware, AgentInitializingBean, TracingProvider {
     private static final String ENV_ZIPKIN_SERVER_URL = "ZIPKIN_SERVER_URL";
@@ -63,24 +65,25 @@ public class TracingProviderImpl implements BeanProvider, AgentReportAware, Conf
     public void afterPropertiesSet() {
         ThreadLocalCurrentTraceContext traceContext = ThreadLocalCurrentTraceContext.newBuilder()
             .addScopeDecorator(AgentMDCScopeDecorator.get())
-            .addScopeDecorator(AgentMDCScopeDecorator.getV2())
-            .addScopeDecorator(AgentMDCScopeDecorator.getAgentDecorator())
             .build();
 
         serviceName = new AutoRefreshConfigItem<>(config, ConfigConst.SERVICE_NAME, Config::getString);
 
         Reporter<ReportSpan> reporter;
         reporter = span -> agentReport.report(span);
+        AgentSampler sampler = AgentSampler.create(config);
+        TailSamplingSpanHandler tailSampling = TailSamplingSpanHandler.create(config, DirectZipkinSpanHandler
+            .builder(reporter)
+            .alwaysReportSpans(true)
+            .build());
+        TailSamplingMetric.handler(tailSampling);
         this.tracing = Tracing.newBuilder()
             .localServiceName(getServiceName())
             .traceId128Bit(false)
-            .sampler(CountingSampler.create(1))
+            .sampler(sampler)
+            .addSpanHandler(sampler.spanHandler())
             .addSpanHandler(new CustomTagsSpanHandler(this::getServiceName, AdditionalAttributes.getHostName()))
-            .addSpanHandler(ConvertZipkinSpanHandler
-                .builder(reporter)
-                .alwaysReportSpans(true)
-                .build()
-            )
+            .addSpanHandler(tailSampling)
             .currentTraceContext(traceContext)
             .build();
     }
@@ -18,25 +18,38 @@
 package com.megaease.easeagent.zipkin.logging;
 
 
+import com.megaease.easeagent.plugin.api.logging.Mdc;
 import com.megaease.easeagent.plugin.utils.common.WeakConcurrentMap;
-import com.megaease.easeagent.plugin.utils.common.WeakConcurrentMap.WeakKey;
 
-import java.lang.ref.WeakReference;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
-public class AgentLogMDC {
+/**
+ * The MDC of the log4j or logback seen by an application classloader, called through
+ * method handles bound once per classloader.
+ */
+public class AgentLogMDC implements Mdc {
     static WeakConcurrentMap<ClassLoader, AgentLogMDC> appMdcMap = new WeakConcurrentMap<>();
+    /**
+     * cached for classloaders seeing neither log4j nor logback, so they are not searched again
+     */
+    private static final AgentLogMDC ABSENT = new AgentLogMDC();
 
     public final Class<?> clazz;
-    private final Method method4Get;
-    private final Method method4Put;
-    private final Method method4Remove;
+    private final MethodHandle method4Get;
+    private final MethodHandle method4Put;
+    private final MethodHandle method4Remove;
 
 
     public static AgentLogMDC create(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return null;
+        }
         AgentLogMDC mdc = appMdcMap.getIfPresent(classLoader);
         if (mdc != null) {
-            return mdc;
+            return mdc == ABSENT ? null : mdc;
         }
         Class<?> aClass = LogUtils.checkLog4JMDC(classLoader);
         if (aClass == null) {
@@ -48,25 +61,62 @@ public class AgentLogMDC {
             appMdcMap.putIfProbablyAbsent(classLoader, mdc);
             return mdc;
         }
+        appMdcMap.putIfProbablyAbsent(classLoader, ABSENT);
         return null;
     }
 
+    private AgentLogMDC() {
+        this.clazz = null;
+        this.method4Get = null;
+        this.method4Put = null;
+        this.method4Remove = null;
+    }
+
     public AgentLogMDC(Class<?> aClass) {
         this.clazz = aClass;
-        method4Get = LogUtils.findMethod(clazz, "get", String.class);
-        method4Put = LogUtils.findMethod(clazz, "put", String.class, String.class);
-        method4Remove = LogUtils.findMethod(clazz, "remove", String.class);
+        method4Get = bind(clazz, "get", MethodType.methodType(String.class, String.class));
+        method4Put = bind(clazz, "put", MethodType.methodType(void.class, String.class, String.class));
+        method4Remove = bind(clazz, "remove", MethodType.methodType(void.class, String.class));
+    }
+
+    private static MethodHandle bind(Class<?> clazz, String name, MethodType type) {
+        Method method = LogUtils.findMethod(clazz, name, type.parameterArray());
+        if (method == null) {
+            throw new IllegalStateException("Method not found: " + clazz.getName() + "." + name);
+        }
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(type);
+        } catch (IllegalAccessException e) {
+            LogUtils.handleReflectionException(e);
+            throw new IllegalStateException("Should never get here");
+        }
     }
 
+    @Override
     public void put(String name, String value) {
-        LogUtils.invokeMethod(method4Put, null, name, value);
+        try {
+            method4Put.invokeExact(name, value);
+        } catch (Throwable e) {
+            LogUtils.rethrowRuntimeException(e);
+        }
     }
 
+    @Override
     public String get(String name) {
-        return (String) LogUtils.invokeMethod(method4Get, null, name);
+        try {
+            return (String) method4Get.invokeExact(name);
+        } catch (Throwable e) {
+            LogUtils.rethrowRuntimeException(e);
+            throw new IllegalStateException("Should never get here");
+        }
     }
 
+    @Override
     public void remove(String name) {
-        LogUtils.invokeMethod(method4Remove, null, name);
+        try {
+            method4Remove.invokeExact(name);
+        } catch (Throwable e) {
+            LogUtils.rethrowRuntimeException(e);
+        }
     }
 }
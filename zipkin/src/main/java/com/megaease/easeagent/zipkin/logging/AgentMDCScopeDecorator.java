@@ -17,115 +17,127 @@
 
 package com.megaease.easeagent.zipkin.logging;
 
-import brave.baggage.CorrelationScopeDecorator;
-import brave.internal.CorrelationContext;
+import brave.baggage.BaggageFields;
 import brave.internal.Nullable;
 import brave.propagation.CurrentTraceContext;
+import brave.propagation.CurrentTraceContext.Scope;
+import brave.propagation.TraceContext;
+import com.megaease.easeagent.plugin.api.logging.Mdc;
 import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import com.megaease.easeagent.plugin.bridge.NoOpLoggerFactory;
 
-public class AgentMDCScopeDecorator {
-    static final CurrentTraceContext.ScopeDecorator INSTANCE = new BuilderApp().build();
-    static final CurrentTraceContext.ScopeDecorator INSTANCE_V2 = new BuilderEaseLogger().build();
-    static final CurrentTraceContext.ScopeDecorator INSTANCE_EASEAGENT_LOADER = new BuilderAgentLoader().build();
+import java.util.Objects;
+
+/**
+ * Puts the trace and span ids of the current context into the MDCs the logs may be written with:
+ * the one of the application classloader, the one of the EaseAgent logger and the slf4j one of the agent loader.
+ * <p>
+ * MDCs already holding the ids are not written, and a scope changing no MDC is returned as it is.
+ * When the scope closes, the ids which were replaced are put back.
+ */
+public class AgentMDCScopeDecorator implements CurrentTraceContext.ScopeDecorator {
+    static final String TRACE_ID = BaggageFields.TRACE_ID.name();
+    static final String SPAN_ID = BaggageFields.SPAN_ID.name();
+    static final AgentMDCScopeDecorator INSTANCE = new AgentMDCScopeDecorator();
+
+    static final int APP = 0;
+    static final int EASE_LOGGER = 1;
+    static final int AGENT_LOADER = 2;
 
     public static CurrentTraceContext.ScopeDecorator get() {
         return INSTANCE;
     }
 
-    public static CurrentTraceContext.ScopeDecorator getV2() {
-        return INSTANCE_V2;
+    @Override
+    public Scope decorateScope(@Nullable TraceContext context, Scope scope) {
+        String traceId = context == null ? null : context.traceIdString();
+        String spanId = context == null ? null : context.spanIdString();
+        MDCScope mdcScope = null;
+        mdcScope = update(mdcScope, scope, APP, AgentLogMDC.create(Thread.currentThread().getContextClassLoader()), traceId, spanId);
+        mdcScope = update(mdcScope, scope, EASE_LOGGER, EaseAgent.loggerMdc, traceId, spanId);
+        mdcScope = update(mdcScope, scope, AGENT_LOADER, AgentLoaderMdc.INSTANCE, traceId, spanId);
+        return mdcScope == null ? scope : mdcScope;
     }
 
-    public static CurrentTraceContext.ScopeDecorator getAgentDecorator() {
-        return INSTANCE_EASEAGENT_LOADER;
-    }
-
-    static final class BuilderApp extends CorrelationScopeDecorator.Builder {
-        BuilderApp() {
-            super(MDCContextApp.INSTANCE);
+    private static MDCScope update(MDCScope mdcScope, Scope scope, int index, @Nullable Mdc mdc,
+                                   @Nullable String traceId, @Nullable String spanId) {
+        if (mdc == null || mdc == NoOpLoggerFactory.NO_OP_MDC_INSTANCE) {
+            return mdcScope;
         }
-    }
-
-    static final class BuilderEaseLogger extends CorrelationScopeDecorator.Builder {
-        BuilderEaseLogger() {
-            super(MDCContextEaseLogger.INSTANCE);
+        String previousTraceId = mdc.get(TRACE_ID);
+        String previousSpanId = mdc.get(SPAN_ID);
+        boolean traceIdChanged = !Objects.equals(previousTraceId, traceId);
+        boolean spanIdChanged = !Objects.equals(previousSpanId, spanId);
+        if (!traceIdChanged && !spanIdChanged) {
+            return mdcScope;
         }
+        MDCScope result = mdcScope == null ? new MDCScope(scope) : mdcScope;
+        result.mdcs[index] = mdc;
+        if (traceIdChanged) {
+            result.previous[index * 2] = previousTraceId;
+            result.changed |= 1 << (index * 2);
+            update(mdc, TRACE_ID, traceId);
+        }
+        if (spanIdChanged) {
+            result.previous[index * 2 + 1] = previousSpanId;
+            result.changed |= 1 << (index * 2 + 1);
+            update(mdc, SPAN_ID, spanId);
+        }
+        return result;
     }
 
-    static final class BuilderAgentLoader extends CorrelationScopeDecorator.Builder {
-        BuilderAgentLoader() {
-            super(MDCContextAgentLoader.INSTANCE);
+    static void update(Mdc mdc, String name, @Nullable String value) {
+        if (value != null) {
+            mdc.put(name, value);
+        } else {
+            mdc.remove(name);
         }
     }
 
-    enum MDCContextAgentLoader implements CorrelationContext {
-        INSTANCE;
+    static final class MDCScope implements Scope {
+        final Scope delegate;
+        final Mdc[] mdcs = new Mdc[3];
+        final String[] previous = new String[6];
+        int changed;
 
-        @Override
-        public String getValue(String name) {
-            return org.slf4j.MDC.get(name);
+        MDCScope(Scope delegate) {
+            this.delegate = delegate;
         }
 
         @Override
-        public boolean update(String name, @Nullable String value) {
-            if (value != null) {
-                org.slf4j.MDC.put(name, value);
-            } else {
-                org.slf4j.MDC.remove(name);
+        public void close() {
+            delegate.close();
+            for (int index = mdcs.length - 1; index >= 0; index--) {
+                Mdc mdc = mdcs[index];
+                if (mdc == null) {
+                    continue;
+                }
+                if ((changed & (1 << (index * 2))) != 0) {
+                    update(mdc, TRACE_ID, previous[index * 2]);
+                }
+                if ((changed & (1 << (index * 2 + 1))) != 0) {
+                    update(mdc, SPAN_ID, previous[index * 2 + 1]);
+                }
             }
-            return true;
         }
     }
 
-    enum MDCContextApp implements CorrelationContext {
+    enum AgentLoaderMdc implements Mdc {
         INSTANCE;
 
         @Override
-        public String getValue(String name) {
-            ClassLoader classLoader = getUserClassLoader();
-            AgentLogMDC agentLogMDC = AgentLogMDC.create(classLoader);
-            if (agentLogMDC == null) {
-                return null;
-            }
-            return agentLogMDC.get(name);
-        }
-
-        @Override
-        public boolean update(String name, @Nullable String value) {
-            ClassLoader classLoader = getUserClassLoader();
-            AgentLogMDC agentLogMDC = AgentLogMDC.create(classLoader);
-            if (agentLogMDC == null) {
-                return true;
-            }
-            if (value != null) {
-                agentLogMDC.put(name, value);
-            } else {
-                agentLogMDC.remove(name);
-            }
-            return true;
-        }
-
-        private ClassLoader getUserClassLoader() {
-            return Thread.currentThread().getContextClassLoader();
+        public String get(String name) {
+            return org.slf4j.MDC.get(name);
         }
-    }
-
-    enum MDCContextEaseLogger implements CorrelationContext {
-        INSTANCE;
 
         @Override
-        public String getValue(String name) {
-            return EaseAgent.loggerMdc.get(name);
+        public void put(String name, String value) {
+            org.slf4j.MDC.put(name, value);
         }
 
         @Override
-        public boolean update(String name, @Nullable String value) {
-            if (value != null) {
-                EaseAgent.loggerMdc.put(name, value);
-            } else {
-                EaseAgent.loggerMdc.remove(name);
-            }
-            return true;
+        public void remove(String name) {
+            org.slf4j.MDC.remove(name);
         }
     }
 }
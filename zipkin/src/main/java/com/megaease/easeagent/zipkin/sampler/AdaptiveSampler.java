@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.sampler.Sampler;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples traces with a probability adjusted every second, so that the recorded spans stay around a budget.
+ * Unlike rate limiting, which takes the first traces of each second, the sampled traces are spread over the second,
+ * and the budget is on spans, so traces with many spans are sampled less.
+ */
+public class AdaptiveSampler extends Sampler {
+    static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    static final float MIN_PROBABILITY = 0.0001f;
+
+    private final int spansPerSecond;
+    private final LongAdder spans = new LongAdder();
+    private final AtomicLong nextAdjustNanos;
+    private volatile float probability = 1.0f;
+
+    AdaptiveSampler(int spansPerSecond, long nowNanos) {
+        this.spansPerSecond = spansPerSecond;
+        this.nextAdjustNanos = new AtomicLong(nowNanos + INTERVAL_NANOS);
+    }
+
+    public static Sampler create(int spansPerSecond) {
+        if (spansPerSecond < 0) {
+            throw new IllegalArgumentException("spansPerSecond < 0");
+        }
+        if (spansPerSecond == 0) {
+            return Sampler.NEVER_SAMPLE;
+        }
+        return new AdaptiveSampler(spansPerSecond, System.nanoTime());
+    }
+
+    @Override
+    public boolean isSampled(long traceId) {
+        adjust(System.nanoTime());
+        float p = this.probability;
+        return p >= 1.0f || ThreadLocalRandom.current().nextFloat() < p;
+    }
+
+    /**
+     * called for every span recorded
+     */
+    public void recordSpan() {
+        spans.increment();
+    }
+
+    public float getProbability() {
+        return probability;
+    }
+
+    void adjust(long nowNanos) {
+        long next = nextAdjustNanos.get();
+        if (nowNanos - next < 0 || !nextAdjustNanos.compareAndSet(next, nowNanos + INTERVAL_NANOS)) {
+            return;
+        }
+        long recorded = spans.sumThenReset();
+        float current = this.probability;
+        float target;
+        if (recorded == 0) {
+            // nothing recorded, probe back up slowly instead of letting the next burst through
+            target = current * 2;
+        } else {
+            double elapsedNanos = nowNanos - (next - INTERVAL_NANOS);
+            double spansRate = recorded * INTERVAL_NANOS / elapsedNanos;
+            target = (float) (current * spansPerSecond / spansRate);
+        }
+        this.probability = Math.max(MIN_PROBABILITY, Math.min(1.0f, target));
+    }
+}
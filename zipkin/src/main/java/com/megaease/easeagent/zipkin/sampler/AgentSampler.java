@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import brave.sampler.RateLimitingSampler;
+import brave.sampler.Sampler;
+import com.megaease.easeagent.log4j2.Logger;
+import com.megaease.easeagent.log4j2.LoggerFactory;
+import com.megaease.easeagent.plugin.api.config.ChangeItem;
+import com.megaease.easeagent.plugin.api.config.Config;
+
+import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.TRACE_SAMPLED;
+import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.TRACE_SAMPLED_BY_QPS;
+import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.TRACE_SAMPLED_TYPE;
+
+/**
+ * The sampler of the agent's Tracing, the strategy is chosen by config and replaced when the config changes.
+ * <pre>
+ * observability.tracings.sampledType=probability|rate_limiting|adaptive
+ * observability.tracings.sampled=the probability | traces per second | spans per second
+ * </pre>
+ * All traces are sampled when neither the type nor the legacy {@code observability.tracings.sampledByQPS} is set.
+ */
+public class AgentSampler extends Sampler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgentSampler.class);
+    public static final String PROBABILITY = "probability";
+    public static final String RATE_LIMITING = "rate_limiting";
+    public static final String ADAPTIVE = "adaptive";
+
+    private volatile Sampler delegate = Sampler.ALWAYS_SAMPLE;
+
+    AgentSampler() {
+    }
+
+    public static AgentSampler create(Config config) {
+        AgentSampler sampler = new AgentSampler();
+        sampler.update(config);
+        config.addChangeListener(list -> {
+            boolean hasChange = list.stream().map(ChangeItem::getFullName)
+                .anyMatch(fn -> fn.equals(TRACE_SAMPLED_TYPE) || fn.equals(TRACE_SAMPLED) || fn.equals(TRACE_SAMPLED_BY_QPS));
+            if (hasChange) {
+                sampler.update(config);
+            }
+        });
+        return sampler;
+    }
+
+    /**
+     * The legacy {@code observability.tracings.sampledByQPS} is a rate limiting sampler, used when the type is not set.
+     */
+    void update(Config config) {
+        String type = config.getString(TRACE_SAMPLED_TYPE);
+        if (type == null || type.isEmpty()) {
+            Double qps = config.getDouble(TRACE_SAMPLED_BY_QPS);
+            if (qps != null) {
+                update(RATE_LIMITING, qps);
+                return;
+            }
+        }
+        update(type, config.getDouble(TRACE_SAMPLED));
+    }
+
+    void update(String type, Double sampled) {
+        try {
+            this.delegate = build(type, sampled);
+            LOGGER.info("tracing sampler changed to {}: {}", type == null ? "always" : type, sampled);
+        } catch (IllegalArgumentException e) {
+            this.delegate = Sampler.ALWAYS_SAMPLE;
+            LOGGER.warn("sample all traces, sampler {} with {} is invalid: {}", type, sampled, e.getMessage());
+        }
+    }
+
+    static Sampler build(String type, Double sampled) {
+        if (type == null || type.isEmpty()) {
+            return Sampler.ALWAYS_SAMPLE;
+        }
+        if (sampled == null) {
+            throw new IllegalArgumentException(TRACE_SAMPLED + " is not set");
+        }
+        switch (type) {
+            case PROBABILITY:
+                return Sampler.create(sampled.floatValue());
+            case RATE_LIMITING:
+                return RateLimitingSampler.create(sampled.intValue());
+            case ADAPTIVE:
+                return AdaptiveSampler.create(sampled.intValue());
+            default:
+                throw new IllegalArgumentException("unknown " + TRACE_SAMPLED_TYPE);
+        }
+    }
+
+    public Sampler getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean isSampled(long traceId) {
+        return delegate.isSampled(traceId);
+    }
+
+    /**
+     * @return a handler feeding the finished spans back to an adaptive sampler
+     */
+    public SpanHandler spanHandler() {
+        return new SpanHandler() {
+            @Override
+            public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                Sampler current = delegate;
+                if (current instanceof AdaptiveSampler) {
+                    ((AdaptiveSampler) current).recordSpan();
+                }
+                return true;
+            }
+        };
+    }
+}
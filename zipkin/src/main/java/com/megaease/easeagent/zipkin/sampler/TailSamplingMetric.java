@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import com.megaease.easeagent.plugin.api.config.AutoRefreshPluginConfigRegistry;
+import com.megaease.easeagent.plugin.api.config.IPluginConfig;
+import com.megaease.easeagent.plugin.api.metric.*;
+import com.megaease.easeagent.plugin.api.metric.name.MetricSubType;
+import com.megaease.easeagent.plugin.api.metric.name.NameFactory;
+import com.megaease.easeagent.plugin.api.metric.name.Tags;
+import com.megaease.easeagent.plugin.tools.metrics.GaugeMetricModel;
+import com.megaease.easeagent.plugin.utils.ImmutableMap;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TailSamplingMetric extends ServiceMetric {
+    private static final ServiceMetricSupplier<TailSamplingMetric> SUPPLIER = new ServiceMetricSupplier<TailSamplingMetric>() {
+        @Override
+        public NameFactory newNameFactory() {
+            return TailSamplingMetric.nameFactory();
+        }
+
+        @Override
+        public TailSamplingMetric newInstance(MetricRegistry metricRegistry, NameFactory nameFactory) {
+            return new TailSamplingMetric(metricRegistry, nameFactory);
+        }
+    };
+
+    static final String KEY = "tail-sampling";
+
+    private static volatile TailSamplingSpanHandler handler;
+
+    private TailSamplingMetric(@Nonnull MetricRegistry metricRegistry, @Nonnull NameFactory nameFactory) {
+        super(metricRegistry, nameFactory);
+    }
+
+    /**
+     * Sets the handler whose counters are reported, the tracing is built before the metric registry is ready.
+     */
+    public static void handler(TailSamplingSpanHandler tailSampling) {
+        handler = tailSampling;
+    }
+
+    public static TailSamplingMetric getMetric() {
+        IPluginConfig config = AutoRefreshPluginConfigRegistry.getOrCreate("observability", "tailSampling", "metric");
+        Tags tags = new Tags("application", "tracing-tail-sampling", "resource");
+
+        TailSamplingMetric metric = ServiceMetricRegistry.getOrCreate(config, tags, SUPPLIER);
+        metric.gauge(KEY, MetricSubType.DEFAULT, () -> TailSamplingMetric::model);
+        return metric;
+    }
+
+    static NameFactory nameFactory() {
+        return NameFactory.createBuilder()
+            .gaugeType(MetricSubType.DEFAULT, new HashMap<>())
+            .build();
+    }
+
+    static GaugeMetricModel model() {
+        TailSamplingSpanHandler current = handler;
+        if (current == null) {
+            return Model.EMPTY;
+        }
+        return new Model(current.keptSpans(), current.droppedSpans(), current.evictedSpans(),
+            current.evictedSegments(), current.bufferedSpans());
+    }
+
+    static final class Model implements GaugeMetricModel {
+        static final Model EMPTY = new Model(0, 0, 0, 0, 0);
+
+        private final long keptSpans;
+        private final long droppedSpans;
+        private final long evictedSpans;
+        private final long evictedSegments;
+        private final int bufferedSpans;
+
+        Model(long keptSpans, long droppedSpans, long evictedSpans, long evictedSegments, int bufferedSpans) {
+            this.keptSpans = keptSpans;
+            this.droppedSpans = droppedSpans;
+            this.evictedSpans = evictedSpans;
+            this.evictedSegments = evictedSegments;
+            this.bufferedSpans = bufferedSpans;
+        }
+
+        @Override
+        public Map<String, Object> toHashMap() {
+            return ImmutableMap.<String, Object>builder()
+                .put("keptSpans", keptSpans)
+                .put("droppedSpans", droppedSpans)
+                .put("evictedSpans", evictedSpans)
+                .put("evictedSegments", evictedSegments)
+                .put("bufferedSpans", bufferedSpans)
+                .build();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.megaease.easeagent.log4j2.Logger;
+import com.megaease.easeagent.log4j2.LoggerFactory;
+import com.megaease.easeagent.plugin.api.config.Config;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.*;
+
+/**
+ * Tail sampling of the local trace segments, placed in front of the handler reporting the spans.
+ * <pre>
+ * observability.tracings.tailSampling.enabled=false
+ * observability.tracings.tailSampling.latencyThreshold=the milliseconds a span must last to keep its segment
+ * observability.tracings.tailSampling.baseRate=the probability of keeping the other segments
+ * observability.tracings.tailSampling.maxSpans=the maximum of spans buffered
+ * </pre>
+ * Finished spans are buffered by local root until the local root finishes, then the whole segment is
+ * reported if one of its spans has an error or lasts longer than the threshold, or with the base rate.
+ * Spans finishing after their local root follow the decision taken for it.
+ * When more than maxSpans spans are buffered, the oldest segments are evicted and will not be reported.
+ * Disabling it reports the segments still buffered.
+ */
+public class TailSamplingSpanHandler extends SpanHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TailSamplingSpanHandler.class);
+    static final long DEFAULT_LATENCY_THRESHOLD = 1000;
+    static final double DEFAULT_BASE_RATE = 0.1;
+    static final int DEFAULT_MAX_SPANS = 10000;
+    static final int MAX_DECISIONS = 4096;
+
+    private final SpanHandler delegate;
+    private volatile Settings settings = Settings.DISABLED;
+
+    // guarded by this, oldest first
+    private final LinkedHashMap<Long, Segment> segments = new LinkedHashMap<>();
+    // guarded by this, decisions of the latest local roots, for their late spans
+    private final LinkedHashMap<Long, Boolean> decisions = new LinkedHashMap<Long, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_DECISIONS;
+        }
+    };
+    private int bufferedSpans;
+
+    private final LongAdder keptSpans = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder evictedSpans = new LongAdder();
+    private final LongAdder evictedSegments = new LongAdder();
+
+    TailSamplingSpanHandler(SpanHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    public static TailSamplingSpanHandler create(Config config, SpanHandler delegate) {
+        TailSamplingSpanHandler handler = new TailSamplingSpanHandler(delegate);
+        handler.update(config);
+        config.addChangeListener(list -> {
+            boolean hasChange = list.stream().anyMatch(c -> c.getFullName().startsWith(TRACE_TAIL_SAMPLING));
+            if (hasChange) {
+                handler.update(config);
+            }
+        });
+        return handler;
+    }
+
+    void update(Config config) {
+        update(config.getBoolean(TRACE_TAIL_SAMPLING_ENABLED, false),
+            config.getLong(TRACE_TAIL_SAMPLING_LATENCY_THRESHOLD, DEFAULT_LATENCY_THRESHOLD),
+            config.getDouble(TRACE_TAIL_SAMPLING_BASE_RATE, DEFAULT_BASE_RATE),
+            config.getInt(TRACE_TAIL_SAMPLING_MAX_SPANS, DEFAULT_MAX_SPANS));
+    }
+
+    void update(boolean enabled, long latencyThresholdMillis, double baseRate, int maxSpans) {
+        if (!enabled) {
+            this.settings = Settings.DISABLED;
+            List<Segment> buffered;
+            synchronized (this) {
+                buffered = new ArrayList<>(segments.values());
+                segments.clear();
+                bufferedSpans = 0;
+            }
+            for (Segment segment : buffered) {
+                segment.finish(true);
+            }
+            LOGGER.info("tracing tail sampling disabled");
+            return;
+        }
+        if (latencyThresholdMillis < 0 || baseRate < 0 || baseRate > 1 || maxSpans <= 0) {
+            LOGGER.warn("tracing tail sampling unchanged, latencyThreshold {}, baseRate {} or maxSpans {} is invalid",
+                latencyThresholdMillis, baseRate, maxSpans);
+            return;
+        }
+        this.settings = new Settings(true, TimeUnit.MILLISECONDS.toMicros(latencyThresholdMillis), baseRate, maxSpans);
+        LOGGER.info("tracing tail sampling enabled, latencyThreshold {}ms, baseRate {}, maxSpans {}",
+            latencyThresholdMillis, baseRate, maxSpans);
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        Settings current = this.settings;
+        // only finished spans are buffered, abandoned and flushed ones pass through as is
+        if (!current.enabled || context == null || cause != Cause.FINISHED) {
+            return delegate.end(context, span, cause);
+        }
+        long localRootId = context.localRootId();
+        Boolean decision;
+        Segment decided = null;
+        boolean keep = false;
+        synchronized (this) {
+            // disabled meanwhile, the buffered segments were reported already and this span passes through
+            decision = this.settings.enabled ? decisions.get(localRootId) : Boolean.TRUE;
+            if (decision == null) {
+                Segment segment = segments.get(localRootId);
+                if (segment == null) {
+                    segment = new Segment();
+                    segments.put(localRootId, segment);
+                }
+                segment.add(context, span);
+                bufferedSpans++;
+                if (context.isLocalRoot()) {
+                    segments.remove(localRootId);
+                    bufferedSpans -= segment.size();
+                    keep = segment.keep(current);
+                    decisions.put(localRootId, keep);
+                    decided = segment;
+                } else {
+                    evict(current.maxSpans);
+                }
+            }
+        }
+        if (decided != null) {
+            decided.finish(keep);
+        } else if (decision != null) {
+            if (decision) {
+                keptSpans.increment();
+                delegate.end(context, span, cause);
+            } else {
+                droppedSpans.increment();
+            }
+        }
+        return true;
+    }
+
+    // guarded by this
+    private void evict(int maxSpans) {
+        Iterator<Map.Entry<Long, Segment>> it = segments.entrySet().iterator();
+        while (bufferedSpans > maxSpans && it.hasNext()) {
+            Map.Entry<Long, Segment> eldest = it.next();
+            it.remove();
+            int size = eldest.getValue().size();
+            bufferedSpans -= size;
+            decisions.put(eldest.getKey(), false);
+            evictedSpans.add(size);
+            evictedSegments.increment();
+        }
+    }
+
+    Settings settings() {
+        return settings;
+    }
+
+    public synchronized int bufferedSpans() {
+        return bufferedSpans;
+    }
+
+    public long keptSpans() {
+        return keptSpans.sum();
+    }
+
+    public long droppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    public long evictedSpans() {
+        return evictedSpans.sum();
+    }
+
+    public long evictedSegments() {
+        return evictedSegments.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "TailSamplingSpanHandler{" + delegate + "}";
+    }
+
+    static final class Settings {
+        static final Settings DISABLED = new Settings(false, 0, 1, 0);
+
+        final boolean enabled;
+        final long latencyThresholdMicros;
+        final double baseRate;
+        final int maxSpans;
+
+        Settings(boolean enabled, long latencyThresholdMicros, double baseRate, int maxSpans) {
+            this.enabled = enabled;
+            this.latencyThresholdMicros = latencyThresholdMicros;
+            this.baseRate = baseRate;
+            this.maxSpans = maxSpans;
+        }
+    }
+
+    final class Segment {
+        final List<TraceContext> contexts = new ArrayList<>(4);
+        final List<MutableSpan> spans = new ArrayList<>(4);
+        boolean error;
+        long maxDurationMicros;
+
+        void add(TraceContext context, MutableSpan span) {
+            contexts.add(context);
+            spans.add(span);
+            error |= span.error() != null || span.tag("error") != null;
+            long start = span.startTimestamp();
+            long finish = span.finishTimestamp();
+            if (start != 0L && finish != 0L) {
+                maxDurationMicros = Math.max(maxDurationMicros, finish - start);
+            }
+        }
+
+        int size() {
+            return spans.size();
+        }
+
+        boolean keep(Settings settings) {
+            return error || maxDurationMicros >= settings.latencyThresholdMicros
+                || ThreadLocalRandom.current().nextDouble() < settings.baseRate;
+        }
+
+        void finish(boolean keep) {
+            if (!keep) {
+                droppedSpans.add(size());
+                return;
+            }
+            keptSpans.add(size());
+            for (int i = 0; i < spans.size(); i++) {
+                delegate.end(contexts.get(i), spans.get(i), Cause.FINISHED);
+            }
+        }
+    }
+}
@@ -37,6 +37,17 @@ public class AgentLogMDCTest {
         }
     }
 
+    @Test
+    public void createWithoutLogging() {
+        try (LogUtilsTest.Close ignored = LogUtilsTest.reset()) {
+            ClassLoader classLoader = LogUtilsTest.getClassLoader(new String[0]);
+            assertNull(AgentLogMDC.create(classLoader));
+            assertNotNull(AgentLogMDC.appMdcMap.getIfPresent(classLoader));
+            assertNull(AgentLogMDC.create(classLoader));
+        }
+        assertNull(AgentLogMDC.create(null));
+    }
+
     @Test
     public void put() {
         try (LogUtilsTest.Close ignored = LogUtilsTest.reset()) {
@@ -19,6 +19,7 @@ package com.megaease.easeagent.zipkin.logging;
 
 import brave.Tracing;
 import brave.baggage.BaggageFields;
+import brave.propagation.CurrentTraceContext;
 import brave.propagation.TraceContext;
 import com.megaease.easeagent.mock.context.MockContext;
 import com.megaease.easeagent.plugin.api.trace.Request;
@@ -30,8 +31,7 @@ import com.megaease.easeagent.zipkin.impl.SpanImpl;
 import org.junit.Before;
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNull;
+import static org.junit.Assert.*;
 
 @MockContext
 public class AgentMDCScopeDecoratorTest {
@@ -105,4 +105,20 @@ public class AgentMDCScopeDecoratorTest {
         checkEmptySpanIds();
 
     }
+
+    @Test
+    public void decorateUnchanged() {
+        CurrentTraceContext.Scope scope = () -> {
+        };
+        assertSame(scope, AgentMDCScopeDecorator.get().decorateScope(null, scope));
+
+        TraceContext context = tracing.tracer().nextSpan().context();
+        try (CurrentTraceContext.Scope decorated = AgentMDCScopeDecorator.get().decorateScope(context, scope)) {
+            assertNotSame(scope, decorated);
+            assertEquals(context.traceIdString(), EaseAgent.loggerMdc.get(BaggageFields.TRACE_ID.name()));
+            assertEquals(context.spanIdString(), org.slf4j.MDC.get(BaggageFields.SPAN_ID.name()));
+            assertSame(scope, AgentMDCScopeDecorator.get().decorateScope(context, scope));
+        }
+        checkEmptySpanIds();
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.sampler.Sampler;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveSamplerTest {
+    private static final long SECOND = AdaptiveSampler.INTERVAL_NANOS;
+
+    @Test
+    public void create() {
+        assertSame(Sampler.NEVER_SAMPLE, AdaptiveSampler.create(0));
+        Sampler sampler = AdaptiveSampler.create(10);
+        assertTrue(sampler instanceof AdaptiveSampler);
+        assertTrue(sampler.isSampled(1L));
+        try {
+            AdaptiveSampler.create(-1);
+            fail("must throw IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void adjust() {
+        AdaptiveSampler sampler = new AdaptiveSampler(100, 0);
+        assertEquals(1.0f, sampler.getProbability(), 0);
+
+        record(sampler, 1000);
+        sampler.adjust(SECOND / 2);
+        assertEquals("not adjusted within the interval", 1.0f, sampler.getProbability(), 0);
+        sampler.adjust(SECOND);
+        assertEquals(0.1f, sampler.getProbability(), 0.0001f);
+
+        record(sampler, 100);
+        sampler.adjust(2 * SECOND);
+        assertEquals("budget reached, keep it", 0.1f, sampler.getProbability(), 0.0001f);
+
+        record(sampler, 25);
+        sampler.adjust(3 * SECOND);
+        assertEquals(0.4f, sampler.getProbability(), 0.0001f);
+
+        record(sampler, 1);
+        sampler.adjust(4 * SECOND);
+        assertEquals(1.0f, sampler.getProbability(), 0);
+
+        sampler.adjust(5 * SECOND);
+        assertEquals(1.0f, sampler.getProbability(), 0);
+    }
+
+    @Test
+    public void adjustAfterIdle() {
+        AdaptiveSampler sampler = new AdaptiveSampler(10, 0);
+        record(sampler, 1_000_000);
+        sampler.adjust(SECOND);
+        assertEquals(AdaptiveSampler.MIN_PROBABILITY, sampler.getProbability(), 0);
+
+        sampler.adjust(2 * SECOND);
+        assertEquals("probe up slowly", AdaptiveSampler.MIN_PROBABILITY * 2, sampler.getProbability(), 0);
+
+        record(sampler, 10);
+        sampler.adjust(12 * SECOND);
+        assertEquals("rate over the 10 seconds elapsed", AdaptiveSampler.MIN_PROBABILITY * 2 * 10, sampler.getProbability(), 0.00001f);
+    }
+
+    private static void record(AdaptiveSampler sampler, int spans) {
+        for (int i = 0; i < spans; i++) {
+            sampler.recordSpan();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.sampler.RateLimitingSampler;
+import brave.sampler.Sampler;
+import com.megaease.easeagent.config.Configs;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.TRACE_SAMPLED;
+import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.TRACE_SAMPLED_BY_QPS;
+import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.TRACE_SAMPLED_TYPE;
+import static org.junit.Assert.*;
+
+public class AgentSamplerTest {
+
+    @Test
+    public void create() {
+        Configs configs = new Configs(Collections.emptyMap());
+        AgentSampler sampler = AgentSampler.create(configs);
+        assertSame(Sampler.ALWAYS_SAMPLE, sampler.getDelegate());
+        assertTrue(sampler.isSampled(1L));
+
+        Map<String, String> changes = new HashMap<>();
+        changes.put(TRACE_SAMPLED_TYPE, AgentSampler.RATE_LIMITING);
+        changes.put(TRACE_SAMPLED, "10");
+        configs.updateConfigs(changes);
+        assertTrue(sampler.getDelegate() instanceof RateLimitingSampler);
+
+        configs.updateConfigs(Collections.singletonMap(TRACE_SAMPLED, "0"));
+        assertSame(Sampler.NEVER_SAMPLE, sampler.getDelegate());
+        assertFalse(sampler.isSampled(1L));
+
+        configs.updateConfigs(Collections.singletonMap(TRACE_SAMPLED_TYPE, AgentSampler.ADAPTIVE));
+        assertSame(Sampler.NEVER_SAMPLE, sampler.getDelegate());
+        configs.updateConfigs(Collections.singletonMap(TRACE_SAMPLED, "100"));
+        assertTrue(sampler.getDelegate() instanceof AdaptiveSampler);
+    }
+
+    @Test
+    public void sampledByQPS() {
+        Configs configs = new Configs(Collections.singletonMap(TRACE_SAMPLED_BY_QPS, "100"));
+        AgentSampler sampler = AgentSampler.create(configs);
+        assertTrue(sampler.getDelegate() instanceof RateLimitingSampler);
+
+        Map<String, String> changes = new HashMap<>();
+        changes.put(TRACE_SAMPLED_TYPE, AgentSampler.PROBABILITY);
+        changes.put(TRACE_SAMPLED, "0");
+        configs.updateConfigs(changes);
+        assertSame(Sampler.NEVER_SAMPLE, sampler.getDelegate());
+
+        configs.updateConfigs(Collections.singletonMap(TRACE_SAMPLED_TYPE, ""));
+        assertTrue(sampler.getDelegate() instanceof RateLimitingSampler);
+        configs.updateConfigs(Collections.singletonMap(TRACE_SAMPLED_BY_QPS, "0"));
+        assertSame(Sampler.NEVER_SAMPLE, sampler.getDelegate());
+    }
+
+    @Test
+    public void build() {
+        assertSame(Sampler.ALWAYS_SAMPLE, AgentSampler.build(null, null));
+        assertSame(Sampler.ALWAYS_SAMPLE, AgentSampler.build(AgentSampler.PROBABILITY, 1.0));
+        assertSame(Sampler.NEVER_SAMPLE, AgentSampler.build(AgentSampler.PROBABILITY, 0.0));
+        assertNotNull(AgentSampler.build(AgentSampler.PROBABILITY, 0.5));
+        assertTrue(AgentSampler.build(AgentSampler.RATE_LIMITING, 100.0) instanceof RateLimitingSampler);
+        assertTrue(AgentSampler.build(AgentSampler.ADAPTIVE, 100.0) instanceof AdaptiveSampler);
+    }
+
+    @Test
+    public void invalid() {
+        AgentSampler sampler = new AgentSampler();
+        sampler.update(AgentSampler.RATE_LIMITING, 10.0);
+        sampler.update(AgentSampler.PROBABILITY, 2.0);
+        assertSame(Sampler.ALWAYS_SAMPLE, sampler.getDelegate());
+
+        sampler.update(AgentSampler.RATE_LIMITING, 10.0);
+        sampler.update("unknown", 10.0);
+        assertSame(Sampler.ALWAYS_SAMPLE, sampler.getDelegate());
+
+        sampler.update(AgentSampler.RATE_LIMITING, null);
+        assertSame(Sampler.ALWAYS_SAMPLE, sampler.getDelegate());
+    }
+
+    @Test
+    public void spanHandler() {
+        AgentSampler sampler = new AgentSampler();
+        assertTrue(sampler.spanHandler().end(null, null, null));
+        sampler.update(AgentSampler.ADAPTIVE, 1.0);
+        AdaptiveSampler adaptive = (AdaptiveSampler) sampler.getDelegate();
+        for (int i = 0; i < 100; i++) {
+            sampler.spanHandler().end(null, null, null);
+        }
+        adaptive.adjust(System.nanoTime() + AdaptiveSampler.INTERVAL_NANOS);
+        assertTrue(adaptive.getProbability() < 0.1f);
+    }
+}
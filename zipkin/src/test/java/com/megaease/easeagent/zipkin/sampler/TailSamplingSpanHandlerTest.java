@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2022, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.megaease.easeagent.config.Configs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.*;
+import static org.junit.Assert.*;
+
+public class TailSamplingSpanHandlerTest {
+    final List<String> reported = new ArrayList<>();
+    TailSamplingSpanHandler handler;
+    Tracing tracing;
+    Tracer tracer;
+
+    @Before
+    public void before() {
+        handler = new TailSamplingSpanHandler(new SpanHandler() {
+            @Override
+            public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                reported.add(span.name());
+                return true;
+            }
+        });
+        tracing = Tracing.newBuilder().addSpanHandler(handler).build();
+        tracer = tracing.tracer();
+    }
+
+    @After
+    public void after() {
+        tracing.close();
+    }
+
+    Span root(String name) {
+        return tracer.newTrace().name(name).start(1_000_000L);
+    }
+
+    Span child(Span parent, String name) {
+        return tracer.newChild(parent.context()).name(name).start(1_000_000L);
+    }
+
+    @Test
+    public void disabled() {
+        Span root = root("root");
+        child(root, "child").finish(1_000_100L);
+        assertEquals(Collections.singletonList("child"), reported);
+        root.finish(1_000_200L);
+        assertEquals(2, reported.size());
+        assertEquals(0, handler.bufferedSpans());
+    }
+
+    @Test
+    public void keepErrorsAndOutliers() {
+        handler.update(true, 1000, 0, 100);
+
+        Span root = root("fast");
+        child(root, "fast-child").finish(1_000_100L);
+        assertEquals(1, handler.bufferedSpans());
+        root.finish(1_000_200L);
+        assertTrue(reported.isEmpty());
+        assertEquals(2, handler.droppedSpans());
+
+        root = root("error");
+        child(root, "error-child").error(new IllegalStateException()).finish(1_000_100L);
+        root.finish(1_000_200L);
+        assertEquals(2, reported.size());
+
+        root = root("slow");
+        child(root, "slow-child").finish(2_000_000L);
+        root.finish(2_000_100L);
+        assertEquals(4, reported.size());
+        assertEquals(4, handler.keptSpans());
+        assertEquals(0, handler.bufferedSpans());
+
+        handler.update(true, 1000, 1, 100);
+        root = root("sampled");
+        root.finish(1_000_100L);
+        assertEquals(5, reported.size());
+    }
+
+    @Test
+    public void lateSpans() {
+        handler.update(true, 1000, 0, 100);
+        Span root = root("root");
+        Span late = child(root, "late");
+        root.error(new IllegalStateException()).finish(1_000_100L);
+        assertEquals(Collections.singletonList("root"), reported);
+        late.finish(1_000_200L);
+        assertEquals(2, reported.size());
+
+        root = root("dropped");
+        late = child(root, "late-dropped");
+        root.finish(1_000_100L);
+        late.finish(1_000_200L);
+        assertEquals(2, reported.size());
+        assertEquals(2, handler.droppedSpans());
+        assertEquals(0, handler.bufferedSpans());
+    }
+
+    @Test
+    public void evict() {
+        handler.update(true, 1000, 1, 2);
+        Span first = root("first");
+        child(first, "first-child").finish(1_000_100L);
+        Span second = root("second");
+        child(second, "second-child").finish(1_000_100L);
+        child(second, "second-child").finish(1_000_100L);
+        assertEquals(2, handler.bufferedSpans());
+        assertEquals(1, handler.evictedSegments());
+        assertEquals(1, handler.evictedSpans());
+
+        first.finish(1_000_200L);
+        second.finish(1_000_200L);
+        assertEquals(3, reported.size());
+        assertFalse(reported.contains("first"));
+        assertEquals(1, handler.droppedSpans());
+
+        Span third = root("third");
+        child(third, "third-child").finish(1_000_100L);
+        handler.update(false, 1000, 1, 2);
+        assertEquals(0, handler.bufferedSpans());
+        assertEquals(1, handler.evictedSegments());
+        assertEquals(4, reported.size());
+        assertTrue(reported.contains("third-child"));
+
+        third.finish(1_000_200L);
+        assertEquals(5, reported.size());
+    }
+
+    @Test
+    public void passThroughNotFinished() {
+        handler.update(true, 1000, 0, 100);
+
+        Span root = root("root");
+        Span child = child(root, "flushed");
+        MutableSpan flushed = new MutableSpan(child.context(), null);
+        flushed.name("flushed");
+        assertTrue(handler.end(child.context(), flushed, SpanHandler.Cause.FLUSHED));
+        assertEquals(Collections.singletonList("flushed"), reported);
+        assertEquals(0, handler.bufferedSpans());
+        root.finish(1_000_200L);
+        assertEquals(1, reported.size());
+    }
+
+    @Test
+    public void metricModel() {
+        TailSamplingMetric.handler(null);
+        assertEquals(0L, TailSamplingMetric.model().toHashMap().get("keptSpans"));
+
+        handler.update(true, 1000, 0, 100);
+        TailSamplingMetric.handler(handler);
+        Span slow = root("slow");
+        child(slow, "slow-child").finish(1_000_100L);
+        assertEquals(1, TailSamplingMetric.model().toHashMap().get("bufferedSpans"));
+        slow.finish(2_500_000L);
+        Span fast = root("fast");
+        fast.finish(1_000_100L);
+
+        Map<String, Object> model = TailSamplingMetric.model().toHashMap();
+        assertEquals(2L, model.get("keptSpans"));
+        assertEquals(1L, model.get("droppedSpans"));
+        assertEquals(0L, model.get("evictedSpans"));
+        assertEquals(0L, model.get("evictedSegments"));
+        assertEquals(0, model.get("bufferedSpans"));
+        TailSamplingMetric.handler(null);
+    }
+
+    @Test
+    public void create() {
+        Configs configs = new Configs(Collections.emptyMap());
+        TailSamplingSpanHandler created = TailSamplingSpanHandler.create(configs, SpanHandler.NOOP);
+        assertFalse(created.settings().enabled);
+
+        Map<String, String> changes = new HashMap<>();
+        changes.put(TRACE_TAIL_SAMPLING_ENABLED, "true");
+        changes.put(TRACE_TAIL_SAMPLING_LATENCY_THRESHOLD, "500");
+        changes.put(TRACE_TAIL_SAMPLING_BASE_RATE, "0.01");
+        configs.updateConfigs(changes);
+        assertTrue(created.settings().enabled);
+        assertEquals(500_000L, created.settings().latencyThresholdMicros);
+        assertEquals(0.01, created.settings().baseRate, 0.0);
+        assertEquals(TailSamplingSpanHandler.DEFAULT_MAX_SPANS, created.settings().maxSpans);
+
+        configs.updateConfigs(Collections.singletonMap(TRACE_TAIL_SAMPLING_BASE_RATE, "2"));
+        assertEquals(0.01, created.settings().baseRate, 0.0);
+
+        configs.updateConfigs(Collections.singletonMap(TRACE_TAIL_SAMPLING_ENABLED, "false"));
+        assertFalse(created.settings().enabled);
+    }
+}